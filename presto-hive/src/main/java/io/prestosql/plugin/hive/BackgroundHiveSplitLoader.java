@@ -71,8 +71,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BooleanSupplier;
@@ -86,6 +89,7 @@ import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.addExceptionCallback;
 import static io.airlift.concurrent.MoreFutures.toListenableFuture;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
+import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CONCURRENT_MODIFICATION_DETECTED;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_METADATA;
@@ -131,6 +135,10 @@ public class BackgroundHiveSplitLoader
 
     private static final ListenableFuture<?> COMPLETED_FUTURE = immediateFuture(null);
 
+    // a loader task that spends longer than this listing files without being blocked by the
+    // split queue starts another loader task, so slow directory listings are issued in parallel
+    private static final long SLOW_LOAD_THRESHOLD_NANOS = MILLISECONDS.toNanos(100);
+
     private final Table table;
     private final TupleDomain<? extends ColumnHandle> compactEffectivePredicate;
     private final DynamicFilter dynamicFilter;
@@ -142,6 +150,8 @@ public class BackgroundHiveSplitLoader
     private final NamenodeStats namenodeStats;
     private final DirectoryLister directoryLister;
     private final int loaderConcurrency;
+    private final int maxLoaderConcurrency;
+    private final AtomicInteger loaderTasks = new AtomicInteger();
     private final boolean recursiveDirWalkerEnabled;
     private final boolean ignoreAbsentPartitions;
     private final Executor executor;
@@ -149,6 +159,7 @@ public class BackgroundHiveSplitLoader
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
     private final Deque<Iterator<InternalHiveSplit>> fileIterators = new ConcurrentLinkedDeque<>();
     private final Optional<ValidWriteIdList> validWriteIds;
+    private final Set<Integer> sortedBucketsWithSplits = ConcurrentHashMap.newKeySet();
 
     // Purpose of this lock:
     // * Write lock: when you need a consistent view across partitions, fileIterators, and hiveSplitSource.
@@ -185,6 +196,7 @@ public class BackgroundHiveSplitLoader
             DirectoryLister directoryLister,
             Executor executor,
             int loaderConcurrency,
+            int maxLoaderConcurrency,
             boolean recursiveDirWalkerEnabled,
             boolean ignoreAbsentPartitions,
             Optional<ValidWriteIdList> validWriteIds)
@@ -197,6 +209,8 @@ public class BackgroundHiveSplitLoader
         this.tableBucketInfo = tableBucketInfo;
         this.loaderConcurrency = loaderConcurrency;
         checkArgument(loaderConcurrency > 0, "loaderConcurrency must be > 0, found: %s", loaderConcurrency);
+        checkArgument(maxLoaderConcurrency >= loaderConcurrency, "maxLoaderConcurrency must be >= loaderConcurrency, found: %s", maxLoaderConcurrency);
+        this.maxLoaderConcurrency = maxLoaderConcurrency;
         this.session = session;
         this.hdfsEnvironment = hdfsEnvironment;
         this.namenodeStats = namenodeStats;
@@ -214,9 +228,26 @@ public class BackgroundHiveSplitLoader
     {
         this.hiveSplitSource = splitSource;
         this.stopwatch = Stopwatch.createStarted();
+        loaderTasks.set(loaderConcurrency);
         for (int i = 0; i < loaderConcurrency; i++) {
-            ListenableFuture<?> future = ResumableTasks.submit(executor, new HiveSplitLoaderTask());
-            addExceptionCallback(future, hiveSplitSource::fail); // best effort; hiveSplitSource could be already completed
+            startLoaderTask();
+        }
+    }
+
+    private void startLoaderTask()
+    {
+        ListenableFuture<?> future = ResumableTasks.submit(executor, new HiveSplitLoaderTask());
+        addExceptionCallback(future, hiveSplitSource::fail); // best effort; hiveSplitSource could be already completed
+    }
+
+    private void addLoaderTaskIfNecessary(long loadTimeNanos)
+    {
+        if (loadTimeNanos < SLOW_LOAD_THRESHOLD_NANOS || partitions.isEmpty()) {
+            return;
+        }
+        int tasks = loaderTasks.get();
+        if (tasks < maxLoaderConcurrency && loaderTasks.compareAndSet(tasks, tasks + 1)) {
+            startLoaderTask();
         }
     }
 
@@ -247,7 +278,9 @@ public class BackgroundHiveSplitLoader
                 }
                 taskExecutionLock.readLock().lock();
                 try {
+                    long start = System.nanoTime();
                     future = loadSplits();
+                    addLoaderTaskIfNecessary(System.nanoTime() - start);
                 }
                 catch (Throwable e) {
                     if (e instanceof IOException) {
@@ -626,6 +659,9 @@ public class BackgroundHiveSplitLoader
     {
         int readBucketCount = bucketSplitInfo.getReadBucketCount();
         int tableBucketCount = bucketSplitInfo.getTableBucketCount();
+        // a sorted bucket is read as a single split, so that the engine sees the rows of the bucket in order
+        boolean sorted = bucketSplitInfo.isSorted();
+        boolean splittableFiles = splittable && !sorted;
         int partitionBucketCount = bucketConversion.map(BucketConversion::getPartitionBucketCount).orElse(tableBucketCount);
         int bucketCount = max(readBucketCount, partitionBucketCount);
 
@@ -698,8 +734,15 @@ public class BackgroundHiveSplitLoader
                 for (LocatedFileStatus file : bucketFiles.get(partitionBucketNumber)) {
                     // OrcDeletedRows will load only delete delta files matching current bucket id,
                     // so we can pass all delete delta locations here, without filtering.
-                    splitFactory.createInternalHiveSplit(file, OptionalInt.of(readBucketNumber), splittable, acidInfo)
-                            .ifPresent(splitList::add);
+                    Optional<InternalHiveSplit> split = splitFactory.createInternalHiveSplit(file, OptionalInt.of(readBucketNumber), splittableFiles, acidInfo);
+                    if (split.isPresent() && sorted && !sortedBucketsWithSplits.add(readBucketNumber)) {
+                        // buckets with more than one file are read unsorted, unless the file was added after the query was planned
+                        throw new PrestoException(HIVE_CONCURRENT_MODIFICATION_DETECTED, format(
+                                "Hive table '%s' was modified during the query: bucket %s has more than one file, so it cannot be read in the sort order the query was planned with",
+                                table.getSchemaTableName(),
+                                readBucketNumber));
+                    }
+                    split.ifPresent(splitList::add);
                 }
             }
         }
@@ -733,7 +776,6 @@ public class BackgroundHiveSplitLoader
                 .orElseThrow(() -> new IllegalStateException("Cannot get bucket number from path: " + path));
     }
 
-    @VisibleForTesting
     static OptionalInt getBucketNumber(String name)
     {
         for (Pattern pattern : BUCKET_PATTERNS) {
@@ -807,8 +849,9 @@ public class BackgroundHiveSplitLoader
         private final int tableBucketCount;
         private final int readBucketCount;
         private final IntPredicate bucketFilter;
+        private final boolean sorted;
 
-        public static Optional<BucketSplitInfo> createBucketSplitInfo(Optional<HiveBucketHandle> bucketHandle, Optional<HiveBucketFilter> bucketFilter)
+        public static Optional<BucketSplitInfo> createBucketSplitInfo(Optional<HiveBucketHandle> bucketHandle, Optional<HiveBucketFilter> bucketFilter, boolean sorted)
         {
             requireNonNull(bucketHandle, "bucketHandle is null");
             requireNonNull(bucketFilter, "buckets is null");
@@ -830,15 +873,16 @@ public class BackgroundHiveSplitLoader
             IntPredicate predicate = bucketFilter
                     .<IntPredicate>map(filter -> filter.getBucketsToKeep()::contains)
                     .orElse(bucket -> true);
-            return Optional.of(new BucketSplitInfo(bucketColumns, tableBucketCount, readBucketCount, predicate));
+            return Optional.of(new BucketSplitInfo(bucketColumns, tableBucketCount, readBucketCount, predicate, sorted));
         }
 
-        private BucketSplitInfo(List<HiveColumnHandle> bucketColumns, int tableBucketCount, int readBucketCount, IntPredicate bucketFilter)
+        private BucketSplitInfo(List<HiveColumnHandle> bucketColumns, int tableBucketCount, int readBucketCount, IntPredicate bucketFilter, boolean sorted)
         {
             this.bucketColumns = ImmutableList.copyOf(requireNonNull(bucketColumns, "bucketColumns is null"));
             this.tableBucketCount = tableBucketCount;
             this.readBucketCount = readBucketCount;
             this.bucketFilter = requireNonNull(bucketFilter, "bucketFilter is null");
+            this.sorted = sorted;
         }
 
         public List<HiveColumnHandle> getBucketColumns()
@@ -856,6 +900,15 @@ public class BackgroundHiveSplitLoader
             return readBucketCount;
         }
 
+        /**
+         * Whether the sort order of the buckets is exposed to the engine, which requires
+         * each bucket to be read from a single file, as a single split.
+         */
+        public boolean isSorted()
+        {
+            return sorted;
+        }
+
         /**
          * Evaluates whether the provided table bucket number passes the bucket predicate.
          * A bucket predicate can be present in two cases:
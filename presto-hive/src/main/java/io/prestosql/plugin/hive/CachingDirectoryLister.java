@@ -19,6 +19,7 @@ import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.Duration;
 import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
@@ -32,16 +33,31 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Caches the listings of the directories of the configured tables. Each table pattern may
+ * specify its own expiration, for example {@code fruit.apple:10m}, and the listings of a table
+ * are discarded when this cluster writes to it.
+ */
 public class CachingDirectoryLister
         implements DirectoryLister
 {
-    private final Cache<Path, List<LocatedFileStatus>> cache;
-    private final List<SchemaTablePrefix> tablePrefixes;
+    private final Cache<Path, CachedListing> cache;
+    private final List<TablePattern> tablePatterns;
+    // the last time the listings of a table were invalidated, to discard listings started before
+    private final ConcurrentMap<SchemaTableName, Long> invalidationTimes = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
 
     @Inject
     public CachingDirectoryLister(HiveConfig hiveClientConfig)
@@ -51,15 +67,30 @@ public class CachingDirectoryLister
 
     public CachingDirectoryLister(Duration expireAfterWrite, long maxSize, List<String> tables)
     {
+        this.tablePatterns = tables.stream()
+                .map(table -> parseTablePattern(table, expireAfterWrite))
+                .collect(toImmutableList());
+        long maxExpireAfterWriteMillis = tablePatterns.stream()
+                .mapToLong(pattern -> pattern.getExpireAfterWrite().toMillis())
+                .max()
+                .orElse(expireAfterWrite.toMillis());
         this.cache = CacheBuilder.newBuilder()
                 .maximumWeight(maxSize)
-                .weigher((Weigher<Path, List<LocatedFileStatus>>) (key, value) -> value.size())
-                .expireAfterWrite(expireAfterWrite.toMillis(), TimeUnit.MILLISECONDS)
+                .weigher((Weigher<Path, CachedListing>) (key, value) -> value.getFiles().size())
+                .expireAfterWrite(maxExpireAfterWriteMillis, TimeUnit.MILLISECONDS)
                 .recordStats()
                 .build();
-        this.tablePrefixes = tables.stream()
-                .map(CachingDirectoryLister::parseTableName)
-                .collect(toImmutableList());
+    }
+
+    private static TablePattern parseTablePattern(String pattern, Duration defaultExpireAfterWrite)
+    {
+        Duration expireAfterWrite = defaultExpireAfterWrite;
+        int separator = pattern.indexOf(':');
+        if (separator >= 0) {
+            expireAfterWrite = Duration.valueOf(pattern.substring(separator + 1).trim());
+            pattern = pattern.substring(0, separator).trim();
+        }
+        return new TablePattern(parseTableName(pattern), expireAfterWrite);
     }
 
     private static SchemaTablePrefix parseTableName(String tableName)
@@ -81,19 +112,43 @@ public class CachingDirectoryLister
     public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
             throws IOException
     {
-        List<LocatedFileStatus> files = cache.getIfPresent(path);
-        if (files != null) {
-            return simpleRemoteIterator(files);
+        Optional<TablePattern> tablePattern = getTablePattern(table.getSchemaTableName());
+        if (tablePattern.isEmpty()) {
+            return fs.listLocatedStatus(path);
         }
-        RemoteIterator<LocatedFileStatus> iterator = fs.listLocatedStatus(path);
 
-        if (tablePrefixes.stream().noneMatch(prefix -> prefix.matches(table.getSchemaTableName()))) {
-            return iterator;
+        long now = System.nanoTime();
+        CachedListing listing = cache.getIfPresent(path);
+        if (listing != null && now - listing.getListingTime() < tablePattern.get().getExpireAfterWrite().roundTo(TimeUnit.NANOSECONDS)) {
+            hitCount.incrementAndGet();
+            return simpleRemoteIterator(listing.getFiles());
         }
-        return cachingRemoteIterator(iterator, path);
+        missCount.incrementAndGet();
+        return cachingRemoteIterator(fs.listLocatedStatus(path), table.getSchemaTableName(), path, now);
     }
 
-    private RemoteIterator<LocatedFileStatus> cachingRemoteIterator(RemoteIterator<LocatedFileStatus> iterator, Path path)
+    /**
+     * Discards the cached listings of the table, after this cluster modified its files.
+     */
+    @Override
+    public void invalidate(SchemaTableName table)
+    {
+        if (getTablePattern(table).isEmpty()) {
+            return;
+        }
+        invalidationTimes.put(table, System.nanoTime());
+        cache.asMap().values().removeIf(listing -> listing.getTable().equals(table));
+        invalidationCount.incrementAndGet();
+    }
+
+    private Optional<TablePattern> getTablePattern(SchemaTableName table)
+    {
+        return tablePatterns.stream()
+                .filter(pattern -> pattern.getPrefix().matches(table))
+                .findFirst();
+    }
+
+    private RemoteIterator<LocatedFileStatus> cachingRemoteIterator(RemoteIterator<LocatedFileStatus> iterator, SchemaTableName table, Path path, long listingTime)
     {
         return new RemoteIterator<>()
         {
@@ -105,7 +160,11 @@ public class CachingDirectoryLister
             {
                 boolean hasNext = iterator.hasNext();
                 if (!hasNext) {
-                    cache.put(path, ImmutableList.copyOf(files));
+                    Long invalidationTime = invalidationTimes.get(table);
+                    // a listing that started before the table was written to may not contain the new files
+                    if (invalidationTime == null || invalidationTime - listingTime < 0) {
+                        cache.put(path, new CachedListing(table, ImmutableList.copyOf(files), listingTime));
+                    }
                 }
                 return hasNext;
             }
@@ -150,30 +209,101 @@ public class CachingDirectoryLister
     @Managed
     public Double getHitRate()
     {
-        return cache.stats().hitRate();
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount.get() / requestCount;
     }
 
     @Managed
     public Double getMissRate()
     {
-        return cache.stats().missRate();
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 0.0 : (double) missCount.get() / requestCount;
     }
 
     @Managed
     public long getHitCount()
     {
-        return cache.stats().hitCount();
+        return hitCount.get();
     }
 
     @Managed
     public long getMissCount()
     {
-        return cache.stats().missCount();
+        return missCount.get();
     }
 
     @Managed
     public long getRequestCount()
     {
-        return cache.stats().requestCount();
+        return hitCount.get() + missCount.get();
+    }
+
+    @Managed
+    public long getInvalidationCount()
+    {
+        return invalidationCount.get();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    private static class TablePattern
+    {
+        private final SchemaTablePrefix prefix;
+        private final Duration expireAfterWrite;
+
+        public TablePattern(SchemaTablePrefix prefix, Duration expireAfterWrite)
+        {
+            this.prefix = requireNonNull(prefix, "prefix is null");
+            this.expireAfterWrite = requireNonNull(expireAfterWrite, "expireAfterWrite is null");
+        }
+
+        public SchemaTablePrefix getPrefix()
+        {
+            return prefix;
+        }
+
+        public Duration getExpireAfterWrite()
+        {
+            return expireAfterWrite;
+        }
+    }
+
+    private static class CachedListing
+    {
+        private final SchemaTableName table;
+        private final List<LocatedFileStatus> files;
+        private final long listingTime;
+
+        public CachedListing(SchemaTableName table, List<LocatedFileStatus> files, long listingTime)
+        {
+            this.table = requireNonNull(table, "table is null");
+            this.files = requireNonNull(files, "files is null");
+            this.listingTime = listingTime;
+        }
+
+        public SchemaTableName getTable()
+        {
+            return table;
+        }
+
+        public List<LocatedFileStatus> getFiles()
+        {
+            return files;
+        }
+
+        public long getListingTime()
+        {
+            return listingTime;
+        }
     }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.plugin.hive;
 
 import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.spi.connector.SchemaTableName;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
@@ -25,4 +26,6 @@ public interface DirectoryLister
 {
     RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
             throws IOException;
+
+    default void invalidate(SchemaTableName table) {}
 }
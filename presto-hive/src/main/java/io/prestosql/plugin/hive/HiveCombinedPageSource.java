@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the files of a combined split one after another. The page source of a file
+ * is only created when the previous one is finished, so at most one file is open.
+ */
+public class HiveCombinedPageSource
+        implements ConnectorPageSource
+{
+    private Iterator<Supplier<ConnectorPageSource>> remainingPageSources;
+    private ConnectorPageSource current;
+    private long completedBytes;
+    private long readTimeNanos;
+
+    public HiveCombinedPageSource(List<Supplier<ConnectorPageSource>> pageSources)
+    {
+        requireNonNull(pageSources, "pageSources is null");
+        checkArgument(!pageSources.isEmpty(), "pageSources is empty");
+        this.remainingPageSources = pageSources.iterator();
+        this.current = remainingPageSources.next().get();
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes + (current == null ? 0 : current.getCompletedBytes());
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos + (current == null ? 0 : current.getReadTimeNanos());
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        advance();
+        return current == null;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        advance();
+        if (current == null) {
+            return null;
+        }
+        return current.getNextPage();
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return current == null ? 0 : current.getSystemMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return current == null ? NOT_BLOCKED : current.isBlocked();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        remainingPageSources = emptyIterator();
+        if (current != null) {
+            ConnectorPageSource pageSource = current;
+            current = null;
+            pageSource.close();
+        }
+    }
+
+    private void advance()
+    {
+        while (current != null && current.isFinished()) {
+            completedBytes += current.getCompletedBytes();
+            readTimeNanos += current.getReadTimeNanos();
+            try {
+                current.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = remainingPageSources.hasNext() ? remainingPageSources.next().get() : null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.valueOf(current);
+    }
+}
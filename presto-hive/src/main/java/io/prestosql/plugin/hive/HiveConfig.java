@@ -57,6 +57,7 @@ public class HiveConfig
     private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
     private DataSize maxSplitSize = DataSize.of(64, MEGABYTE);
+    private boolean combineSmallFilesEnabled;
     private int maxPartitionsPerScan = 100_000;
     private int maxOutstandingSplits = 1_000;
     private DataSize maxOutstandingSplitsSize = DataSize.of(256, MEGABYTE);
@@ -65,6 +66,7 @@ public class HiveConfig
     private int maxPartitionBatchSize = 100;
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
+    private int maxSplitLoaderConcurrency = 16;
     private Integer maxSplitsPerSecond;
     private DataSize maxInitialSplitSize;
     private int domainCompactionThreshold = 100;
@@ -88,11 +90,14 @@ public class HiveConfig
     private boolean createEmptyBucketFiles;
     private int maxPartitionsPerWriter = 100;
     private int maxOpenSortFiles = 50;
+    private int writerSortMergeThreads = 4;
+    private DataSize writerSortInMemoryRunsSize = DataSize.ofBytes(0);
     private int writeValidationThreads = 16;
 
     private DataSize textMaxLineLength = DataSize.of(100, MEGABYTE);
 
     private String orcLegacyTimeZone = TimeZone.getDefault().getID();
+    private DataSize orcDeleteDeltaCacheSize = DataSize.of(128, MEGABYTE);
 
     private String parquetTimeZone = TimeZone.getDefault().getID();
     private boolean useParquetColumnNames;
@@ -104,7 +109,9 @@ public class HiveConfig
     private boolean skipTargetCleanupOnRollback;
 
     private boolean bucketExecutionEnabled = true;
+    private boolean propagateTableScanSortingProperties;
     private boolean sortedWritingEnabled = true;
+    private boolean clusteredWritingEnabled;
 
     private boolean optimizeMismatchedBucketCount;
     private boolean writesToNonManagedTablesEnabled;
@@ -134,6 +141,9 @@ public class HiveConfig
     private boolean partitionUseColumnNames;
 
     private boolean projectionPushdownEnabled = true;
+    private boolean aggregationPushdownEnabled;
+    private int aggregationPushdownMaxFiles = 1000;
+    private int aggregationPushdownParallelism = 20;
 
     private Duration dynamicFilteringProbeBlockingTimeout = new Duration(0, MINUTES);
 
@@ -179,6 +189,20 @@ public class HiveConfig
         return this;
     }
 
+    @Min(1)
+    public int getMaxSplitLoaderConcurrency()
+    {
+        return maxSplitLoaderConcurrency;
+    }
+
+    @Config("hive.max-split-loader-concurrency")
+    @ConfigDescription("Maximum number of concurrent split loaders of a table scan, when listing the partition directories is slow")
+    public HiveConfig setMaxSplitLoaderConcurrency(int maxSplitLoaderConcurrency)
+    {
+        this.maxSplitLoaderConcurrency = maxSplitLoaderConcurrency;
+        return this;
+    }
+
     @Min(1)
     @Nullable
     public Integer getMaxSplitsPerSecond()
@@ -297,6 +321,19 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isCombineSmallFilesEnabled()
+    {
+        return combineSmallFilesEnabled;
+    }
+
+    @Config("hive.combine-small-files")
+    @ConfigDescription("Combine small files of the same partition into splits of up to the max split size")
+    public HiveConfig setCombineSmallFilesEnabled(boolean combineSmallFilesEnabled)
+    {
+        this.combineSmallFilesEnabled = combineSmallFilesEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxPartitionsPerScan()
     {
@@ -519,6 +556,34 @@ public class HiveConfig
         return this;
     }
 
+    @Min(1)
+    public int getWriterSortMergeThreads()
+    {
+        return writerSortMergeThreads;
+    }
+
+    @Config("hive.writer-sort-merge-threads")
+    @ConfigDescription("Number of threads used to merge the sorted temporary runs of writers")
+    public HiveConfig setWriterSortMergeThreads(int writerSortMergeThreads)
+    {
+        this.writerSortMergeThreads = writerSortMergeThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getWriterSortInMemoryRunsSize()
+    {
+        return writerSortInMemoryRunsSize;
+    }
+
+    @Config("hive.writer-sort-in-memory-runs-size")
+    @ConfigDescription("Maximum size of the compressed sorted runs a writer keeps in memory instead of temporary files")
+    public HiveConfig setWriterSortInMemoryRunsSize(DataSize writerSortInMemoryRunsSize)
+    {
+        this.writerSortInMemoryRunsSize = writerSortInMemoryRunsSize;
+        return this;
+    }
+
     public int getWriteValidationThreads()
     {
         return writeValidationThreads;
@@ -599,6 +664,20 @@ public class HiveConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getOrcDeleteDeltaCacheSize()
+    {
+        return orcDeleteDeltaCacheSize;
+    }
+
+    @Config("hive.orc.delete-delta-cache-size")
+    @ConfigDescription("Maximum size of the deleted rows of transactional ORC tables cached on a worker")
+    public HiveConfig setOrcDeleteDeltaCacheSize(DataSize orcDeleteDeltaCacheSize)
+    {
+        this.orcDeleteDeltaCacheSize = orcDeleteDeltaCacheSize;
+        return this;
+    }
+
     public DateTimeZone getParquetDateTimeZone()
     {
         return DateTimeZone.forTimeZone(TimeZone.getTimeZone(parquetTimeZone));
@@ -732,6 +811,19 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isPropagateTableScanSortingProperties()
+    {
+        return propagateTableScanSortingProperties;
+    }
+
+    @Config("hive.propagate-table-scan-sorting-properties")
+    @ConfigDescription("Expose the sort order of bucketed sorted tables to the engine, which requires a single file per bucket")
+    public HiveConfig setPropagateTableScanSortingProperties(boolean propagateTableScanSortingProperties)
+    {
+        this.propagateTableScanSortingProperties = propagateTableScanSortingProperties;
+        return this;
+    }
+
     public boolean isSortedWritingEnabled()
     {
         return sortedWritingEnabled;
@@ -745,6 +837,19 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isClusteredWritingEnabled()
+    {
+        return clusteredWritingEnabled;
+    }
+
+    @Config("hive.clustered-writing")
+    @ConfigDescription("Cluster the rows of each writer by partition and bucket, and write the partitions one after another")
+    public HiveConfig setClusteredWritingEnabled(boolean clusteredWritingEnabled)
+    {
+        this.clusteredWritingEnabled = clusteredWritingEnabled;
+        return this;
+    }
+
     @Config("hive.non-managed-table-writes-enabled")
     @ConfigDescription("Enable writes to non-managed (external) tables")
     public HiveConfig setWritesToNonManagedTablesEnabled(boolean writesToNonManagedTablesEnabled)
@@ -955,6 +1060,47 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isAggregationPushdownEnabled()
+    {
+        return aggregationPushdownEnabled;
+    }
+
+    @Config("hive.aggregation-pushdown-enabled")
+    @ConfigDescription("Compute count, min and max aggregations from ORC and Parquet file statistics when possible")
+    public HiveConfig setAggregationPushdownEnabled(boolean aggregationPushdownEnabled)
+    {
+        this.aggregationPushdownEnabled = aggregationPushdownEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getAggregationPushdownMaxFiles()
+    {
+        return aggregationPushdownMaxFiles;
+    }
+
+    @Config("hive.aggregation-pushdown-max-files")
+    @ConfigDescription("Maximum number of files whose footers are read to compute aggregations from file statistics")
+    public HiveConfig setAggregationPushdownMaxFiles(int aggregationPushdownMaxFiles)
+    {
+        this.aggregationPushdownMaxFiles = aggregationPushdownMaxFiles;
+        return this;
+    }
+
+    @Min(1)
+    public int getAggregationPushdownParallelism()
+    {
+        return aggregationPushdownParallelism;
+    }
+
+    @Config("hive.aggregation-pushdown-parallelism")
+    @ConfigDescription("Maximum number of file footers read concurrently to compute aggregations from file statistics")
+    public HiveConfig setAggregationPushdownParallelism(int aggregationPushdownParallelism)
+    {
+        this.aggregationPushdownParallelism = aggregationPushdownParallelism;
+        return this;
+    }
+
     @NotNull
     public Duration getDynamicFilteringProbeBlockingTimeout()
     {
@@ -40,9 +40,13 @@ import io.prestosql.plugin.hive.metastore.Partition;
 import io.prestosql.plugin.hive.metastore.PrincipalPrivileges;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.metastore.SortingColumn;
+import io.prestosql.plugin.hive.metastore.Storage;
 import io.prestosql.plugin.hive.metastore.StorageFormat;
 import io.prestosql.plugin.hive.metastore.Table;
 import io.prestosql.plugin.hive.security.AccessControlMetadata;
+import io.prestosql.plugin.hive.statistics.FileStatisticsAggregator;
+import io.prestosql.plugin.hive.statistics.FileStatisticsAggregator.Aggregation;
+import io.prestosql.plugin.hive.statistics.FileStatisticsAggregator.AggregationKind;
 import io.prestosql.plugin.hive.statistics.HiveStatisticsProvider;
 import io.prestosql.plugin.hive.util.HiveUtil;
 import io.prestosql.plugin.hive.util.HiveWriteUtils;
@@ -50,6 +54,8 @@ import io.prestosql.spi.ErrorType;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.StandardErrorCode;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
 import io.prestosql.spi.connector.Assignment;
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.ColumnHandle;
@@ -69,14 +75,18 @@ import io.prestosql.spi.connector.Constraint;
 import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.DiscretePredicates;
 import io.prestosql.spi.connector.InMemoryRecordSet;
+import io.prestosql.spi.connector.LimitApplicationResult;
+import io.prestosql.spi.connector.LocalProperty;
 import io.prestosql.spi.connector.ProjectionApplicationResult;
 import io.prestosql.spi.connector.SchemaNotFoundException;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
+import io.prestosql.spi.connector.SortingProperty;
 import io.prestosql.spi.connector.SystemTable;
 import io.prestosql.spi.connector.TableNotFoundException;
 import io.prestosql.spi.connector.ViewNotFoundException;
 import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.Constant;
 import io.prestosql.spi.expression.Variable;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.NullableValue;
@@ -88,6 +98,7 @@ import io.prestosql.spi.security.RoleGrant;
 import io.prestosql.spi.statistics.ColumnStatisticMetadata;
 import io.prestosql.spi.statistics.ColumnStatisticType;
 import io.prestosql.spi.statistics.ComputedStatistics;
+import io.prestosql.spi.statistics.Estimate;
 import io.prestosql.spi.statistics.TableStatisticType;
 import io.prestosql.spi.statistics.TableStatistics;
 import io.prestosql.spi.statistics.TableStatisticsMetadata;
@@ -95,7 +106,10 @@ import io.prestosql.spi.type.TimestampType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.VarcharType;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.serde.serdeConstants;
@@ -110,6 +124,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -133,7 +148,9 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Streams.stream;
+import static io.prestosql.plugin.hive.BackgroundHiveSplitLoader.getBucketNumber;
 import static io.prestosql.plugin.hive.HiveAnalyzeProperties.getColumnNames;
 import static io.prestosql.plugin.hive.HiveAnalyzeProperties.getPartitionList;
 import static io.prestosql.plugin.hive.HiveApplyProjectionUtil.extractSupportedProjectedColumns;
@@ -157,10 +174,13 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static io.prestosql.plugin.hive.HivePartition.UNPARTITIONED_ID;
 import static io.prestosql.plugin.hive.HivePartitionManager.extractPartitionValues;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getAggregationPushdownMaxFiles;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getCompressionCodec;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getHiveStorageFormat;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getTimestampPrecision;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isAggregationPushdownEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isBucketExecutionEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isCollectColumnStatisticsOnWrite;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isCreateEmptyBucketFiles;
@@ -218,10 +238,12 @@ import static io.prestosql.plugin.hive.metastore.MetastoreUtil.verifyOnline;
 import static io.prestosql.plugin.hive.metastore.PrincipalPrivileges.fromHivePrivilegeInfos;
 import static io.prestosql.plugin.hive.metastore.StorageFormat.VIEW_STORAGE_FORMAT;
 import static io.prestosql.plugin.hive.metastore.StorageFormat.fromHiveStorageFormat;
+import static io.prestosql.plugin.hive.projection.PartitionProjection.getPartitionProjection;
 import static io.prestosql.plugin.hive.util.CompressionConfigUtil.configureCompression;
 import static io.prestosql.plugin.hive.util.ConfigurationUtils.toJobConf;
 import static io.prestosql.plugin.hive.util.HiveBucketing.bucketedOnTimestamp;
 import static io.prestosql.plugin.hive.util.HiveBucketing.getHiveBucketHandle;
+import static io.prestosql.plugin.hive.util.HiveBucketing.isSortedBucketScan;
 import static io.prestosql.plugin.hive.util.HiveUtil.columnExtraInfo;
 import static io.prestosql.plugin.hive.util.HiveUtil.getPartitionKeyColumnHandles;
 import static io.prestosql.plugin.hive.util.HiveUtil.hiveColumnHandles;
@@ -259,6 +281,7 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.hadoop.hive.metastore.TableType.EXTERNAL_TABLE;
 import static org.apache.hadoop.hive.metastore.TableType.MANAGED_TABLE;
+import static org.apache.hadoop.hive.ql.io.AcidUtils.isTransactionalTable;
 
 public class HiveMetadata
         implements TransactionalMetadata
@@ -301,12 +324,16 @@ public class HiveMetadata
     private final String prestoVersion;
     private final HiveStatisticsProvider hiveStatisticsProvider;
     private final AccessControlMetadata accessControlMetadata;
+    private final FileStatisticsAggregator fileStatisticsAggregator;
+    private final DirectoryLister directoryLister;
 
     public HiveMetadata(
             CatalogName catalogName,
             SemiTransactionalHiveMetastore metastore,
             HdfsEnvironment hdfsEnvironment,
             HivePartitionManager partitionManager,
+            DirectoryLister directoryLister,
+            FileStatisticsAggregator fileStatisticsAggregator,
             boolean writesToNonManagedTablesEnabled,
             boolean createsOfNonManagedTablesEnabled,
             boolean translateHiveViews,
@@ -322,6 +349,8 @@ public class HiveMetadata
         this.metastore = requireNonNull(metastore, "metastore is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.partitionManager = requireNonNull(partitionManager, "partitionManager is null");
+        this.fileStatisticsAggregator = requireNonNull(fileStatisticsAggregator, "fileStatisticsAggregator is null");
+        this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.locationService = requireNonNull(locationService, "locationService is null");
         this.partitionUpdateCodec = requireNonNull(partitionUpdateCodec, "partitionUpdateCodec is null");
@@ -370,12 +399,94 @@ public class HiveMetadata
 
         verifyOnline(tableName, Optional.empty(), getProtectMode(table.get()), table.get().getParameters());
 
+        List<HiveColumnHandle> partitionColumns = getPartitionKeyColumnHandles(table.get(), typeManager);
+        Optional<HiveBucketHandle> bucketHandle = getHiveBucketHandle(session, table.get(), typeManager);
+        if (partitionColumns.isEmpty()) {
+            bucketHandle = getSortedBucketHandle(session, table.get(), bucketHandle, ImmutableList.of(new HivePartition(tableName)));
+        }
+        else {
+            // the sort order of partitioned tables is verified in applyFilter, once the partitions to read are known
+            bucketHandle = bucketHandle.map(handle -> handle.withSortedBy(ImmutableList.of()));
+        }
+
         return new HiveTableHandle(
                 tableName.getSchemaName(),
                 tableName.getTableName(),
                 table.get().getParameters(),
-                getPartitionKeyColumnHandles(table.get(), typeManager),
-                getHiveBucketHandle(session, table.get(), typeManager));
+                partitionColumns,
+                bucketHandle);
+    }
+
+    /**
+     * Returns the bucket handle with the sort order of the table if the buckets of the partitions can be
+     * read in that order, which requires each bucket to consist of a single file, and without it otherwise.
+     */
+    private Optional<HiveBucketHandle> getSortedBucketHandle(ConnectorSession session, Table table, Optional<HiveBucketHandle> bucketHandle, List<HivePartition> partitions)
+    {
+        Optional<HiveBucketHandle> unsortedBucketHandle = bucketHandle.map(handle -> handle.withSortedBy(ImmutableList.of()));
+        Optional<HiveBucketHandle> sortedBucketHandle = bucketHandle.map(handle -> handle.withSortedBy(table.getStorage().getBucketProperty()
+                .map(HiveBucketProperty::getSortedBy)
+                .orElse(ImmutableList.of())));
+        if (!isSortedBucketScan(session, sortedBucketHandle, partitions.size())) {
+            return unsortedBucketHandle;
+        }
+
+        List<String> locations;
+        if (partitions.size() == 1 && getOnlyElement(partitions).getPartitionId().equals(UNPARTITIONED_ID)) {
+            locations = ImmutableList.of(table.getStorage().getLocation());
+        }
+        else {
+            Map<String, Optional<Partition>> partitionsByName = metastore.getPartitionsByNames(
+                    new HiveIdentity(session),
+                    table.getDatabaseName(),
+                    table.getTableName(),
+                    partitions.stream()
+                            .map(HivePartition::getPartitionId)
+                            .collect(toImmutableList()));
+            if (partitionsByName.values().stream().anyMatch(Optional::isEmpty)) {
+                return unsortedBucketHandle;
+            }
+            locations = partitionsByName.values().stream()
+                    .map(partition -> partition.get().getStorage().getLocation())
+                    .collect(toImmutableList());
+        }
+
+        HdfsContext context = new HdfsContext(session, table.getDatabaseName(), table.getTableName());
+        try {
+            for (String location : locations) {
+                Path path = new Path(location);
+                if (!hasSingleFilePerBucket(hdfsEnvironment.getFileSystem(context, path), table, path)) {
+                    // for example after a second insert, the files of a bucket are not sorted relative to each other
+                    return unsortedBucketHandle;
+                }
+            }
+        }
+        catch (IOException e) {
+            return unsortedBucketHandle;
+        }
+        return sortedBucketHandle;
+    }
+
+    private boolean hasSingleFilePerBucket(FileSystem fileSystem, Table table, Path path)
+            throws IOException
+    {
+        if (!fileSystem.exists(path)) {
+            return true;
+        }
+        Set<Integer> buckets = new HashSet<>();
+        RemoteIterator<LocatedFileStatus> files = directoryLister.list(fileSystem, table, path);
+        while (files.hasNext()) {
+            LocatedFileStatus file = files.next();
+            String fileName = file.getPath().getName();
+            if (fileName.startsWith("_") || fileName.startsWith(".")) {
+                continue;
+            }
+            OptionalInt bucket = getBucketNumber(fileName);
+            if (file.isDirectory() || (bucket.isPresent() && !buckets.add(bucket.getAsInt()))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -727,9 +838,20 @@ public class HiveMetadata
     @Override
     public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle, Constraint constraint)
     {
+        if (((HiveTableHandle) tableHandle).isAggregatedFromStatistics()) {
+            return TableStatistics.builder()
+                    .setRowCount(Estimate.of(1))
+                    .build();
+        }
         if (!isStatisticsEnabled(session)) {
             return TableStatistics.empty();
         }
+        SchemaTableName tableName = ((HiveTableHandle) tableHandle).getSchemaTableName();
+        Optional<Table> table = metastore.getTable(new HiveIdentity(session), tableName.getSchemaName(), tableName.getTableName());
+        if (table.isPresent() && getPartitionProjection(table.get()).isPresent()) {
+            // projected partitions have no statistics in the metastore
+            return TableStatistics.empty();
+        }
         Map<String, ColumnHandle> columns = getColumnHandles(session, tableHandle)
                 .entrySet().stream()
                 .filter(entry -> !((HiveColumnHandle) entry.getValue()).isHidden())
@@ -1974,12 +2096,28 @@ public class HiveMetadata
                             .collect(toImmutableList())));
         }
 
+        Optional<Set<ColumnHandle>> streamPartitioningColumns = Optional.empty();
+        ImmutableList.Builder<LocalProperty<ColumnHandle>> localProperties = ImmutableList.builder();
+        if (isSortedBucketScan(session, hiveTable.getBucketHandle(), partitions.size())) {
+            // each bucket is read as a single sorted file, so every split is sorted and holds all rows of its bucket
+            HiveBucketHandle bucketHandle = hiveTable.getBucketHandle().get();
+            streamPartitioningColumns = Optional.of(ImmutableSet.copyOf(bucketHandle.getColumns()));
+            Map<String, ColumnHandle> columnHandles = getColumnHandles(session, table);
+            for (SortingColumn sortingColumn : bucketHandle.getSortedBy()) {
+                ColumnHandle column = columnHandles.get(sortingColumn.getColumnName());
+                if (column == null) {
+                    break;
+                }
+                localProperties.add(new SortingProperty<>(column, sortingColumn.getOrder().getSortOrder()));
+            }
+        }
+
         return new ConnectorTableProperties(
                 predicate,
                 tablePartitioning,
-                Optional.empty(),
+                streamPartitioningColumns,
                 discretePredicates,
-                ImmutableList.of());
+                localProperties.build());
     }
 
     @Override
@@ -1990,9 +2128,16 @@ public class HiveMetadata
 
         HivePartitionResult partitionResult = partitionManager.getPartitions(metastore, new HiveIdentity(session), handle, constraint);
         HiveTableHandle newHandle = partitionManager.applyPartitionResult(handle, partitionResult, constraint.getPredicateColumns());
+        if (!newHandle.getPartitionColumns().isEmpty() && newHandle.getBucketHandle().isPresent()) {
+            SchemaTableName tableName = handle.getSchemaTableName();
+            Table table = metastore.getTable(new HiveIdentity(session), tableName.getSchemaName(), tableName.getTableName())
+                    .orElseThrow(() -> new TableNotFoundException(tableName));
+            newHandle = newHandle.withBucketHandle(getSortedBucketHandle(session, table, newHandle.getBucketHandle(), newHandle.getPartitions().get()));
+        }
 
         if (handle.getPartitions().equals(newHandle.getPartitions()) &&
                 handle.getCompactEffectivePredicate().equals(newHandle.getCompactEffectivePredicate()) &&
+                handle.getBucketHandle().equals(newHandle.getBucketHandle()) &&
                 handle.getBucketFilter().equals(newHandle.getBucketFilter()) &&
                 handle.getConstraintColumns().equals(newHandle.getConstraintColumns())) {
             return Optional.empty();
@@ -2001,6 +2146,143 @@ public class HiveMetadata
         return Optional.of(new ConstraintApplicationResult<>(newHandle, partitionResult.getUnenforcedConstraint()));
     }
 
+    @Override
+    public Optional<LimitApplicationResult<ConnectorTableHandle>> applyLimit(ConnectorSession session, ConnectorTableHandle tableHandle, long limit)
+    {
+        HiveTableHandle handle = (HiveTableHandle) tableHandle;
+
+        if (handle.getAnalyzePartitionValues().isPresent()) {
+            // statistics collection must read all rows
+            return Optional.empty();
+        }
+
+        if (handle.getLimit().isPresent() && handle.getLimit().getAsLong() <= limit) {
+            return Optional.empty();
+        }
+
+        // the limit is applied to each split, so the engine still needs to apply it to the result
+        return Optional.of(new LimitApplicationResult<>(handle.withLimit(limit), false));
+    }
+
+    @Override
+    public Optional<AggregationApplicationResult<ConnectorTableHandle>> applyAggregation(
+            ConnectorSession session,
+            ConnectorTableHandle tableHandle,
+            List<AggregateFunction> aggregates,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        if (!isAggregationPushdownEnabled(session)) {
+            return Optional.empty();
+        }
+
+        HiveTableHandle handle = (HiveTableHandle) tableHandle;
+        if (handle.isAggregatedFromStatistics() ||
+                handle.getLimit().isPresent() ||
+                handle.getAnalyzePartitionValues().isPresent() ||
+                handle.getBucketFilter().isPresent()) {
+            return Optional.empty();
+        }
+
+        // file statistics cover whole files, so only global aggregations over all rows of the selected partitions can be answered
+        if (!groupingSets.equals(ImmutableList.of(ImmutableList.of()))) {
+            return Optional.empty();
+        }
+        Optional<Map<HiveColumnHandle, Domain>> domains = handle.getCompactEffectivePredicate().getDomains();
+        if (domains.isPresent() && domains.get().keySet().stream().anyMatch(column -> !column.isPartitionKey())) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<Aggregation> aggregations = ImmutableList.builder();
+        for (AggregateFunction aggregate : aggregates) {
+            Optional<Aggregation> aggregation = toFileStatisticsAggregation(aggregate, assignments);
+            if (aggregation.isEmpty()) {
+                return Optional.empty();
+            }
+            aggregations.add(aggregation.get());
+        }
+
+        HiveIdentity identity = new HiveIdentity(session);
+        SchemaTableName tableName = handle.getSchemaTableName();
+        Table table = metastore.getTable(identity, tableName.getSchemaName(), tableName.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(tableName));
+        if (isTransactionalTable(table.getParameters())) {
+            // the rows of transactional tables are spread over base and delta files, and deleted by delete deltas
+            return Optional.empty();
+        }
+
+        Optional<List<Storage>> storages = getPartitionStorages(identity, table, partitionManager.getOrLoadPartitions(metastore, identity, handle));
+        if (storages.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<List<Object>> values = fileStatisticsAggregator.aggregate(session, tableName.getSchemaName(), tableName.getTableName(), storages.get(), aggregations.build(), getAggregationPushdownMaxFiles(session));
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<ConnectorExpression> projections = ImmutableList.builder();
+        for (int i = 0; i < aggregates.size(); i++) {
+            projections.add(new Constant(values.get().get(i), aggregates.get(i).getOutputType()));
+        }
+        return Optional.of(new AggregationApplicationResult<>(handle.withAggregatedFromStatistics(), projections.build(), ImmutableList.of(), ImmutableMap.of()));
+    }
+
+    private static Optional<Aggregation> toFileStatisticsAggregation(AggregateFunction aggregate, Map<String, ColumnHandle> assignments)
+    {
+        if (aggregate.isDistinct() || aggregate.getFilter().isPresent() || !aggregate.getSortItems().isEmpty()) {
+            return Optional.empty();
+        }
+        if (aggregate.getFunctionName().equals("count") && aggregate.getInputs().isEmpty()) {
+            return Optional.of(new Aggregation(AggregationKind.COUNT_ALL, Optional.empty()));
+        }
+        if (aggregate.getInputs().size() != 1 || !(aggregate.getInputs().get(0) instanceof Variable)) {
+            return Optional.empty();
+        }
+
+        HiveColumnHandle column = (HiveColumnHandle) assignments.get(((Variable) aggregate.getInputs().get(0)).getName());
+        if (!FileStatisticsAggregator.isSupportedColumn(column)) {
+            return Optional.empty();
+        }
+        switch (aggregate.getFunctionName()) {
+            case "count":
+                return Optional.of(new Aggregation(AggregationKind.COUNT, Optional.of(column)));
+            case "min":
+                return Optional.of(new Aggregation(AggregationKind.MIN, Optional.of(column)));
+            case "max":
+                return Optional.of(new Aggregation(AggregationKind.MAX, Optional.of(column)));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<List<Storage>> getPartitionStorages(HiveIdentity identity, Table table, List<HivePartition> partitions)
+    {
+        if (partitions.size() == 1 && getOnlyElement(partitions).getPartitionId().equals(UNPARTITIONED_ID)) {
+            return Optional.of(ImmutableList.of(table.getStorage()));
+        }
+        if (partitions.isEmpty()) {
+            return Optional.of(ImmutableList.of());
+        }
+
+        Map<String, Optional<Partition>> partitionsByName = metastore.getPartitionsByNames(
+                identity,
+                table.getDatabaseName(),
+                table.getTableName(),
+                partitions.stream()
+                        .map(HivePartition::getPartitionId)
+                        .collect(toImmutableList()));
+        ImmutableList.Builder<Storage> storages = ImmutableList.builder();
+        for (HivePartition hivePartition : partitions) {
+            Optional<Partition> partition = partitionsByName.getOrDefault(hivePartition.getPartitionId(), Optional.empty());
+            // partitions with a different schema than the table need coercions when read
+            if (partition.isEmpty() || !partition.get().getColumns().equals(table.getDataColumns())) {
+                return Optional.empty();
+            }
+            storages.add(partition.get().getStorage());
+        }
+        return Optional.of(storages.build());
+    }
+
     @Override
     public void validateScan(ConnectorSession session, ConnectorTableHandle tableHandle)
     {
@@ -2206,11 +2488,14 @@ public class HiveMetadata
                         bucketHandle.getColumns(),
                         bucketHandle.getBucketingVersion(),
                         bucketHandle.getTableBucketCount(),
-                        hivePartitioningHandle.getBucketCount())),
+                        hivePartitioningHandle.getBucketCount(),
+                        bucketHandle.getSortedBy())),
                 hiveTable.getBucketFilter(),
                 hiveTable.getAnalyzePartitionValues(),
                 hiveTable.getAnalyzeColumnNames(),
-                Optional.empty());
+                Optional.empty(),
+                hiveTable.getLimit(),
+                hiveTable.isAggregatedFromStatistics());
     }
 
     @VisibleForTesting
@@ -2656,7 +2941,13 @@ public class HiveMetadata
     @Override
     public void commit()
     {
-        metastore.commit();
+        Set<SchemaTableName> modifiedTables = metastore.getModifiedTables();
+        try {
+            metastore.commit();
+        }
+        finally {
+            modifiedTables.forEach(directoryLister::invalidate);
+        }
     }
 
     @Override
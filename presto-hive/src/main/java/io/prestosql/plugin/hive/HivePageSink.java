@@ -28,6 +28,7 @@ import io.prestosql.spi.PageIndexer;
 import io.prestosql.spi.PageIndexerFactory;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.IntArrayBlock;
 import io.prestosql.spi.block.IntArrayBlockBuilder;
 import io.prestosql.spi.connector.ConnectorPageSink;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -51,6 +52,7 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_TOO_MANY_OPEN_PARTITIONS;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isClusteredWritingEnabled;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -81,6 +83,11 @@ public class HivePageSink
 
     private final List<HiveWriter> writers = new ArrayList<>();
 
+    // when present, the rows are buffered with the index of their writer, and are written ordered by the index on finish
+    private final Optional<FileWriter> clusteringWriter;
+    private final int bucketChannel;
+    private final int writerIndexChannel;
+
     private final ConnectorSession session;
 
     private long writtenBytes;
@@ -153,6 +160,25 @@ public class HivePageSink
         }
 
         this.session = requireNonNull(session, "session is null");
+
+        if (isClusteredWritingEnabled(session) && (partitionColumnsInputIndex.length > 0 || bucketProperty.isPresent())) {
+            List<Type> types = new ArrayList<>();
+            inputColumns.stream()
+                    .map(HiveColumnHandle::getType)
+                    .forEach(types::add);
+            if (bucketProperty.isPresent()) {
+                types.add(INTEGER);
+            }
+            types.add(INTEGER);
+            this.bucketChannel = bucketProperty.isPresent() ? inputColumns.size() : -1;
+            this.writerIndexChannel = types.size() - 1;
+            this.clusteringWriter = Optional.of(writerFactory.createClusteringWriter(types, writerIndexChannel, new ClusteredPartitionWriter()));
+        }
+        else {
+            this.bucketChannel = -1;
+            this.writerIndexChannel = -1;
+            this.clusteringWriter = Optional.empty();
+        }
     }
 
     @Override
@@ -184,10 +210,19 @@ public class HivePageSink
 
     private ListenableFuture<Collection<Slice>> doFinish()
     {
+        if (clusteringWriter.isPresent()) {
+            // writes the partitions one after another, and commits each writer once its partition is complete
+            clusteringWriter.get().commit();
+        }
+        else {
+            for (HiveWriter writer : writers) {
+                writer.commit();
+            }
+        }
+
         ImmutableList.Builder<Slice> partitionUpdates = ImmutableList.builder();
         List<Callable<Object>> verificationTasks = new ArrayList<>();
         for (HiveWriter writer : writers) {
-            writer.commit();
             PartitionUpdate partitionUpdate = writer.getPartitionUpdate();
             partitionUpdates.add(wrappedBuffer(partitionUpdateCodec.toJsonBytes(partitionUpdate)));
             writer.getVerificationTask()
@@ -230,6 +265,15 @@ public class HivePageSink
     private void doAbort()
     {
         Optional<Exception> rollbackException = Optional.empty();
+        if (clusteringWriter.isPresent()) {
+            try {
+                clusteringWriter.get().rollback();
+            }
+            catch (Exception e) {
+                log.warn("exception '%s' while rollback on clustering writer", e);
+                rollbackException = Optional.of(e);
+            }
+        }
         for (HiveWriter writer : writers) {
             // writers can contain nulls if an exception is thrown when doAppend expends the writer list
             if (writer != null) {
@@ -272,6 +316,11 @@ public class HivePageSink
 
     private void writePage(Page page)
     {
+        if (clusteringWriter.isPresent()) {
+            bufferPage(clusteringWriter.get(), page);
+            return;
+        }
+
         int[] writerIndexes = getWriterIndexes(page);
 
         // position count for each writer
@@ -322,6 +371,32 @@ public class HivePageSink
         }
     }
 
+    private void bufferPage(FileWriter clusteringWriter, Page page)
+    {
+        // the writers are created when the buffered rows are written, so the number of partitions is not limited
+        Block bucketBlock = buildBucketBlock(page);
+        int[] writerIndexes = pagePartitioner.partitionPage(extractColumns(page, partitionColumnsInputIndex), bucketBlock);
+
+        Block[] blocks = new Block[writerIndexChannel + 1];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            blocks[channel] = page.getBlock(channel);
+        }
+        if (bucketBlock != null) {
+            blocks[bucketChannel] = bucketBlock;
+        }
+        blocks[writerIndexChannel] = new IntArrayBlock(page.getPositionCount(), Optional.empty(), writerIndexes);
+
+        clusteringWriter.appendRows(new Page(page.getPositionCount(), blocks));
+        updateClusteringWriterUsage();
+    }
+
+    private void updateClusteringWriterUsage()
+    {
+        // the clustering writer includes the usage of the partition writers, which are the only writers of the sink
+        writtenBytes = clusteringWriter.get().getWrittenBytes();
+        systemMemoryUsage = clusteringWriter.get().getSystemMemoryUsage();
+    }
+
     private int[] getWriterIndexes(Page page)
     {
         Page partitionColumns = extractColumns(page, partitionColumnsInputIndex);
@@ -391,6 +466,93 @@ public class HivePageSink
         return new Page(page.getPositionCount(), blocks);
     }
 
+    /**
+     * Receives the buffered rows ordered by writer index, and writes the rows of each writer
+     * with a single open writer, which is committed as soon as the rows of the next writer start.
+     */
+    private class ClusteredPartitionWriter
+            implements FileWriter
+    {
+        private HiveWriter currentWriter;
+        private int currentWriterIndex = -1;
+
+        @Override
+        public long getWrittenBytes()
+        {
+            long bytes = writers.stream()
+                    .mapToLong(HiveWriter::getWrittenBytes)
+                    .sum();
+            if (currentWriter != null) {
+                bytes += currentWriter.getWrittenBytes();
+            }
+            return bytes;
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return currentWriter == null ? 0 : currentWriter.getSystemMemoryUsage();
+        }
+
+        @Override
+        public void appendRows(Page page)
+        {
+            Block writerIndexes = page.getBlock(writerIndexChannel);
+            int start = 0;
+            while (start < page.getPositionCount()) {
+                int writerIndex = writerIndexes.getInt(start, 0);
+                int end = start + 1;
+                while (end < page.getPositionCount() && writerIndexes.getInt(end, 0) == writerIndex) {
+                    end++;
+                }
+
+                if (writerIndex != currentWriterIndex) {
+                    commitCurrentWriter();
+                    OptionalInt bucketNumber = OptionalInt.empty();
+                    if (bucketChannel >= 0) {
+                        bucketNumber = OptionalInt.of(page.getBlock(bucketChannel).getInt(start, 0));
+                    }
+                    currentWriter = writerFactory.createWriter(extractColumns(page, partitionColumnsInputIndex), start, bucketNumber);
+                    currentWriterIndex = writerIndex;
+                }
+                currentWriter.append(getDataPage(page.getRegion(start, end - start)));
+                updateClusteringWriterUsage();
+                start = end;
+            }
+        }
+
+        @Override
+        public void commit()
+        {
+            commitCurrentWriter();
+        }
+
+        private void commitCurrentWriter()
+        {
+            if (currentWriter != null) {
+                currentWriter.commit();
+                writers.add(currentWriter);
+                currentWriter = null;
+                updateClusteringWriterUsage();
+            }
+        }
+
+        @Override
+        public void rollback()
+        {
+            if (currentWriter != null) {
+                currentWriter.rollback();
+                currentWriter = null;
+            }
+        }
+
+        @Override
+        public long getValidationCpuNanos()
+        {
+            return 0;
+        }
+    }
+
     private static class HiveWriterPagePartitioner
     {
         private final PageIndexer pageIndexer;
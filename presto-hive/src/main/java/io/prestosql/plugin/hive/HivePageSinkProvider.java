@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -61,6 +62,8 @@ public class HivePageSinkProvider
     private final int maxOpenPartitions;
     private final int maxOpenSortFiles;
     private final DataSize writerSortBufferSize;
+    private final DataSize writerSortInMemoryRunsSize;
+    private final ExecutorService sortMergeExecutor;
     private final LocationService locationService;
     private final ListeningExecutorService writeVerificationExecutor;
     private final JsonCodec<PartitionUpdate> partitionUpdateCodec;
@@ -96,6 +99,8 @@ public class HivePageSinkProvider
         this.maxOpenPartitions = config.getMaxPartitionsPerWriter();
         this.maxOpenSortFiles = config.getMaxOpenSortFiles();
         this.writerSortBufferSize = requireNonNull(config.getWriterSortBufferSize(), "writerSortBufferSize is null");
+        this.writerSortInMemoryRunsSize = requireNonNull(config.getWriterSortInMemoryRunsSize(), "writerSortInMemoryRunsSize is null");
+        this.sortMergeExecutor = newFixedThreadPool(config.getWriterSortMergeThreads(), daemonThreadsNamed("hive-sort-merge-%s"));
         this.locationService = requireNonNull(locationService, "locationService is null");
         this.writeVerificationExecutor = listeningDecorator(newFixedThreadPool(config.getWriteValidationThreads(), daemonThreadsNamed("hive-write-validation-%s")));
         this.partitionUpdateCodec = requireNonNull(partitionUpdateCodec, "partitionUpdateCodec is null");
@@ -155,6 +160,8 @@ public class HivePageSinkProvider
                 pageSorter,
                 writerSortBufferSize,
                 maxOpenSortFiles,
+                writerSortInMemoryRunsSize,
+                sortMergeExecutor,
                 parquetTimeZone,
                 session,
                 nodeManager,
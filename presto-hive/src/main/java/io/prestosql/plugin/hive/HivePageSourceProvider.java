@@ -19,7 +19,11 @@ import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
 import io.prestosql.plugin.hive.HivePageSourceFactory.ReaderPageSourceWithProjections;
 import io.prestosql.plugin.hive.HiveRecordCursorProvider.ReaderRecordCursorWithProjections;
 import io.prestosql.plugin.hive.HiveSplit.BucketConversion;
+import io.prestosql.plugin.hive.HiveSplit.CombinedFile;
 import io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -29,6 +33,7 @@ import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
 import io.prestosql.spi.connector.DynamicFilter;
 import io.prestosql.spi.connector.EmptyPageSource;
+import io.prestosql.spi.connector.FixedPageSource;
 import io.prestosql.spi.connector.RecordCursor;
 import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -47,6 +52,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -92,6 +98,13 @@ public class HivePageSourceProvider
     public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<ColumnHandle> columns, DynamicFilter dynamicFilter)
     {
         HiveTableHandle hiveTable = (HiveTableHandle) table;
+        if (hiveTable.isAggregatedFromStatistics()) {
+            // the values of the aggregations were computed from file statistics, so only their single row is produced
+            Block[] blocks = columns.stream()
+                    .map(column -> RunLengthEncodedBlock.create(((HiveColumnHandle) column).getType(), null, 1))
+                    .toArray(Block[]::new);
+            return new FixedPageSource(ImmutableList.of(new Page(1, blocks)));
+        }
 
         List<HiveColumnHandle> hiveColumns = columns.stream()
                 .map(HiveColumnHandle.class::cast)
@@ -105,6 +118,40 @@ public class HivePageSourceProvider
         TupleDomain<HiveColumnHandle> simplifiedDynamicFilter = dynamicFilter
                 .getCurrentPredicate()
                 .transform(HiveColumnHandle.class::cast).simplify(domainCompactionThreshold);
+        TupleDomain<HiveColumnHandle> effectivePredicate = hiveTable.getCompactEffectivePredicate().intersect(simplifiedDynamicFilter);
+
+        ConnectorPageSource pageSource;
+        if (hiveSplit.getCombinedFiles().isEmpty()) {
+            pageSource = createFilePageSource(session, configuration, hiveSplit, effectivePredicate, hiveColumns, path, hiveSplit.getStart(), hiveSplit.getLength(), hiveSplit.getEstimatedFileSize(), hiveSplit.getFileModifiedTime());
+        }
+        else {
+            // the files of a combined split are read whole, one after another
+            ImmutableList.Builder<Supplier<ConnectorPageSource>> pageSources = ImmutableList.builder();
+            pageSources.add(() -> createFilePageSource(session, configuration, hiveSplit, effectivePredicate, hiveColumns, path, hiveSplit.getStart(), hiveSplit.getLength(), hiveSplit.getEstimatedFileSize(), hiveSplit.getFileModifiedTime()));
+            for (CombinedFile file : hiveSplit.getCombinedFiles()) {
+                pageSources.add(() -> createFilePageSource(session, configuration, hiveSplit, effectivePredicate, hiveColumns, new Path(file.getPath()), 0, file.getLength(), file.getLength(), file.getFileModifiedTime()));
+            }
+            pageSource = new HiveCombinedPageSource(pageSources.build());
+        }
+
+        if (hiveTable.getLimit().isPresent()) {
+            return new LimitedPageSource(pageSource, hiveTable.getLimit().getAsLong());
+        }
+        return pageSource;
+    }
+
+    private ConnectorPageSource createFilePageSource(
+            ConnectorSession session,
+            Configuration configuration,
+            HiveSplit hiveSplit,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            List<HiveColumnHandle> hiveColumns,
+            Path path,
+            long start,
+            long length,
+            long estimatedFileSize,
+            long fileModifiedTime)
+    {
         Optional<ConnectorPageSource> pageSource = createHivePageSource(
                 pageSourceFactories,
                 cursorProviders,
@@ -112,12 +159,12 @@ public class HivePageSourceProvider
                 session,
                 path,
                 hiveSplit.getBucketNumber(),
-                hiveSplit.getStart(),
-                hiveSplit.getLength(),
-                hiveSplit.getEstimatedFileSize(),
-                hiveSplit.getFileModifiedTime(),
+                start,
+                length,
+                estimatedFileSize,
+                fileModifiedTime,
                 hiveSplit.getSchema(),
-                hiveTable.getCompactEffectivePredicate().intersect(simplifiedDynamicFilter),
+                effectivePredicate,
                 hiveColumns,
                 hiveSplit.getPartitionName(),
                 hiveSplit.getPartitionKeys(),
@@ -126,10 +173,7 @@ public class HivePageSourceProvider
                 hiveSplit.getBucketConversion(),
                 hiveSplit.isS3SelectPushdownEnabled(),
                 hiveSplit.getAcidInfo());
-        if (pageSource.isPresent()) {
-            return pageSource.get();
-        }
-        throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
+        return pageSource.orElseThrow(() -> new RuntimeException("Could not find a file reader for split " + hiveSplit));
     }
 
     public static Optional<ConnectorPageSource> createHivePageSource(
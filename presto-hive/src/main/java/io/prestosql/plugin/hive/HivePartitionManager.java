@@ -48,6 +48,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_EXCEEDED_PARTITION_LIMIT;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.computePartitionKeyFilter;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.toPartitionName;
+import static io.prestosql.plugin.hive.projection.PartitionProjection.getPartitionProjection;
 import static io.prestosql.plugin.hive.util.HiveBucketing.getHiveBucketFilter;
 import static io.prestosql.plugin.hive.util.HiveUtil.parsePartitionValue;
 import static io.prestosql.spi.predicate.TupleDomain.none;
@@ -122,7 +123,10 @@ public class HivePartitionManager
                     .collect(toImmutableList());
         }
         else {
-            List<String> partitionNames = getFilteredPartitionNames(metastore, identity, tableName, partitionColumns, compactEffectivePredicate);
+            // the partitions of a table with partition projection are not listed in the metastore
+            List<String> partitionNames = getPartitionProjection(table)
+                    .map(projection -> projection.getProjectedPartitionNames(partitionColumns, compactEffectivePredicate))
+                    .orElseGet(() -> getFilteredPartitionNames(metastore, identity, tableName, partitionColumns, compactEffectivePredicate));
             partitionsIterable = () -> partitionNames.stream()
                     // Apply extra filters which could not be done by getFilteredPartitionNames
                     .map(partitionName -> parseValuesAndFilterPartition(tableName, partitionName, partitionColumns, partitionTypes, effectivePredicate, predicate))
@@ -195,7 +199,9 @@ public class HivePartitionManager
                 handle.getAnalyzePartitionValues(),
                 handle.getAnalyzeColumnNames(),
                 Optionals.combine(handle.getConstraintColumns(), columns,
-                        Sets::union));
+                        Sets::union),
+                handle.getLimit(),
+                handle.isAggregatedFromStatistics());
     }
 
     public List<HivePartition> getOrLoadPartitions(SemiTransactionalHiveMetastore metastore, HiveIdentity identity, HiveTableHandle table)
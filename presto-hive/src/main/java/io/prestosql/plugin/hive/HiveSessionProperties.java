@@ -46,6 +46,7 @@ import static java.util.Locale.ENGLISH;
 public final class HiveSessionProperties
 {
     private static final String BUCKET_EXECUTION_ENABLED = "bucket_execution_enabled";
+    private static final String PROPAGATE_TABLE_SCAN_SORTING_PROPERTIES = "propagate_table_scan_sorting_properties";
     private static final String FORCE_LOCAL_SCHEDULING = "force_local_scheduling";
     private static final String INSERT_EXISTING_PARTITIONS_BEHAVIOR = "insert_existing_partitions_behavior";
     private static final String ORC_BLOOM_FILTERS_ENABLED = "orc_bloom_filters_enabled";
@@ -56,6 +57,8 @@ public final class HiveSessionProperties
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
     private static final String ORC_NESTED_LAZY_ENABLED = "orc_nested_lazy_enabled";
+    private static final String ORC_SELECTIVE_READING_ENABLED = "orc_selective_reading_enabled";
+    private static final String ORC_STRIPE_PREFETCH_COUNT = "orc_stripe_prefetch_count";
     private static final String ORC_STRING_STATISTICS_LIMIT = "orc_string_statistics_limit";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE_PERCENTAGE = "orc_optimized_writer_validate_percentage";
@@ -77,8 +80,10 @@ public final class HiveSessionProperties
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
+    private static final String COMBINE_SMALL_FILES_ENABLED = "combine_small_files_enabled";
     private static final String RCFILE_OPTIMIZED_WRITER_VALIDATE = "rcfile_optimized_writer_validate";
     private static final String SORTED_WRITING_ENABLED = "sorted_writing_enabled";
+    private static final String CLUSTERED_WRITING_ENABLED = "clustered_writing_enabled";
     private static final String STATISTICS_ENABLED = "statistics_enabled";
     private static final String PARTITION_STATISTICS_SAMPLE_SIZE = "partition_statistics_sample_size";
     private static final String IGNORE_CORRUPTED_STATISTICS = "ignore_corrupted_statistics";
@@ -90,6 +95,8 @@ public final class HiveSessionProperties
     private static final String IGNORE_ABSENT_PARTITIONS = "ignore_absent_partitions";
     private static final String QUERY_PARTITION_FILTER_REQUIRED = "query_partition_filter_required";
     private static final String PROJECTION_PUSHDOWN_ENABLED = "projection_pushdown_enabled";
+    private static final String AGGREGATION_PUSHDOWN_ENABLED = "aggregation_pushdown_enabled";
+    private static final String AGGREGATION_PUSHDOWN_MAX_FILES = "aggregation_pushdown_max_files";
     private static final String TIMESTAMP_PRECISION = "timestamp_precision";
     private static final String PARQUET_OPTIMIZED_WRITER_ENABLED = "experimental_parquet_optimized_writer_enabled";
     private static final String DYNAMIC_FILTERING_PROBE_BLOCKING_TIMEOUT = "dynamic_filtering_probe_blocking_timeout";
@@ -130,6 +137,11 @@ public final class HiveSessionProperties
                         "Enable bucket-aware execution: only use a single worker per bucket",
                         hiveConfig.isBucketExecutionEnabled(),
                         false),
+                booleanProperty(
+                        PROPAGATE_TABLE_SCAN_SORTING_PROPERTIES,
+                        "Expose the sort order of bucketed sorted tables to the engine, which requires a single file per bucket",
+                        hiveConfig.isPropagateTableScanSortingProperties(),
+                        false),
                 booleanProperty(
                         FORCE_LOCAL_SCHEDULING,
                         "Only schedule splits on workers colocated with data node",
@@ -184,6 +196,16 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Lazily read nested data",
                         orcReaderConfig.isNestedLazy(),
                         false),
+                booleanProperty(
+                        ORC_SELECTIVE_READING_ENABLED,
+                        "ORC: Filter rows using the pushed down predicate while reading",
+                        orcReaderConfig.isSelectiveReadingEnabled(),
+                        false),
+                integerProperty(
+                        ORC_STRIPE_PREFETCH_COUNT,
+                        "ORC: Number of stripes after the current one that are read in the background",
+                        orcReaderConfig.getStripePrefetchCount(),
+                        false),
                 dataSizeProperty(
                         ORC_STRING_STATISTICS_LIMIT,
                         "ORC: Maximum size of string statistics; drop if exceeding",
@@ -304,6 +326,11 @@ public final class HiveSessionProperties
                         "Max initial split size",
                         hiveConfig.getMaxInitialSplitSize(),
                         true),
+                booleanProperty(
+                        COMBINE_SMALL_FILES_ENABLED,
+                        "Combine small files of the same partition into splits of up to the max split size",
+                        hiveConfig.isCombineSmallFilesEnabled(),
+                        false),
                 booleanProperty(
                         RCFILE_OPTIMIZED_WRITER_VALIDATE,
                         "RCFile: Validate writer files",
@@ -314,6 +341,11 @@ public final class HiveSessionProperties
                         "Enable writing to bucketed sorted tables",
                         hiveConfig.isSortedWritingEnabled(),
                         false),
+                booleanProperty(
+                        CLUSTERED_WRITING_ENABLED,
+                        "Cluster the rows of each writer by partition and bucket, and write the partitions one after another",
+                        hiveConfig.isClusteredWritingEnabled(),
+                        false),
                 booleanProperty(
                         STATISTICS_ENABLED,
                         "Expose table statistics",
@@ -369,6 +401,16 @@ public final class HiveSessionProperties
                         "Projection push down enabled for hive",
                         hiveConfig.isProjectionPushdownEnabled(),
                         false),
+                booleanProperty(
+                        AGGREGATION_PUSHDOWN_ENABLED,
+                        "Compute count, min and max aggregations from ORC and Parquet file statistics when possible",
+                        hiveConfig.isAggregationPushdownEnabled(),
+                        false),
+                integerProperty(
+                        AGGREGATION_PUSHDOWN_MAX_FILES,
+                        "Maximum number of files whose footers are read to compute aggregations from file statistics",
+                        hiveConfig.getAggregationPushdownMaxFiles(),
+                        false),
                 enumProperty(
                         TIMESTAMP_PRECISION,
                         "Precision for timestamp columns in Hive tables",
@@ -397,6 +439,11 @@ public final class HiveSessionProperties
         return session.getProperty(BUCKET_EXECUTION_ENABLED, Boolean.class);
     }
 
+    public static boolean isPropagateTableScanSortingProperties(ConnectorSession session)
+    {
+        return session.getProperty(PROPAGATE_TABLE_SCAN_SORTING_PROPERTIES, Boolean.class);
+    }
+
     public static boolean isForceLocalScheduling(ConnectorSession session)
     {
         return session.getProperty(FORCE_LOCAL_SCHEDULING, Boolean.class);
@@ -447,6 +494,16 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_NESTED_LAZY_ENABLED, Boolean.class);
     }
 
+    public static boolean isOrcSelectiveReadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_SELECTIVE_READING_ENABLED, Boolean.class);
+    }
+
+    public static int getOrcStripePrefetchCount(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_COUNT, Integer.class);
+    }
+
     public static DataSize getOrcStringStatisticsLimit(ConnectorSession session)
     {
         return session.getProperty(ORC_STRING_STATISTICS_LIMIT, DataSize.class);
@@ -577,6 +634,11 @@ public final class HiveSessionProperties
         return session.getProperty(MAX_INITIAL_SPLIT_SIZE, DataSize.class);
     }
 
+    public static boolean isCombineSmallFilesEnabled(ConnectorSession session)
+    {
+        return session.getProperty(COMBINE_SMALL_FILES_ENABLED, Boolean.class);
+    }
+
     public static boolean isRcfileOptimizedWriterValidate(ConnectorSession session)
     {
         return session.getProperty(RCFILE_OPTIMIZED_WRITER_VALIDATE, Boolean.class);
@@ -587,6 +649,11 @@ public final class HiveSessionProperties
         return session.getProperty(SORTED_WRITING_ENABLED, Boolean.class);
     }
 
+    public static boolean isClusteredWritingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(CLUSTERED_WRITING_ENABLED, Boolean.class);
+    }
+
     public static boolean isS3SelectPushdownEnabled(ConnectorSession session)
     {
         return session.getProperty(S3_SELECT_PUSHDOWN_ENABLED, Boolean.class);
@@ -646,6 +713,16 @@ public final class HiveSessionProperties
         return session.getProperty(PROJECTION_PUSHDOWN_ENABLED, Boolean.class);
     }
 
+    public static boolean isAggregationPushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(AGGREGATION_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
+    public static int getAggregationPushdownMaxFiles(ConnectorSession session)
+    {
+        return session.getProperty(AGGREGATION_PUSHDOWN_MAX_FILES, Integer.class);
+    }
+
     public static HiveTimestampPrecision getTimestampPrecision(ConnectorSession session)
     {
         return session.getProperty(TIMESTAMP_PRECISION, HiveTimestampPrecision.class);
@@ -51,6 +51,7 @@ public class HiveSplit
     private final Optional<BucketConversion> bucketConversion;
     private final boolean s3SelectPushdownEnabled;
     private final Optional<AcidInfo> acidInfo;
+    private final List<CombinedFile> combinedFiles;
 
     @JsonCreator
     public HiveSplit(
@@ -70,7 +71,8 @@ public class HiveSplit
             @JsonProperty("tableToPartitionMapping") TableToPartitionMapping tableToPartitionMapping,
             @JsonProperty("bucketConversion") Optional<BucketConversion> bucketConversion,
             @JsonProperty("s3SelectPushdownEnabled") boolean s3SelectPushdownEnabled,
-            @JsonProperty("acidInfo") Optional<AcidInfo> acidInfo)
+            @JsonProperty("acidInfo") Optional<AcidInfo> acidInfo,
+            @JsonProperty("combinedFiles") List<CombinedFile> combinedFiles)
     {
         checkArgument(start >= 0, "start must be positive");
         checkArgument(length >= 0, "length must be positive");
@@ -86,6 +88,7 @@ public class HiveSplit
         requireNonNull(tableToPartitionMapping, "tableToPartitionMapping is null");
         requireNonNull(bucketConversion, "bucketConversion is null");
         requireNonNull(acidInfo, "acidInfo is null");
+        requireNonNull(combinedFiles, "combinedFiles is null");
 
         this.database = database;
         this.table = table;
@@ -104,6 +107,7 @@ public class HiveSplit
         this.bucketConversion = bucketConversion;
         this.s3SelectPushdownEnabled = s3SelectPushdownEnabled;
         this.acidInfo = acidInfo;
+        this.combinedFiles = ImmutableList.copyOf(combinedFiles);
     }
 
     @JsonProperty
@@ -215,6 +219,15 @@ public class HiveSplit
         return acidInfo;
     }
 
+    /**
+     * Returns the small files of the same partition which are read after the file of the split.
+     */
+    @JsonProperty
+    public List<CombinedFile> getCombinedFiles()
+    {
+        return combinedFiles;
+    }
+
     @Override
     public Object getInfo()
     {
@@ -229,9 +242,28 @@ public class HiveSplit
                 .put("forceLocalScheduling", forceLocalScheduling)
                 .put("partitionName", partitionName)
                 .put("s3SelectPushdownEnabled", s3SelectPushdownEnabled)
+                .put("combinedFiles", combinedFiles.size())
                 .build();
     }
 
+    @Override
+    public Optional<String> getSplitIdentity()
+    {
+        // deleted rows and bucket conversion depend on more than the file itself
+        if (acidInfo.isPresent() || bucketConversion.isPresent() || !combinedFiles.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(String.join(":",
+                path,
+                String.valueOf(start),
+                String.valueOf(length),
+                String.valueOf(estimatedFileSize),
+                String.valueOf(fileModifiedTime),
+                partitionName,
+                String.valueOf(schema.hashCode()),
+                tableToPartitionMapping.toString()));
+    }
+
     @Override
     public String toString()
     {
@@ -240,9 +272,50 @@ public class HiveSplit
                 .addValue(start)
                 .addValue(length)
                 .addValue(estimatedFileSize)
+                .add("combinedFiles", combinedFiles.size())
                 .toString();
     }
 
+    public static class CombinedFile
+    {
+        private final String path;
+        private final long length;
+        private final long fileModifiedTime;
+
+        @JsonCreator
+        public CombinedFile(
+                @JsonProperty("path") String path,
+                @JsonProperty("length") long length,
+                @JsonProperty("fileModifiedTime") long fileModifiedTime)
+        {
+            checkArgument(length >= 0, "length must be positive");
+            this.path = requireNonNull(path, "path is null");
+            this.length = length;
+            this.fileModifiedTime = fileModifiedTime;
+        }
+
+        @JsonProperty
+        public String getPath()
+        {
+            return path;
+        }
+
+        /**
+         * Returns the length of the file, which is read as a whole.
+         */
+        @JsonProperty
+        public long getLength()
+        {
+            return length;
+        }
+
+        @JsonProperty
+        public long getFileModifiedTime()
+        {
+            return fileModifiedTime;
+        }
+    }
+
     public static class BucketConversion
     {
         private final BucketingVersion bucketingVersion;
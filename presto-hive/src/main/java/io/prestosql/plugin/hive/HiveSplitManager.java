@@ -26,6 +26,7 @@ import io.prestosql.plugin.hive.metastore.Column;
 import io.prestosql.plugin.hive.metastore.Partition;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.plugin.hive.projection.PartitionProjection;
 import io.prestosql.plugin.hive.util.HiveBucketing.HiveBucketFilter;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.VersionEmbedder;
@@ -49,6 +50,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -65,17 +67,22 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
 import static io.prestosql.plugin.hive.HivePartition.UNPARTITIONED_ID;
+import static io.prestosql.plugin.hive.HivePartitionManager.extractPartitionValues;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getDynamicFilteringProbeBlockingTimeout;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isIgnoreAbsentPartitions;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isPartitionUseColumnNames;
 import static io.prestosql.plugin.hive.TableToPartitionMapping.mapColumnsByIndex;
+import static io.prestosql.plugin.hive.metastore.MetastoreUtil.getHiveSchema;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.getProtectMode;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.makePartitionName;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.verifyOnline;
+import static io.prestosql.plugin.hive.projection.PartitionProjection.getPartitionProjection;
+import static io.prestosql.plugin.hive.util.HiveBucketing.isSortedBucketScan;
 import static io.prestosql.plugin.hive.util.HiveCoercionPolicy.canCoerce;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.SERVER_SHUTTING_DOWN;
 import static io.prestosql.spi.connector.ConnectorSplitManager.SplitSchedulingStrategy.GROUPED_SCHEDULING;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
@@ -100,9 +107,11 @@ public class HiveSplitManager
     private final int maxPartitionBatchSize;
     private final int maxInitialSplits;
     private final int splitLoaderConcurrency;
+    private final int maxSplitLoaderConcurrency;
     private final int maxSplitsPerSecond;
     private final boolean recursiveDfsWalkerEnabled;
     private final CounterStat highMemorySplitSourceCounter;
+    private final CounterStat dynamicFilterPrunedSplitsCounter = new CounterStat();
     private final TypeManager typeManager;
 
     @Inject
@@ -131,6 +140,7 @@ public class HiveSplitManager
                 hiveConfig.getMaxPartitionBatchSize(),
                 hiveConfig.getMaxInitialSplits(),
                 hiveConfig.getSplitLoaderConcurrency(),
+                hiveConfig.getMaxSplitLoaderConcurrency(),
                 hiveConfig.getMaxSplitsPerSecond(),
                 hiveConfig.getRecursiveDirWalkerEnabled(),
                 typeManager);
@@ -150,6 +160,7 @@ public class HiveSplitManager
             int maxPartitionBatchSize,
             int maxInitialSplits,
             int splitLoaderConcurrency,
+            int maxSplitLoaderConcurrency,
             @Nullable Integer maxSplitsPerSecond,
             boolean recursiveDfsWalkerEnabled,
             TypeManager typeManager)
@@ -168,6 +179,7 @@ public class HiveSplitManager
         this.maxPartitionBatchSize = maxPartitionBatchSize;
         this.maxInitialSplits = maxInitialSplits;
         this.splitLoaderConcurrency = splitLoaderConcurrency;
+        this.maxSplitLoaderConcurrency = max(splitLoaderConcurrency, maxSplitLoaderConcurrency);
         this.maxSplitsPerSecond = firstNonNull(maxSplitsPerSecond, Integer.MAX_VALUE);
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
@@ -195,6 +207,29 @@ public class HiveSplitManager
             throw new HiveNotReadableException(tableName, Optional.empty(), tableNotReadable);
         }
 
+        if (hiveTable.isAggregatedFromStatistics()) {
+            // the aggregations were computed from file statistics, and a single split without a file produces their row
+            return new FixedSplitSource(ImmutableList.of(new HiveSplit(
+                    table.getDatabaseName(),
+                    table.getTableName(),
+                    UNPARTITIONED_ID,
+                    table.getStorage().getLocation(),
+                    0,
+                    0,
+                    0,
+                    0,
+                    getHiveSchema(table),
+                    ImmutableList.of(),
+                    ImmutableList.of(),
+                    OptionalInt.empty(),
+                    false,
+                    TableToPartitionMapping.empty(),
+                    Optional.empty(),
+                    false,
+                    Optional.empty(),
+                    ImmutableList.of())));
+        }
+
         // get partitions
         List<HivePartition> partitions = partitionManager.getOrLoadPartitions(metastore, new HiveIdentity(session), hiveTable);
 
@@ -215,10 +250,12 @@ public class HiveSplitManager
         // sort partitions
         partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitions);
 
-        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(session, metastore, table, tableName, partitions, bucketHandle.map(HiveBucketHandle::toTableBucketProperty));
+        Optional<PartitionProjection> partitionProjection = getPartitionProjection(table);
+        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(session, metastore, table, tableName, partitions, bucketHandle.map(HiveBucketHandle::toTableBucketProperty), partitionProjection);
 
         // Only one thread per partition is usable when a table is not transactional
         int concurrency = isTransactionalTable(table.getParameters()) ? splitLoaderConcurrency : min(splitLoaderConcurrency, partitions.size());
+        int maxConcurrency = isTransactionalTable(table.getParameters()) ? maxSplitLoaderConcurrency : min(maxSplitLoaderConcurrency, partitions.size());
         HiveSplitLoader hiveSplitLoader = new BackgroundHiveSplitLoader(
                 table,
                 hivePartitions,
@@ -226,15 +263,17 @@ public class HiveSplitManager
                 dynamicFilter,
                 getDynamicFilteringProbeBlockingTimeout(session),
                 typeManager,
-                createBucketSplitInfo(bucketHandle, bucketFilter),
+                createBucketSplitInfo(bucketHandle, bucketFilter, isSortedBucketScan(session, bucketHandle, partitions.size())),
                 session,
                 hdfsEnvironment,
                 namenodeStats,
                 directoryLister,
                 executor,
                 concurrency,
+                maxConcurrency,
                 recursiveDfsWalkerEnabled,
-                !hiveTable.getPartitionColumns().isEmpty() && isIgnoreAbsentPartitions(session),
+                // the locations of projected partitions may not exist
+                !hiveTable.getPartitionColumns().isEmpty() && (isIgnoreAbsentPartitions(session) || partitionProjection.isPresent()),
                 metastore.getValidWriteIds(session, hiveTable)
                         .map(validTxnWriteIdList -> validTxnWriteIdList.getTableValidWriteIdList(table.getDatabaseName() + "." + table.getTableName())));
 
@@ -251,7 +290,8 @@ public class HiveSplitManager
                         maxSplitsPerSecond,
                         hiveSplitLoader,
                         executor,
-                        highMemorySplitSourceCounter);
+                        highMemorySplitSourceCounter,
+                        dynamicFilterPrunedSplitsCounter);
                 break;
             case GROUPED_SCHEDULING:
                 splitSource = HiveSplitSource.bucketed(
@@ -264,7 +304,8 @@ public class HiveSplitManager
                         maxSplitsPerSecond,
                         hiveSplitLoader,
                         executor,
-                        highMemorySplitSourceCounter);
+                        highMemorySplitSourceCounter,
+                        dynamicFilterPrunedSplitsCounter);
                 break;
             default:
                 throw new IllegalArgumentException("Unknown splitSchedulingStrategy: " + splitSchedulingStrategy);
@@ -281,7 +322,21 @@ public class HiveSplitManager
         return highMemorySplitSourceCounter;
     }
 
-    private Iterable<HivePartitionMetadata> getPartitionMetadata(ConnectorSession session, SemiTransactionalHiveMetastore metastore, Table table, SchemaTableName tableName, List<HivePartition> hivePartitions, Optional<HiveBucketProperty> bucketProperty)
+    @Managed
+    @Nested
+    public CounterStat getDynamicFilterPrunedSplits()
+    {
+        return dynamicFilterPrunedSplitsCounter;
+    }
+
+    private Iterable<HivePartitionMetadata> getPartitionMetadata(
+            ConnectorSession session,
+            SemiTransactionalHiveMetastore metastore,
+            Table table,
+            SchemaTableName tableName,
+            List<HivePartition> hivePartitions,
+            Optional<HiveBucketProperty> bucketProperty,
+            Optional<PartitionProjection> partitionProjection)
     {
         if (hivePartitions.isEmpty()) {
             return ImmutableList.of();
@@ -294,6 +349,14 @@ public class HiveSplitManager
             }
         }
 
+        if (partitionProjection.isPresent()) {
+            // projected partitions have the storage and the columns of the table
+            return Lists.transform(hivePartitions, hivePartition -> new HivePartitionMetadata(
+                    hivePartition,
+                    Optional.of(partitionProjection.get().createPartition(table, extractPartitionValues(hivePartition.getPartitionId()))),
+                    TableToPartitionMapping.empty()));
+        }
+
         Iterable<List<HivePartition>> partitionNameBatches = partitionExponentially(hivePartitions, minPartitionBatchSize, maxPartitionBatchSize);
         Iterable<List<HivePartitionMetadata>> partitionBatches = transform(partitionNameBatches, partitionBatch -> {
             Map<String, Optional<Partition>> batch = metastore.getPartitionsByNames(
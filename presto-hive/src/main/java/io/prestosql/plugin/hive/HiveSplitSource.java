@@ -20,10 +20,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.HiveSplit.CombinedFile;
 import io.prestosql.plugin.hive.InternalHiveSplit.InternalHiveBlock;
 import io.prestosql.plugin.hive.util.AsyncQueue;
 import io.prestosql.plugin.hive.util.AsyncQueue.BorrowResult;
 import io.prestosql.plugin.hive.util.ThrottledAsyncQueue;
+import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -31,6 +33,7 @@ import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorSplitSource;
 
 import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
@@ -56,6 +59,7 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getMaxSplitSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isCombineSmallFilesEnabled;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.CLOSED;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.FAILED;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.INITIAL;
@@ -79,6 +83,7 @@ class HiveSplitSource
     private final DataSize maxSplitSize;
     private final DataSize maxInitialSplitSize;
     private final AtomicInteger remainingInitialSplits;
+    private final boolean combineSmallFiles;
 
     private final HiveSplitLoader splitLoader;
     private final AtomicReference<State> stateReference;
@@ -87,6 +92,7 @@ class HiveSplitSource
 
     private final CounterStat highMemorySplitSourceCounter;
     private final AtomicBoolean loggedHighMemoryWarning = new AtomicBoolean();
+    private final CounterStat dynamicFilterPrunedSplitsCounter;
 
     private HiveSplitSource(
             ConnectorSession session,
@@ -97,7 +103,8 @@ class HiveSplitSource
             DataSize maxOutstandingSplitsSize,
             HiveSplitLoader splitLoader,
             AtomicReference<State> stateReference,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            CounterStat dynamicFilterPrunedSplitsCounter)
     {
         requireNonNull(session, "session is null");
         this.queryId = session.getQueryId();
@@ -108,10 +115,12 @@ class HiveSplitSource
         this.splitLoader = requireNonNull(splitLoader, "splitLoader is null");
         this.stateReference = requireNonNull(stateReference, "stateReference is null");
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
+        this.dynamicFilterPrunedSplitsCounter = requireNonNull(dynamicFilterPrunedSplitsCounter, "dynamicFilterPrunedSplitsCounter is null");
 
         this.maxSplitSize = getMaxSplitSize(session);
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
         this.remainingInitialSplits = new AtomicInteger(maxInitialSplits);
+        this.combineSmallFiles = isCombineSmallFilesEnabled(session);
     }
 
     public static HiveSplitSource allAtOnce(
@@ -124,7 +133,8 @@ class HiveSplitSource
             int maxSplitsPerSecond,
             HiveSplitLoader splitLoader,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            CounterStat dynamicFilterPrunedSplitsCounter)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -166,7 +176,8 @@ class HiveSplitSource
                 maxOutstandingSplitsSize,
                 splitLoader,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                dynamicFilterPrunedSplitsCounter);
     }
 
     public static HiveSplitSource bucketed(
@@ -179,7 +190,8 @@ class HiveSplitSource
             int maxSplitsPerSecond,
             HiveSplitLoader splitLoader,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            CounterStat dynamicFilterPrunedSplitsCounter)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -241,7 +253,8 @@ class HiveSplitSource
                 maxOutstandingSplitsSize,
                 splitLoader,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                dynamicFilterPrunedSplitsCounter);
     }
 
     /**
@@ -335,8 +348,31 @@ class HiveSplitSource
         ListenableFuture<List<ConnectorSplit>> future = queues.borrowBatchAsync(bucketNumber, maxSize, internalSplits -> {
             ImmutableList.Builder<InternalHiveSplit> splitsToInsertBuilder = ImmutableList.builder();
             ImmutableList.Builder<ConnectorSplit> resultBuilder = ImmutableList.builder();
+            Map<String, CombinedSplitBuilder> combinedSplits = new LinkedHashMap<>();
             int removedEstimatedSizeInBytes = 0;
+            int prunedSplits = 0;
             for (InternalHiveSplit internalSplit : internalSplits) {
+                // the dynamic filter can have narrowed down since the split was queued
+                if (!internalSplit.partitionMatchesDynamicFilter()) {
+                    removedEstimatedSizeInBytes += internalSplit.getEstimatedSizeInBytes();
+                    prunedSplits++;
+                    continue;
+                }
+
+                if (combineSmallFiles && isCombinable(internalSplit)) {
+                    // small files of the same partition are packed into splits of up to the max split size
+                    CombinedSplitBuilder combinedSplit = combinedSplits.get(internalSplit.getPartitionName());
+                    if (combinedSplit != null && !combinedSplit.tryAdd(internalSplit, maxSplitSize.toBytes())) {
+                        resultBuilder.add(combinedSplit.build());
+                        combinedSplit = null;
+                    }
+                    if (combinedSplit == null) {
+                        combinedSplits.put(internalSplit.getPartitionName(), new CombinedSplitBuilder(internalSplit));
+                    }
+                    removedEstimatedSizeInBytes += internalSplit.getEstimatedSizeInBytes();
+                    continue;
+                }
+
                 long maxSplitBytes = maxSplitSize.toBytes();
                 if (remainingInitialSplits.get() > 0) {
                     if (remainingInitialSplits.getAndDecrement() > 0) {
@@ -362,24 +398,7 @@ class HiveSplitSource
                     splitBytes = internalSplit.getEnd() - internalSplit.getStart();
                 }
 
-                resultBuilder.add(new HiveSplit(
-                        databaseName,
-                        tableName,
-                        internalSplit.getPartitionName(),
-                        internalSplit.getPath(),
-                        internalSplit.getStart(),
-                        splitBytes,
-                        internalSplit.getEstimatedFileSize(),
-                        internalSplit.getFileModifiedTime(),
-                        internalSplit.getSchema(),
-                        internalSplit.getPartitionKeys(),
-                        block.getAddresses(),
-                        internalSplit.getBucketNumber(),
-                        internalSplit.isForceLocalScheduling(),
-                        internalSplit.getTableToPartitionMapping(),
-                        internalSplit.getBucketConversion(),
-                        internalSplit.isS3SelectPushdownEnabled(),
-                        internalSplit.getAcidInfo()));
+                resultBuilder.add(createHiveSplit(internalSplit, splitBytes, block.getAddresses(), ImmutableList.of()));
 
                 internalSplit.increaseStart(splitBytes);
 
@@ -390,11 +409,15 @@ class HiveSplitSource
                     splitsToInsertBuilder.add(internalSplit);
                 }
             }
+            combinedSplits.values().forEach(combinedSplit -> resultBuilder.add(combinedSplit.build()));
             estimatedSplitSizeInBytes.addAndGet(-removedEstimatedSizeInBytes);
+            if (prunedSplits > 0) {
+                dynamicFilterPrunedSplitsCounter.update(prunedSplits);
+            }
 
             List<InternalHiveSplit> splitsToInsert = splitsToInsertBuilder.build();
             List<ConnectorSplit> result = resultBuilder.build();
-            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - result.size());
+            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - internalSplits.size());
 
             return new AsyncQueue.BorrowResult<>(splitsToInsert, result);
         });
@@ -453,6 +476,41 @@ class HiveSplitSource
         }
     }
 
+    private boolean isCombinable(InternalHiveSplit internalSplit)
+    {
+        // only whole files that are read by a single split, and whose splits do not depend on more than the partition
+        return internalSplit.getStart() == 0 &&
+                internalSplit.getEnd() == internalSplit.getEstimatedFileSize() &&
+                internalSplit.getEnd() < maxSplitSize.toBytes() &&
+                internalSplit.getBucketNumber().isEmpty() &&
+                internalSplit.getBucketConversion().isEmpty() &&
+                internalSplit.getAcidInfo().isEmpty() &&
+                !internalSplit.isForceLocalScheduling();
+    }
+
+    private HiveSplit createHiveSplit(InternalHiveSplit internalSplit, long splitBytes, List<HostAddress> addresses, List<CombinedFile> combinedFiles)
+    {
+        return new HiveSplit(
+                databaseName,
+                tableName,
+                internalSplit.getPartitionName(),
+                internalSplit.getPath(),
+                internalSplit.getStart(),
+                splitBytes,
+                internalSplit.getEstimatedFileSize(),
+                internalSplit.getFileModifiedTime(),
+                internalSplit.getSchema(),
+                internalSplit.getPartitionKeys(),
+                addresses,
+                internalSplit.getBucketNumber(),
+                internalSplit.isForceLocalScheduling(),
+                internalSplit.getTableToPartitionMapping(),
+                internalSplit.getBucketConversion(),
+                internalSplit.isS3SelectPushdownEnabled(),
+                internalSplit.getAcidInfo(),
+                combinedFiles);
+    }
+
     private static OptionalInt toBucketNumber(ConnectorPartitionHandle partitionHandle)
     {
         if (partitionHandle == NOT_PARTITIONED) {
@@ -485,6 +543,35 @@ class HiveSplitSource
         throw new PrestoException(HIVE_UNKNOWN_ERROR, throwable);
     }
 
+    private class CombinedSplitBuilder
+    {
+        private final InternalHiveSplit firstSplit;
+        private final ImmutableList.Builder<CombinedFile> combinedFiles = ImmutableList.builder();
+        private long size;
+
+        public CombinedSplitBuilder(InternalHiveSplit firstSplit)
+        {
+            this.firstSplit = requireNonNull(firstSplit, "firstSplit is null");
+            this.size = firstSplit.getEnd();
+        }
+
+        public boolean tryAdd(InternalHiveSplit internalSplit, long maxSize)
+        {
+            // all files of the split are read with the schema of the first file
+            if (size + internalSplit.getEnd() > maxSize || !internalSplit.getSchema().equals(firstSplit.getSchema())) {
+                return false;
+            }
+            combinedFiles.add(new CombinedFile(internalSplit.getPath(), internalSplit.getEnd(), internalSplit.getFileModifiedTime()));
+            size += internalSplit.getEnd();
+            return true;
+        }
+
+        public HiveSplit build()
+        {
+            return createHiveSplit(firstSplit, firstSplit.getEnd(), firstSplit.currentBlock().getAddresses(), combinedFiles.build());
+        }
+    }
+
     interface PerBucket
     {
         ListenableFuture<?> offer(OptionalInt bucketNumber, InternalHiveSplit split);
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
@@ -48,6 +49,8 @@ public class HiveTableHandle
     private final Optional<List<List<String>>> analyzePartitionValues;
     private final Optional<Set<String>> analyzeColumnNames;
     private final Optional<Set<ColumnHandle>> constraintColumns;
+    private final OptionalLong limit;
+    private final boolean aggregatedFromStatistics;
 
     @JsonCreator
     public HiveTableHandle(
@@ -59,7 +62,9 @@ public class HiveTableHandle
             @JsonProperty("bucketHandle") Optional<HiveBucketHandle> bucketHandle,
             @JsonProperty("bucketFilter") Optional<HiveBucketFilter> bucketFilter,
             @JsonProperty("analyzePartitionValues") Optional<List<List<String>>> analyzePartitionValues,
-            @JsonProperty("analyzeColumnNames") Optional<Set<String>> analyzeColumnNames)
+            @JsonProperty("analyzeColumnNames") Optional<Set<String>> analyzeColumnNames,
+            @JsonProperty("limit") OptionalLong limit,
+            @JsonProperty("aggregatedFromStatistics") boolean aggregatedFromStatistics)
     {
         this(
                 schemaName,
@@ -73,7 +78,9 @@ public class HiveTableHandle
                 bucketFilter,
                 analyzePartitionValues,
                 analyzeColumnNames,
-                Optional.empty());
+                Optional.empty(),
+                limit,
+                aggregatedFromStatistics);
     }
 
     public HiveTableHandle(
@@ -95,7 +102,9 @@ public class HiveTableHandle
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
-                Optional.empty());
+                Optional.empty(),
+                OptionalLong.empty(),
+                false);
     }
 
     public HiveTableHandle(
@@ -110,7 +119,9 @@ public class HiveTableHandle
             Optional<HiveBucketFilter> bucketFilter,
             Optional<List<List<String>>> analyzePartitionValues,
             Optional<Set<String>> analyzeColumnNames,
-            Optional<Set<ColumnHandle>> constraintColumns)
+            Optional<Set<ColumnHandle>> constraintColumns,
+            OptionalLong limit,
+            boolean aggregatedFromStatistics)
     {
         this.schemaName = requireNonNull(schemaName, "schemaName is null");
         this.tableName = requireNonNull(tableName, "tableName is null");
@@ -124,6 +135,8 @@ public class HiveTableHandle
         this.analyzePartitionValues = requireNonNull(analyzePartitionValues, "analyzePartitionValues is null");
         this.analyzeColumnNames = requireNonNull(analyzeColumnNames, "analyzeColumnNames is null").map(ImmutableSet::copyOf);
         this.constraintColumns = requireNonNull(constraintColumns, "constraintColumns is null");
+        this.limit = requireNonNull(limit, "limit is null");
+        this.aggregatedFromStatistics = aggregatedFromStatistics;
     }
 
     public HiveTableHandle withAnalyzePartitionValues(List<List<String>> analyzePartitionValues)
@@ -140,7 +153,9 @@ public class HiveTableHandle
                 bucketFilter,
                 Optional.of(analyzePartitionValues),
                 analyzeColumnNames,
-                constraintColumns);
+                constraintColumns,
+                limit,
+                aggregatedFromStatistics);
     }
 
     public HiveTableHandle withAnalyzeColumnNames(Set<String> analyzeColumnNames)
@@ -157,7 +172,66 @@ public class HiveTableHandle
                 bucketFilter,
                 analyzePartitionValues,
                 Optional.of(analyzeColumnNames),
-                constraintColumns);
+                constraintColumns,
+                limit,
+                aggregatedFromStatistics);
+    }
+
+    public HiveTableHandle withLimit(long limit)
+    {
+        return new HiveTableHandle(
+                schemaName,
+                tableName,
+                tableParameters,
+                partitionColumns,
+                partitions,
+                compactEffectivePredicate,
+                enforcedConstraint,
+                bucketHandle,
+                bucketFilter,
+                analyzePartitionValues,
+                analyzeColumnNames,
+                constraintColumns,
+                OptionalLong.of(limit),
+                aggregatedFromStatistics);
+    }
+
+    public HiveTableHandle withBucketHandle(Optional<HiveBucketHandle> bucketHandle)
+    {
+        return new HiveTableHandle(
+                schemaName,
+                tableName,
+                tableParameters,
+                partitionColumns,
+                partitions,
+                compactEffectivePredicate,
+                enforcedConstraint,
+                bucketHandle,
+                bucketFilter,
+                analyzePartitionValues,
+                analyzeColumnNames,
+                constraintColumns,
+                limit,
+                aggregatedFromStatistics);
+    }
+
+    public HiveTableHandle withAggregatedFromStatistics()
+    {
+        return new HiveTableHandle(
+                schemaName,
+                tableName,
+                tableParameters,
+                partitionColumns,
+                partitions,
+                compactEffectivePredicate,
+                enforcedConstraint,
+                bucketHandle,
+                bucketFilter,
+                analyzePartitionValues,
+                analyzeColumnNames,
+                constraintColumns,
+                limit,
+                true);
     }
 
     @JsonProperty
@@ -235,6 +309,26 @@ public class HiveTableHandle
         return constraintColumns;
     }
 
+    /**
+     * Maximum number of rows to read from each split. The limit is not guaranteed, so the engine still
+     * applies it to the combined output of the splits.
+     */
+    @JsonProperty
+    public OptionalLong getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Whether the aggregations over the scan were computed from file statistics, in which
+     * case the scan produces a single row, and the columns are not read.
+     */
+    @JsonProperty
+    public boolean isAggregatedFromStatistics()
+    {
+        return aggregatedFromStatistics;
+    }
+
     public SchemaTableName getSchemaTableName()
     {
         return new SchemaTableName(schemaName, tableName);
@@ -259,7 +353,9 @@ public class HiveTableHandle
                 Objects.equals(enforcedConstraint, that.enforcedConstraint) &&
                 Objects.equals(bucketHandle, that.bucketHandle) &&
                 Objects.equals(bucketFilter, that.bucketFilter) &&
-                Objects.equals(analyzePartitionValues, that.analyzePartitionValues);
+                Objects.equals(analyzePartitionValues, that.analyzePartitionValues) &&
+                Objects.equals(limit, that.limit) &&
+                aggregatedFromStatistics == that.aggregatedFromStatistics;
     }
 
     @Override
@@ -275,7 +371,9 @@ public class HiveTableHandle
                 enforcedConstraint,
                 bucketHandle,
                 bucketFilter,
-                analyzePartitionValues);
+                analyzePartitionValues,
+                limit,
+                aggregatedFromStatistics);
     }
 
     @Override
@@ -285,6 +383,10 @@ public class HiveTableHandle
         builder.append(schemaName).append(":").append(tableName);
         bucketHandle.ifPresent(bucket ->
                 builder.append(" bucket=").append(bucket.getReadBucketCount()));
+        limit.ifPresent(value -> builder.append(" limit=").append(value));
+        if (aggregatedFromStatistics) {
+            builder.append(" aggregated from file statistics");
+        }
         return builder.toString();
     }
 }
@@ -66,6 +66,7 @@ import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -134,6 +135,8 @@ public class HiveWriterFactory
     private final Table table;
     private final DataSize sortBufferSize;
     private final int maxOpenSortFiles;
+    private final DataSize sortInMemoryRunsSize;
+    private final Executor sortMergeExecutor;
     private final boolean sortedWritingTempStagingPathEnabled;
     private final String sortedWritingTempStagingPath;
     private final InsertExistingPartitionsBehavior insertExistingPartitionsBehavior;
@@ -170,6 +173,8 @@ public class HiveWriterFactory
             PageSorter pageSorter,
             DataSize sortBufferSize,
             int maxOpenSortFiles,
+            DataSize sortInMemoryRunsSize,
+            Executor sortMergeExecutor,
             DateTimeZone parquetTimeZone,
             ConnectorSession session,
             NodeManager nodeManager,
@@ -196,6 +201,8 @@ public class HiveWriterFactory
         this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
         this.sortBufferSize = requireNonNull(sortBufferSize, "sortBufferSize is null");
         this.maxOpenSortFiles = maxOpenSortFiles;
+        this.sortInMemoryRunsSize = requireNonNull(sortInMemoryRunsSize, "sortInMemoryRunsSize is null");
+        this.sortMergeExecutor = requireNonNull(sortMergeExecutor, "sortMergeExecutor is null");
         this.sortedWritingTempStagingPathEnabled = isTemporaryStagingDirectoryEnabled(session);
         this.sortedWritingTempStagingPath = getTemporaryStagingDirectoryPath(session);
         this.insertExistingPartitionsBehavior = getInsertExistingPartitionsBehavior(session);
@@ -500,26 +507,14 @@ public class HiveWriterFactory
         };
 
         if (!sortedBy.isEmpty()) {
-            FileSystem fileSystem;
             Path tempFilePath;
             if (sortedWritingTempStagingPathEnabled) {
-                String tempPrefix = sortedWritingTempStagingPath.replace(
-                        "${USER}",
-                        new HdfsContext(session, schemaName, tableName).getIdentity().getUser());
-                tempFilePath = new Path(tempPrefix, ".tmp-sort." + path.getParent().getName() + "." + path.getName());
+                tempFilePath = new Path(getTempStagingPath(), ".tmp-sort." + path.getParent().getName() + "." + path.getName());
             }
             else {
                 tempFilePath = new Path(path.getParent(), ".tmp-sort." + path.getName());
             }
-            try {
-                Configuration configuration = new Configuration(conf);
-                // Explicitly set the default FS to local file system to avoid getting HDFS when sortedWritingTempStagingPath specifies no scheme
-                configuration.set(FS_DEFAULT_NAME_KEY, "file:///");
-                fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), tempFilePath, configuration);
-            }
-            catch (IOException e) {
-                throw new PrestoException(HIVE_WRITER_OPEN_ERROR, e);
-            }
+            FileSystem fileSystem = getTempFileSystem(tempFilePath);
 
             List<Type> types = dataColumns.stream()
                     .map(column -> column.getHiveType().getType(typeManager))
@@ -547,12 +542,15 @@ public class HiveWriterFactory
                     hiveFileWriter,
                     sortBufferSize,
                     maxOpenSortFiles,
+                    sortInMemoryRunsSize,
                     types,
                     sortFields,
                     sortOrders,
                     pageSorter,
                     typeManager.getTypeOperators(),
-                    OrcFileWriterFactory::createOrcDataSink);
+                    OrcFileWriterFactory::createOrcDataSink,
+                    sortMergeExecutor,
+                    hiveWriterStats);
         }
 
         return new HiveWriter(
@@ -566,6 +564,59 @@ public class HiveWriterFactory
                 hiveWriterStats);
     }
 
+    /**
+     * Creates a writer that buffers the pages, and spills them to temporary files when the buffer
+     * is full, and that passes all the pages to the output writer ordered by the specified channel
+     * when it is committed.
+     */
+    public FileWriter createClusteringWriter(List<Type> types, int clusterChannel, FileWriter outputWriter)
+    {
+        String tempFileName = ".tmp-cluster." + queryId + "." + randomUUID();
+        Path tempFilePath;
+        if (sortedWritingTempStagingPathEnabled) {
+            tempFilePath = new Path(getTempStagingPath(), tempFileName);
+        }
+        else {
+            tempFilePath = new Path(locationService.getQueryWriteInfo(locationHandle).getWritePath(), tempFileName);
+        }
+
+        return new SortingFileWriter(
+                getTempFileSystem(tempFilePath),
+                tempFilePath,
+                outputWriter,
+                sortBufferSize,
+                maxOpenSortFiles,
+                sortInMemoryRunsSize,
+                types,
+                ImmutableList.of(clusterChannel),
+                ImmutableList.of(SortOrder.ASC_NULLS_FIRST),
+                pageSorter,
+                typeManager.getTypeOperators(),
+                OrcFileWriterFactory::createOrcDataSink,
+                sortMergeExecutor,
+                hiveWriterStats);
+    }
+
+    private String getTempStagingPath()
+    {
+        return sortedWritingTempStagingPath.replace(
+                "${USER}",
+                new HdfsContext(session, schemaName, tableName).getIdentity().getUser());
+    }
+
+    private FileSystem getTempFileSystem(Path tempFilePath)
+    {
+        try {
+            Configuration configuration = new Configuration(conf);
+            // Explicitly set the default FS to local file system to avoid getting HDFS when sortedWritingTempStagingPath specifies no scheme
+            configuration.set(FS_DEFAULT_NAME_KEY, "file:///");
+            return hdfsEnvironment.getFileSystem(session.getUser(), tempFilePath, configuration);
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_OPEN_ERROR, e);
+        }
+    }
+
     private void validateSchema(Optional<String> partitionName, Properties schema)
     {
         // existing tables may have columns in a different order
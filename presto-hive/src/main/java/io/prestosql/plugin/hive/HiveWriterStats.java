@@ -13,13 +13,21 @@
  */
 package io.prestosql.plugin.hive;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 public class HiveWriterStats
 {
     private final DistributionStat inputPageSizeInBytes = new DistributionStat();
+    private final DistributionStat sortedRunsPerWriter = new DistributionStat();
+    private final CounterStat inMemorySortedRuns = new CounterStat();
+    private final TimeStat sortedRunsMergeTime = new TimeStat(MILLISECONDS);
 
     @Managed
     @Nested
@@ -28,8 +36,44 @@ public class HiveWriterStats
         return inputPageSizeInBytes;
     }
 
+    @Managed
+    @Nested
+    public DistributionStat getSortedRunsPerWriter()
+    {
+        return sortedRunsPerWriter;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getInMemorySortedRuns()
+    {
+        return inMemorySortedRuns;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getSortedRunsMergeTime()
+    {
+        return sortedRunsMergeTime;
+    }
+
     public void addInputPageSizesInBytes(long bytes)
     {
         inputPageSizeInBytes.add(bytes);
     }
+
+    public void addSortedRuns(long runs)
+    {
+        sortedRunsPerWriter.add(runs);
+    }
+
+    public void inMemorySortedRunCreated()
+    {
+        inMemorySortedRuns.update(1);
+    }
+
+    public void addSortedRunsMergeTime(Duration duration)
+    {
+        sortedRunsMergeTime.add(duration);
+    }
 }
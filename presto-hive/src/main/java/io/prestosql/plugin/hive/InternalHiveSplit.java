@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
+import java.util.function.BooleanSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -57,6 +58,7 @@ public class InternalHiveSplit
     private final Optional<BucketConversion> bucketConversion;
     private final boolean s3SelectPushdownEnabled;
     private final Optional<AcidInfo> acidInfo;
+    private final BooleanSupplier partitionMatchSupplier;
 
     private long start;
     private int currentBlockIndex;
@@ -77,7 +79,8 @@ public class InternalHiveSplit
             TableToPartitionMapping tableToPartitionMapping,
             Optional<BucketConversion> bucketConversion,
             boolean s3SelectPushdownEnabled,
-            Optional<AcidInfo> acidInfo)
+            Optional<AcidInfo> acidInfo,
+            BooleanSupplier partitionMatchSupplier)
     {
         checkArgument(start >= 0, "start must be positive");
         checkArgument(end >= 0, "length must be positive");
@@ -91,6 +94,7 @@ public class InternalHiveSplit
         requireNonNull(tableToPartitionMapping, "tableToPartitionMapping is null");
         requireNonNull(bucketConversion, "bucketConversion is null");
         requireNonNull(acidInfo, "acidInfo is null");
+        requireNonNull(partitionMatchSupplier, "partitionMatchSupplier is null");
 
         this.partitionName = partitionName;
         this.path = path;
@@ -108,6 +112,7 @@ public class InternalHiveSplit
         this.bucketConversion = bucketConversion;
         this.s3SelectPushdownEnabled = s3SelectPushdownEnabled;
         this.acidInfo = acidInfo;
+        this.partitionMatchSupplier = partitionMatchSupplier;
     }
 
     public String getPath()
@@ -219,6 +224,14 @@ public class InternalHiveSplit
         return acidInfo;
     }
 
+    /**
+     * Returns whether the partition of the split can still match the current dynamic filter.
+     */
+    public boolean partitionMatchesDynamicFilter()
+    {
+        return partitionMatchSupplier.getAsBoolean();
+    }
+
     @Override
     public String toString()
     {
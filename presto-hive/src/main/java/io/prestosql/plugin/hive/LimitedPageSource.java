@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Returns at most {@code limit} rows of the delegate, and reports itself finished as soon as
+ * they are returned, so the file reader stops without reading the rest of the split.
+ */
+public class LimitedPageSource
+        implements ConnectorPageSource
+{
+    private final ConnectorPageSource delegate;
+    private final long limit;
+    private long rowCount;
+
+    public LimitedPageSource(ConnectorPageSource delegate, long limit)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        checkArgument(limit >= 0, "limit is negative");
+        this.limit = limit;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return rowCount >= limit || delegate.isFinished();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (rowCount >= limit) {
+            return null;
+        }
+        Page page = delegate.getNextPage();
+        if (page == null) {
+            return null;
+        }
+        if (rowCount + page.getPositionCount() > limit) {
+            page = page.getRegion(0, toIntExact(limit - rowCount));
+        }
+        rowCount += page.getPositionCount();
+        return page;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return delegate.toString();
+    }
+}
@@ -16,11 +16,17 @@ package io.prestosql.plugin.hive;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.orc.MemoryOrcDataSource;
 import io.prestosql.orc.OrcDataSink;
 import io.prestosql.orc.OrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
 import io.prestosql.orc.OrcReaderOptions;
+import io.prestosql.orc.OutputStreamOrcDataSink;
 import io.prestosql.plugin.hive.orc.HdfsOrcDataSource;
 import io.prestosql.plugin.hive.util.MergingPageIterator;
 import io.prestosql.plugin.hive.util.SortBuffer;
@@ -45,6 +51,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -52,11 +60,16 @@ import java.util.stream.IntStream;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.orc.stream.OrcDataOutput.createDataOutput;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_DATA_ERROR;
 import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 public class SortingFileWriter
         implements FileWriter
@@ -64,6 +77,7 @@ public class SortingFileWriter
     private static final Logger log = Logger.get(SortingFileWriter.class);
 
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(SortingFileWriter.class).instanceSize();
+    private static final long MAX_INITIAL_MEMORY_RUN_SIZE = DataSize.of(1, MEGABYTE).toBytes();
 
     private final FileSystem fileSystem;
     private final Path tempFilePrefix;
@@ -74,9 +88,14 @@ public class SortingFileWriter
     private final FileWriter outputWriter;
     private final SortBuffer sortBuffer;
     private final TempFileSinkFactory tempFileSinkFactory;
-    private final Queue<TempFile> tempFiles = new PriorityQueue<>(comparing(TempFile::getSize));
+    private final long maxInMemoryRunsBytes;
+    private final Executor mergeExecutor;
+    private final HiveWriterStats stats;
+    private final Queue<SortedRun> runs = new PriorityQueue<>(comparing(SortedRun::getSize));
     private final AtomicLong nextFileId = new AtomicLong();
+    private final AtomicLong inMemoryRunsBytes = new AtomicLong();
     private final TypeOperators typeOperators;
+    private int runCount;
 
     public SortingFileWriter(
             FileSystem fileSystem,
@@ -84,12 +103,15 @@ public class SortingFileWriter
             FileWriter outputWriter,
             DataSize maxMemory,
             int maxOpenTempFiles,
+            DataSize maxInMemoryRunsSize,
             List<Type> types,
             List<Integer> sortFields,
             List<SortOrder> sortOrders,
             PageSorter pageSorter,
             TypeOperators typeOperators,
-            TempFileSinkFactory tempFileSinkFactory)
+            TempFileSinkFactory tempFileSinkFactory,
+            Executor mergeExecutor,
+            HiveWriterStats stats)
     {
         checkArgument(maxOpenTempFiles >= 2, "maxOpenTempFiles must be at least two");
         this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
@@ -99,9 +121,12 @@ public class SortingFileWriter
         this.sortFields = ImmutableList.copyOf(requireNonNull(sortFields, "sortFields is null"));
         this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
         this.outputWriter = requireNonNull(outputWriter, "outputWriter is null");
-        this.sortBuffer = new SortBuffer(maxMemory, types, sortFields, sortOrders, pageSorter);
-        this.tempFileSinkFactory = tempFileSinkFactory;
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
+        this.sortBuffer = new SortBuffer(maxMemory, types, sortFields, sortOrders, pageSorter, typeOperators);
+        this.tempFileSinkFactory = tempFileSinkFactory;
+        this.maxInMemoryRunsBytes = requireNonNull(maxInMemoryRunsSize, "maxInMemoryRunsSize is null").toBytes();
+        this.mergeExecutor = requireNonNull(mergeExecutor, "mergeExecutor is null");
+        this.stats = requireNonNull(stats, "stats is null");
     }
 
     @Override
@@ -113,14 +138,14 @@ public class SortingFileWriter
     @Override
     public long getSystemMemoryUsage()
     {
-        return INSTANCE_SIZE + sortBuffer.getRetainedBytes();
+        return INSTANCE_SIZE + sortBuffer.getRetainedBytes() + inMemoryRunsBytes.get() + outputWriter.getSystemMemoryUsage();
     }
 
     @Override
     public void appendRows(Page page)
     {
         if (!sortBuffer.canAdd(page)) {
-            flushToTempFile();
+            flushToRun();
         }
         sortBuffer.add(page);
     }
@@ -130,13 +155,13 @@ public class SortingFileWriter
     {
         if (!sortBuffer.isEmpty()) {
             // skip temporary files entirely if the total output size is small
-            if (tempFiles.isEmpty()) {
+            if (runs.isEmpty()) {
                 sortBuffer.flushTo(outputWriter::appendRows);
                 outputWriter.commit();
                 return;
             }
 
-            flushToTempFile();
+            flushToRun();
         }
 
         try {
@@ -151,9 +176,10 @@ public class SortingFileWriter
     @Override
     public void rollback()
     {
-        for (TempFile file : tempFiles) {
-            cleanupFile(file.getPath());
+        for (SortedRun run : runs) {
+            run.cleanup();
         }
+        runs.clear();
 
         outputWriter.rollback();
     }
@@ -179,45 +205,75 @@ public class SortingFileWriter
         return outputWriter.getVerificationTask();
     }
 
-    private void flushToTempFile()
+    private void flushToRun()
     {
-        writeTempFile(writer -> sortBuffer.flushTo(writer::writePage));
+        runs.add(writeRun(writer -> sortBuffer.flushTo(writer::writePage)));
+        runCount++;
     }
 
     // TODO: change connector SPI to make this resumable and have memory tracking
     private void writeSorted()
     {
-        combineFiles();
+        stats.addSortedRuns(runCount);
+        long start = System.nanoTime();
+
+        combineRuns();
 
-        mergeFiles(tempFiles, outputWriter::appendRows);
+        mergeRuns(ImmutableList.copyOf(runs), outputWriter::appendRows);
+        runs.clear();
+
+        stats.addSortedRunsMergeTime(Duration.nanosSince(start));
     }
 
-    private void combineFiles()
+    private void combineRuns()
     {
-        while (tempFiles.size() > maxOpenTempFiles) {
-            int count = min(maxOpenTempFiles, tempFiles.size() - (maxOpenTempFiles - 1));
+        while (runs.size() > maxOpenTempFiles) {
+            // Merge the smallest runs until few enough are left for the final merge. The merges
+            // of a round read different runs, so they run in parallel.
+            List<List<SortedRun>> merges = new ArrayList<>();
+            int excessRuns = runs.size() - maxOpenTempFiles;
+            while (excessRuns > 0 && runs.size() >= 2) {
+                int count = min(min(maxOpenTempFiles, excessRuns + 1), runs.size());
+                List<SortedRun> smallestRuns = IntStream.range(0, count)
+                        .mapToObj(i -> runs.poll())
+                        .collect(toImmutableList());
+                merges.add(smallestRuns);
+                excessRuns -= count - 1;
+            }
 
-            List<TempFile> smallestFiles = IntStream.range(0, count)
-                    .mapToObj(i -> tempFiles.poll())
+            List<CompletableFuture<SortedRun>> mergedRuns = merges.stream()
+                    .map(mergeRuns -> supplyAsync(() -> writeRun(writer -> mergeRuns(mergeRuns, writer::writePage)), mergeExecutor))
                     .collect(toImmutableList());
 
-            writeTempFile(writer -> mergeFiles(smallestFiles, writer::writePage));
+            RuntimeException failure = null;
+            for (int i = 0; i < mergedRuns.size(); i++) {
+                try {
+                    runs.add(getFutureValue(mergedRuns.get(i)));
+                }
+                catch (RuntimeException e) {
+                    // keep the runs of the failed merge, so they are removed on rollback
+                    runs.addAll(merges.get(i));
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    else if (failure != e) {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
         }
     }
 
-    private void mergeFiles(Iterable<TempFile> files, Consumer<Page> consumer)
+    private void mergeRuns(Iterable<SortedRun> runs, Consumer<Page> consumer)
     {
         try (Closer closer = Closer.create()) {
             Collection<Iterator<Page>> iterators = new ArrayList<>();
 
-            for (TempFile tempFile : files) {
-                Path file = tempFile.getPath();
-                OrcDataSource dataSource = new HdfsOrcDataSource(
-                        new OrcDataSourceId(file.toString()),
-                        fileSystem.getFileStatus(file).getLen(),
-                        new OrcReaderOptions(),
-                        fileSystem.open(file),
-                        new FileFormatDataSourceStats());
+            for (SortedRun run : runs) {
+                OrcDataSource dataSource = run.open();
                 closer.register(dataSource);
                 iterators.add(new TempFileReader(types, dataSource));
             }
@@ -225,11 +281,8 @@ public class SortingFileWriter
             new MergingPageIterator(iterators, types, sortFields, sortOrders, typeOperators)
                     .forEachRemaining(consumer);
 
-            for (TempFile tempFile : files) {
-                Path file = tempFile.getPath();
-                if (!fileSystem.delete(file, false)) {
-                    throw new IOException("Failed to delete temporary file: " + file);
-                }
+            for (SortedRun run : runs) {
+                run.delete();
             }
         }
         catch (IOException e) {
@@ -237,14 +290,55 @@ public class SortingFileWriter
         }
     }
 
-    private void writeTempFile(Consumer<TempFileWriter> consumer)
+    private SortedRun writeRun(Consumer<TempFileWriter> consumer)
+    {
+        // the size of a run is only known once it is written, so a run can exceed the limit
+        if (inMemoryRunsBytes.get() < maxInMemoryRunsBytes) {
+            return writeMemoryRun(consumer);
+        }
+        return writeTempFile(consumer);
+    }
+
+    private SortedRun writeMemoryRun(Consumer<TempFileWriter> consumer)
+    {
+        Slice data;
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(min(maxInMemoryRunsBytes, MAX_INITIAL_MEMORY_RUN_SIZE)));
+        try (TempFileWriter writer = new TempFileWriter(types, new OutputStreamOrcDataSink(output))) {
+            consumer.accept(writer);
+            writer.close();
+            // copy the data, since the output buffer can be much larger
+            data = Slices.copyOf(output.slice());
+        }
+        catch (IOException | UncheckedIOException e) {
+            throw new PrestoException(HIVE_WRITER_DATA_ERROR, "Failed to write sorted run to memory", e);
+        }
+
+        if (inMemoryRunsBytes.addAndGet(data.length()) <= maxInMemoryRunsBytes) {
+            stats.inMemorySortedRunCreated();
+            return new MemoryRun(new OrcDataSourceId(tempFilePrefix + ".memory." + nextFileId.getAndIncrement()), data);
+        }
+        inMemoryRunsBytes.addAndGet(-data.length());
+
+        // the run is a complete ORC file, so the bytes are written to the temporary file as is
+        Path tempFile = getTempFileName();
+        try (OrcDataSink sink = tempFileSinkFactory.createSink(fileSystem, tempFile)) {
+            sink.write(ImmutableList.of(createDataOutput(data)));
+        }
+        catch (IOException | UncheckedIOException e) {
+            cleanupFile(tempFile);
+            throw new PrestoException(HIVE_WRITER_DATA_ERROR, "Failed to write temporary file: " + tempFile, e);
+        }
+        return new TempFile(tempFile, data.length());
+    }
+
+    private SortedRun writeTempFile(Consumer<TempFileWriter> consumer)
     {
         Path tempFile = getTempFileName();
 
         try (TempFileWriter writer = new TempFileWriter(types, tempFileSinkFactory.createSink(fileSystem, tempFile))) {
             consumer.accept(writer);
             writer.close();
-            tempFiles.add(new TempFile(tempFile, writer.getWrittenBytes()));
+            return new TempFile(tempFile, writer.getWrittenBytes());
         }
         catch (IOException | UncheckedIOException e) {
             cleanupFile(tempFile);
@@ -269,7 +363,27 @@ public class SortingFileWriter
         return new Path(tempFilePrefix + "." + nextFileId.getAndIncrement());
     }
 
-    private static class TempFile
+    private interface SortedRun
+    {
+        long getSize();
+
+        OrcDataSource open()
+                throws IOException;
+
+        /**
+         * Removes the run once it is merged.
+         */
+        void delete()
+                throws IOException;
+
+        /**
+         * Removes the run on rollback, without failing.
+         */
+        void cleanup();
+    }
+
+    private class TempFile
+            implements SortedRun
     {
         private final Path path;
         private final long size;
@@ -281,14 +395,37 @@ public class SortingFileWriter
             this.size = size;
         }
 
-        public Path getPath()
+        @Override
+        public long getSize()
         {
-            return path;
+            return size;
         }
 
-        public long getSize()
+        @Override
+        public OrcDataSource open()
+                throws IOException
         {
-            return size;
+            return new HdfsOrcDataSource(
+                    new OrcDataSourceId(path.toString()),
+                    fileSystem.getFileStatus(path).getLen(),
+                    new OrcReaderOptions(),
+                    fileSystem.open(path),
+                    new FileFormatDataSourceStats());
+        }
+
+        @Override
+        public void delete()
+                throws IOException
+        {
+            if (!fileSystem.delete(path, false)) {
+                throw new IOException("Failed to delete temporary file: " + path);
+            }
+        }
+
+        @Override
+        public void cleanup()
+        {
+            cleanupFile(path);
         }
 
         @Override
@@ -301,6 +438,56 @@ public class SortingFileWriter
         }
     }
 
+    private class MemoryRun
+            implements SortedRun
+    {
+        private final OrcDataSourceId id;
+        private final Slice data;
+        private boolean released;
+
+        public MemoryRun(OrcDataSourceId id, Slice data)
+        {
+            this.id = requireNonNull(id, "id is null");
+            this.data = requireNonNull(data, "data is null");
+        }
+
+        @Override
+        public long getSize()
+        {
+            return data.length();
+        }
+
+        @Override
+        public OrcDataSource open()
+        {
+            return new MemoryOrcDataSource(id, data);
+        }
+
+        @Override
+        public synchronized void delete()
+        {
+            if (!released) {
+                released = true;
+                inMemoryRunsBytes.addAndGet(-data.length());
+            }
+        }
+
+        @Override
+        public void cleanup()
+        {
+            delete();
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("id", id)
+                    .add("size", data.length())
+                    .toString();
+        }
+    }
+
     public interface TempFileSinkFactory
     {
         OrcDataSink createSink(FileSystem fileSystem, Path path)
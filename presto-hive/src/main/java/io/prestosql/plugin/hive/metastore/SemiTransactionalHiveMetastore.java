@@ -126,6 +126,8 @@ public class SemiTransactionalHiveMetastore
     @GuardedBy("this")
     private final List<DeclaredIntentionToWrite> declaredIntentionsToWrite = new ArrayList<>();
     @GuardedBy("this")
+    private final Set<SchemaTableName> truncatedTables = new HashSet<>();
+    @GuardedBy("this")
     private ExclusiveOperation bufferedExclusiveOperation;
     @GuardedBy("this")
     private State state = State.EMPTY;
@@ -555,6 +557,7 @@ public class SemiTransactionalHiveMetastore
 
         Path path = new Path(table.get().getStorage().getLocation());
         HdfsContext context = new HdfsContext(session, databaseName, tableName);
+        truncatedTables.add(schemaTableName);
         setExclusive((delegate, hdfsEnvironment) -> {
             RecursiveDeleteResult recursiveDeleteResult = recursiveDeleteFiles(hdfsEnvironment, context, path, ImmutableSet.of(""), false);
             if (!recursiveDeleteResult.getNotDeletedEligibleItems().isEmpty()) {
@@ -961,6 +964,19 @@ public class SemiTransactionalHiveMetastore
         declaredIntentionsToWrite.add(new DeclaredIntentionToWrite(writeMode, hdfsContext, identity, session.getQueryId(), stagingPathRoot, schemaTableName));
     }
 
+    /**
+     * Returns the tables whose files or partitions are modified by this transaction.
+     */
+    public synchronized Set<SchemaTableName> getModifiedTables()
+    {
+        ImmutableSet.Builder<SchemaTableName> tables = ImmutableSet.builder();
+        tables.addAll(tableActions.keySet());
+        tables.addAll(partitionActions.keySet());
+        declaredIntentionsToWrite.forEach(declaredIntentionToWrite -> tables.add(declaredIntentionToWrite.getSchemaTableName()));
+        tables.addAll(truncatedTables);
+        return tables.build();
+    }
+
     public synchronized void commit()
     {
         try {
@@ -13,15 +13,21 @@
  */
 package io.prestosql.plugin.hive.metastore.cache;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.jmx.CacheStatsMBean;
+import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.plugin.hive.HivePartition;
 import io.prestosql.plugin.hive.HiveType;
@@ -61,8 +67,10 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -71,18 +79,21 @@ import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheLoader.asyncReloading;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableListMultimap.toImmutableListMultimap;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.ImmutableSetMultimap.toImmutableSetMultimap;
 import static com.google.common.collect.Maps.immutableEntry;
 import static com.google.common.collect.Streams.stream;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.plugin.hive.HivePartitionManager.extractPartitionValues;
 import static io.prestosql.plugin.hive.metastore.HivePartitionName.hivePartitionName;
 import static io.prestosql.plugin.hive.metastore.HiveTableName.hiveTableName;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.makePartitionName;
 import static io.prestosql.plugin.hive.metastore.PartitionFilter.partitionFilter;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
@@ -98,7 +109,13 @@ public class CachingHiveMetastore
         DISABLED
     }
 
+    private static final Logger log = Logger.get(CachingHiveMetastore.class);
+    private static final int MAX_TABLE_CACHE_STATS = 1000;
+
     protected final HiveMetastore delegate;
+    private final Executor executor;
+    private final int partitionBatchSize;
+    private final int partitionLoadParallelism;
     private final LoadingCache<String, Optional<Database>> databaseCache;
     private final LoadingCache<String, List<String>> databaseNamesCache;
     private final LoadingCache<WithIdentity<HiveTableName>, Optional<Table>> tableCache;
@@ -114,6 +131,9 @@ public class CachingHiveMetastore
     private final LoadingCache<HivePrincipal, Set<RoleGrant>> roleGrantsCache;
     private final LoadingCache<String, Set<RoleGrant>> grantedPrincipalsCache;
     private final LoadingCache<String, Optional<String>> configValuesCache;
+    private final Cache<HiveTableName, TableCacheStats> tableCacheStats;
+    private final Cache<WithIdentity<HivePartitionName>, Boolean> recentlyAccessedPartitions;
+    private final Cache<WithIdentity<HivePartitionName>, Boolean> recentlyAccessedPartitionStatistics;
 
     public static HiveMetastore cachingHiveMetastore(HiveMetastore delegate, Executor executor, CachingHiveMetastoreConfig config)
     {
@@ -122,10 +142,24 @@ public class CachingHiveMetastore
                 executor,
                 config.getMetastoreCacheTtl(),
                 config.getMetastoreRefreshInterval(),
-                config.getMetastoreCacheMaximumSize());
+                config.getMetastoreCacheMaximumSize(),
+                config.getMetastorePartitionBatchSize(),
+                config.getMetastoreLoadParallelism());
     }
 
     public static HiveMetastore cachingHiveMetastore(HiveMetastore delegate, Executor executor, Duration cacheTtl, Optional<Duration> refreshInterval, long maximumSize)
+    {
+        return cachingHiveMetastore(delegate, executor, cacheTtl, refreshInterval, maximumSize, Integer.MAX_VALUE, 1);
+    }
+
+    public static HiveMetastore cachingHiveMetastore(
+            HiveMetastore delegate,
+            Executor executor,
+            Duration cacheTtl,
+            Optional<Duration> refreshInterval,
+            long maximumSize,
+            int partitionBatchSize,
+            int partitionLoadParallelism)
     {
         if (cacheTtl.toMillis() == 0 || maximumSize == 0) {
             // caching is disabled
@@ -141,7 +175,9 @@ public class CachingHiveMetastore
                         .map(OptionalLong::of)
                         .orElseGet(OptionalLong::empty),
                 maximumSize,
-                StatsRecording.ENABLED);
+                StatsRecording.ENABLED,
+                partitionBatchSize,
+                partitionLoadParallelism);
     }
 
     public static CachingHiveMetastore memoizeMetastore(HiveMetastore delegate, long maximumSize)
@@ -156,9 +192,26 @@ public class CachingHiveMetastore
     }
 
     protected CachingHiveMetastore(HiveMetastore delegate, Executor executor, OptionalLong expiresAfterWriteMillis, OptionalLong refreshMills, long maximumSize, StatsRecording statsRecording)
+    {
+        this(delegate, executor, expiresAfterWriteMillis, refreshMills, maximumSize, statsRecording, Integer.MAX_VALUE, 1);
+    }
+
+    protected CachingHiveMetastore(
+            HiveMetastore delegate,
+            Executor executor,
+            OptionalLong expiresAfterWriteMillis,
+            OptionalLong refreshMills,
+            long maximumSize,
+            StatsRecording statsRecording,
+            int partitionBatchSize,
+            int partitionLoadParallelism)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
-        requireNonNull(executor, "executor is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(partitionBatchSize > 0, "partitionBatchSize must be positive");
+        checkArgument(partitionLoadParallelism > 0, "partitionLoadParallelism must be positive");
+        this.partitionBatchSize = partitionBatchSize;
+        this.partitionLoadParallelism = partitionLoadParallelism;
 
         databaseNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize, statsRecording)
                 .build(asyncReloading(CacheLoader.from(this::loadAllDatabases), executor));
@@ -230,6 +283,16 @@ public class CachingHiveMetastore
 
         configValuesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize, statsRecording)
                 .build(asyncReloading(CacheLoader.from(this::loadConfigValue), executor));
+
+        tableCacheStats = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TABLE_CACHE_STATS)
+                .build();
+        recentlyAccessedPartitions = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        recentlyAccessedPartitionStatistics = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
     }
 
     @Managed
@@ -248,6 +311,94 @@ public class CachingHiveMetastore
         rolesCache.invalidateAll();
     }
 
+    /**
+     * Reloads the cached partitions and partition statistics requested since the previous call,
+     * in batches per table, and replaces the cached values, so queries on frequently used
+     * partitions do not wait for the metastore when their entries would otherwise expire.
+     * At most as many partitions as the cache holds are remembered between calls.
+     */
+    public void prefetchRecentlyAccessedPartitions()
+    {
+        groupByTable(drainCachedKeys(recentlyAccessedPartitions, partitionCache)).asMap().forEach((table, partitionNames) -> {
+            try {
+                partitionCache.putAll(loadPartitionsByNames(partitionNames));
+            }
+            catch (RuntimeException e) {
+                log.warn(e, "Failed to prefetch partitions of table %s", table.getKey());
+            }
+        });
+        groupByTable(drainCachedKeys(recentlyAccessedPartitionStatistics, partitionStatisticsCache)).asMap().forEach((table, partitionNames) -> {
+            try {
+                partitionStatisticsCache.putAll(loadPartitionColumnStatistics(partitionNames));
+            }
+            catch (RuntimeException e) {
+                log.warn(e, "Failed to prefetch partition statistics of table %s", table.getKey());
+            }
+        });
+    }
+
+    private static <K> Set<K> drainCachedKeys(Cache<K, Boolean> accessedKeys, LoadingCache<K, ?> cache)
+    {
+        Set<K> keys = ImmutableSet.copyOf(accessedKeys.asMap().keySet());
+        accessedKeys.invalidateAll(keys);
+        // entries that were evicted or invalidated since they were requested are loaded on their next request
+        return keys.stream()
+                .filter(cache.asMap()::containsKey)
+                .collect(toImmutableSet());
+    }
+
+    private static <K> void recordAccess(Cache<K, Boolean> accessedKeys, List<K> keys)
+    {
+        for (K key : keys) {
+            accessedKeys.put(key, true);
+        }
+    }
+
+    private static ListMultimap<WithIdentity<HiveTableName>, WithIdentity<HivePartitionName>> groupByTable(Set<WithIdentity<HivePartitionName>> partitionNames)
+    {
+        return partitionNames.stream()
+                .collect(toImmutableListMultimap(partitionName -> new WithIdentity<>(partitionName.getIdentity(), partitionName.getKey().getHiveTableName()), Function.identity()));
+    }
+
+    private TableCacheStats getTableCacheStats(HiveTableName tableName)
+    {
+        try {
+            return tableCacheStats.get(tableName, TableCacheStats::new);
+        }
+        catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    private static <K> long countCached(LoadingCache<K, ?> cache, List<K> keys)
+    {
+        // containsKey does not affect the recorded cache statistics
+        return keys.stream()
+                .filter(cache.asMap()::containsKey)
+                .count();
+    }
+
+    /**
+     * Loads the values of the partitions in batches of at most {@code partitionBatchSize} partitions,
+     * and runs up to {@code partitionLoadParallelism} batches concurrently.
+     */
+    private <T, V> Map<String, V> loadInBatches(List<T> partitions, Function<List<T>, Map<String, V>> loader)
+    {
+        if (partitions.size() <= partitionBatchSize) {
+            return loader.apply(partitions);
+        }
+
+        Executor batchExecutor = new BoundedExecutor(executor, partitionLoadParallelism);
+        List<CompletableFuture<Map<String, V>>> batches = Lists.partition(partitions, partitionBatchSize).stream()
+                .map(batch -> supplyAsync(() -> loader.apply(batch), batchExecutor))
+                .collect(toImmutableList());
+        ImmutableMap.Builder<String, V> result = ImmutableMap.builder();
+        for (CompletableFuture<Map<String, V>> batch : batches) {
+            result.putAll(getFutureValue(batch));
+        }
+        return result.build();
+    }
+
     private static <K, V> V get(LoadingCache<K, V> cache, K key)
     {
         try {
@@ -337,6 +488,8 @@ public class CachingHiveMetastore
         List<WithIdentity<HivePartitionName>> partitionNames = partitions.stream()
                 .map(partition -> new WithIdentity<>(updateIdentity(identity), hivePartitionName(hiveTableName, makePartitionName(table, partition))))
                 .collect(toImmutableList());
+        getTableCacheStats(hiveTableName).recordStatisticsRequests(partitionNames.size(), countCached(partitionStatisticsCache, partitionNames));
+        recordAccess(recentlyAccessedPartitionStatistics, partitionNames);
         Map<WithIdentity<HivePartitionName>, PartitionStatistics> statistics = getAll(partitionStatisticsCache, partitionNames);
         return statistics.entrySet()
                 .stream()
@@ -367,7 +520,7 @@ public class CachingHiveMetastore
                     .collect(toImmutableSet());
             Table table = getExistingTable(tableName.getIdentity(), tableName.getKey().getDatabaseName(), tableName.getKey().getTableName());
             List<Partition> partitions = getExistingPartitionsByNames(tableName.getIdentity(), table, ImmutableList.copyOf(partitionNameStrings));
-            Map<String, PartitionStatistics> statisticsByPartitionName = delegate.getPartitionStatistics(tableName.getIdentity(), table, partitions);
+            Map<String, PartitionStatistics> statisticsByPartitionName = loadInBatches(partitions, batch -> delegate.getPartitionStatistics(tableName.getIdentity(), table, batch));
             for (WithIdentity<HivePartitionName> partitionName : partitionNames) {
                 String stringNameForPartition = partitionName.getKey().getPartitionName().get();
                 result.put(partitionName, statisticsByPartitionName.get(stringNameForPartition));
@@ -652,7 +805,11 @@ public class CachingHiveMetastore
     @Override
     public Optional<Partition> getPartition(HiveIdentity identity, Table table, List<String> partitionValues)
     {
-        return get(partitionCache, new WithIdentity<>(updateIdentity(identity), hivePartitionName(hiveTableName(table.getDatabaseName(), table.getTableName()), partitionValues)));
+        HiveTableName hiveTableName = hiveTableName(table.getDatabaseName(), table.getTableName());
+        WithIdentity<HivePartitionName> name = new WithIdentity<>(updateIdentity(identity), hivePartitionName(hiveTableName, partitionValues));
+        getTableCacheStats(hiveTableName).recordPartitionRequests(1, countCached(partitionCache, ImmutableList.of(name)));
+        recordAccess(recentlyAccessedPartitions, ImmutableList.of(name));
+        return get(partitionCache, name);
     }
 
     @Override
@@ -678,10 +835,13 @@ public class CachingHiveMetastore
     @Override
     public Map<String, Optional<Partition>> getPartitionsByNames(HiveIdentity identity, Table table, List<String> partitionNames)
     {
+        HiveTableName hiveTableName = hiveTableName(table.getDatabaseName(), table.getTableName());
         List<WithIdentity<HivePartitionName>> names = partitionNames.stream()
-                .map(name -> new WithIdentity<>(updateIdentity(identity), hivePartitionName(hiveTableName(table.getDatabaseName(), table.getTableName()), name)))
+                .map(name -> new WithIdentity<>(updateIdentity(identity), hivePartitionName(hiveTableName, name)))
                 .collect(toImmutableList());
 
+        getTableCacheStats(hiveTableName).recordPartitionRequests(names.size(), countCached(partitionCache, names));
+        recordAccess(recentlyAccessedPartitions, names);
         Map<WithIdentity<HivePartitionName>, Optional<Partition>> all = getAll(partitionCache, names);
         ImmutableMap.Builder<String, Optional<Partition>> partitionsByName = ImmutableMap.builder();
         for (Entry<WithIdentity<HivePartitionName>, Optional<Partition>> entry : all.entrySet()) {
@@ -720,7 +880,7 @@ public class CachingHiveMetastore
         }
 
         ImmutableMap.Builder<WithIdentity<HivePartitionName>, Optional<Partition>> partitions = ImmutableMap.builder();
-        Map<String, Optional<Partition>> partitionsByNames = delegate.getPartitionsByNames(identity, table.get(), partitionsToFetch);
+        Map<String, Optional<Partition>> partitionsByNames = loadInBatches(partitionsToFetch, batch -> delegate.getPartitionsByNames(identity, table.get(), batch));
         for (WithIdentity<HivePartitionName> partitionName : partitionNames) {
             partitions.put(partitionName, partitionsByNames.getOrDefault(partitionName.getKey().getPartitionName().get(), Optional.empty()));
         }
@@ -1123,4 +1283,67 @@ public class CachingHiveMetastore
     {
         return new CacheStatsMBean(configValuesCache);
     }
+
+    @Managed(description = "Partition and partition statistics cache hits and misses of the most recently used tables")
+    public Map<String, String> getTableCacheStats()
+    {
+        return tableCacheStats.asMap().entrySet().stream()
+                .collect(toImmutableMap(entry -> entry.getKey().getDatabaseName() + "." + entry.getKey().getTableName(), entry -> entry.getValue().toString()));
+    }
+
+    public Optional<TableCacheStats> getTableCacheStats(String databaseName, String tableName)
+    {
+        return Optional.ofNullable(tableCacheStats.getIfPresent(hiveTableName(databaseName, tableName)));
+    }
+
+    public static class TableCacheStats
+    {
+        private final AtomicLong partitionHitCount = new AtomicLong();
+        private final AtomicLong partitionMissCount = new AtomicLong();
+        private final AtomicLong statisticsHitCount = new AtomicLong();
+        private final AtomicLong statisticsMissCount = new AtomicLong();
+
+        private void recordPartitionRequests(long requestCount, long hitCount)
+        {
+            partitionHitCount.addAndGet(hitCount);
+            partitionMissCount.addAndGet(requestCount - hitCount);
+        }
+
+        private void recordStatisticsRequests(long requestCount, long hitCount)
+        {
+            statisticsHitCount.addAndGet(hitCount);
+            statisticsMissCount.addAndGet(requestCount - hitCount);
+        }
+
+        public long getPartitionHitCount()
+        {
+            return partitionHitCount.get();
+        }
+
+        public long getPartitionMissCount()
+        {
+            return partitionMissCount.get();
+        }
+
+        public long getStatisticsHitCount()
+        {
+            return statisticsHitCount.get();
+        }
+
+        public long getStatisticsMissCount()
+        {
+            return statisticsMissCount.get();
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("partitionHitCount", partitionHitCount)
+                    .add("partitionMissCount", partitionMissCount)
+                    .add("statisticsHitCount", statisticsHitCount)
+                    .add("statisticsMissCount", statisticsMissCount)
+                    .toString();
+        }
+    }
 }
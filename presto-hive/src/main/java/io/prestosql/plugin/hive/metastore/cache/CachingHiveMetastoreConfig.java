@@ -14,6 +14,7 @@
 package io.prestosql.plugin.hive.metastore.cache;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
@@ -29,6 +30,9 @@ public class CachingHiveMetastoreConfig
     private Optional<Duration> metastoreRefreshInterval = Optional.empty();
     private long metastoreCacheMaximumSize = 10000;
     private int maxMetastoreRefreshThreads = 100;
+    private int metastorePartitionBatchSize = 100;
+    private int metastoreLoadParallelism = 4;
+    private Optional<Duration> metastorePrefetchInterval = Optional.empty();
 
     @NotNull
     public Duration getMetastoreCacheTtl()
@@ -81,4 +85,46 @@ public class CachingHiveMetastoreConfig
         this.maxMetastoreRefreshThreads = maxMetastoreRefreshThreads;
         return this;
     }
+
+    @Min(1)
+    public int getMetastorePartitionBatchSize()
+    {
+        return metastorePartitionBatchSize;
+    }
+
+    @Config("hive.metastore-partition-batch-size")
+    @ConfigDescription("Maximum number of partitions or partition statistics loaded from the metastore in a single request")
+    public CachingHiveMetastoreConfig setMetastorePartitionBatchSize(int metastorePartitionBatchSize)
+    {
+        this.metastorePartitionBatchSize = metastorePartitionBatchSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMetastoreLoadParallelism()
+    {
+        return metastoreLoadParallelism;
+    }
+
+    @Config("hive.metastore-load-parallelism")
+    @ConfigDescription("Maximum number of concurrent metastore requests used to load the partitions of a table")
+    public CachingHiveMetastoreConfig setMetastoreLoadParallelism(int metastoreLoadParallelism)
+    {
+        this.metastoreLoadParallelism = metastoreLoadParallelism;
+        return this;
+    }
+
+    @NotNull
+    public Optional<@MinDuration("1ms") Duration> getMetastorePrefetchInterval()
+    {
+        return metastorePrefetchInterval;
+    }
+
+    @Config("hive.metastore-prefetch-interval")
+    @ConfigDescription("Interval at which the cached partitions and statistics of recently accessed tables are reloaded in the background")
+    public CachingHiveMetastoreConfig setMetastorePrefetchInterval(Duration metastorePrefetchInterval)
+    {
+        this.metastorePrefetchInterval = Optional.ofNullable(metastorePrefetchInterval);
+        return this;
+    }
 }
@@ -14,22 +14,27 @@
 package io.prestosql.plugin.hive.metastore.cache;
 
 import com.google.inject.Binder;
+import com.google.inject.Inject;
 import com.google.inject.Module;
 import com.google.inject.Provides;
 import io.prestosql.plugin.base.CatalogName;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
 import io.prestosql.plugin.hive.metastore.HiveMetastoreDecorator;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 
 import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.configuration.ConfigBinder.configBinder;
 import static io.prestosql.plugin.hive.metastore.cache.CachingHiveMetastore.cachingHiveMetastore;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
 public class CachingHiveMetastoreModule
@@ -42,6 +47,7 @@ public class CachingHiveMetastoreModule
         newOptionalBinder(binder, HiveMetastoreDecorator.class);
         newExporter(binder).export(HiveMetastore.class)
                 .as(generator -> generator.generatedNameOf(CachingHiveMetastore.class));
+        binder.bind(MetastorePrefetcher.class).asEagerSingleton();
     }
 
     @Provides
@@ -66,4 +72,28 @@ public class CachingHiveMetastoreModule
                 newCachedThreadPool(daemonThreadsNamed("hive-metastore-" + catalogName + "-%s")),
                 hiveConfig.getMaxMetastoreRefreshThreads());
     }
+
+    private static class MetastorePrefetcher
+    {
+        private final Optional<ScheduledExecutorService> prefetchExecutor;
+
+        @Inject
+        private MetastorePrefetcher(HiveMetastore metastore, CatalogName catalogName, CachingHiveMetastoreConfig config)
+        {
+            if (!(metastore instanceof CachingHiveMetastore) || config.getMetastorePrefetchInterval().isEmpty()) {
+                prefetchExecutor = Optional.empty();
+                return;
+            }
+            long prefetchIntervalMillis = config.getMetastorePrefetchInterval().get().toMillis();
+            ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-prefetch-" + catalogName + "-%s"));
+            executor.scheduleWithFixedDelay(((CachingHiveMetastore) metastore)::prefetchRecentlyAccessedPartitions, prefetchIntervalMillis, prefetchIntervalMillis, MILLISECONDS);
+            prefetchExecutor = Optional.of(executor);
+        }
+
+        @PreDestroy
+        public void stop()
+        {
+            prefetchExecutor.ifPresent(ScheduledExecutorService::shutdownNow);
+        }
+    }
 }
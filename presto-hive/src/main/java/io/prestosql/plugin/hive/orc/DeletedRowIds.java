@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The row ids of a delete delta file, indexed by original transaction. The row ids of each
+ * original transaction are stored in a sorted array, which takes a fraction of the memory of
+ * a set of row objects, and can be shared by all the splits that read the same delete delta.
+ */
+public final class DeletedRowIds
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DeletedRowIds.class).instanceSize();
+
+    // distinct original transactions, in ascending order
+    private final long[] originalTransactions;
+    // the row ids of originalTransactions[i] are rowIds[offsets[i]] to rowIds[offsets[i + 1] - 1], in ascending order
+    private final int[] offsets;
+    private final long[] rowIds;
+
+    private DeletedRowIds(long[] originalTransactions, int[] offsets, long[] rowIds)
+    {
+        this.originalTransactions = requireNonNull(originalTransactions, "originalTransactions is null");
+        this.offsets = requireNonNull(offsets, "offsets is null");
+        this.rowIds = requireNonNull(rowIds, "rowIds is null");
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public boolean isEmpty()
+    {
+        return rowIds.length == 0;
+    }
+
+    public int size()
+    {
+        return rowIds.length;
+    }
+
+    public boolean contains(long originalTransaction, long rowId)
+    {
+        int transaction = Arrays.binarySearch(originalTransactions, originalTransaction);
+        if (transaction < 0) {
+            return false;
+        }
+        return Arrays.binarySearch(rowIds, offsets[transaction], offsets[transaction + 1], rowId) >= 0;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(originalTransactions) + sizeOf(offsets) + sizeOf(rowIds);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("originalTransactions", originalTransactions.length)
+                .add("rowIds", rowIds.length)
+                .toString();
+    }
+
+    public static class Builder
+    {
+        private long[] originalTransactions = new long[16];
+        private long[] rowIds = new long[16];
+        private int size;
+        private boolean sorted = true;
+
+        private Builder() {}
+
+        public Builder add(long originalTransaction, long rowId)
+        {
+            if (size == rowIds.length) {
+                int newCapacity = size * 2;
+                originalTransactions = Arrays.copyOf(originalTransactions, newCapacity);
+                rowIds = Arrays.copyOf(rowIds, newCapacity);
+            }
+            if (size > 0 && compare(size - 1, originalTransaction, rowId) > 0) {
+                sorted = false;
+            }
+            originalTransactions[size] = originalTransaction;
+            rowIds[size] = rowId;
+            size++;
+            return this;
+        }
+
+        public DeletedRowIds build()
+        {
+            // delete deltas are written in row id order, so sorting is rarely needed
+            if (!sorted) {
+                int[] order = IntStream.range(0, size)
+                        .boxed()
+                        .sorted(Comparator.<Integer>comparingLong(position -> originalTransactions[position])
+                                .thenComparingLong(position -> rowIds[position]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                long[] sortedOriginalTransactions = new long[size];
+                long[] sortedRowIds = new long[size];
+                for (int i = 0; i < size; i++) {
+                    sortedOriginalTransactions[i] = originalTransactions[order[i]];
+                    sortedRowIds[i] = rowIds[order[i]];
+                }
+                originalTransactions = sortedOriginalTransactions;
+                rowIds = sortedRowIds;
+                sorted = true;
+            }
+
+            int transactionCount = 0;
+            int rowCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || originalTransactions[i] != originalTransactions[i - 1]) {
+                    transactionCount++;
+                    rowCount++;
+                }
+                else if (rowIds[i] != rowIds[i - 1]) {
+                    rowCount++;
+                }
+            }
+
+            long[] distinctOriginalTransactions = new long[transactionCount];
+            int[] offsets = new int[transactionCount + 1];
+            long[] distinctRowIds = new long[rowCount];
+            int transaction = -1;
+            int row = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || originalTransactions[i] != originalTransactions[i - 1]) {
+                    transaction++;
+                    distinctOriginalTransactions[transaction] = originalTransactions[i];
+                    offsets[transaction] = row;
+                }
+                else if (rowIds[i] == rowIds[i - 1]) {
+                    continue;
+                }
+                distinctRowIds[row] = rowIds[i];
+                row++;
+            }
+            offsets[transactionCount] = row;
+            return new DeletedRowIds(distinctOriginalTransactions, offsets, distinctRowIds);
+        }
+
+        private int compare(int position, long originalTransaction, long rowId)
+        {
+            int result = Long.compare(originalTransactions[position], originalTransaction);
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(rowIds[position], rowId);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.HiveConfig;
+import org.apache.hadoop.fs.FileStatus;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Caches the deleted row ids of ORC delete delta files for all the splits of a worker. Delete
+ * delta files are never modified once written, so an entry stays valid as long as the file has
+ * the same length and modification time. The entries are weighed by their retained size.
+ * <p>
+ * The cache is shared by all queries, so it is not accounted to the memory of any of them.
+ * Instead, each split accounts the deleted rows it uses in its own memory while it is read,
+ * and the size of the cache is bounded separately by {@code hive.orc.delete-delta-cache-size}.
+ */
+public class OrcDeleteDeltaCache
+{
+    private final Cache<DeleteDeltaKey, DeletedRowIds> cache;
+
+    @Inject
+    public OrcDeleteDeltaCache(HiveConfig hiveConfig)
+    {
+        this(hiveConfig.getOrcDeleteDeltaCacheSize());
+    }
+
+    public OrcDeleteDeltaCache(DataSize maxSize)
+    {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<DeleteDeltaKey, DeletedRowIds>) (key, value) -> toIntExact(min(value.getRetainedSizeInBytes(), Integer.MAX_VALUE)))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the deleted row ids of the specified delete delta file, and loads them if they are not cached.
+     * Concurrent requests for the same file wait for a single load.
+     */
+    public DeletedRowIds get(FileStatus fileStatus, Callable<DeletedRowIds> loader)
+            throws IOException
+    {
+        try {
+            return cache.get(new DeleteDeltaKey(fileStatus), loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getRetainedBytes()
+    {
+        return cache.asMap().values().stream()
+                .mapToLong(DeletedRowIds::getRetainedSizeInBytes)
+                .sum();
+    }
+
+    @Managed
+    public Double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    private static class DeleteDeltaKey
+    {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+
+        public DeleteDeltaKey(FileStatus fileStatus)
+        {
+            this.path = fileStatus.getPath().toString();
+            this.length = fileStatus.getLen();
+            this.modificationTime = fileStatus.getModificationTime();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DeleteDeltaKey other = (DeleteDeltaKey) o;
+            return length == other.length &&
+                    modificationTime == other.modificationTime &&
+                    path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, length, modificationTime);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("length", length)
+                    .add("modificationTime", modificationTime)
+                    .toString();
+        }
+    }
+}
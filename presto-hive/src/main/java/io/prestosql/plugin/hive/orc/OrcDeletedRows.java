@@ -13,7 +13,9 @@
  */
 package io.prestosql.plugin.hive.orc;
 
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableList;
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.orc.OrcCorruptionException;
 import io.prestosql.plugin.hive.AcidInfo;
 import io.prestosql.plugin.hive.HdfsEnvironment;
@@ -34,11 +36,9 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Objects;
+import java.util.List;
 import java.util.OptionalLong;
-import java.util.Set;
 
-import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.plugin.hive.BackgroundHiveSplitLoader.hasAttemptId;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -58,9 +58,11 @@ public class OrcDeletedRows
     private final Configuration configuration;
     private final HdfsEnvironment hdfsEnvironment;
     private final AcidInfo acidInfo;
+    private final OrcDeleteDeltaCache deleteDeltaCache;
+    private final LocalMemoryContext memoryUsage;
 
     @Nullable
-    private Set<RowId> deletedRows;
+    private List<DeletedRowIds> deletedRows;
 
     public OrcDeletedRows(
             String sourceFileName,
@@ -68,7 +70,9 @@ public class OrcDeletedRows
             String sessionUser,
             Configuration configuration,
             HdfsEnvironment hdfsEnvironment,
-            AcidInfo acidInfo)
+            AcidInfo acidInfo,
+            OrcDeleteDeltaCache deleteDeltaCache,
+            AggregatedMemoryContext systemMemoryContext)
     {
         this.sourceFileName = requireNonNull(sourceFileName, "sourceFileName is null");
         this.pageSourceFactory = requireNonNull(pageSourceFactory, "pageSourceFactory is null");
@@ -76,6 +80,8 @@ public class OrcDeletedRows
         this.configuration = requireNonNull(configuration, "configuration is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.acidInfo = requireNonNull(acidInfo, "acidInfo is null");
+        this.deleteDeltaCache = requireNonNull(deleteDeltaCache, "deleteDeltaCache is null");
+        this.memoryUsage = requireNonNull(systemMemoryContext, "systemMemoryContext is null").newLocalMemoryContext(OrcDeletedRows.class.getSimpleName());
     }
 
     public MaskDeletedRowsFunction getMaskDeletedRowsFunction(Page sourcePage, OptionalLong startRowId)
@@ -83,6 +89,11 @@ public class OrcDeletedRows
         return new MaskDeletedRows(sourcePage, startRowId);
     }
 
+    public void close()
+    {
+        memoryUsage.close();
+    }
+
     public interface MaskDeletedRowsFunction
     {
         /**
@@ -158,7 +169,7 @@ public class OrcDeletedRows
         private void loadValidPositions()
         {
             verify(sourcePage != null, "sourcePage is null");
-            Set<RowId> deletedRows = getDeletedRows();
+            List<DeletedRowIds> deletedRows = getDeletedRows();
             if (deletedRows.isEmpty()) {
                 this.positionCount = sourcePage.getPositionCount();
                 this.sourcePage = null;
@@ -168,8 +179,7 @@ public class OrcDeletedRows
             int[] validPositions = new int[sourcePage.getPositionCount()];
             int validPositionsIndex = 0;
             for (int position = 0; position < sourcePage.getPositionCount(); position++) {
-                RowId rowId = getRowId(position);
-                if (!deletedRows.contains(rowId)) {
+                if (!isDeleted(deletedRows, position)) {
                     validPositions[validPositionsIndex] = position;
                     validPositionsIndex++;
                 }
@@ -179,7 +189,7 @@ public class OrcDeletedRows
             this.sourcePage = null;
         }
 
-        private RowId getRowId(int position)
+        private boolean isDeleted(List<DeletedRowIds> deletedRows, int position)
         {
             long originalTransaction;
             long row;
@@ -193,17 +203,23 @@ public class OrcDeletedRows
                 originalTransaction = BIGINT.getLong(sourcePage.getBlock(ORIGINAL_TRANSACTION_INDEX), position);
                 row = BIGINT.getLong(sourcePage.getBlock(ROW_ID_INDEX), position);
             }
-            return new RowId(originalTransaction, row);
+            for (DeletedRowIds deleteDelta : deletedRows) {
+                if (deleteDelta.contains(originalTransaction, row)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
-    private Set<RowId> getDeletedRows()
+    private List<DeletedRowIds> getDeletedRows()
     {
         if (deletedRows != null) {
             return deletedRows;
         }
 
-        ImmutableSet.Builder<RowId> deletedRowsBuilder = ImmutableSet.builder();
+        ImmutableList.Builder<DeletedRowIds> deletedRowsBuilder = ImmutableList.builder();
+        long retainedSizeInBytes = 0;
         for (AcidInfo.DeleteDeltaInfo deleteDeltaInfo : acidInfo.getDeleteDeltas()) {
             Path path = createPath(acidInfo, deleteDeltaInfo, sourceFileName);
 
@@ -211,17 +227,11 @@ public class OrcDeletedRows
                 FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
                 FileStatus fileStatus = hdfsEnvironment.doAs(sessionUser, () -> fileSystem.getFileStatus(path));
 
-                try (ConnectorPageSource pageSource = pageSourceFactory.createPageSource(fileStatus.getPath(), fileStatus.getLen()).orElseGet(() -> new EmptyPageSource())) {
-                    while (!pageSource.isFinished()) {
-                        Page page = pageSource.getNextPage();
-                        if (page != null) {
-                            for (int i = 0; i < page.getPositionCount(); i++) {
-                                long originalTransaction = BIGINT.getLong(page.getBlock(ORIGINAL_TRANSACTION_INDEX), i);
-                                long row = BIGINT.getLong(page.getBlock(ROW_ID_INDEX), i);
-                                deletedRowsBuilder.add(new RowId(originalTransaction, row));
-                            }
-                        }
-                    }
+                // the delete delta is shared with the other splits of the same bucket
+                DeletedRowIds deleteDelta = deleteDeltaCache.get(fileStatus, () -> readDeleteDelta(fileStatus));
+                if (!deleteDelta.isEmpty()) {
+                    deletedRowsBuilder.add(deleteDelta);
+                    retainedSizeInBytes += deleteDelta.getRetainedSizeInBytes();
                 }
             }
             catch (FileNotFoundException ignored) {
@@ -238,9 +248,30 @@ public class OrcDeletedRows
             }
         }
         deletedRows = deletedRowsBuilder.build();
+        // the cache is not accounted to any query, so each split accounts the deleted rows it holds
+        memoryUsage.setBytes(retainedSizeInBytes);
         return deletedRows;
     }
 
+    private DeletedRowIds readDeleteDelta(FileStatus fileStatus)
+            throws IOException
+    {
+        DeletedRowIds.Builder deletedRowIds = DeletedRowIds.builder();
+        try (ConnectorPageSource pageSource = pageSourceFactory.createPageSource(fileStatus.getPath(), fileStatus.getLen()).orElseGet(() -> new EmptyPageSource())) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    for (int i = 0; i < page.getPositionCount(); i++) {
+                        long originalTransaction = BIGINT.getLong(page.getBlock(ORIGINAL_TRANSACTION_INDEX), i);
+                        long row = BIGINT.getLong(page.getBlock(ROW_ID_INDEX), i);
+                        deletedRowIds.add(originalTransaction, row);
+                    }
+                }
+            }
+        }
+        return deletedRowIds.build();
+    }
+
     private static Path createPath(AcidInfo acidInfo, AcidInfo.DeleteDeltaInfo deleteDeltaInfo, String fileName)
     {
         Path directory = new Path(acidInfo.getPartitionLocation(), deleteDeltaInfo.getDirectoryName());
@@ -257,47 +288,4 @@ public class OrcDeletedRows
         }
         return new Path(directory, fileName);
     }
-
-    private static class RowId
-    {
-        private final long originalTransaction;
-        private final long rowId;
-
-        public RowId(long originalTransaction, long rowId)
-        {
-            this.originalTransaction = originalTransaction;
-            this.rowId = rowId;
-        }
-
-        @Override
-        public boolean equals(Object o)
-        {
-            if (this == o) {
-                return true;
-            }
-
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-
-            RowId other = (RowId) o;
-            return originalTransaction == other.originalTransaction &&
-                    rowId == other.rowId;
-        }
-
-        @Override
-        public int hashCode()
-        {
-            return Objects.hash(originalTransaction, rowId);
-        }
-
-        @Override
-        public String toString()
-        {
-            return toStringHelper(this)
-                    .add("originalTransaction", originalTransaction)
-                    .add("rowId", rowId)
-                    .toString();
-        }
-    }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.plugin.hive.orc;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.concurrent.BoundedExecutor;
 import io.prestosql.orc.OrcDataSink;
 import io.prestosql.orc.OrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
@@ -47,8 +48,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.prestosql.orc.metadata.OrcType.createRootOrcType;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
@@ -79,6 +83,7 @@ public class OrcFileWriterFactory
     private final OrcWriterStats stats = new OrcWriterStats();
     private final OrcWriterOptions orcWriterOptions;
     private final boolean writeLegacyVersion;
+    private final Executor writerExecutor;
 
     @Inject
     public OrcFileWriterFactory(
@@ -87,7 +92,8 @@ public class OrcFileWriterFactory
             NodeVersion nodeVersion,
             OrcWriterConfig orcWriterConfig,
             FileFormatDataSourceStats readStats,
-            OrcWriterConfig config)
+            OrcWriterConfig config,
+            ExecutorService executorService)
     {
         this(
                 hdfsEnvironment,
@@ -95,7 +101,8 @@ public class OrcFileWriterFactory
                 nodeVersion,
                 requireNonNull(orcWriterConfig, "orcWriterConfig is null").isUseLegacyVersion(),
                 readStats,
-                requireNonNull(config, "config is null").toOrcWriterOptions());
+                requireNonNull(config, "config is null").toOrcWriterOptions(),
+                createWriterExecutor(executorService, config.getWriterThreads()));
     }
 
     public OrcFileWriterFactory(
@@ -105,6 +112,18 @@ public class OrcFileWriterFactory
             boolean writeLegacyVersion,
             FileFormatDataSourceStats readStats,
             OrcWriterOptions orcWriterOptions)
+    {
+        this(hdfsEnvironment, typeManager, nodeVersion, writeLegacyVersion, readStats, orcWriterOptions, directExecutor());
+    }
+
+    public OrcFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            NodeVersion nodeVersion,
+            boolean writeLegacyVersion,
+            FileFormatDataSourceStats readStats,
+            OrcWriterOptions orcWriterOptions,
+            Executor writerExecutor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
@@ -112,6 +131,16 @@ public class OrcFileWriterFactory
         this.writeLegacyVersion = writeLegacyVersion;
         this.readStats = requireNonNull(readStats, "stats is null");
         this.orcWriterOptions = requireNonNull(orcWriterOptions, "orcWriterOptions is null");
+        this.writerExecutor = requireNonNull(writerExecutor, "writerExecutor is null");
+    }
+
+    private static Executor createWriterExecutor(ExecutorService executorService, int writerThreads)
+    {
+        requireNonNull(executorService, "executorService is null");
+        if (writerThreads <= 1) {
+            return directExecutor();
+        }
+        return new BoundedExecutor(executorService, writerThreads);
     }
 
     @Managed
@@ -194,7 +223,8 @@ public class OrcFileWriterFactory
                             .build(),
                     validationInputFactory,
                     getOrcOptimizedWriterValidateMode(session),
-                    stats));
+                    stats,
+                    writerExecutor));
         }
         catch (IOException e) {
             throw new PrestoException(HIVE_WRITER_OPEN_ERROR, "Error creating ORC file", e);
@@ -146,6 +146,7 @@ public class OrcPageSource
             return;
         }
         closed = true;
+        deletedRows.ifPresent(OrcDeletedRows::close);
 
         try {
             stats.addMaxCombinedBytesPerRow(recordReader.getMaxCombinedBytesPerRow());
@@ -16,6 +16,7 @@ package io.prestosql.plugin.hive.orc;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcDataSource;
@@ -23,6 +24,7 @@ import io.prestosql.orc.OrcDataSourceId;
 import io.prestosql.orc.OrcReader;
 import io.prestosql.orc.OrcReaderOptions;
 import io.prestosql.orc.OrcRecordReader;
+import io.prestosql.orc.PrefetchingOrcDataSource;
 import io.prestosql.orc.TupleDomainOrcPredicate;
 import io.prestosql.orc.TupleDomainOrcPredicate.TupleDomainOrcPredicateBuilder;
 import io.prestosql.orc.metadata.OrcType.OrcTypeKind;
@@ -59,6 +61,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -66,6 +70,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Maps.uniqueIndex;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static io.prestosql.orc.OrcReader.ProjectedLayout.createProjectedLayout;
@@ -84,9 +90,11 @@ import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxBufferSize
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcStreamBufferSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcStripePrefetchCount;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcTinyStripeThreshold;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcBloomFiltersEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcNestedLazy;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcSelectiveReadingEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isUseOrcColumnNames;
 import static io.prestosql.plugin.hive.ReaderProjections.projectBaseColumns;
 import static io.prestosql.plugin.hive.orc.OrcPageSource.handleException;
@@ -115,11 +123,19 @@ public class OrcPageSourceFactory
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final DateTimeZone legacyTimeZone;
+    private final Executor prefetchExecutor;
+    private final OrcDeleteDeltaCache deleteDeltaCache;
 
     @Inject
-    public OrcPageSourceFactory(OrcReaderConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, HiveConfig hiveConfig)
+    public OrcPageSourceFactory(
+            OrcReaderConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            HiveConfig hiveConfig,
+            ExecutorService executorService,
+            OrcDeleteDeltaCache deleteDeltaCache)
     {
-        this(config.toOrcReaderOptions(), hdfsEnvironment, stats, requireNonNull(hiveConfig, "hiveConfig is null").getOrcLegacyDateTimeZone());
+        this(config.toOrcReaderOptions(), hdfsEnvironment, stats, requireNonNull(hiveConfig, "hiveConfig is null").getOrcLegacyDateTimeZone(), executorService, deleteDeltaCache);
     }
 
     public OrcPageSourceFactory(
@@ -127,11 +143,24 @@ public class OrcPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             DateTimeZone legacyTimeZone)
+    {
+        this(orcReaderOptions, hdfsEnvironment, stats, legacyTimeZone, directExecutor(), new OrcDeleteDeltaCache(DataSize.of(0, BYTE)));
+    }
+
+    public OrcPageSourceFactory(
+            OrcReaderOptions orcReaderOptions,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            DateTimeZone legacyTimeZone,
+            Executor prefetchExecutor,
+            OrcDeleteDeltaCache deleteDeltaCache)
     {
         this.orcReaderOptions = requireNonNull(orcReaderOptions, "orcReaderOptions is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.legacyTimeZone = legacyTimeZone;
+        this.prefetchExecutor = requireNonNull(prefetchExecutor, "prefetchExecutor is null");
+        this.deleteDeltaCache = requireNonNull(deleteDeltaCache, "deleteDeltaCache is null");
     }
 
     @Override
@@ -183,9 +212,14 @@ public class OrcPageSourceFactory
                         .withMaxReadBlockSize(getOrcMaxReadBlockSize(session))
                         .withLazyReadSmallRanges(getOrcLazyReadSmallRanges(session))
                         .withNestedLazy(isOrcNestedLazy(session))
-                        .withBloomFiltersEnabled(isOrcBloomFiltersEnabled(session)),
+                        .withBloomFiltersEnabled(isOrcBloomFiltersEnabled(session))
+                        // rows are located by their position in the file when deleted rows are filtered
+                        .withSelectiveReadingEnabled(isOrcSelectiveReadingEnabled(session) && !isFullAcidTable(Maps.fromProperties(schema)) && acidInfo.isEmpty())
+                        .withStripePrefetchCount(getOrcStripePrefetchCount(session)),
                 acidInfo,
-                stats);
+                stats,
+                prefetchExecutor,
+                deleteDeltaCache);
 
         return Optional.of(new ReaderPageSourceWithProjections(orcPageSource, projectedReaderColumns));
     }
@@ -206,7 +240,9 @@ public class OrcPageSourceFactory
             DateTimeZone legacyFileTimeZone,
             OrcReaderOptions options,
             Optional<AcidInfo> acidInfo,
-            FileFormatDataSourceStats stats)
+            FileFormatDataSourceStats stats,
+            Executor prefetchExecutor,
+            OrcDeleteDeltaCache deleteDeltaCache)
     {
         for (HiveColumnHandle column : columns) {
             checkArgument(column.getColumnType() == REGULAR, "column type must be regular: %s", column);
@@ -219,12 +255,18 @@ public class OrcPageSourceFactory
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
             FSDataInputStream inputStream = hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
-            orcDataSource = new HdfsOrcDataSource(
+            OrcDataSource hdfsDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     estimatedFileSize,
                     options,
                     inputStream,
                     stats);
+            if (options.getStripePrefetchCount() > 0) {
+                orcDataSource = new PrefetchingOrcDataSource(hdfsDataSource, options, prefetchExecutor);
+            }
+            else {
+                orcDataSource = hdfsDataSource;
+            }
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -357,7 +399,9 @@ public class OrcPageSourceFactory
                             sessionUser,
                             configuration,
                             hdfsEnvironment,
-                            info));
+                            info,
+                            deleteDeltaCache,
+                            systemMemoryUsage));
 
             Optional<Long> originalFileRowId = acidInfo
                     .filter(OrcPageSourceFactory::hasOriginalFilesAndDeleteDeltas)
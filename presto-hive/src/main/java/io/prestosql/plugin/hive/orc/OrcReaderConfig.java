@@ -18,6 +18,7 @@ import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 import io.prestosql.orc.OrcReaderOptions;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class OrcReaderConfig
@@ -152,4 +153,45 @@ public class OrcReaderConfig
         options = options.withNestedLazy(nestedLazy);
         return this;
     }
+
+    public boolean isSelectiveReadingEnabled()
+    {
+        return options.isSelectiveReadingEnabled();
+    }
+
+    @Config("hive.orc.selective-reading.enabled")
+    @ConfigDescription("Filter rows using the pushed down predicate while reading ORC files")
+    public OrcReaderConfig setSelectiveReadingEnabled(boolean selectiveReadingEnabled)
+    {
+        options = options.withSelectiveReadingEnabled(selectiveReadingEnabled);
+        return this;
+    }
+
+    @Min(0)
+    public int getStripePrefetchCount()
+    {
+        return options.getStripePrefetchCount();
+    }
+
+    @Config("hive.orc.stripe-prefetch-count")
+    @ConfigDescription("Number of ORC stripes after the current one that are read in the background")
+    public OrcReaderConfig setStripePrefetchCount(int stripePrefetchCount)
+    {
+        options = options.withStripePrefetchCount(stripePrefetchCount);
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return options.getMaxStripePrefetchSize();
+    }
+
+    @Config("hive.orc.max-stripe-prefetch-size")
+    @ConfigDescription("Maximum size of the ORC stripes that are read in the background for a split")
+    public OrcReaderConfig setMaxStripePrefetchSize(DataSize maxStripePrefetchSize)
+    {
+        options = options.withMaxStripePrefetchSize(maxStripePrefetchSize);
+        return this;
+    }
 }
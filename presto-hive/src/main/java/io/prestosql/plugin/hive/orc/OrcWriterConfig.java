@@ -22,6 +22,7 @@ import io.prestosql.orc.OrcWriterOptions;
 
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 @DefunctConfig("hive.orc.optimized-writer.enabled")
@@ -34,6 +35,7 @@ public class OrcWriterConfig
     private boolean useLegacyVersion;
     private double validationPercentage;
     private OrcWriteValidationMode validationMode = OrcWriteValidationMode.BOTH;
+    private int writerThreads = 1;
 
     public OrcWriterOptions toOrcWriterOptions()
     {
@@ -178,4 +180,32 @@ public class OrcWriterConfig
         this.validationMode = validationMode;
         return this;
     }
+
+    @Min(1)
+    public int getWriterThreads()
+    {
+        return writerThreads;
+    }
+
+    @Config("hive.orc.writer.threads")
+    @ConfigDescription("Number of threads shared by all ORC writers for encoding columns and writing stripes; 1 disables parallel writing")
+    public OrcWriterConfig setWriterThreads(int writerThreads)
+    {
+        this.writerThreads = writerThreads;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxPendingFlushSize()
+    {
+        return options.getMaxPendingFlushSize();
+    }
+
+    @Config("hive.orc.writer.max-pending-flush-size")
+    @ConfigDescription("Maximum size of the stripes of a file that are being written asynchronously")
+    public OrcWriterConfig setMaxPendingFlushSize(DataSize maxPendingFlushSize)
+    {
+        options = options.withMaxPendingFlushSize(maxPendingFlushSize);
+        return this;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.projection;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Projects the dates of a range, such as {@code projection.dt.range=2020-01-01,NOW}, formatted
+ * with a pattern ({@code format}), with an optional step ({@code interval} and {@code interval.unit}).
+ */
+public class DateProjection
+        implements ColumnProjection
+{
+    private final DateTimeFormatter formatter;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final long interval;
+    private final ChronoUnit intervalUnit;
+
+    public DateProjection(DateTimeFormatter formatter, LocalDateTime start, LocalDateTime end, long interval, ChronoUnit intervalUnit)
+    {
+        this.formatter = requireNonNull(formatter, "formatter is null");
+        this.start = requireNonNull(start, "start is null");
+        this.end = requireNonNull(end, "end is null");
+        checkArgument(!start.isAfter(end), "start is after end");
+        checkArgument(interval > 0, "interval must be positive");
+        this.interval = interval;
+        this.intervalUnit = requireNonNull(intervalUnit, "intervalUnit is null");
+    }
+
+    @Override
+    public List<String> getValues()
+    {
+        ImmutableList.Builder<String> values = ImmutableList.builder();
+        for (LocalDateTime value = start; !value.isAfter(end); value = value.plus(interval, intervalUnit)) {
+            values.add(formatter.format(value));
+        }
+        return values.build();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("formatter", formatter)
+                .add("start", start)
+                .add("end", end)
+                .add("interval", interval)
+                .add("intervalUnit", intervalUnit)
+                .toString();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.projection;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+/**
+ * Projects the integers of a range, such as {@code projection.hour.range=0,23}, with an
+ * optional step ({@code interval}) and zero padding to a number of digits ({@code digits}).
+ */
+public class IntegerProjection
+        implements ColumnProjection
+{
+    private final long start;
+    private final long end;
+    private final long interval;
+    private final int digits;
+
+    public IntegerProjection(long start, long end, long interval, int digits)
+    {
+        checkArgument(start <= end, "start is greater than end");
+        checkArgument(interval > 0, "interval must be positive");
+        checkArgument(digits >= 0, "digits is negative");
+        this.start = start;
+        this.end = end;
+        this.interval = interval;
+        this.digits = digits;
+    }
+
+    @Override
+    public List<String> getValues()
+    {
+        ImmutableList.Builder<String> values = ImmutableList.builder();
+        for (long value = start; value <= end; value += interval) {
+            values.add(digits == 0 ? String.valueOf(value) : format("%0" + digits + "d", value));
+            if (value > end - interval) {
+                // avoid overflow
+                break;
+            }
+        }
+        return values.build();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("start", start)
+                .add("end", end)
+                .add("interval", interval)
+                .add("digits", digits)
+                .toString();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.projection;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.metastore.Column;
+import io.prestosql.plugin.hive.metastore.Partition;
+import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_METADATA;
+import static io.prestosql.plugin.hive.metastore.MetastoreUtil.toPartitionName;
+import static io.prestosql.plugin.hive.util.HiveUtil.parsePartitionValue;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes the partitions of a table from the projection defined in its parameters, instead of
+ * listing them in the metastore. The parameters follow the conventions of Amazon Athena:
+ * <ul>
+ * <li>{@code projection.enabled=true} enables the projection</li>
+ * <li>{@code projection.<column>.type} is {@code enum}, {@code integer} or {@code date}</li>
+ * <li>{@code projection.<column>.values} lists the values of an {@code enum} column</li>
+ * <li>{@code projection.<column>.range} is the first and last value of an {@code integer} or {@code date} column</li>
+ * <li>{@code projection.<column>.interval}, {@code projection.<column>.interval.unit},
+ * {@code projection.<column>.digits} and {@code projection.<column>.format} define the values of a range</li>
+ * <li>{@code storage.location.template} is the location of a partition, with {@code ${column}} placeholders</li>
+ * </ul>
+ * The partitions have the storage and the columns of the table, and their locations need not exist.
+ */
+public class PartitionProjection
+{
+    public static final String PROJECTION_ENABLED = "projection.enabled";
+    public static final String LOCATION_TEMPLATE = "storage.location.template";
+
+    private static final String PROJECTION_PREFIX = "projection.";
+    private static final Splitter RANGE_SPLITTER = Splitter.on(',').trimResults();
+
+    private final List<String> columnNames;
+    private final List<ColumnProjection> columnProjections;
+    private final Optional<String> locationTemplate;
+
+    public PartitionProjection(List<String> columnNames, List<ColumnProjection> columnProjections, Optional<String> locationTemplate)
+    {
+        this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+        this.columnProjections = ImmutableList.copyOf(requireNonNull(columnProjections, "columnProjections is null"));
+        this.locationTemplate = requireNonNull(locationTemplate, "locationTemplate is null");
+    }
+
+    public static Optional<PartitionProjection> getPartitionProjection(Table table)
+    {
+        Map<String, String> parameters = table.getParameters();
+        if (!Boolean.parseBoolean(parameters.get(PROJECTION_ENABLED)) || table.getPartitionColumns().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<String> columnNames = table.getPartitionColumns().stream()
+                .map(Column::getName)
+                .collect(toImmutableList());
+        try {
+            List<ColumnProjection> columnProjections = columnNames.stream()
+                    .map(columnName -> createColumnProjection(columnName, parameters))
+                    .collect(toImmutableList());
+            return Optional.of(new PartitionProjection(columnNames, columnProjections, Optional.ofNullable(parameters.get(LOCATION_TEMPLATE))));
+        }
+        catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new PrestoException(HIVE_INVALID_METADATA, format("Invalid partition projection of table %s: %s", table.getSchemaTableName(), e.getMessage()), e);
+        }
+    }
+
+    private static ColumnProjection createColumnProjection(String columnName, Map<String, String> parameters)
+    {
+        String type = getParameter(parameters, columnName, "type")
+                .orElseThrow(() -> new IllegalArgumentException(format("Projection type of partition column %s is not defined", columnName)));
+        switch (type.toLowerCase(ENGLISH)) {
+            case "enum":
+                return new EnumProjection(getRequiredParameter(parameters, columnName, "values"));
+            case "integer": {
+                List<String> range = getRange(parameters, columnName);
+                return new IntegerProjection(
+                        Long.parseLong(range.get(0)),
+                        Long.parseLong(range.get(1)),
+                        getParameter(parameters, columnName, "interval").map(Long::parseLong).orElse(1L),
+                        getParameter(parameters, columnName, "digits").map(Integer::parseInt).orElse(0));
+            }
+            case "date": {
+                List<String> range = getRange(parameters, columnName);
+                DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+                        .appendPattern(getRequiredParameter(parameters, columnName, "format"))
+                        .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                        .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                        .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                        .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                        .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                        .toFormatter(ENGLISH);
+                return new DateProjection(
+                        formatter,
+                        parseDate(range.get(0), formatter),
+                        parseDate(range.get(1), formatter),
+                        getParameter(parameters, columnName, "interval").map(Long::parseLong).orElse(1L),
+                        getParameter(parameters, columnName, "interval.unit")
+                                .map(unit -> ChronoUnit.valueOf(unit.toUpperCase(ENGLISH)))
+                                .orElse(ChronoUnit.DAYS));
+            }
+            default:
+                throw new IllegalArgumentException(format("Unsupported projection type of partition column %s: %s", columnName, type));
+        }
+    }
+
+    private static List<String> getRange(Map<String, String> parameters, String columnName)
+    {
+        List<String> range = RANGE_SPLITTER.splitToList(getRequiredParameter(parameters, columnName, "range"));
+        if (range.size() != 2) {
+            throw new IllegalArgumentException(format("Projection range of partition column %s must have two values", columnName));
+        }
+        return range;
+    }
+
+    private static LocalDateTime parseDate(String value, DateTimeFormatter formatter)
+    {
+        if (value.equalsIgnoreCase("NOW")) {
+            return LocalDateTime.now(ZoneOffset.UTC);
+        }
+        return LocalDateTime.parse(value, formatter);
+    }
+
+    private static String getRequiredParameter(Map<String, String> parameters, String columnName, String property)
+    {
+        return getParameter(parameters, columnName, property)
+                .orElseThrow(() -> new IllegalArgumentException(format("Projection %s of partition column %s is not defined", property, columnName)));
+    }
+
+    private static Optional<String> getParameter(Map<String, String> parameters, String columnName, String property)
+    {
+        return Optional.ofNullable(parameters.get(PROJECTION_PREFIX + columnName + "." + property));
+    }
+
+    /**
+     * Returns the names of the projected partitions whose values are in the domains of the predicate.
+     * The partitions are computed lazily, so the partition limit can be enforced while iterating.
+     */
+    public List<String> getProjectedPartitionNames(List<HiveColumnHandle> partitionColumns, TupleDomain<HiveColumnHandle> effectivePredicate)
+    {
+        if (effectivePredicate.isNone()) {
+            return ImmutableList.of();
+        }
+        Map<HiveColumnHandle, Domain> domains = effectivePredicate.getDomains().get();
+
+        ImmutableList.Builder<List<String>> columnValues = ImmutableList.builder();
+        for (int i = 0; i < partitionColumns.size(); i++) {
+            HiveColumnHandle column = partitionColumns.get(i);
+            Domain domain = domains.get(column);
+            List<String> values = columnProjections.get(i).getValues();
+            if (domain != null) {
+                values = values.stream()
+                        .filter(value -> domain.includesNullableValue(parsePartitionValue(column.getName() + "=" + value, value, column.getType()).getValue()))
+                        .collect(toImmutableList());
+            }
+            columnValues.add(values);
+        }
+        return Lists.transform(Lists.cartesianProduct(columnValues.build()), values -> toPartitionName(columnNames, values));
+    }
+
+    public Partition createPartition(Table table, List<String> values)
+    {
+        String location = locationTemplate
+                .map(template -> expandLocationTemplate(template, values))
+                .orElseGet(() -> table.getStorage().getLocation() + "/" + toPartitionName(columnNames, values));
+        return Partition.builder()
+                .setDatabaseName(table.getDatabaseName())
+                .setTableName(table.getTableName())
+                .setValues(values)
+                .setColumns(table.getDataColumns())
+                .withStorage(storage -> storage
+                        .setStorageFormat(table.getStorage().getStorageFormat())
+                        .setLocation(location)
+                        .setBucketProperty(table.getStorage().getBucketProperty())
+                        .setSerdeParameters(table.getStorage().getSerdeParameters()))
+                .build();
+    }
+
+    private String expandLocationTemplate(String template, List<String> values)
+    {
+        String location = template;
+        for (int i = 0; i < columnNames.size(); i++) {
+            location = location.replace("${" + columnNames.get(i) + "}", values.get(i));
+        }
+        return location;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnNames", columnNames)
+                .add("columnProjections", columnProjections)
+                .add("locationTemplate", locationTemplate.orElse(null))
+                .toString();
+    }
+}
@@ -24,6 +24,7 @@ import io.airlift.units.Duration;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -60,6 +61,12 @@ public class HiveS3Config
     private File s3StagingDirectory = new File(StandardSystemProperty.JAVA_IO_TMPDIR.value());
     private DataSize s3MultipartMinFileSize = DataSize.of(16, MEGABYTE);
     private DataSize s3MultipartMinPartSize = DataSize.of(5, MEGABYTE);
+    private boolean s3StreamingUploadEnabled;
+    private DataSize s3StreamingPartSize = DataSize.of(16, MEGABYTE);
+    private DataSize s3ReadPartSize = DataSize.of(4, MEGABYTE);
+    private int s3ReadParallelism = 1;
+    private DataSize s3ReadAheadMinSize = DataSize.of(1, MEGABYTE);
+    private DataSize s3ReadAheadMaxSize = DataSize.of(64, MEGABYTE);
     private boolean pinS3ClientToCurrentRegion;
     private String s3UserAgentPrefix = "";
     private PrestoS3AclType s3AclType = PrestoS3AclType.PRIVATE;
@@ -398,6 +405,98 @@ public class HiveS3Config
         return this;
     }
 
+    public boolean isS3StreamingUploadEnabled()
+    {
+        return s3StreamingUploadEnabled;
+    }
+
+    @Config("hive.s3.streaming.enabled")
+    @ConfigDescription("Upload files to S3 in parts while they are written, instead of staging them on local disk")
+    public HiveS3Config setS3StreamingUploadEnabled(boolean s3StreamingUploadEnabled)
+    {
+        this.s3StreamingUploadEnabled = s3StreamingUploadEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("5MB")
+    public DataSize getS3StreamingPartSize()
+    {
+        return s3StreamingPartSize;
+    }
+
+    @Config("hive.s3.streaming.part-size")
+    @ConfigDescription("Size of the parts buffered in memory for a streaming S3 upload")
+    public HiveS3Config setS3StreamingPartSize(DataSize s3StreamingPartSize)
+    {
+        this.s3StreamingPartSize = s3StreamingPartSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1MB")
+    public DataSize getS3ReadPartSize()
+    {
+        return s3ReadPartSize;
+    }
+
+    @Config("hive.s3.read.part-size")
+    @ConfigDescription("Size of the ranged requests a large read from S3 is split into")
+    public HiveS3Config setS3ReadPartSize(DataSize s3ReadPartSize)
+    {
+        this.s3ReadPartSize = s3ReadPartSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getS3ReadParallelism()
+    {
+        return s3ReadParallelism;
+    }
+
+    @Config("hive.s3.read.parallelism")
+    @ConfigDescription("Maximum number of concurrent ranged requests for a single read from S3")
+    public HiveS3Config setS3ReadParallelism(int s3ReadParallelism)
+    {
+        this.s3ReadParallelism = s3ReadParallelism;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("64kB")
+    public DataSize getS3ReadAheadMinSize()
+    {
+        return s3ReadAheadMinSize;
+    }
+
+    @Config("hive.s3.read-ahead.min-size")
+    @ConfigDescription("Initial size of the range requested when reading an S3 object sequentially")
+    public HiveS3Config setS3ReadAheadMinSize(DataSize s3ReadAheadMinSize)
+    {
+        this.s3ReadAheadMinSize = s3ReadAheadMinSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getS3ReadAheadMaxSize()
+    {
+        return s3ReadAheadMaxSize;
+    }
+
+    @Config("hive.s3.read-ahead.max-size")
+    @ConfigDescription("Maximum size the requested range grows to when an S3 object is read sequentially")
+    public HiveS3Config setS3ReadAheadMaxSize(DataSize s3ReadAheadMaxSize)
+    {
+        this.s3ReadAheadMaxSize = s3ReadAheadMaxSize;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.s3.read-ahead.max-size must be at least hive.s3.read-ahead.min-size")
+    public boolean isS3ReadAheadSizeValid()
+    {
+        return s3ReadAheadMaxSize.compareTo(s3ReadAheadMinSize) >= 0;
+    }
+
     public boolean isPinS3ClientToCurrentRegion()
     {
         return pinS3ClientToCurrentRegion;
@@ -39,6 +39,10 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_MULTIPART_MIN_FI
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_MULTIPART_MIN_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_PATH_STYLE_ACCESS;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_PIN_CLIENT_TO_CURRENT_REGION;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_AHEAD_MAX_SIZE;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_AHEAD_MIN_SIZE;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_PARALLELISM;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_REQUESTER_PAYS_ENABLED;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SECRET_KEY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SIGNER_CLASS;
@@ -51,6 +55,8 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SSE_TYPE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SSL_ENABLED;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STORAGE_CLASS;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_ENABLED;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
 
 public class PrestoS3ConfigurationInitializer
@@ -79,6 +85,12 @@ public class PrestoS3ConfigurationInitializer
     private final int maxConnections;
     private final DataSize multipartMinFileSize;
     private final DataSize multipartMinPartSize;
+    private final boolean streamingUploadEnabled;
+    private final DataSize streamingPartSize;
+    private final DataSize readPartSize;
+    private final int readParallelism;
+    private final DataSize readAheadMinSize;
+    private final DataSize readAheadMaxSize;
     private final File stagingDirectory;
     private final boolean pinClientToCurrentRegion;
     private final String userAgentPrefix;
@@ -114,6 +126,12 @@ public class PrestoS3ConfigurationInitializer
         this.maxConnections = config.getS3MaxConnections();
         this.multipartMinFileSize = config.getS3MultipartMinFileSize();
         this.multipartMinPartSize = config.getS3MultipartMinPartSize();
+        this.streamingUploadEnabled = config.isS3StreamingUploadEnabled();
+        this.streamingPartSize = config.getS3StreamingPartSize();
+        this.readPartSize = config.getS3ReadPartSize();
+        this.readParallelism = config.getS3ReadParallelism();
+        this.readAheadMinSize = config.getS3ReadAheadMinSize();
+        this.readAheadMaxSize = config.getS3ReadAheadMaxSize();
         this.stagingDirectory = config.getS3StagingDirectory();
         this.pinClientToCurrentRegion = config.isPinS3ClientToCurrentRegion();
         this.userAgentPrefix = config.getS3UserAgentPrefix();
@@ -175,6 +193,12 @@ public class PrestoS3ConfigurationInitializer
         config.setInt(S3_MAX_CONNECTIONS, maxConnections);
         config.setLong(S3_MULTIPART_MIN_FILE_SIZE, multipartMinFileSize.toBytes());
         config.setLong(S3_MULTIPART_MIN_PART_SIZE, multipartMinPartSize.toBytes());
+        config.setBoolean(S3_STREAMING_UPLOAD_ENABLED, streamingUploadEnabled);
+        config.setLong(S3_STREAMING_UPLOAD_PART_SIZE, streamingPartSize.toBytes());
+        config.setLong(S3_READ_PART_SIZE, readPartSize.toBytes());
+        config.setInt(S3_READ_PARALLELISM, readParallelism);
+        config.setLong(S3_READ_AHEAD_MIN_SIZE, readAheadMinSize.toBytes());
+        config.setLong(S3_READ_AHEAD_MAX_SIZE, readAheadMaxSize.toBytes());
         config.setBoolean(S3_PIN_CLIENT_TO_CURRENT_REGION, pinClientToCurrentRegion);
         config.set(S3_USER_AGENT_PREFIX, userAgentPrefix);
         config.set(S3_ACL_TYPE, aclType.name());
@@ -39,22 +39,28 @@ import com.amazonaws.services.s3.AmazonS3Encryption;
 import com.amazonaws.services.s3.AmazonS3EncryptionClient;
 import com.amazonaws.services.s3.Headers;
 import com.amazonaws.services.s3.internal.Constants;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.EncryptionMaterialsProvider;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.KMSEncryptionMaterialsProvider;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SSEAwsKeyManagementParams;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.amazonaws.services.s3.transfer.Transfer;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
@@ -65,6 +71,7 @@ import com.google.common.collect.AbstractSequentialIterator;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -95,10 +102,12 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -106,7 +115,13 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.amazonaws.regions.Regions.US_EAST_1;
 import static com.amazonaws.services.s3.Headers.CRYPTO_KEYWRAP_ALGORITHM;
@@ -122,10 +137,13 @@ import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.toArray;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.aws.AwsCurrentRegionHolder.getCurrentRegionFromEC2Metadata;
 import static io.prestosql.plugin.hive.util.RetryDriver.retry;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
@@ -134,6 +152,7 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.hadoop.fs.FSExceptionMessages.CANNOT_SEEK_PAST_EOF;
 import static org.apache.hadoop.fs.FSExceptionMessages.NEGATIVE_SEEK;
@@ -153,6 +172,12 @@ public class PrestoS3FileSystem
     public static final String S3_PIN_CLIENT_TO_CURRENT_REGION = "presto.s3.pin-client-to-current-region";
     public static final String S3_MULTIPART_MIN_PART_SIZE = "presto.s3.multipart.min-part-size";
     public static final String S3_MULTIPART_MIN_FILE_SIZE = "presto.s3.multipart.min-file-size";
+    public static final String S3_STREAMING_UPLOAD_ENABLED = "presto.s3.streaming.enabled";
+    public static final String S3_STREAMING_UPLOAD_PART_SIZE = "presto.s3.streaming.part-size";
+    public static final String S3_READ_PART_SIZE = "presto.s3.read.part-size";
+    public static final String S3_READ_PARALLELISM = "presto.s3.read.parallelism";
+    public static final String S3_READ_AHEAD_MIN_SIZE = "presto.s3.read-ahead.min-size";
+    public static final String S3_READ_AHEAD_MAX_SIZE = "presto.s3.read-ahead.max-size";
     public static final String S3_STAGING_DIRECTORY = "presto.s3.staging-directory";
     public static final String S3_MAX_CONNECTIONS = "presto.s3.max-connections";
     public static final String S3_SOCKET_TIMEOUT = "presto.s3.socket-timeout";
@@ -189,6 +214,10 @@ public class PrestoS3FileSystem
     private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
     private static final String S3_CUSTOM_SIGNER = "PrestoS3CustomSigner";
     private static final Set<String> GLACIER_STORAGE_CLASSES = ImmutableSet.of(Glacier.toString(), DeepArchive.toString());
+    private static final int STREAMING_INITIAL_BUFFER_SIZE = toIntExact(DataSize.of(64, KILOBYTE).toBytes());
+
+    private final ExecutorService uploadExecutor = newCachedThreadPool(daemonThreadsNamed("s3-upload-%s"));
+    private final ExecutorService readExecutor = newCachedThreadPool(daemonThreadsNamed("s3-read-%s"));
 
     private URI uri;
     private Path workingDirectory;
@@ -207,6 +236,12 @@ public class PrestoS3FileSystem
     private boolean isPathStyleAccess;
     private long multiPartUploadMinFileSize;
     private long multiPartUploadMinPartSize;
+    private boolean streamingUploadEnabled;
+    private int streamingUploadPartSize;
+    private int readPartSize;
+    private int readParallelism;
+    private long readAheadMinSize;
+    private long readAheadMaxSize;
     private PrestoS3AclType s3AclType;
     private boolean skipGlacierObjects;
     private boolean requesterPaysEnabled;
@@ -241,6 +276,12 @@ public class PrestoS3FileSystem
         int maxConnections = conf.getInt(S3_MAX_CONNECTIONS, defaults.getS3MaxConnections());
         this.multiPartUploadMinFileSize = conf.getLong(S3_MULTIPART_MIN_FILE_SIZE, defaults.getS3MultipartMinFileSize().toBytes());
         this.multiPartUploadMinPartSize = conf.getLong(S3_MULTIPART_MIN_PART_SIZE, defaults.getS3MultipartMinPartSize().toBytes());
+        this.streamingUploadEnabled = conf.getBoolean(S3_STREAMING_UPLOAD_ENABLED, defaults.isS3StreamingUploadEnabled());
+        this.streamingUploadPartSize = toIntExact(conf.getLong(S3_STREAMING_UPLOAD_PART_SIZE, defaults.getS3StreamingPartSize().toBytes()));
+        this.readPartSize = toIntExact(conf.getLong(S3_READ_PART_SIZE, defaults.getS3ReadPartSize().toBytes()));
+        this.readParallelism = conf.getInt(S3_READ_PARALLELISM, defaults.getS3ReadParallelism());
+        this.readAheadMinSize = conf.getLong(S3_READ_AHEAD_MIN_SIZE, defaults.getS3ReadAheadMinSize().toBytes());
+        this.readAheadMaxSize = max(readAheadMinSize, conf.getLong(S3_READ_AHEAD_MAX_SIZE, defaults.getS3ReadAheadMaxSize().toBytes()));
         this.isPathStyleAccess = conf.getBoolean(S3_PATH_STYLE_ACCESS, defaults.isS3PathStyleAccess());
         this.iamRole = conf.get(S3_IAM_ROLE, defaults.getS3IamRole());
         this.externalId = conf.get(S3_EXTERNAL_ID, defaults.getS3ExternalId());
@@ -279,6 +320,8 @@ public class PrestoS3FileSystem
                 closer.register((Closeable) credentialsProvider);
             }
             closer.register(s3::shutdown);
+            closer.register(uploadExecutor::shutdown);
+            closer.register(readExecutor::shutdown);
         }
     }
 
@@ -423,7 +466,19 @@ public class PrestoS3FileSystem
     {
         return new FSDataInputStream(
                 new BufferedFSInputStream(
-                        new PrestoS3InputStream(s3, getBucketName(uri), path, requesterPaysEnabled, maxAttempts, maxBackoffTime, maxRetryTime),
+                        new PrestoS3InputStream(
+                                s3,
+                                getBucketName(uri),
+                                path,
+                                requesterPaysEnabled,
+                                maxAttempts,
+                                maxBackoffTime,
+                                maxRetryTime,
+                                readExecutor,
+                                readPartSize,
+                                readParallelism,
+                                readAheadMinSize,
+                                readAheadMaxSize),
                         bufferSize));
     }
 
@@ -434,6 +489,13 @@ public class PrestoS3FileSystem
         // Ignore the overwrite flag, since Presto always writes to unique file names.
         // Checking for file existence can break read-after-write consistency.
 
+        String key = keyFromPath(qualifiedPath(path));
+        if (streamingUploadEnabled) {
+            return new FSDataOutputStream(
+                    new PrestoS3StreamingOutputStream(s3, getBucketName(uri), key, sseEnabled, sseType, sseKmsKeyId, s3AclType, requesterPaysEnabled, s3StorageClass, uploadExecutor, streamingUploadPartSize),
+                    statistics);
+        }
+
         if (!stagingDirectory.exists()) {
             createDirectories(stagingDirectory.toPath());
         }
@@ -442,7 +504,6 @@ public class PrestoS3FileSystem
         }
         File tempFile = createTempFile(stagingDirectory.toPath(), "presto-s3-", ".tmp").toFile();
 
-        String key = keyFromPath(qualifiedPath(path));
         return new FSDataOutputStream(
                 new PrestoS3OutputStream(s3, getBucketName(uri), key, tempFile, sseEnabled, sseType, sseKmsKeyId, multiPartUploadMinFileSize, multiPartUploadMinPartSize, s3AclType, requesterPaysEnabled, s3StorageClass),
                 statistics);
@@ -937,6 +998,12 @@ public class PrestoS3FileSystem
         return Optional.of(new BasicAWSCredentials(accessKey, secretKey));
     }
 
+    /**
+     * Reads an S3 object with ranged requests. Large reads are split into parts that are requested
+     * concurrently, to use more than one connection for big column chunks and splits. Sequential
+     * reads request a range that doubles each time it is read to the end, and halves when a seek
+     * discards the rest of it, so random access does not download data that is not used.
+     */
     private static class PrestoS3InputStream
             extends FSInputStream
     {
@@ -947,14 +1014,36 @@ public class PrestoS3FileSystem
         private final int maxAttempts;
         private final Duration maxBackoffTime;
         private final Duration maxRetryTime;
+        private final ExecutorService readExecutor;
+        private final int readPartSize;
+        private final int readParallelism;
+        private final long readAheadMinSize;
+        private final long readAheadMaxSize;
 
         private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicLong getObjectRequests = new AtomicLong();
 
         private InputStream in;
         private long streamPosition;
+        // end of the range requested for the current stream
+        private long streamEnd;
         private long nextReadPosition;
+        private long readAheadSize;
+        private long wastedBytes;
 
-        public PrestoS3InputStream(AmazonS3 s3, String bucket, Path path, boolean requesterPaysEnabled, int maxAttempts, Duration maxBackoffTime, Duration maxRetryTime)
+        public PrestoS3InputStream(
+                AmazonS3 s3,
+                String bucket,
+                Path path,
+                boolean requesterPaysEnabled,
+                int maxAttempts,
+                Duration maxBackoffTime,
+                Duration maxRetryTime,
+                ExecutorService readExecutor,
+                int readPartSize,
+                int readParallelism,
+                long readAheadMinSize,
+                long readAheadMaxSize)
         {
             this.s3 = requireNonNull(s3, "s3 is null");
             this.bucket = requireNonNull(bucket, "bucket is null");
@@ -965,13 +1054,26 @@ public class PrestoS3FileSystem
             this.maxAttempts = maxAttempts;
             this.maxBackoffTime = requireNonNull(maxBackoffTime, "maxBackoffTime is null");
             this.maxRetryTime = requireNonNull(maxRetryTime, "maxRetryTime is null");
+            this.readExecutor = requireNonNull(readExecutor, "readExecutor is null");
+
+            checkArgument(readPartSize > 0, "readPartSize must be positive");
+            checkArgument(readParallelism > 0, "readParallelism must be positive");
+            checkArgument(readAheadMinSize > 0, "readAheadMinSize must be positive");
+            checkArgument(readAheadMaxSize >= readAheadMinSize, "readAheadMaxSize is less than readAheadMinSize");
+            this.readPartSize = readPartSize;
+            this.readParallelism = readParallelism;
+            this.readAheadMinSize = readAheadMinSize;
+            this.readAheadMaxSize = readAheadMaxSize;
+            this.readAheadSize = readAheadMinSize;
         }
 
         @Override
         public void close()
         {
-            closed.set(true);
-            closeStream();
+            if (!closed.getAndSet(true)) {
+                closeStream();
+                STATS.inputStreamClosed(getObjectRequests.get(), wastedBytes);
+            }
         }
 
         @Override
@@ -987,6 +1089,78 @@ public class PrestoS3FileSystem
                 return 0;
             }
 
+            if (isParallelRead(length)) {
+                return readParallel(position, buffer, offset, length);
+            }
+            return readRange(position, buffer, offset, length);
+        }
+
+        private boolean isParallelRead(int length)
+        {
+            return readParallelism > 1 && length >= 2L * readPartSize;
+        }
+
+        private int readParallel(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            Executor executor = new BoundedExecutor(readExecutor, readParallelism);
+            List<FutureTask<Integer>> parts = new ArrayList<>();
+            List<byte[]> partBuffers = new ArrayList<>();
+            for (long partOffset = 0; partOffset < length; partOffset += readPartSize) {
+                long partPosition = position + partOffset;
+                // each part reads into its own buffer, so that a part which is still running
+                // after the read failed cannot write into the buffer of the caller
+                byte[] partBuffer = new byte[toIntExact(min(readPartSize, length - partOffset))];
+                FutureTask<Integer> part = new FutureTask<>(() -> readRange(partPosition, partBuffer, 0, partBuffer.length));
+                parts.add(part);
+                partBuffers.add(partBuffer);
+                executor.execute(part);
+            }
+
+            try {
+                int bytesRead = 0;
+                for (int i = 0; i < parts.size(); i++) {
+                    // a part after the first one may start at or beyond the end of the object
+                    int partBytesRead = getPartBytesRead(parts.get(i), i > 0);
+                    if (partBytesRead > 0) {
+                        System.arraycopy(partBuffers.get(i), 0, buffer, offset + bytesRead, partBytesRead);
+                        bytesRead += partBytesRead;
+                    }
+                    if (partBytesRead < partBuffers.get(i).length) {
+                        break;
+                    }
+                }
+                return (bytesRead == 0) ? -1 : bytesRead;
+            }
+            finally {
+                // the parts after the end of the object or after a failure are not needed
+                parts.forEach(part -> part.cancel(true));
+            }
+        }
+
+        private static int getPartBytesRead(FutureTask<Integer> part, boolean endOfObjectAllowed)
+                throws IOException
+        {
+            try {
+                return part.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            catch (ExecutionException e) {
+                if (endOfObjectAllowed && e.getCause() instanceof EOFException) {
+                    return -1;
+                }
+                throwIfInstanceOf(e.getCause(), IOException.class);
+                throwIfUnchecked(e.getCause());
+                throw new IOException(e.getCause());
+            }
+        }
+
+        private int readRange(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
             try {
                 return retry()
                         .maxAttempts(maxAttempts)
@@ -999,6 +1173,7 @@ public class PrestoS3FileSystem
                                 GetObjectRequest request = new GetObjectRequest(bucket, keyFromPath(path))
                                         .withRange(position, (position + length) - 1)
                                         .withRequesterPays(requesterPaysEnabled);
+                                getObjectRequests.incrementAndGet();
                                 stream = s3.getObject(request).getObjectContent();
                             }
                             catch (RuntimeException e) {
@@ -1083,6 +1258,20 @@ public class PrestoS3FileSystem
                 throws IOException
         {
             checkClosed();
+            if (isParallelRead(length)) {
+                int bytesRead;
+                try {
+                    bytesRead = read(nextReadPosition, buffer, offset, length);
+                }
+                catch (EOFException e) {
+                    return -1;
+                }
+                if (bytesRead > 0) {
+                    nextReadPosition += bytesRead;
+                }
+                return bytesRead;
+            }
+
             try {
                 int bytesRead = retry()
                         .maxAttempts(maxAttempts)
@@ -1092,7 +1281,19 @@ public class PrestoS3FileSystem
                         .run("readStream", () -> {
                             seekStream();
                             try {
-                                return in.read(buffer, offset, length);
+                                int read = in.read(buffer, offset, length);
+                                if (read == -1 && streamPosition == streamEnd) {
+                                    // the requested range was read to the end, so the next one is larger
+                                    readAheadSize = min(readAheadSize * 2, readAheadMaxSize);
+                                    closeStream();
+                                    openStream();
+                                    read = in.read(buffer, offset, length);
+                                }
+                                if (read == -1) {
+                                    // end of the object
+                                    streamEnd = streamPosition;
+                                }
+                                return read;
                             }
                             catch (Exception e) {
                                 STATS.newReadError(e);
@@ -1133,6 +1334,7 @@ public class PrestoS3FileSystem
                     // already buffered or seek is small enough
                     try {
                         if (in.skip(skip) == skip) {
+                            wastedBytes += skip;
                             streamPosition = nextReadPosition;
                             return;
                         }
@@ -1143,8 +1345,12 @@ public class PrestoS3FileSystem
                 }
             }
 
+            if ((in != null) && (streamPosition < streamEnd)) {
+                // the rest of the requested range is discarded, so the access is not sequential
+                readAheadSize = max(readAheadSize / 2, readAheadMinSize);
+            }
+
             // close the stream and open at desired position
-            streamPosition = nextReadPosition;
             closeStream();
             openStream();
         }
@@ -1153,13 +1359,14 @@ public class PrestoS3FileSystem
                 throws IOException
         {
             if (in == null) {
-                in = openStream(path, nextReadPosition);
+                in = openStream(path, nextReadPosition, readAheadSize);
                 streamPosition = nextReadPosition;
+                streamEnd = nextReadPosition + readAheadSize;
                 STATS.connectionOpened();
             }
         }
 
-        private InputStream openStream(Path path, long start)
+        private InputStream openStream(Path path, long start, long length)
                 throws IOException
         {
             try {
@@ -1171,8 +1378,9 @@ public class PrestoS3FileSystem
                         .run("getS3Object", () -> {
                             try {
                                 GetObjectRequest request = new GetObjectRequest(bucket, keyFromPath(path))
-                                        .withRange(start)
+                                        .withRange(start, (start + length) - 1)
                                         .withRequesterPays(requesterPaysEnabled);
+                                getObjectRequests.incrementAndGet();
                                 return s3.getObject(request).getObjectContent();
                             }
                             catch (RuntimeException e) {
@@ -1205,6 +1413,7 @@ public class PrestoS3FileSystem
         private void closeStream()
         {
             if (in != null) {
+                wastedBytes += max(streamEnd - streamPosition, 0);
                 abortStream(in);
                 in = null;
                 STATS.connectionReleased();
@@ -1400,6 +1609,309 @@ public class PrestoS3FileSystem
         }
     }
 
+    /**
+     * Uploads the data in parts of a fixed size while it is being written, so no local disk is needed
+     * and the upload overlaps the encoding of the file. Only one part is uploaded at a time, which
+     * bounds the memory of a stream to two parts. A file smaller than a part is uploaded with a
+     * single request, and a failed multipart upload is aborted so S3 does not retain its parts.
+     */
+    private static class PrestoS3StreamingOutputStream
+            extends OutputStream
+    {
+        private final AmazonS3 s3;
+        private final String bucket;
+        private final String key;
+        private final boolean sseEnabled;
+        private final PrestoS3SseType sseType;
+        private final String sseKmsKeyId;
+        private final CannedAccessControlList aclType;
+        private final boolean requesterPaysEnabled;
+        private final StorageClass s3StorageClass;
+        private final ExecutorService uploadExecutor;
+        private final int partSize;
+
+        private byte[] buffer;
+        private int bufferSize;
+        // the buffer of the part being uploaded, which is reused for the next part once the upload finishes
+        private byte[] spareBuffer;
+
+        private Optional<String> uploadId = Optional.empty();
+        private Future<UploadPartResult> inProgressUpload;
+        private final List<PartETag> parts = new ArrayList<>();
+
+        private boolean closed;
+        private boolean failed;
+
+        public PrestoS3StreamingOutputStream(
+                AmazonS3 s3,
+                String bucket,
+                String key,
+                boolean sseEnabled,
+                PrestoS3SseType sseType,
+                String sseKmsKeyId,
+                PrestoS3AclType aclType,
+                boolean requesterPaysEnabled,
+                PrestoS3StorageClass s3StorageClass,
+                ExecutorService uploadExecutor,
+                int partSize)
+        {
+            checkArgument(partSize > 0, "partSize must be positive");
+            requireNonNull(aclType, "aclType is null");
+            requireNonNull(s3StorageClass, "s3StorageClass is null");
+            this.s3 = requireNonNull(s3, "s3 is null");
+            this.bucket = requireNonNull(bucket, "bucket is null");
+            this.key = requireNonNull(key, "key is null");
+            this.sseEnabled = sseEnabled;
+            this.sseType = requireNonNull(sseType, "sseType is null");
+            this.sseKmsKeyId = sseKmsKeyId;
+            this.aclType = aclType.getCannedACL();
+            this.requesterPaysEnabled = requesterPaysEnabled;
+            this.s3StorageClass = s3StorageClass.getS3StorageClass();
+            this.uploadExecutor = requireNonNull(uploadExecutor, "uploadExecutor is null");
+            this.partSize = partSize;
+            // most files are much smaller than a part, so the buffer grows as needed
+            this.buffer = new byte[min(partSize, STREAMING_INITIAL_BUFFER_SIZE)];
+
+            log.debug("Streaming OutputStream for bucket: %s, key: %s, part size: %s", bucket, key, partSize);
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            ensureOpen();
+            ensureCapacity(1);
+            buffer[bufferSize] = (byte) b;
+            bufferSize++;
+            flushBufferIfFull();
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException
+        {
+            checkPositionIndexes(offset, offset + length, bytes.length);
+            ensureOpen();
+            while (length > 0) {
+                int chunkLength = min(length, partSize - bufferSize);
+                ensureCapacity(chunkLength);
+                System.arraycopy(bytes, offset, buffer, bufferSize, chunkLength);
+                bufferSize += chunkLength;
+                offset += chunkLength;
+                length -= chunkLength;
+                flushBufferIfFull();
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (failed) {
+                throw new IOException(format("Upload for bucket: %s, key: %s failed and was aborted", bucket, key));
+            }
+            try {
+                if (uploadId.isEmpty()) {
+                    putObject();
+                }
+                else {
+                    if (bufferSize > 0) {
+                        uploadPart();
+                    }
+                    completeUpload();
+                }
+            }
+            finally {
+                buffer = null;
+                spareBuffer = null;
+            }
+        }
+
+        private void ensureOpen()
+                throws IOException
+        {
+            if (closed) {
+                throw new IOException(STREAM_IS_CLOSED);
+            }
+            if (failed) {
+                throw new IOException(format("Upload for bucket: %s, key: %s failed and was aborted", bucket, key));
+            }
+        }
+
+        private void ensureCapacity(int length)
+        {
+            int requiredSize = bufferSize + length;
+            if (requiredSize > buffer.length) {
+                buffer = Arrays.copyOf(buffer, min(partSize, max(requiredSize, buffer.length * 2)));
+            }
+        }
+
+        private void flushBufferIfFull()
+                throws IOException
+        {
+            if (bufferSize == partSize) {
+                uploadPart();
+            }
+        }
+
+        private void uploadPart()
+                throws IOException
+        {
+            try {
+                // the previous part must finish before its buffer is reused
+                waitForUploadedPart();
+                if (uploadId.isEmpty()) {
+                    uploadId = Optional.of(initiateUpload());
+                }
+
+                UploadPartRequest request = new UploadPartRequest()
+                        .withBucketName(bucket)
+                        .withKey(key)
+                        .withUploadId(uploadId.get())
+                        .withPartNumber(parts.size() + 1)
+                        .withInputStream(new ByteArrayInputStream(buffer, 0, bufferSize))
+                        .withPartSize(bufferSize)
+                        .withRequesterPays(requesterPaysEnabled);
+                inProgressUpload = uploadExecutor.submit(() -> s3.uploadPart(request));
+
+                byte[] uploadedBuffer = buffer;
+                buffer = (spareBuffer != null) ? spareBuffer : new byte[partSize];
+                spareBuffer = uploadedBuffer;
+                bufferSize = 0;
+            }
+            catch (IOException | RuntimeException e) {
+                abortUpload();
+                throwIfInstanceOf(e, IOException.class);
+                throw new IOException(e);
+            }
+        }
+
+        private String initiateUpload()
+        {
+            log.debug("Starting multipart upload for bucket: %s, key: %s", bucket, key);
+            STATS.uploadStarted();
+
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucket, key, createObjectMetadata())
+                    .withSSEAwsKeyManagementParams(getSseKmsParams())
+                    .withCannedACL(aclType)
+                    .withStorageClass(s3StorageClass)
+                    .withRequesterPays(requesterPaysEnabled);
+            return s3.initiateMultipartUpload(request).getUploadId();
+        }
+
+        private void waitForUploadedPart()
+                throws IOException
+        {
+            if (inProgressUpload == null) {
+                return;
+            }
+            try {
+                parts.add(inProgressUpload.get().getPartETag());
+                inProgressUpload = null;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            catch (ExecutionException e) {
+                throwIfInstanceOf(e.getCause(), IOException.class);
+                throwIfUnchecked(e.getCause());
+                throw new IOException(e.getCause());
+            }
+        }
+
+        private void completeUpload()
+                throws IOException
+        {
+            try {
+                waitForUploadedPart();
+                s3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId.get(), parts)
+                        .withRequesterPays(requesterPaysEnabled));
+                STATS.uploadSuccessful();
+                log.debug("Completed multipart upload for bucket: %s, key: %s, parts: %s", bucket, key, parts.size());
+            }
+            catch (IOException | RuntimeException e) {
+                abortUpload();
+                throwIfInstanceOf(e, IOException.class);
+                throw new IOException(e);
+            }
+        }
+
+        private void putObject()
+                throws IOException
+        {
+            log.debug("Starting upload for bucket: %s, key: %s, size: %s", bucket, key, bufferSize);
+            STATS.uploadStarted();
+
+            ObjectMetadata metadata = createObjectMetadata();
+            metadata.setContentLength(bufferSize);
+            PutObjectRequest request = new PutObjectRequest(bucket, key, new ByteArrayInputStream(buffer, 0, bufferSize), metadata)
+                    .withSSEAwsKeyManagementParams(getSseKmsParams())
+                    .withCannedAcl(aclType)
+                    .withStorageClass(s3StorageClass)
+                    .withRequesterPays(requesterPaysEnabled);
+            try {
+                s3.putObject(request);
+                STATS.uploadSuccessful();
+                log.debug("Completed upload for bucket: %s, key: %s", bucket, key);
+            }
+            catch (AmazonClientException e) {
+                failed = true;
+                STATS.uploadFailed();
+                throw new IOException(e);
+            }
+        }
+
+        private void abortUpload()
+        {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            STATS.uploadFailed();
+
+            if (inProgressUpload != null) {
+                inProgressUpload.cancel(true);
+                inProgressUpload = null;
+            }
+            uploadId.ifPresent(id -> {
+                try {
+                    s3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, id)
+                            .withRequesterPays(requesterPaysEnabled));
+                    log.debug("Aborted multipart upload for bucket: %s, key: %s", bucket, key);
+                }
+                catch (AmazonClientException e) {
+                    log.warn(e, "Failed to abort multipart upload for bucket: %s, key: %s", bucket, key);
+                }
+            });
+        }
+
+        private ObjectMetadata createObjectMetadata()
+        {
+            ObjectMetadata metadata = new ObjectMetadata();
+            if (sseEnabled && sseType == PrestoS3SseType.S3) {
+                metadata.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+            }
+            return metadata;
+        }
+
+        private SSEAwsKeyManagementParams getSseKmsParams()
+        {
+            if (!sseEnabled || sseType != PrestoS3SseType.KMS) {
+                return null;
+            }
+            if (sseKmsKeyId != null) {
+                return new SSEAwsKeyManagementParams(sseKmsKeyId);
+            }
+            return new SSEAwsKeyManagementParams();
+        }
+    }
+
     @VisibleForTesting
     AmazonS3 getS3Client()
     {
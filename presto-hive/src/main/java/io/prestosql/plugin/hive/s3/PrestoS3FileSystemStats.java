@@ -15,6 +15,7 @@ package io.prestosql.plugin.hive.s3;
 
 import com.amazonaws.AbortedException;
 import io.airlift.stats.CounterStat;
+import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeStat;
 import io.airlift.units.Duration;
 import org.weakref.jmx.Managed;
@@ -44,6 +45,10 @@ public class PrestoS3FileSystemStats
     private final CounterStat getObjectRetries = new CounterStat();
     private final CounterStat getMetadataRetries = new CounterStat();
     private final CounterStat readRetries = new CounterStat();
+    private final CounterStat getObjectRequests = new CounterStat();
+    private final CounterStat wastedReadBytes = new CounterStat();
+    private final DistributionStat getObjectRequestsPerInputStream = new DistributionStat();
+    private final DistributionStat wastedReadBytesPerInputStream = new DistributionStat();
 
     // see AWSRequestMetrics
     private final CounterStat awsRequestCount = new CounterStat();
@@ -214,6 +219,34 @@ public class PrestoS3FileSystemStats
         return readRetries;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getGetObjectRequests()
+    {
+        return getObjectRequests;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWastedReadBytes()
+    {
+        return wastedReadBytes;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getGetObjectRequestsPerInputStream()
+    {
+        return getObjectRequestsPerInputStream;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getWastedReadBytesPerInputStream()
+    {
+        return wastedReadBytesPerInputStream;
+    }
+
     public void connectionOpened()
     {
         activeConnections.update(1);
@@ -329,4 +362,15 @@ public class PrestoS3FileSystemStats
     {
         readRetries.update(1);
     }
+
+    /**
+     * Records the GET requests of an input stream, and the requested bytes it did not read.
+     */
+    public void inputStreamClosed(long getObjectRequests, long wastedBytes)
+    {
+        this.getObjectRequests.update(getObjectRequests);
+        this.wastedReadBytes.update(wastedBytes);
+        getObjectRequestsPerInputStream.add(getObjectRequests);
+        wastedReadBytesPerInputStream.add(wastedBytes);
+    }
 }
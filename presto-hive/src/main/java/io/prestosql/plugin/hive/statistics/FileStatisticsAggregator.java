@@ -0,0 +1,446 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.statistics;
+
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.OrcDataSource;
+import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.OrcReader;
+import io.prestosql.orc.OrcReaderOptions;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcType.OrcTypeKind;
+import io.prestosql.parquet.ParquetDataSource;
+import io.prestosql.parquet.ParquetDataSourceId;
+import io.prestosql.parquet.ParquetReaderOptions;
+import io.prestosql.parquet.reader.MetadataReader;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.metastore.Storage;
+import io.prestosql.plugin.hive.metastore.StorageFormat;
+import io.prestosql.plugin.hive.orc.HdfsOrcDataSource;
+import io.prestosql.plugin.hive.parquet.HdfsParquetDataSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.type.Type;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isUseOrcColumnNames;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnNames;
+import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
+import static io.prestosql.plugin.hive.HiveStorageFormat.PARQUET;
+import static io.prestosql.plugin.hive.HiveType.HIVE_BYTE;
+import static io.prestosql.plugin.hive.HiveType.HIVE_DATE;
+import static io.prestosql.plugin.hive.HiveType.HIVE_INT;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.plugin.hive.HiveType.HIVE_SHORT;
+import static io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory.getParquetType;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.apache.hadoop.hive.common.FileUtils.HIDDEN_FILES_PATH_FILTER;
+
+/**
+ * Computes {@code count}, {@code min} and {@code max} aggregations from the statistics in the
+ * footers of ORC and Parquet files, without reading the data of the files.
+ */
+public class FileStatisticsAggregator
+{
+    private final HdfsEnvironment hdfsEnvironment;
+    private final Executor footerReadExecutor;
+    private final FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+
+    public FileStatisticsAggregator(HdfsEnvironment hdfsEnvironment, Executor footerReadExecutor)
+    {
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.footerReadExecutor = requireNonNull(footerReadExecutor, "footerReadExecutor is null");
+    }
+
+    public static boolean isSupportedFormat(StorageFormat storageFormat)
+    {
+        return isFormat(storageFormat, ORC.getSerDe(), ORC.getInputFormat()) || isFormat(storageFormat, PARQUET.getSerDe(), PARQUET.getInputFormat());
+    }
+
+    public static boolean isSupportedColumn(HiveColumnHandle column)
+    {
+        // integer statistics are exact, while string and timestamp statistics may be truncated,
+        // and floating point statistics do not account for NaN values
+        return column.isBaseColumn() &&
+                column.getColumnType() == REGULAR &&
+                (column.getHiveType().equals(HIVE_BYTE) ||
+                        column.getHiveType().equals(HIVE_SHORT) ||
+                        column.getHiveType().equals(HIVE_INT) ||
+                        column.getHiveType().equals(HIVE_LONG) ||
+                        column.getHiveType().equals(HIVE_DATE));
+    }
+
+    /**
+     * Returns the values of the aggregations over all files in the specified locations, or empty
+     * if there are more than {@code maxFiles} files, or a location or a file cannot be answered
+     * from statistics alone.
+     */
+    public Optional<List<Object>> aggregate(ConnectorSession session, String schemaName, String tableName, List<Storage> storages, List<Aggregation> aggregations, int maxFiles)
+    {
+        requireNonNull(aggregations, "aggregations is null");
+        List<HiveColumnHandle> columns = aggregations.stream()
+                .map(Aggregation::getColumn)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .distinct()
+                .collect(toImmutableList());
+
+        AggregationState state = new AggregationState(columns.size());
+        List<CompletableFuture<Optional<FileStatistics>>> footers = new ArrayList<>();
+        try {
+            for (Storage storage : storages) {
+                if (!isSupportedFormat(storage.getStorageFormat())) {
+                    return Optional.empty();
+                }
+                boolean orc = isFormat(storage.getStorageFormat(), ORC.getSerDe(), ORC.getInputFormat());
+                Path location = new Path(storage.getLocation());
+                FileSystem fileSystem = hdfsEnvironment.getFileSystem(new HdfsContext(session, schemaName, tableName), location);
+                FileStatus[] files = hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.listStatus(location, HIDDEN_FILES_PATH_FILTER));
+                if (footers.size() + files.length > maxFiles) {
+                    // the workers read many files faster than the coordinator reads their footers while planning
+                    return Optional.empty();
+                }
+                for (FileStatus file : files) {
+                    if (file.isDirectory()) {
+                        // nested directories are only read when recursive listing is enabled
+                        return Optional.empty();
+                    }
+                    footers.add(supplyAsync(() -> readFileStatistics(session, fileSystem, file, orc, columns), footerReadExecutor));
+                }
+            }
+
+            for (CompletableFuture<Optional<FileStatistics>> footer : footers) {
+                Optional<FileStatistics> fileStatistics = getFutureValue(footer);
+                if (fileStatistics.isEmpty()) {
+                    return Optional.empty();
+                }
+                state.add(fileStatistics.get());
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // the query reads the files instead, and reports the failure if it persists
+            return Optional.empty();
+        }
+        finally {
+            // the remaining footers are not needed when a file cannot be answered from statistics
+            footers.forEach(footer -> footer.cancel(true));
+        }
+
+        List<Object> values = new ArrayList<>(aggregations.size());
+        for (Aggregation aggregation : aggregations) {
+            int column = aggregation.getColumn().map(columns::indexOf).orElse(-1);
+            switch (aggregation.getKind()) {
+                case COUNT_ALL:
+                    values.add(state.rowCount);
+                    break;
+                case COUNT:
+                    values.add(state.nonNullCounts[column]);
+                    break;
+                case MIN:
+                    values.add(state.nonNullCounts[column] == 0 ? null : state.minimums[column]);
+                    break;
+                case MAX:
+                    values.add(state.nonNullCounts[column] == 0 ? null : state.maximums[column]);
+                    break;
+            }
+        }
+        return Optional.of(values);
+    }
+
+    private Optional<FileStatistics> readFileStatistics(ConnectorSession session, FileSystem fileSystem, FileStatus file, boolean orc, List<HiveColumnHandle> columns)
+    {
+        try {
+            return orc ?
+                    readOrcFileStatistics(session, fileSystem, file, columns) :
+                    readParquetFileStatistics(session, fileSystem, file, columns);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<FileStatistics> readOrcFileStatistics(ConnectorSession session, FileSystem fileSystem, FileStatus file, List<HiveColumnHandle> columns)
+            throws IOException
+    {
+        OrcReaderOptions options = new OrcReaderOptions();
+        FSDataInputStream inputStream = hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.open(file.getPath()));
+        try (OrcDataSource dataSource = new HdfsOrcDataSource(new OrcDataSourceId(file.getPath().toString()), file.getLen(), options, inputStream, stats)) {
+            Optional<OrcReader> reader = OrcReader.createOrcReader(dataSource, options);
+            if (reader.isEmpty()) {
+                return Optional.of(new FileStatistics(0, new long[columns.size()], new long[columns.size()], new long[columns.size()]));
+            }
+            Optional<ColumnMetadata<io.prestosql.orc.metadata.statistics.ColumnStatistics>> fileStatistics = reader.get().getFooter().getFileStats();
+            if (fileStatistics.isEmpty()) {
+                return Optional.empty();
+            }
+
+            List<OrcColumn> fileColumns = reader.get().getRootColumn().getNestedColumns();
+            Map<String, OrcColumn> fileColumnsByName = isUseOrcColumnNames(session) ?
+                    uniqueIndex(fileColumns, column -> column.getColumnName().toLowerCase(ENGLISH)) :
+                    null;
+
+            long[] nonNullCounts = new long[columns.size()];
+            long[] minimums = new long[columns.size()];
+            long[] maximums = new long[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                HiveColumnHandle column = columns.get(i);
+                OrcColumn orcColumn;
+                if (fileColumnsByName != null) {
+                    orcColumn = fileColumnsByName.get(column.getBaseColumnName());
+                }
+                else {
+                    orcColumn = column.getBaseHiveColumnIndex() < fileColumns.size() ? fileColumns.get(column.getBaseHiveColumnIndex()) : null;
+                }
+                if (orcColumn == null) {
+                    // the column was added after the file was written, so it is null in all rows
+                    continue;
+                }
+                if (orcColumn.getColumnType() != getOrcTypeKind(column)) {
+                    return Optional.empty();
+                }
+
+                io.prestosql.orc.metadata.statistics.ColumnStatistics statistics = fileStatistics.get().get(orcColumn.getColumnId());
+                if (statistics == null || !statistics.hasNumberOfValues()) {
+                    return Optional.empty();
+                }
+                nonNullCounts[i] = statistics.getNumberOfValues();
+                if (nonNullCounts[i] == 0) {
+                    continue;
+                }
+                if (orcColumn.getColumnType() == OrcTypeKind.DATE) {
+                    if (statistics.getDateStatistics() == null || statistics.getDateStatistics().getMin() == null || statistics.getDateStatistics().getMax() == null) {
+                        return Optional.empty();
+                    }
+                    minimums[i] = statistics.getDateStatistics().getMin();
+                    maximums[i] = statistics.getDateStatistics().getMax();
+                }
+                else {
+                    if (statistics.getIntegerStatistics() == null || statistics.getIntegerStatistics().getMin() == null || statistics.getIntegerStatistics().getMax() == null) {
+                        return Optional.empty();
+                    }
+                    minimums[i] = statistics.getIntegerStatistics().getMin();
+                    maximums[i] = statistics.getIntegerStatistics().getMax();
+                }
+            }
+
+            return Optional.of(new FileStatistics(reader.get().getFooter().getNumberOfRows(), nonNullCounts, minimums, maximums));
+        }
+    }
+
+    private Optional<FileStatistics> readParquetFileStatistics(ConnectorSession session, FileSystem fileSystem, FileStatus file, List<HiveColumnHandle> columns)
+            throws IOException
+    {
+        FSDataInputStream inputStream = hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.open(file.getPath()));
+        try (ParquetDataSource dataSource = new HdfsParquetDataSource(new ParquetDataSourceId(file.getPath().toString()), file.getLen(), inputStream, stats, new ParquetReaderOptions())) {
+            ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource);
+            MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+
+            List<Optional<ColumnPath>> columnPaths = new ArrayList<>(columns.size());
+            for (HiveColumnHandle column : columns) {
+                Optional<org.apache.parquet.schema.Type> parquetType = getParquetType(fileSchema, isUseParquetColumnNames(session), column);
+                if (parquetType.isEmpty()) {
+                    // the column was added after the file was written, so it is null in all rows
+                    columnPaths.add(Optional.empty());
+                    continue;
+                }
+                if (!parquetType.get().isPrimitive() ||
+                        parquetType.get().isRepetition(org.apache.parquet.schema.Type.Repetition.REPEATED) ||
+                        !isExpectedParquetType(parquetType.get().asPrimitiveType(), column)) {
+                    return Optional.empty();
+                }
+                columnPaths.add(Optional.of(ColumnPath.get(parquetType.get().getName())));
+            }
+
+            long[] nonNullCounts = new long[columns.size()];
+            long[] minimums = new long[columns.size()];
+            long[] maximums = new long[columns.size()];
+            for (BlockMetaData block : parquetMetadata.getBlocks()) {
+                Map<ColumnPath, ColumnChunkMetaData> chunks = block.getColumns().stream()
+                        .collect(toImmutableMap(ColumnChunkMetaData::getPath, chunk -> chunk));
+                for (int i = 0; i < columns.size(); i++) {
+                    if (columnPaths.get(i).isEmpty()) {
+                        continue;
+                    }
+                    ColumnChunkMetaData chunk = chunks.get(columnPaths.get(i).get());
+                    if (chunk == null) {
+                        return Optional.empty();
+                    }
+                    Statistics<?> statistics = chunk.getStatistics();
+                    if (statistics == null || statistics.isEmpty() || statistics.getNumNulls() < 0) {
+                        return Optional.empty();
+                    }
+                    long nonNullCount = chunk.getValueCount() - statistics.getNumNulls();
+                    if (nonNullCount == 0) {
+                        continue;
+                    }
+                    if (!statistics.hasNonNullValue() || !(statistics.genericGetMin() instanceof Number) || !(statistics.genericGetMax() instanceof Number)) {
+                        return Optional.empty();
+                    }
+                    long minimum = ((Number) statistics.genericGetMin()).longValue();
+                    long maximum = ((Number) statistics.genericGetMax()).longValue();
+                    minimums[i] = nonNullCounts[i] == 0 ? minimum : min(minimums[i], minimum);
+                    maximums[i] = nonNullCounts[i] == 0 ? maximum : max(maximums[i], maximum);
+                    nonNullCounts[i] += nonNullCount;
+                }
+            }
+
+            long rowCount = parquetMetadata.getBlocks().stream()
+                    .mapToLong(BlockMetaData::getRowCount)
+                    .sum();
+            return Optional.of(new FileStatistics(rowCount, nonNullCounts, minimums, maximums));
+        }
+    }
+
+    private static OrcTypeKind getOrcTypeKind(HiveColumnHandle column)
+    {
+        if (column.getHiveType().equals(HIVE_BYTE)) {
+            return OrcTypeKind.BYTE;
+        }
+        if (column.getHiveType().equals(HIVE_SHORT)) {
+            return OrcTypeKind.SHORT;
+        }
+        if (column.getHiveType().equals(HIVE_INT)) {
+            return OrcTypeKind.INT;
+        }
+        if (column.getHiveType().equals(HIVE_LONG)) {
+            return OrcTypeKind.LONG;
+        }
+        return OrcTypeKind.DATE;
+    }
+
+    private static boolean isExpectedParquetType(PrimitiveType parquetType, HiveColumnHandle column)
+    {
+        OriginalType originalType = parquetType.getOriginalType();
+        if (column.getHiveType().equals(HIVE_DATE)) {
+            return parquetType.getPrimitiveTypeName() == PrimitiveTypeName.INT32 && originalType == OriginalType.DATE;
+        }
+        if (originalType != null && originalType != OriginalType.INT_8 && originalType != OriginalType.INT_16 && originalType != OriginalType.INT_32 && originalType != OriginalType.INT_64) {
+            return false;
+        }
+        Type type = column.getType();
+        return parquetType.getPrimitiveTypeName() == (type.equals(BIGINT) ? PrimitiveTypeName.INT64 : PrimitiveTypeName.INT32);
+    }
+
+    private static boolean isFormat(StorageFormat storageFormat, String serde, String inputFormat)
+    {
+        return serde.equals(storageFormat.getSerDeNullable()) && inputFormat.equals(storageFormat.getInputFormatNullable());
+    }
+
+    public enum AggregationKind
+    {
+        COUNT_ALL,
+        COUNT,
+        MIN,
+        MAX,
+    }
+
+    public static class Aggregation
+    {
+        private final AggregationKind kind;
+        private final Optional<HiveColumnHandle> column;
+
+        public Aggregation(AggregationKind kind, Optional<HiveColumnHandle> column)
+        {
+            this.kind = requireNonNull(kind, "kind is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public AggregationKind getKind()
+        {
+            return kind;
+        }
+
+        public Optional<HiveColumnHandle> getColumn()
+        {
+            return column;
+        }
+    }
+
+    private static class FileStatistics
+    {
+        private final long rowCount;
+        private final long[] nonNullCounts;
+        private final long[] minimums;
+        private final long[] maximums;
+
+        public FileStatistics(long rowCount, long[] nonNullCounts, long[] minimums, long[] maximums)
+        {
+            this.rowCount = rowCount;
+            this.nonNullCounts = requireNonNull(nonNullCounts, "nonNullCounts is null");
+            this.minimums = requireNonNull(minimums, "minimums is null");
+            this.maximums = requireNonNull(maximums, "maximums is null");
+        }
+    }
+
+    private static class AggregationState
+    {
+        private long rowCount;
+        private final long[] nonNullCounts;
+        private final long[] minimums;
+        private final long[] maximums;
+
+        public AggregationState(int columnCount)
+        {
+            nonNullCounts = new long[columnCount];
+            minimums = new long[columnCount];
+            maximums = new long[columnCount];
+        }
+
+        public void add(FileStatistics file)
+        {
+            rowCount += file.rowCount;
+            for (int i = 0; i < nonNullCounts.length; i++) {
+                if (file.nonNullCounts[i] == 0) {
+                    continue;
+                }
+                minimums[i] = nonNullCounts[i] == 0 ? file.minimums[i] : min(minimums[i], file.minimums[i]);
+                maximums[i] = nonNullCounts[i] == 0 ? file.maximums[i] : max(maximums[i], file.maximums[i]);
+                nonNullCounts[i] += file.nonNullCounts[i];
+            }
+        }
+    }
+}
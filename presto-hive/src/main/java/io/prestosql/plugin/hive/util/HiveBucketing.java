@@ -53,6 +53,8 @@ import static com.google.common.collect.Lists.cartesianProduct;
 import static io.prestosql.plugin.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getTimestampPrecision;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isBucketExecutionEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isPropagateTableScanSortingProperties;
 import static io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion.BUCKETING_V1;
 import static io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion.BUCKETING_V2;
 import static io.prestosql.plugin.hive.util.HiveUtil.getRegularColumnHandles;
@@ -200,7 +202,23 @@ public final class HiveBucketing
 
         BucketingVersion bucketingVersion = hiveBucketProperty.get().getBucketingVersion();
         int bucketCount = hiveBucketProperty.get().getBucketCount();
-        return Optional.of(new HiveBucketHandle(bucketColumns.build(), bucketingVersion, bucketCount, bucketCount));
+        return Optional.of(new HiveBucketHandle(bucketColumns.build(), bucketingVersion, bucketCount, bucketCount, hiveBucketProperty.get().getSortedBy()));
+    }
+
+    /**
+     * Returns true if the sort order of the buckets is exposed to the engine, in which case each
+     * bucket must be read as a single, unsplit file.
+     */
+    public static boolean isSortedBucketScan(ConnectorSession session, Optional<HiveBucketHandle> bucketHandle, int partitionCount)
+    {
+        // the files of a bucket in different partitions are not sorted relative to each other
+        return isPropagateTableScanSortingProperties(session) &&
+                isBucketExecutionEnabled(session) &&
+                partitionCount <= 1 &&
+                bucketHandle
+                        .filter(handle -> !handle.getSortedBy().isEmpty())
+                        .filter(handle -> handle.getReadBucketCount() == handle.getTableBucketCount())
+                        .isPresent();
     }
 
     public static Optional<HiveBucketFilter> getHiveBucketFilter(Table table, TupleDomain<ColumnHandle> effectivePredicate)
@@ -206,7 +206,8 @@ public class InternalHiveSplitFactory
                 tableToPartitionMapping,
                 bucketConversion,
                 s3SelectPushdownEnabled && S3SelectPushdown.isCompressionCodecSupported(inputFormat, path),
-                acidInfo));
+                acidInfo,
+                partitionMatchSupplier));
     }
 
     private static void checkBlocks(List<InternalHiveBlock> blocks, long start, long length)
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.TimestampType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.spi.type.VarcharType;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.prestosql.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.prestosql.spi.function.InvocationConvention.simpleConvention;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sorts rows by a normalized key, which is a long that orders the rows like the first sort column.
+ * Most comparisons are then of two longs in a flat array, instead of calls of the ordering operators
+ * on the blocks. Integer and date keys are exact, and strings are normalized to their first eight
+ * bytes, so rows with the same key are ordered by comparing the remaining sort columns.
+ */
+public class NormalizedKeySorter
+{
+    private static final int STRING_PREFIX_BYTES = Long.BYTES;
+
+    private final Type keyType;
+    private final SortOrder keyOrder;
+    private final boolean exactKey;
+    private final List<Integer> sortFields;
+    private final List<MethodHandle> orderingOperators;
+
+    public NormalizedKeySorter(List<Type> types, List<Integer> sortFields, List<SortOrder> sortOrders, TypeOperators typeOperators)
+    {
+        requireNonNull(types, "types is null");
+        requireNonNull(sortFields, "sortFields is null");
+        requireNonNull(sortOrders, "sortOrders is null");
+        requireNonNull(typeOperators, "typeOperators is null");
+        checkArgument(sortFields.size() == sortOrders.size(), "sortFields and sortOrders size must match");
+        checkArgument(!sortFields.isEmpty(), "sortFields is empty");
+
+        this.keyType = types.get(sortFields.get(0));
+        checkArgument(isSupported(keyType), "Type is not supported for a normalized key: %s", keyType);
+        this.keyOrder = sortOrders.get(0);
+        this.exactKey = !isStringType(keyType);
+        this.sortFields = ImmutableList.copyOf(sortFields);
+
+        ImmutableList.Builder<MethodHandle> orderingOperators = ImmutableList.builder();
+        for (int index = 0; index < sortFields.size(); index++) {
+            Type type = types.get(sortFields.get(index));
+            orderingOperators.add(typeOperators.getOrderingOperator(type, sortOrders.get(index), simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION)));
+        }
+        this.orderingOperators = orderingOperators.build();
+    }
+
+    public static boolean isSupported(Type type)
+    {
+        return isLongType(type) || isStringType(type);
+    }
+
+    private static boolean isLongType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                (type instanceof DecimalType && ((DecimalType) type).isShort()) ||
+                (type instanceof TimestampType && ((TimestampType) type).isShort());
+    }
+
+    private static boolean isStringType(Type type)
+    {
+        return type instanceof VarcharType || type.equals(VARBINARY);
+    }
+
+    /**
+     * Sorts the rows of the pages, and stores the page and the position of the rows in sorted
+     * order in the specified arrays, which must have room for all the rows.
+     */
+    public void sort(List<Page> pages, int[] pageIndexes, int[] positions)
+    {
+        int rowCount = 0;
+        for (Page page : pages) {
+            rowCount += page.getPositionCount();
+        }
+        checkArgument(pageIndexes.length >= rowCount && positions.length >= rowCount, "arrays are too small");
+
+        long[] keys = new long[rowCount];
+        int row = 0;
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            Block block = pages.get(pageIndex).getBlock(sortFields.get(0));
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                keys[row] = getNormalizedKey(block, position);
+                pageIndexes[row] = pageIndex;
+                positions[row] = position;
+                row++;
+            }
+        }
+
+        it.unimi.dsi.fastutil.Arrays.quickSort(
+                0,
+                rowCount,
+                (left, right) -> {
+                    long leftKey = keys[left];
+                    int result = Long.compare(leftKey, keys[right]);
+                    if (result != 0) {
+                        return result;
+                    }
+                    // equal exact keys have equal values in the first sort column, unless
+                    // the key is an extreme value, which is also the key of a null
+                    int firstField = (exactKey && leftKey != Long.MIN_VALUE && leftKey != Long.MAX_VALUE) ? 1 : 0;
+                    return compareRows(pages.get(pageIndexes[left]), positions[left], pages.get(pageIndexes[right]), positions[right], firstField);
+                },
+                (left, right) -> {
+                    long key = keys[left];
+                    keys[left] = keys[right];
+                    keys[right] = key;
+                    int pageIndex = pageIndexes[left];
+                    pageIndexes[left] = pageIndexes[right];
+                    pageIndexes[right] = pageIndex;
+                    int position = positions[left];
+                    positions[left] = positions[right];
+                    positions[right] = position;
+                });
+    }
+
+    private long getNormalizedKey(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return keyOrder.isNullsFirst() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+
+        long key;
+        if (exactKey) {
+            key = keyType.getLong(block, position);
+        }
+        else {
+            // big endian prefix, padded with zeros, with the sign bit flipped so it compares as unsigned
+            Slice slice = keyType.getSlice(block, position);
+            int length = min(slice.length(), STRING_PREFIX_BYTES);
+            long prefix = 0;
+            for (int i = 0; i < STRING_PREFIX_BYTES; i++) {
+                prefix <<= Byte.SIZE;
+                if (i < length) {
+                    prefix |= slice.getByte(i) & 0xFF;
+                }
+            }
+            key = prefix ^ Long.MIN_VALUE;
+        }
+
+        // bitwise not reverses the order without overflowing
+        return keyOrder.isAscending() ? key : ~key;
+    }
+
+    private int compareRows(Page left, int leftPosition, Page right, int rightPosition, int firstField)
+    {
+        try {
+            for (int i = firstField; i < sortFields.size(); i++) {
+                int channel = sortFields.get(i);
+                int result = (int) orderingOperators.get(i).invokeExact(left.getBlock(channel), leftPosition, right.getBlock(channel), rightPosition);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+        catch (Throwable throwable) {
+            throwIfUnchecked(throwable);
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, throwable);
+        }
+    }
+}
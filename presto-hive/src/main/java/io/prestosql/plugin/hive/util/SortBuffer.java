@@ -22,10 +22,12 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.connector.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -43,6 +45,7 @@ public class SortBuffer
     private final List<Integer> sortFields;
     private final List<SortOrder> sortOrders;
     private final PageSorter pageSorter;
+    private final Optional<NormalizedKeySorter> normalizedKeySorter;
     private final List<Page> pages = new ArrayList<>();
     private final PageBuilder pageBuilder;
 
@@ -54,7 +57,8 @@ public class SortBuffer
             List<Type> types,
             List<Integer> sortFields,
             List<SortOrder> sortOrders,
-            PageSorter pageSorter)
+            PageSorter pageSorter,
+            TypeOperators typeOperators)
     {
         checkArgument(maxMemory.toBytes() > 0, "maxMemory is zero");
         this.maxMemoryBytes = maxMemory.toBytes();
@@ -62,6 +66,13 @@ public class SortBuffer
         this.sortFields = ImmutableList.copyOf(requireNonNull(sortFields, "sortFields is null"));
         this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
         this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
+        requireNonNull(typeOperators, "typeOperators is null");
+        if (!sortFields.isEmpty() && NormalizedKeySorter.isSupported(types.get(sortFields.get(0)))) {
+            this.normalizedKeySorter = Optional.of(new NormalizedKeySorter(types, sortFields, sortOrders, typeOperators));
+        }
+        else {
+            this.normalizedKeySorter = Optional.empty();
+        }
         this.pageBuilder = new PageBuilder(types);
     }
 
@@ -104,13 +115,17 @@ public class SortBuffer
     {
         checkState(!pages.isEmpty(), "page buffer is empty");
 
-        long[] addresses = pageSorter.sort(types, pages, sortFields, sortOrders, rowCount);
-
-        int[] pageIndex = new int[addresses.length];
-        int[] positionIndex = new int[addresses.length];
-        for (int i = 0; i < addresses.length; i++) {
-            pageIndex[i] = pageSorter.decodePageIndex(addresses[i]);
-            positionIndex[i] = pageSorter.decodePositionIndex(addresses[i]);
+        int[] pageIndex = new int[rowCount];
+        int[] positionIndex = new int[rowCount];
+        if (normalizedKeySorter.isPresent()) {
+            normalizedKeySorter.get().sort(pages, pageIndex, positionIndex);
+        }
+        else {
+            long[] addresses = pageSorter.sort(types, pages, sortFields, sortOrders, rowCount);
+            for (int i = 0; i < addresses.length; i++) {
+                pageIndex[i] = pageSorter.decodePageIndex(addresses[i]);
+                positionIndex[i] = pageSorter.decodePositionIndex(addresses[i]);
+            }
         }
 
         verify(pageBuilder.isEmpty());
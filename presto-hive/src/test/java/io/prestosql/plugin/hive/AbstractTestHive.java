@@ -760,11 +760,14 @@ public abstract class AbstractTestHive
         HivePartitionManager partitionManager = new HivePartitionManager(hiveConfig);
         locationService = new HiveLocationService(hdfsEnvironment);
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
+        DirectoryLister directoryLister = new CachingDirectoryLister(hiveConfig);
         metadataFactory = new HiveMetadataFactory(
                 new CatalogName("hive"),
                 metastoreClient,
                 hdfsEnvironment,
                 partitionManager,
+                directoryLister,
+                10,
                 10,
                 10,
                 false,
@@ -788,7 +791,7 @@ public abstract class AbstractTestHive
                 partitionManager,
                 new NamenodeStats(),
                 hdfsEnvironment,
-                new CachingDirectoryLister(hiveConfig),
+                directoryLister,
                 directExecutor(),
                 new CounterStat(),
                 100,
@@ -797,6 +800,7 @@ public abstract class AbstractTestHive
                 hiveConfig.getMaxPartitionBatchSize(),
                 hiveConfig.getMaxInitialSplits(),
                 hiveConfig.getSplitLoaderConcurrency(),
+                hiveConfig.getMaxSplitLoaderConcurrency(),
                 hiveConfig.getMaxSplitsPerSecond(),
                 false,
                 TYPE_MANAGER);
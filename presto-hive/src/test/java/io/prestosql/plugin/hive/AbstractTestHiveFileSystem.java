@@ -197,6 +197,7 @@ public abstract class AbstractTestHiveFileSystem
                 hdfsEnvironment);
         locationService = new HiveLocationService(hdfsEnvironment);
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
+        DirectoryLister directoryLister = new CachingDirectoryLister(new HiveConfig());
         metadataFactory = new HiveMetadataFactory(
                 new CatalogName("hive"),
                 config,
@@ -204,6 +205,7 @@ public abstract class AbstractTestHiveFileSystem
                 metastoreClient,
                 hdfsEnvironment,
                 hivePartitionManager,
+                directoryLister,
                 newDirectExecutorService(),
                 heartbeatService,
                 TYPE_MANAGER,
@@ -217,7 +219,7 @@ public abstract class AbstractTestHiveFileSystem
                 hivePartitionManager,
                 new NamenodeStats(),
                 hdfsEnvironment,
-                new CachingDirectoryLister(new HiveConfig()),
+                directoryLister,
                 new BoundedExecutor(executor, config.getMaxSplitIteratorThreads()),
                 new CounterStat(),
                 config.getMaxOutstandingSplits(),
@@ -226,6 +228,7 @@ public abstract class AbstractTestHiveFileSystem
                 config.getMaxPartitionBatchSize(),
                 config.getMaxInitialSplits(),
                 config.getSplitLoaderConcurrency(),
+                config.getMaxSplitLoaderConcurrency(),
                 config.getMaxSplitsPerSecond(),
                 config.getRecursiveDirWalkerEnabled(),
                 TYPE_MANAGER);
@@ -25,6 +25,7 @@ import io.prestosql.plugin.hive.azure.HiveAzureConfig;
 import io.prestosql.plugin.hive.azure.PrestoAzureConfigurationInitializer;
 import io.prestosql.plugin.hive.gcs.GoogleGcsConfigurationInitializer;
 import io.prestosql.plugin.hive.gcs.HiveGcsConfig;
+import io.prestosql.plugin.hive.orc.OrcDeleteDeltaCache;
 import io.prestosql.plugin.hive.orc.OrcFileWriterFactory;
 import io.prestosql.plugin.hive.orc.OrcPageSourceFactory;
 import io.prestosql.plugin.hive.orc.OrcReaderConfig;
@@ -63,6 +64,7 @@ import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.function.InvocationConvention.InvocationArgumentConvention.NULL_FLAG;
@@ -137,7 +139,7 @@ public final class HiveTestUtils
         FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
         return ImmutableSet.<HivePageSourceFactory>builder()
                 .add(new RcFilePageSourceFactory(TYPE_MANAGER, hdfsEnvironment, stats, hiveConfig))
-                .add(new OrcPageSourceFactory(new OrcReaderConfig(), hdfsEnvironment, stats, hiveConfig))
+                .add(new OrcPageSourceFactory(new OrcReaderConfig(), hdfsEnvironment, stats, hiveConfig, newDirectExecutorService(), new OrcDeleteDeltaCache(hiveConfig)))
                 .add(new ParquetPageSourceFactory(hdfsEnvironment, stats, new ParquetReaderConfig(), hiveConfig))
                 .build();
     }
@@ -165,7 +167,8 @@ public final class HiveTestUtils
                 new NodeVersion("test_version"),
                 new OrcWriterConfig(),
                 new FileFormatDataSourceStats(),
-                new OrcWriterConfig());
+                new OrcWriterConfig(),
+                newDirectExecutorService());
     }
 
     public static List<Type> getTypes(List<? extends ColumnHandle> columnHandles)
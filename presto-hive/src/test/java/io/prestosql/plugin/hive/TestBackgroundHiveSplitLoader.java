@@ -301,7 +301,7 @@ public class TestBackgroundHiveSplitLoader
                 RETURNED_PATH_DOMAIN,
                 Optional.of(new HiveBucketFilter(ImmutableSet.of(0, 1))),
                 PARTITIONED_TABLE,
-                Optional.of(new HiveBucketHandle(BUCKET_COLUMN_HANDLES, BUCKETING_V1, BUCKET_COUNT, BUCKET_COUNT)));
+                Optional.of(new HiveBucketHandle(BUCKET_COLUMN_HANDLES, BUCKETING_V1, BUCKET_COUNT, BUCKET_COUNT, ImmutableList.of())));
 
         HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
         backgroundHiveSplitLoader.start(hiveSplitSource);
@@ -324,7 +324,8 @@ public class TestBackgroundHiveSplitLoader
                                 getRegularColumnHandles(PARTITIONED_TABLE, TYPE_MANAGER, TIMESTAMP_PRECISION),
                                 BUCKETING_V1,
                                 BUCKET_COUNT,
-                                BUCKET_COUNT)));
+                                BUCKET_COUNT,
+                                ImmutableList.of())));
 
         HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
         backgroundHiveSplitLoader.start(hiveSplitSource);
@@ -452,6 +453,57 @@ public class TestBackgroundHiveSplitLoader
         assertEquals(cachingDirectoryLister.getMissCount(), 1);
     }
 
+    @Test
+    public void testCachedDirectoryListerInvalidation()
+            throws Exception
+    {
+        CachingDirectoryLister cachingDirectoryLister = new CachingDirectoryLister(new Duration(5, TimeUnit.MINUTES), 1000, ImmutableList.of("test_dbname.*"));
+        SchemaTableName tableName = new SchemaTableName("test_dbname", "test_table");
+
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(cachingDirectoryLister.getHitCount(), 1);
+        assertEquals(cachingDirectoryLister.getMissCount(), 1);
+
+        // listings of other tables are not affected
+        cachingDirectoryLister.invalidate(new SchemaTableName("test_dbname", "other_table"));
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(cachingDirectoryLister.getHitCount(), 2);
+
+        cachingDirectoryLister.invalidate(tableName);
+        assertEquals(cachingDirectoryLister.getSize(), 0);
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(cachingDirectoryLister.getHitCount(), 2);
+        assertEquals(cachingDirectoryLister.getMissCount(), 2);
+        assertEquals(cachingDirectoryLister.getInvalidationCount(), 2);
+
+        // tables that are not cached are never invalidated
+        cachingDirectoryLister.invalidate(new SchemaTableName("other_dbname", "test_table"));
+        assertEquals(cachingDirectoryLister.getInvalidationCount(), 2);
+    }
+
+    @Test
+    public void testCachedDirectoryListerTableExpiration()
+            throws Exception
+    {
+        // the listings of the table expire immediately, while the default expiration is 5 minutes
+        CachingDirectoryLister cachingDirectoryLister = new CachingDirectoryLister(new Duration(5, TimeUnit.MINUTES), 1000, ImmutableList.of("test_dbname.test_table:0s", "test_dbname.*"));
+
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(drainSplits(TEST_FILES, cachingDirectoryLister).size(), TEST_FILES.size());
+        assertEquals(cachingDirectoryLister.getHitCount(), 0);
+        assertEquals(cachingDirectoryLister.getMissCount(), 2);
+    }
+
+    private List<HiveSplit> drainSplits(List<LocatedFileStatus> files, DirectoryLister directoryLister)
+            throws Exception
+    {
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(files, directoryLister);
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        return drainSplits(hiveSplitSource);
+    }
+
     @Test
     public void testGetBucketNumber()
     {
@@ -525,13 +577,14 @@ public class TestBackgroundHiveSplitLoader
                 DynamicFilter.EMPTY,
                 Duration.valueOf("0s"),
                 TYPE_MANAGER,
-                createBucketSplitInfo(Optional.empty(), Optional.empty()),
+                createBucketSplitInfo(Optional.empty(), Optional.empty(), false),
                 SESSION,
                 new TestingHdfsEnvironment(TEST_FILES),
                 new NamenodeStats(),
                 new CachingDirectoryLister(new HiveConfig()),
                 executor,
                 threads,
+                threads,
                 false,
                 false,
                 Optional.empty());
@@ -572,7 +625,7 @@ public class TestBackgroundHiveSplitLoader
                 TupleDomain.all(),
                 Optional.empty(),
                 SIMPLE_TABLE,
-                Optional.of(new HiveBucketHandle(BUCKET_COLUMN_HANDLES, BUCKETING_V1, BUCKET_COUNT, BUCKET_COUNT)));
+                Optional.of(new HiveBucketHandle(BUCKET_COLUMN_HANDLES, BUCKETING_V1, BUCKET_COUNT, BUCKET_COUNT, ImmutableList.of())));
 
         HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
         backgroundHiveSplitLoader.start(hiveSplitSource);
@@ -875,13 +928,14 @@ public class TestBackgroundHiveSplitLoader
                 dynamicFilter,
                 dynamicFilteringProbeBlockingTimeout,
                 TYPE_MANAGER,
-                createBucketSplitInfo(bucketHandle, hiveBucketFilter),
+                createBucketSplitInfo(bucketHandle, hiveBucketFilter, false),
                 SESSION,
                 hdfsEnvironment,
                 new NamenodeStats(),
                 new CachingDirectoryLister(new HiveConfig()),
                 executor,
                 2,
+                2,
                 false,
                 false,
                 validWriteIds);
@@ -912,6 +966,7 @@ public class TestBackgroundHiveSplitLoader
                 directoryLister,
                 executor,
                 2,
+                2,
                 false,
                 false,
                 Optional.empty());
@@ -929,13 +984,14 @@ public class TestBackgroundHiveSplitLoader
                 DynamicFilter.EMPTY,
                 Duration.valueOf("0s"),
                 TYPE_MANAGER,
-                createBucketSplitInfo(Optional.empty(), Optional.empty()),
+                createBucketSplitInfo(Optional.empty(), Optional.empty(), false),
                 connectorSession,
                 new TestingHdfsEnvironment(TEST_FILES),
                 new NamenodeStats(),
                 new CachingDirectoryLister(new HiveConfig()),
                 directExecutor(),
                 2,
+                2,
                 false,
                 false,
                 Optional.empty());
@@ -981,6 +1037,7 @@ public class TestBackgroundHiveSplitLoader
                 Integer.MAX_VALUE,
                 hiveSplitLoader,
                 executor,
+                new CounterStat(),
                 new CounterStat());
     }
 
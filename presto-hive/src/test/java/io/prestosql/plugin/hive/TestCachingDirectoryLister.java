@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import io.prestosql.plugin.hive.metastore.Column;
+import io.prestosql.plugin.hive.metastore.StorageFormat;
+import io.prestosql.plugin.hive.metastore.Table;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.apache.hadoop.hive.metastore.TableType.MANAGED_TABLE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+
+public class TestCachingDirectoryLister
+{
+    private static final Table TABLE = table("test_table");
+    private static final Table OTHER_TABLE = table("other_table");
+
+    private File tempDir;
+    private FileSystem fileSystem;
+    private Path tablePath;
+    private Path otherTablePath;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDir = createTempDir();
+        tablePath = new Path(tempDir.toURI().toString(), "test_table");
+        otherTablePath = new Path(tempDir.toURI().toString(), "other_table");
+        fileSystem = tablePath.getFileSystem(new Configuration(false));
+        for (int i = 0; i < 3; i++) {
+            fileSystem.create(new Path(tablePath, "file_" + i)).close();
+            fileSystem.create(new Path(otherTablePath, "file_" + i)).close();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testInvalidation()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.*"));
+
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(listFiles(lister, OTHER_TABLE, otherTablePath).size(), 3);
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(lister.getMissCount(), 2);
+        assertEquals(lister.getHitCount(), 1);
+        assertEquals(lister.getSize(), 2);
+
+        // a new file is not visible until the table is invalidated
+        fileSystem.create(new Path(tablePath, "new_file")).close();
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+
+        lister.invalidate(TABLE.getSchemaTableName());
+        assertEquals(lister.getInvalidationCount(), 1);
+        assertEquals(lister.getSize(), 1);
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 4);
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 4);
+
+        // the listings of the other table are kept
+        assertEquals(listFiles(lister, OTHER_TABLE, otherTablePath).size(), 3);
+        assertEquals(lister.getMissCount(), 3);
+        assertEquals(lister.getHitCount(), 4);
+
+        fileSystem.delete(new Path(tablePath, "new_file"), false);
+    }
+
+    @Test
+    public void testListingStartedBeforeInvalidation()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table"));
+
+        // the table is written to while it is listed, so the listing may miss the new files
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(fileSystem, TABLE, tablePath);
+        iterator.next();
+        lister.invalidate(TABLE.getSchemaTableName());
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertEquals(lister.getSize(), 0);
+
+        // a listing started after the invalidation is cached
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(lister.getSize(), 1);
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(lister.getMissCount(), 2);
+        assertEquals(lister.getHitCount(), 1);
+    }
+
+    @Test
+    public void testInvalidationOfTableNotCached()
+            throws IOException
+    {
+        CachingDirectoryLister lister = new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table"));
+
+        assertEquals(listFiles(lister, OTHER_TABLE, otherTablePath).size(), 3);
+        assertEquals(lister.getRequestCount(), 0);
+        assertEquals(lister.getSize(), 0);
+
+        lister.invalidate(OTHER_TABLE.getSchemaTableName());
+        assertEquals(lister.getInvalidationCount(), 0);
+    }
+
+    @Test
+    public void testTableExpiration()
+            throws Exception
+    {
+        // the listings of the table expire after 10ms, while the default expiration is 5 minutes
+        CachingDirectoryLister lister = new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table:10ms", "test_dbname.*"));
+
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(listFiles(lister, OTHER_TABLE, otherTablePath).size(), 3);
+        MILLISECONDS.sleep(100);
+
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(listFiles(lister, OTHER_TABLE, otherTablePath).size(), 3);
+        assertEquals(lister.getMissCount(), 3);
+        assertEquals(lister.getHitCount(), 1);
+    }
+
+    @Test
+    public void testFirstMatchingTableExpiration()
+            throws Exception
+    {
+        // the first pattern that matches the table determines its expiration
+        CachingDirectoryLister lister = new CachingDirectoryLister(new Duration(10, MILLISECONDS), 1000, ImmutableList.of("test_dbname.*:5m", "test_dbname.test_table"));
+
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        MILLISECONDS.sleep(100);
+        assertEquals(listFiles(lister, TABLE, tablePath).size(), 3);
+        assertEquals(lister.getMissCount(), 1);
+        assertEquals(lister.getHitCount(), 1);
+    }
+
+    @Test
+    public void testInvalidTablePattern()
+    {
+        assertThatThrownBy(() -> new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table:abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CachingDirectoryLister(new Duration(5, MINUTES), 1000, ImmutableList.of("test_table:5m")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid schemaTableName: test_table");
+    }
+
+    private List<LocatedFileStatus> listFiles(DirectoryLister lister, Table table, Path path)
+            throws IOException
+    {
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(fileSystem, table, path);
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        return files.build();
+    }
+
+    private static Table table(String tableName)
+    {
+        Table.Builder tableBuilder = Table.builder();
+        tableBuilder.getStorageBuilder()
+                .setStorageFormat(StorageFormat.fromHiveStorageFormat(HiveStorageFormat.ORC))
+                .setLocation("/" + tableName);
+        return tableBuilder
+                .setDatabaseName("test_dbname")
+                .setOwner("testOwner")
+                .setTableName(tableName)
+                .setTableType(MANAGED_TABLE.toString())
+                .setDataColumns(ImmutableList.of(new Column("col1", HIVE_STRING, Optional.empty())))
+                .build();
+    }
+}
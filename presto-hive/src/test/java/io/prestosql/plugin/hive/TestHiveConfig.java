@@ -37,6 +37,7 @@ public class TestHiveConfig
     {
         assertRecordedDefaults(recordDefaults(HiveConfig.class)
                 .setMaxSplitSize(DataSize.of(64, Unit.MEGABYTE))
+                .setCombineSmallFilesEnabled(false)
                 .setMaxPartitionsPerScan(100_000)
                 .setMaxOutstandingSplits(1_000)
                 .setMaxOutstandingSplitsSize(DataSize.of(256, Unit.MEGABYTE))
@@ -48,6 +49,7 @@ public class TestHiveConfig
                 .setMaxInitialSplits(200)
                 .setMaxInitialSplitSize(DataSize.of(32, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(4)
+                .setMaxSplitLoaderConcurrency(16)
                 .setMaxSplitsPerSecond(null)
                 .setDomainCompactionThreshold(100)
                 .setWriterSortBufferSize(DataSize.of(64, Unit.MEGABYTE))
@@ -63,11 +65,15 @@ public class TestHiveConfig
                 .setInsertExistingPartitionsBehavior(APPEND)
                 .setCreateEmptyBucketFiles(false)
                 .setSortedWritingEnabled(true)
+                .setClusteredWritingEnabled(false)
                 .setMaxPartitionsPerWriter(100)
                 .setMaxOpenSortFiles(50)
+                .setWriterSortMergeThreads(4)
+                .setWriterSortInMemoryRunsSize(DataSize.ofBytes(0))
                 .setWriteValidationThreads(16)
                 .setTextMaxLineLength(DataSize.of(100, Unit.MEGABYTE))
                 .setOrcLegacyTimeZone(TimeZone.getDefault().getID())
+                .setOrcDeleteDeltaCacheSize(DataSize.of(128, Unit.MEGABYTE))
                 .setParquetTimeZone(TimeZone.getDefault().getID())
                 .setUseParquetColumnNames(false)
                 .setRcfileTimeZone(TimeZone.getDefault().getID())
@@ -75,6 +81,7 @@ public class TestHiveConfig
                 .setSkipDeletionForAlter(false)
                 .setSkipTargetCleanupOnRollback(false)
                 .setBucketExecutionEnabled(true)
+                .setPropagateTableScanSortingProperties(false)
                 .setTableStatisticsEnabled(true)
                 .setOptimizeMismatchedBucketCount(false)
                 .setWritesToNonManagedTablesEnabled(false)
@@ -96,6 +103,9 @@ public class TestHiveConfig
                 .setQueryPartitionFilterRequired(false)
                 .setPartitionUseColumnNames(false)
                 .setProjectionPushdownEnabled(true)
+                .setAggregationPushdownEnabled(false)
+                .setAggregationPushdownMaxFiles(1000)
+                .setAggregationPushdownParallelism(20)
                 .setDynamicFilteringProbeBlockingTimeout(new Duration(0, TimeUnit.MINUTES))
                 .setTimestampPrecision(HiveTimestampPrecision.MILLISECONDS));
     }
@@ -105,6 +115,7 @@ public class TestHiveConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("hive.max-split-size", "256MB")
+                .put("hive.combine-small-files", "true")
                 .put("hive.max-partitions-per-scan", "123")
                 .put("hive.max-outstanding-splits", "10")
                 .put("hive.max-outstanding-splits-size", "32MB")
@@ -116,6 +127,7 @@ public class TestHiveConfig
                 .put("hive.max-initial-splits", "10")
                 .put("hive.max-initial-split-size", "16MB")
                 .put("hive.split-loader-concurrency", "1")
+                .put("hive.max-split-loader-concurrency", "8")
                 .put("hive.max-splits-per-second", "1")
                 .put("hive.domain-compaction-threshold", "42")
                 .put("hive.writer-sort-buffer-size", "13MB")
@@ -129,12 +141,15 @@ public class TestHiveConfig
                 .put("hive.create-empty-bucket-files", "true")
                 .put("hive.max-partitions-per-writers", "222")
                 .put("hive.max-open-sort-files", "333")
+                .put("hive.writer-sort-merge-threads", "8")
+                .put("hive.writer-sort-in-memory-runs-size", "100MB")
                 .put("hive.write-validation-threads", "11")
                 .put("hive.force-local-scheduling", "true")
                 .put("hive.max-concurrent-file-renames", "100")
                 .put("hive.max-concurrent-metastore-drops", "100")
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.orc.time-zone", nonDefaultTimeZone().getID())
+                .put("hive.orc.delete-delta-cache-size", "16MB")
                 .put("hive.parquet.time-zone", nonDefaultTimeZone().getID())
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.rcfile.time-zone", nonDefaultTimeZone().getID())
@@ -142,7 +157,9 @@ public class TestHiveConfig
                 .put("hive.skip-deletion-for-alter", "true")
                 .put("hive.skip-target-cleanup-on-rollback", "true")
                 .put("hive.bucket-execution", "false")
+                .put("hive.propagate-table-scan-sorting-properties", "true")
                 .put("hive.sorted-writing", "false")
+                .put("hive.clustered-writing", "true")
                 .put("hive.table-statistics-enabled", "false")
                 .put("hive.optimize-mismatched-bucket-count", "true")
                 .put("hive.non-managed-table-writes-enabled", "true")
@@ -164,12 +181,16 @@ public class TestHiveConfig
                 .put("hive.query-partition-filter-required", "true")
                 .put("hive.partition-use-column-names", "true")
                 .put("hive.projection-pushdown-enabled", "false")
+                .put("hive.aggregation-pushdown-enabled", "true")
+                .put("hive.aggregation-pushdown-max-files", "100")
+                .put("hive.aggregation-pushdown-parallelism", "5")
                 .put("hive.dynamic-filtering-probe-blocking-timeout", "10s")
                 .put("hive.timestamp-precision", "NANOSECONDS")
                 .build();
 
         HiveConfig expected = new HiveConfig()
                 .setMaxSplitSize(DataSize.of(256, Unit.MEGABYTE))
+                .setCombineSmallFilesEnabled(true)
                 .setMaxPartitionsPerScan(123)
                 .setMaxOutstandingSplits(10)
                 .setMaxOutstandingSplitsSize(DataSize.of(32, Unit.MEGABYTE))
@@ -181,6 +202,7 @@ public class TestHiveConfig
                 .setMaxInitialSplits(10)
                 .setMaxInitialSplitSize(DataSize.of(16, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(1)
+                .setMaxSplitLoaderConcurrency(8)
                 .setMaxSplitsPerSecond(1)
                 .setDomainCompactionThreshold(42)
                 .setWriterSortBufferSize(DataSize.of(13, Unit.MEGABYTE))
@@ -197,9 +219,12 @@ public class TestHiveConfig
                 .setCreateEmptyBucketFiles(true)
                 .setMaxPartitionsPerWriter(222)
                 .setMaxOpenSortFiles(333)
+                .setWriterSortMergeThreads(8)
+                .setWriterSortInMemoryRunsSize(DataSize.of(100, Unit.MEGABYTE))
                 .setWriteValidationThreads(11)
                 .setTextMaxLineLength(DataSize.of(13, Unit.MEGABYTE))
                 .setOrcLegacyTimeZone(nonDefaultTimeZone().getID())
+                .setOrcDeleteDeltaCacheSize(DataSize.of(16, Unit.MEGABYTE))
                 .setParquetTimeZone(nonDefaultTimeZone().getID())
                 .setUseParquetColumnNames(true)
                 .setRcfileTimeZone(nonDefaultTimeZone().getID())
@@ -207,7 +232,9 @@ public class TestHiveConfig
                 .setSkipDeletionForAlter(true)
                 .setSkipTargetCleanupOnRollback(true)
                 .setBucketExecutionEnabled(false)
+                .setPropagateTableScanSortingProperties(true)
                 .setSortedWritingEnabled(false)
+                .setClusteredWritingEnabled(true)
                 .setTableStatisticsEnabled(false)
                 .setOptimizeMismatchedBucketCount(true)
                 .setWritesToNonManagedTablesEnabled(true)
@@ -229,6 +256,9 @@ public class TestHiveConfig
                 .setQueryPartitionFilterRequired(true)
                 .setPartitionUseColumnNames(true)
                 .setProjectionPushdownEnabled(false)
+                .setAggregationPushdownEnabled(true)
+                .setAggregationPushdownMaxFiles(100)
+                .setAggregationPushdownParallelism(5)
                 .setDynamicFilteringProbeBlockingTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setTimestampPrecision(HiveTimestampPrecision.NANOSECONDS);
 
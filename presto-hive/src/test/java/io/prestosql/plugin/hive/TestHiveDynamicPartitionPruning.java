@@ -34,9 +34,12 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static io.airlift.units.Duration.nanosSince;
+import static io.prestosql.SystemSessionProperties.COLOCATED_JOIN;
 import static io.prestosql.SystemSessionProperties.ENABLE_LARGE_DYNAMIC_FILTERS;
+import static io.prestosql.SystemSessionProperties.GROUPED_EXECUTION;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.SystemSessionProperties.MERGE_JOIN;
 import static io.prestosql.server.DynamicFilterService.DynamicFilterDomainStats;
 import static io.prestosql.server.DynamicFilterService.DynamicFiltersStats;
 import static io.prestosql.spi.predicate.Domain.none;
@@ -48,6 +51,7 @@ import static io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType.PART
 import static io.prestosql.sql.analyzer.FeaturesConfig.JoinReorderingStrategy.NONE;
 import static io.prestosql.tpch.TpchTable.getTables;
 import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -406,6 +410,47 @@ public class TestHiveDynamicPartitionPruning
         assertEquals(domainStats.getRangeCount(), 100);
     }
 
+    @Test(timeOut = 60_000)
+    public void testMergeJoinExecutedAsHashJoin()
+    {
+        try {
+            assertUpdate(
+                    "CREATE TABLE sorted_lineitem WITH (bucket_count = 4, bucketed_by = ARRAY['suppkey'], sorted_by = ARRAY['suppkey']) AS " +
+                            "SELECT orderkey, suppkey FROM lineitem",
+                    LINEITEM_COUNT);
+            assertUpdate(
+                    "CREATE TABLE sorted_supplier WITH (bucket_count = 4, bucketed_by = ARRAY['suppkey'], sorted_by = ARRAY['suppkey']) AS " +
+                            "SELECT suppkey, name FROM supplier",
+                    100);
+
+            // the semi join on the build side cannot be executed grouped, so the merge join is executed as a hash join, which collects its dynamic filter
+            Session session = Session.builder(getSession())
+                    .setSystemProperty(COLOCATED_JOIN, "true")
+                    .setSystemProperty(GROUPED_EXECUTION, "false")
+                    .setSystemProperty(MERGE_JOIN, "true")
+                    .setCatalogSessionProperty(getSession().getCatalog().orElseThrow(), "propagate_table_scan_sorting_properties", "true")
+                    .build();
+            @Language("SQL") String query = "SELECT * FROM sorted_lineitem JOIN " +
+                    "(SELECT suppkey, name FROM sorted_supplier WHERE suppkey IN (SELECT suppkey FROM supplier WHERE name = 'Supplier#000000001')) s ON sorted_lineitem.suppkey = s.suppkey";
+            assertThat((String) computeActual(session, "EXPLAIN " + query).getOnlyValue()).contains("MergeInnerJoin");
+
+            DistributedQueryRunner runner = (DistributedQueryRunner) getQueryRunner();
+            ResultWithQueryId<MaterializedResult> result = runner.executeWithQueryId(session, query);
+            assertGreaterThan(result.getResult().getRowCount(), 0);
+
+            // dynamic filters of the semi join and of the merge join
+            DynamicFiltersStats dynamicFiltersStats = getDynamicFilteringStats(result.getQueryId());
+            assertEquals(dynamicFiltersStats.getTotalDynamicFilters(), 2L);
+            assertEquals(dynamicFiltersStats.getDynamicFiltersCompleted(), 2L);
+            dynamicFiltersStats.getDynamicFilterDomainStats().forEach(stats ->
+                    assertEquals(stats.getSimplifiedDomain(), singleValue(BIGINT, 1L).toString(getSession().toConnectorSession())));
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS sorted_lineitem");
+            assertUpdate("DROP TABLE IF EXISTS sorted_supplier");
+        }
+    }
+
     private DynamicFiltersStats getDynamicFilteringStats(QueryId queryId)
     {
         DistributedQueryRunner runner = (DistributedQueryRunner) getQueryRunner();
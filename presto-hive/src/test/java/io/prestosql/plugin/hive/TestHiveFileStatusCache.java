@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.QueryRunner;
+import org.testng.annotations.Test;
+
+import static io.prestosql.tpch.TpchTable.NATION;
+
+public class TestHiveFileStatusCache
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return HiveQueryRunner.builder()
+                .setHiveProperties(ImmutableMap.of(
+                        "hive.file-status-cache-tables", "tpch.*",
+                        "hive.file-status-cache-expire-time", "1h"))
+                .setInitialTables(ImmutableList.of(NATION))
+                .build();
+    }
+
+    @Test
+    public void testInsertInvalidatesCachedListings()
+    {
+        assertUpdate("CREATE TABLE test_cached_insert AS SELECT nationkey FROM nation", 25);
+        assertQuery("SELECT count(*) FROM test_cached_insert", "VALUES 25");
+        assertQuery("SELECT count(*) FROM test_cached_insert", "VALUES 25");
+
+        // the listings of the table are discarded when the insert commits
+        assertUpdate("INSERT INTO test_cached_insert SELECT nationkey FROM nation", 25);
+        assertQuery("SELECT count(*) FROM test_cached_insert", "VALUES 50");
+
+        assertUpdate("DROP TABLE test_cached_insert");
+    }
+
+    @Test
+    public void testInsertIntoExistingPartitionInvalidatesCachedListings()
+    {
+        assertUpdate("CREATE TABLE test_cached_partitions WITH (partitioned_by = ARRAY['regionkey']) AS SELECT nationkey, regionkey FROM nation", 25);
+        assertQuery("SELECT count(*) FROM test_cached_partitions WHERE regionkey = 1", "VALUES 5");
+
+        assertUpdate("INSERT INTO test_cached_partitions SELECT nationkey, regionkey FROM nation WHERE regionkey = 1", 5);
+        assertQuery("SELECT count(*) FROM test_cached_partitions WHERE regionkey = 1", "VALUES 10");
+        assertQuery("SELECT count(*) FROM test_cached_partitions", "VALUES 30");
+
+        assertUpdate("DROP TABLE test_cached_partitions");
+    }
+}
@@ -95,6 +95,7 @@ import static io.prestosql.SystemSessionProperties.DYNAMIC_SCHEDULE_FOR_GROUPED_
 import static io.prestosql.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.prestosql.SystemSessionProperties.GROUPED_EXECUTION;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.MERGE_JOIN;
 import static io.prestosql.plugin.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
 import static io.prestosql.plugin.hive.HiveColumnHandle.FILE_MODIFIED_TIME_COLUMN_NAME;
 import static io.prestosql.plugin.hive.HiveColumnHandle.FILE_SIZE_COLUMN_NAME;
@@ -2632,6 +2633,27 @@ public class TestHiveIntegrationSmokeTest
         assertUpdate(session, "DROP TABLE test_insert_unicode");
     }
 
+    @Test
+    public void testCombineSmallFiles()
+    {
+        assertUpdate("CREATE TABLE test_combine_small_files (key BIGINT, part BIGINT) WITH (partitioned_by = ARRAY['part'])");
+        // every insert writes separate small files
+        for (int i = 0; i < 5; i++) {
+            assertUpdate(format("INSERT INTO test_combine_small_files SELECT nationkey, %s FROM nation", i % 2), 25);
+        }
+
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, "combine_small_files_enabled", "true")
+                .build();
+        assertQuery(session, "SELECT part, count(*), sum(key) FROM test_combine_small_files GROUP BY part", "VALUES (0, 75, 900), (1, 50, 600)");
+        // the path column refers to the file of the row, not to the first file of the combined split
+        assertEquals(
+                computeActual(session, "SELECT DISTINCT \"$path\" FROM test_combine_small_files").getOnlyColumnAsSet(),
+                computeActual("SELECT DISTINCT \"$path\" FROM test_combine_small_files").getOnlyColumnAsSet());
+
+        assertUpdate("DROP TABLE test_combine_small_files");
+    }
+
     @Test
     public void testPartitionPerScanLimit()
     {
@@ -4735,6 +4757,153 @@ public class TestHiveIntegrationSmokeTest
         }
     }
 
+    @Test
+    public void testLimitPushdown()
+    {
+        @Language("SQL") String limit = "SELECT orderkey FROM orders LIMIT 5";
+        assertThat((String) computeActual("EXPLAIN " + limit).getOnlyValue()).contains("limit=5");
+        assertEquals(computeActual(limit).getRowCount(), 5);
+
+        // a predicate on a regular column is evaluated after the table scan, so each split must return all its rows
+        @Language("SQL") String filtered = "SELECT orderkey, orderstatus FROM orders WHERE orderstatus = 'F' LIMIT 5";
+        assertThat((String) computeActual("EXPLAIN " + filtered).getOnlyValue()).doesNotContain("limit=");
+        MaterializedResult filteredResult = computeActual(filtered);
+        assertEquals(filteredResult.getRowCount(), 5);
+        assertTrue(filteredResult.getMaterializedRows().stream().allMatch(row -> row.getField(1).equals("F")));
+
+        try {
+            assertUpdate("CREATE TABLE test_limit_pushdown WITH (partitioned_by = ARRAY['orderstatus']) AS SELECT orderkey, orderstatus FROM orders", "SELECT count(*) FROM orders");
+
+            // a predicate on partition keys is enforced by partition pruning, so the limit is still pushed
+            @Language("SQL") String partitionFiltered = "SELECT orderkey, orderstatus FROM test_limit_pushdown WHERE orderstatus = 'F' LIMIT 5";
+            assertThat((String) computeActual("EXPLAIN " + partitionFiltered).getOnlyValue()).contains("limit=5");
+            MaterializedResult partitionFilteredResult = computeActual(partitionFiltered);
+            assertEquals(partitionFilteredResult.getRowCount(), 5);
+            assertTrue(partitionFilteredResult.getMaterializedRows().stream().allMatch(row -> row.getField(1).equals("F")));
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_limit_pushdown");
+        }
+    }
+
+    @Test
+    public void testAggregationPushdown()
+    {
+        testAggregationPushdown(HiveStorageFormat.ORC);
+        testAggregationPushdown(HiveStorageFormat.PARQUET);
+    }
+
+    private void testAggregationPushdown(HiveStorageFormat storageFormat)
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, "aggregation_pushdown_enabled", "true")
+                .build();
+        try {
+            assertUpdate(session, "CREATE TABLE test_aggregation_pushdown (key bigint, value integer) WITH (format = '" + storageFormat + "')");
+            assertUpdate(session, "INSERT INTO test_aggregation_pushdown VALUES (1, 10), (2, NULL), (3, 30)", 3);
+            assertUpdate(session, "INSERT INTO test_aggregation_pushdown VALUES (4, -5), (5, NULL)", 2);
+
+            @Language("SQL") String aggregation = "SELECT count(*), count(value), min(value), max(value), min(key), max(key) FROM test_aggregation_pushdown";
+            assertAggregationPushedDown(session, aggregation, true, "SELECT 5, 3, -5, 30, 1, 5");
+
+            // files written before a column was added have no statistics for it, and the column is null in all their rows
+            assertUpdate(session, "ALTER TABLE test_aggregation_pushdown ADD COLUMN day date");
+            @Language("SQL") String addedColumn = "SELECT count(*), count(day), min(day), max(day) FROM test_aggregation_pushdown";
+            assertAggregationPushedDown(session, addedColumn, true, "SELECT 5, 0, NULL, NULL");
+            assertUpdate(session, "INSERT INTO test_aggregation_pushdown VALUES (6, 60, DATE '2020-01-02'), (7, NULL, DATE '2020-01-01')", 2);
+            assertAggregationPushedDown(session, addedColumn, true, "SELECT 7, 2, DATE '2020-01-01', DATE '2020-01-02'");
+
+            // statistics of strings may be truncated, so the files are read instead
+            assertUpdate(session, "ALTER TABLE test_aggregation_pushdown ADD COLUMN name varchar");
+            assertAggregationPushedDown(session, "SELECT count(name), max(key) FROM test_aggregation_pushdown", false, "SELECT 0, 7");
+
+            // the table has more files than the footers that may be read while planning
+            Session maxFilesSession = Session.builder(session)
+                    .setCatalogSessionProperty(catalog, "aggregation_pushdown_max_files", "1")
+                    .build();
+            assertAggregationPushedDown(maxFilesSession, aggregation, false, "SELECT 7, 4, -5, 60, 1, 7");
+            assertAggregationPushedDown(session, aggregation, true, "SELECT 7, 4, -5, 60, 1, 7");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_aggregation_pushdown");
+        }
+    }
+
+    private void assertAggregationPushedDown(Session session, @Language("SQL") String query, boolean pushedDown, @Language("SQL") String expected)
+    {
+        String plan = (String) computeActual(session, "EXPLAIN " + query).getOnlyValue();
+        if (pushedDown) {
+            assertThat(plan).doesNotContain("Aggregate");
+        }
+        else {
+            assertThat(plan).contains("Aggregate");
+        }
+        assertQuery(session, query, expected);
+    }
+
+    @Test
+    public void testSortedBucketedExecution()
+    {
+        try {
+            assertUpdate(
+                    "CREATE TABLE test_sorted_join1\n" +
+                            "WITH (bucket_count = 7, bucketed_by = ARRAY['key1'], sorted_by = ARRAY['key1']) AS\n" +
+                            "SELECT orderkey key1, comment value1 FROM orders",
+                    15000);
+            assertUpdate(
+                    "CREATE TABLE test_sorted_join2\n" +
+                            "WITH (bucket_count = 7, bucketed_by = ARRAY['key2'], sorted_by = ARRAY['key2']) AS\n" +
+                            "SELECT orderkey key2, comment value2 FROM orders WHERE orderkey % 3 = 0",
+                    5000);
+
+            Session sorted = Session.builder(getSession())
+                    .setSystemProperty(COLOCATED_JOIN, "true")
+                    .setSystemProperty(GROUPED_EXECUTION, "true")
+                    .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                    .setSystemProperty(MERGE_JOIN, "true")
+                    .setSystemProperty(ENABLE_DYNAMIC_FILTERING, "false")
+                    .setCatalogSessionProperty(catalog, "propagate_table_scan_sorting_properties", "true")
+                    .build();
+
+            @Language("SQL") String innerJoin = "SELECT key1, value1, key2, value2 FROM test_sorted_join1 JOIN test_sorted_join2 ON key1 = key2";
+            assertThat((String) computeActual(sorted, "EXPLAIN " + innerJoin).getOnlyValue()).contains("MergeInnerJoin");
+            assertQuery(sorted, innerJoin, "SELECT orderkey, comment, orderkey, comment FROM orders WHERE orderkey % 3 = 0");
+
+            @Language("SQL") String leftJoin = "SELECT key1, value2 FROM test_sorted_join1 LEFT JOIN test_sorted_join2 ON key1 = key2";
+            assertThat((String) computeActual(sorted, "EXPLAIN " + leftJoin).getOnlyValue()).contains("MergeLeftJoin");
+            assertQuery(sorted, leftJoin, "SELECT orderkey, CASE WHEN orderkey % 3 = 0 THEN comment END FROM orders");
+
+            @Language("SQL") String aggregation = "SELECT key1, count(*) FROM test_sorted_join1 GROUP BY key1";
+            assertThat((String) computeActual(sorted, "EXPLAIN " + aggregation).getOnlyValue()).contains("Aggregate(STREAMING)");
+            assertQuery(sorted, aggregation, "SELECT orderkey, 1 FROM orders");
+
+            // the sort order is not used unless requested
+            assertThat((String) computeActual("EXPLAIN " + innerJoin).getOnlyValue()).doesNotContain("MergeInnerJoin");
+
+            // the sort order of a partitioned table is used when a single partition is read
+            assertUpdate(
+                    "CREATE TABLE test_sorted_partitioned\n" +
+                            "WITH (bucket_count = 7, bucketed_by = ARRAY['key'], sorted_by = ARRAY['key'], partitioned_by = ARRAY['status']) AS\n" +
+                            "SELECT orderkey key, orderstatus status FROM orders",
+                    15000);
+            @Language("SQL") String partitionAggregation = "SELECT key, count(*) FROM test_sorted_partitioned WHERE status = 'F' GROUP BY key";
+            assertThat((String) computeActual(sorted, "EXPLAIN " + partitionAggregation).getOnlyValue()).contains("Aggregate(STREAMING)");
+            assertQuery(sorted, partitionAggregation, "SELECT orderkey, 1 FROM orders WHERE orderstatus = 'F'");
+            assertThat((String) computeActual(sorted, "EXPLAIN SELECT key, count(*) FROM test_sorted_partitioned GROUP BY key").getOnlyValue()).doesNotContain("Aggregate(STREAMING)");
+
+            // a bucket written by a second insert is not sorted relative to the existing file, so the table is read unsorted
+            assertUpdate("INSERT INTO test_sorted_join2 SELECT orderkey, comment FROM orders WHERE orderkey % 3 = 1", 5000);
+            assertThat((String) computeActual(sorted, "EXPLAIN " + innerJoin).getOnlyValue()).doesNotContain("MergeInnerJoin");
+            assertQuery(sorted, innerJoin, "SELECT orderkey, comment, orderkey, comment FROM orders WHERE orderkey % 3 < 2");
+            assertThat((String) computeActual(sorted, "EXPLAIN " + aggregation).getOnlyValue()).contains("Aggregate(STREAMING)");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_sorted_join1");
+            assertUpdate("DROP TABLE IF EXISTS test_sorted_join2");
+            assertUpdate("DROP TABLE IF EXISTS test_sorted_partitioned");
+        }
+    }
+
     @Test
     public void testGroupedExecution()
     {
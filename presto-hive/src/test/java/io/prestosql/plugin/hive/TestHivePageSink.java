@@ -18,8 +18,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import io.airlift.json.JsonCodec;
+import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
 import io.prestosql.GroupByHashPageIndexerFactory;
+import io.prestosql.plugin.hive.HiveColumnHandle.ColumnType;
 import io.prestosql.plugin.hive.authentication.HiveIdentity;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
 import io.prestosql.plugin.hive.metastore.HivePageSinkMetadata;
@@ -48,6 +51,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -60,6 +64,7 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.testing.Assertions.assertGreaterThan;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
 import static io.prestosql.plugin.hive.HiveCompressionCodec.NONE;
@@ -84,6 +89,7 @@ import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
+import static java.lang.Math.min;
 import static java.lang.Math.round;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
@@ -140,14 +146,117 @@ public class TestHivePageSink
     {
         HiveTransactionHandle transaction = new HiveTransactionHandle();
         HiveWriterStats stats = new HiveWriterStats();
-        ConnectorPageSink pageSink = createPageSink(transaction, config, metastore, new Path("file:///" + outputPath), stats);
+        ConnectorPageSink pageSink = createPageSink(transaction, config, metastore, new Path("file:///" + outputPath), stats, getColumnHandles(), ImmutableList.of());
         List<LineItemColumn> columns = getTestColumns();
-        List<Type> columnTypes = columns.stream()
+        List<Type> columnTypes = getColumnTypes(columns);
+
+        Page page = createPage(columns, columnTypes);
+        pageSink.appendPage(page);
+        getFutureValue(pageSink.finish());
+
+        File outputDir = new File(outputPath);
+        List<File> files = ImmutableList.copyOf(outputDir.listFiles((dir, name) -> !name.endsWith(".crc")));
+        File outputFile = getOnlyElement(files);
+        long length = outputFile.length();
+
+        ConnectorPageSource pageSource = createPageSource(transaction, config, outputFile);
+
+        List<Page> pages = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            Page nextPage = pageSource.getNextPage();
+            if (nextPage != null) {
+                pages.add(nextPage.getLoadedPage());
+            }
+        }
+        MaterializedResult expectedResults = toMaterializedResult(getHiveSession(config), columnTypes, ImmutableList.of(page));
+        MaterializedResult results = toMaterializedResult(getHiveSession(config), columnTypes, pages);
+        assertEquals(results, expectedResults);
+        assertEquals(round(stats.getInputPageSizeInBytes().getAllTime().getMax()), page.getRetainedSizeInBytes());
+        return length;
+    }
+
+    @Test
+    public void testClusteredWriting()
+            throws Exception
+    {
+        HiveConfig config = new HiveConfig()
+                .setHiveStorageFormat(HiveStorageFormat.ORC)
+                .setHiveCompressionCodec(NONE)
+                .setClusteredWritingEnabled(true)
+                // the rows of seven partitions are written with a limit of two open writers
+                .setMaxPartitionsPerWriter(2)
+                // spill each appended page
+                .setWriterSortBufferSize(DataSize.ofBytes(1));
+        File tempDir = Files.createTempDir();
+        try {
+            HiveMetastore metastore = createTestingFileHiveMetastore(new File(tempDir, "metastore"));
+            File outputDir = new File(tempDir, "output");
+
+            // partition columns follow the data columns
+            List<LineItemColumn> columns = ImmutableList.<LineItemColumn>builder()
+                    .addAll(getTestColumns().stream()
+                            .filter(column -> column != LineItemColumn.SHIP_MODE)
+                            .collect(toList()))
+                    .add(LineItemColumn.SHIP_MODE)
+                    .build();
+            ImmutableList.Builder<HiveColumnHandle> columnHandles = ImmutableList.builder();
+            for (int i = 0; i < columns.size(); i++) {
+                LineItemColumn column = columns.get(i);
+                HiveType hiveType = getHiveType(column.getType());
+                ColumnType columnType = column == LineItemColumn.SHIP_MODE ? PARTITION_KEY : REGULAR;
+                columnHandles.add(createBaseColumn(column.getColumnName(), i, hiveType, hiveType.getType(TYPE_MANAGER), columnType, Optional.empty()));
+            }
+
+            ConnectorPageSink pageSink = createPageSink(
+                    new HiveTransactionHandle(),
+                    config,
+                    metastore,
+                    new Path("file:///" + outputDir.getAbsolutePath()),
+                    new HiveWriterStats(),
+                    columnHandles.build(),
+                    ImmutableList.of(LineItemColumn.SHIP_MODE.getColumnName()));
+            Page page = createPage(columns, getColumnTypes(columns));
+            for (int position = 0; position < page.getPositionCount(); position += 100) {
+                pageSink.appendPage(page.getRegion(position, min(100, page.getPositionCount() - position)));
+            }
+            assertGreaterThan(pageSink.getSystemMemoryUsage(), 0L);
+            Collection<Slice> fragments = getFutureValue(pageSink.finish());
+            assertGreaterThan(pageSink.getCompletedBytes(), 0L);
+
+            JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
+            List<PartitionUpdate> partitionUpdates = fragments.stream()
+                    .map(Slice::getBytes)
+                    .map(partitionUpdateCodec::fromJson)
+                    .collect(toList());
+            assertEquals(partitionUpdates.size(), 7);
+            assertEquals(partitionUpdates.stream().mapToLong(PartitionUpdate::getRowCount).sum(), (long) page.getPositionCount());
+            for (PartitionUpdate partitionUpdate : partitionUpdates) {
+                assertEquals(partitionUpdate.getFileNames().size(), 1);
+            }
+
+            // only the partition directories are left
+            File[] outputFiles = outputDir.listFiles();
+            assertEquals(outputFiles.length, 7);
+            for (File file : outputFiles) {
+                assertTrue(file.isDirectory() && file.getName().startsWith("l_shipmode="), file.getName());
+            }
+        }
+        finally {
+            deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private static List<Type> getColumnTypes(List<LineItemColumn> columns)
+    {
+        return columns.stream()
                 .map(LineItemColumn::getType)
                 .map(TestHivePageSink::getHiveType)
                 .map(hiveType -> hiveType.getType(TYPE_MANAGER))
                 .collect(toList());
+    }
 
+    private static Page createPage(List<LineItemColumn> columns, List<Type> columnTypes)
+    {
         PageBuilder pageBuilder = new PageBuilder(columnTypes);
         int rows = 0;
         for (LineItem lineItem : new LineItemGenerator(0.01, 1, 1)) {
@@ -180,29 +289,7 @@ public class TestHivePageSink
                 }
             }
         }
-        Page page = pageBuilder.build();
-        pageSink.appendPage(page);
-        getFutureValue(pageSink.finish());
-
-        File outputDir = new File(outputPath);
-        List<File> files = ImmutableList.copyOf(outputDir.listFiles((dir, name) -> !name.endsWith(".crc")));
-        File outputFile = getOnlyElement(files);
-        long length = outputFile.length();
-
-        ConnectorPageSource pageSource = createPageSource(transaction, config, outputFile);
-
-        List<Page> pages = new ArrayList<>();
-        while (!pageSource.isFinished()) {
-            Page nextPage = pageSource.getNextPage();
-            if (nextPage != null) {
-                pages.add(nextPage.getLoadedPage());
-            }
-        }
-        MaterializedResult expectedResults = toMaterializedResult(getHiveSession(config), columnTypes, ImmutableList.of(page));
-        MaterializedResult results = toMaterializedResult(getHiveSession(config), columnTypes, pages);
-        assertEquals(results, expectedResults);
-        assertEquals(round(stats.getInputPageSizeInBytes().getAllTime().getMax()), page.getRetainedSizeInBytes());
-        return length;
+        return pageBuilder.build();
     }
 
     public static MaterializedResult toMaterializedResult(ConnectorSession session, List<Type> types, List<Page> pages)
@@ -239,7 +326,8 @@ public class TestHivePageSink
                 TableToPartitionMapping.empty(),
                 Optional.empty(),
                 false,
-                Optional.empty());
+                Optional.empty(),
+                ImmutableList.of());
         ConnectorTableHandle table = new HiveTableHandle(SCHEMA_NAME, TABLE_NAME, ImmutableMap.of(), ImmutableList.of(), Optional.empty());
         HivePageSourceProvider provider = new HivePageSourceProvider(
                 TYPE_MANAGER,
@@ -251,7 +339,14 @@ public class TestHivePageSink
         return provider.createPageSource(transaction, getHiveSession(config), split, table, ImmutableList.copyOf(getColumnHandles()), DynamicFilter.EMPTY);
     }
 
-    private static ConnectorPageSink createPageSink(HiveTransactionHandle transaction, HiveConfig config, HiveMetastore metastore, Path outputPath, HiveWriterStats stats)
+    private static ConnectorPageSink createPageSink(
+            HiveTransactionHandle transaction,
+            HiveConfig config,
+            HiveMetastore metastore,
+            Path outputPath,
+            HiveWriterStats stats,
+            List<HiveColumnHandle> columnHandles,
+            List<String> partitionedBy)
     {
         ConnectorSession session = getHiveSession(config);
         HiveIdentity identity = new HiveIdentity(session);
@@ -259,12 +354,12 @@ public class TestHivePageSink
         HiveOutputTableHandle handle = new HiveOutputTableHandle(
                 SCHEMA_NAME,
                 TABLE_NAME,
-                getColumnHandles(),
+                columnHandles,
                 new HivePageSinkMetadata(new SchemaTableName(SCHEMA_NAME, TABLE_NAME), metastore.getTable(identity, SCHEMA_NAME, TABLE_NAME), ImmutableMap.of()),
                 locationHandle,
                 config.getHiveStorageFormat(),
                 config.getHiveStorageFormat(),
-                ImmutableList.of(),
+                partitionedBy,
                 Optional.empty(),
                 "test",
                 ImmutableMap.of(),
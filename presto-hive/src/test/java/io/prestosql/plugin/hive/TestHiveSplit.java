@@ -35,6 +35,8 @@ import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
 import static io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion.BUCKETING_V1;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveSplit
 {
@@ -78,7 +80,8 @@ public class TestHiveSplit
                         16,
                         ImmutableList.of(createBaseColumn("col", 5, HIVE_LONG, BIGINT, ColumnType.REGULAR, Optional.of("comment"))))),
                 false,
-                Optional.of(acidInfo));
+                Optional.of(acidInfo),
+                ImmutableList.of(new HiveSplit.CombinedFile("path2", 90, 12345)));
 
         String json = codec.toJson(expected);
         HiveSplit actual = codec.fromJson(json);
@@ -99,5 +102,60 @@ public class TestHiveSplit
         assertEquals(actual.isForceLocalScheduling(), expected.isForceLocalScheduling());
         assertEquals(actual.isS3SelectPushdownEnabled(), expected.isS3SelectPushdownEnabled());
         assertEquals(actual.getAcidInfo().get(), expected.getAcidInfo().get());
+        assertEquals(actual.getCombinedFiles().size(), 1);
+        assertEquals(actual.getCombinedFiles().get(0).getPath(), "path2");
+        assertEquals(actual.getCombinedFiles().get(0).getLength(), 90);
+        assertEquals(actual.getCombinedFiles().get(0).getFileModifiedTime(), 12345);
+    }
+
+    @Test
+    public void testSplitIdentity()
+    {
+        HiveSplit split = createSplit("path", 0, 100, 1234, Optional.empty(), Optional.empty());
+        assertEquals(createSplit("path", 0, 100, 1234, Optional.empty(), Optional.empty()).getSplitIdentity(), split.getSplitIdentity());
+        assertTrue(split.getSplitIdentity().isPresent());
+
+        assertNotEquals(createSplit("other_path", 0, 100, 1234, Optional.empty(), Optional.empty()).getSplitIdentity(), split.getSplitIdentity());
+        assertNotEquals(createSplit("path", 100, 100, 1234, Optional.empty(), Optional.empty()).getSplitIdentity(), split.getSplitIdentity());
+        // a rewritten file must not match results cached for the previous version
+        assertNotEquals(createSplit("path", 0, 100, 5678, Optional.empty(), Optional.empty()).getSplitIdentity(), split.getSplitIdentity());
+
+        AcidInfo acidInfo = AcidInfo.builder(new Path("file:///data/fullacid"))
+                .addDeleteDelta(new Path("file:///data/fullacid/delete_delta_0000004_0000004_0000"))
+                .build()
+                .get();
+        assertEquals(createSplit("path", 0, 100, 1234, Optional.of(acidInfo), Optional.empty()).getSplitIdentity(), Optional.empty());
+
+        HiveSplit.BucketConversion bucketConversion = new HiveSplit.BucketConversion(
+                BUCKETING_V1,
+                32,
+                16,
+                ImmutableList.of(createBaseColumn("col", 5, HIVE_LONG, BIGINT, ColumnType.REGULAR, Optional.empty())));
+        assertEquals(createSplit("path", 0, 100, 1234, Optional.empty(), Optional.of(bucketConversion)).getSplitIdentity(), Optional.empty());
+    }
+
+    private static HiveSplit createSplit(String path, long start, long length, long fileModifiedTime, Optional<AcidInfo> acidInfo, Optional<HiveSplit.BucketConversion> bucketConversion)
+    {
+        Properties schema = new Properties();
+        schema.setProperty("foo", "bar");
+        return new HiveSplit(
+                "db",
+                "table",
+                "partitionId",
+                path,
+                start,
+                length,
+                1000,
+                fileModifiedTime,
+                schema,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                false,
+                TableToPartitionMapping.empty(),
+                bucketConversion,
+                false,
+                acidInfo,
+                ImmutableList.of());
     }
 }
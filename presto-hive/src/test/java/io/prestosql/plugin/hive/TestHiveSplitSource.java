@@ -17,7 +17,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.HiveSplit.CombinedFile;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorSplitSource;
 import org.testng.annotations.Test;
@@ -30,12 +32,16 @@ import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.testing.Assertions.assertContains;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static io.prestosql.plugin.hive.HiveTestUtils.SESSION;
+import static io.prestosql.plugin.hive.HiveTestUtils.getHiveSession;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static java.lang.Math.toIntExact;
 import static org.testng.Assert.assertEquals;
@@ -57,6 +63,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
+                new CounterStat(),
                 new CounterStat());
 
         // add 10 splits
@@ -78,6 +85,87 @@ public class TestHiveSplitSource
         assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
     }
 
+    @Test
+    public void testDynamicFilterPruning()
+    {
+        CounterStat prunedSplits = new CounterStat();
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                SESSION,
+                "database",
+                "table",
+                10,
+                10,
+                DataSize.of(1, MEGABYTE),
+                Integer.MAX_VALUE,
+                new TestingHiveSplitLoader(),
+                Executors.newFixedThreadPool(5),
+                new CounterStat(),
+                prunedSplits);
+
+        // the dynamic filter narrows down after the splits are queued
+        AtomicBoolean filterNarrowed = new AtomicBoolean();
+        for (int i = 0; i < 10; i++) {
+            boolean pruned = i % 2 == 0;
+            hiveSplitSource.addToQueue(new TestSplit(i, () -> !pruned || !filterNarrowed.get()));
+        }
+
+        assertEquals(getSplits(hiveSplitSource, 2).size(), 2);
+        assertEquals(prunedSplits.getTotalCount(), 0);
+
+        filterNarrowed.set(true);
+        hiveSplitSource.noMoreSplits();
+        // splits 3, 5, 7 and 9 remain
+        List<ConnectorSplit> splits = getSplits(hiveSplitSource, 20);
+        assertEquals(splits.size(), 4);
+        assertEquals(prunedSplits.getTotalCount(), 4);
+        assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
+        assertTrue(hiveSplitSource.isFinished());
+    }
+
+    @Test
+    public void testCombineSmallFiles()
+    {
+        ConnectorSession session = getHiveSession(new HiveConfig()
+                .setCombineSmallFilesEnabled(true)
+                .setMaxSplitSize(DataSize.ofBytes(250)));
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                session,
+                "database",
+                "table",
+                10,
+                10,
+                DataSize.of(1, MEGABYTE),
+                Integer.MAX_VALUE,
+                new TestingHiveSplitLoader(),
+                Executors.newSingleThreadExecutor(),
+                new CounterStat(),
+                new CounterStat());
+
+        // files with the same schema
+        for (int i = 0; i < 5; i++) {
+            hiveSplitSource.addToQueue(new TestSplit(0));
+        }
+        // splits of bucketed files are never combined
+        hiveSplitSource.addToQueue(new TestSplit(0, OptionalInt.of(1)));
+        hiveSplitSource.noMoreSplits();
+
+        List<HiveSplit> splits = getSplits(hiveSplitSource, 20).stream()
+                .map(HiveSplit.class::cast)
+                .collect(toImmutableList());
+        assertEquals(splits.size(), 4);
+        assertEquals(splits.stream().mapToInt(split -> split.getCombinedFiles().size() + 1).sum(), 6);
+        for (HiveSplit split : splits) {
+            if (split.getBucketNumber().isPresent()) {
+                assertEquals(split.getCombinedFiles(), ImmutableList.of());
+            }
+            else {
+                assertTrue(split.getLength() + split.getCombinedFiles().stream().mapToLong(CombinedFile::getLength).sum() <= 250);
+            }
+        }
+        assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
+        assertTrue(hiveSplitSource.isFinished());
+    }
+
     @Test
     public void testEvenlySizedSplitRemainder()
     {
@@ -92,6 +180,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newSingleThreadExecutor(),
+                new CounterStat(),
                 new CounterStat());
 
         // One byte larger than the initial split max size
@@ -119,6 +208,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
+                new CounterStat(),
                 new CounterStat());
 
         // add some splits
@@ -177,6 +267,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
+                new CounterStat(),
                 new CounterStat());
 
         SettableFuture<ConnectorSplit> splits = SettableFuture.create();
@@ -231,6 +322,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
+                new CounterStat(),
                 new CounterStat());
         int testSplitSizeInBytes = new TestSplit(0).getEstimatedSizeInBytes();
 
@@ -268,6 +360,7 @@ public class TestHiveSplitSource
                 Integer.MAX_VALUE,
                 new TestingHiveSplitLoader(),
                 Executors.newFixedThreadPool(5),
+                new CounterStat(),
                 new CounterStat());
         hiveSplitSource.addToQueue(new TestSplit(0, OptionalInt.of(2)));
         hiveSplitSource.noMoreSplits();
@@ -320,6 +413,16 @@ public class TestHiveSplitSource
         }
 
         private TestSplit(int id, OptionalInt bucketNumber, DataSize fileSize)
+        {
+            this(id, bucketNumber, fileSize, () -> true);
+        }
+
+        private TestSplit(int id, BooleanSupplier partitionMatchSupplier)
+        {
+            this(id, OptionalInt.empty(), DataSize.ofBytes(100), partitionMatchSupplier);
+        }
+
+        private TestSplit(int id, OptionalInt bucketNumber, DataSize fileSize, BooleanSupplier partitionMatchSupplier)
         {
             super(
                     "partition-name",
@@ -337,7 +440,8 @@ public class TestHiveSplitSource
                     TableToPartitionMapping.empty(),
                     Optional.empty(),
                     false,
-                    Optional.empty());
+                    Optional.empty(),
+                    partitionMatchSupplier);
         }
 
         private static Properties properties(String key, String value)
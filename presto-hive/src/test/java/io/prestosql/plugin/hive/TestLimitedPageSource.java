@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.FixedPageSource;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestLimitedPageSource
+{
+    @Test
+    public void testLimitWithinPage()
+            throws IOException
+    {
+        AtomicInteger pagesRead = new AtomicInteger();
+        ConnectorPageSource pageSource = new LimitedPageSource(createPageSource(pagesRead), 15);
+
+        assertFalse(pageSource.isFinished());
+        assertBlockEquals(BIGINT, pageSource.getNextPage().getBlock(0), createLongSequenceBlock(0, 10));
+        assertFalse(pageSource.isFinished());
+        Page page = pageSource.getNextPage();
+        assertBlockEquals(BIGINT, page.getBlock(0), createLongSequenceBlock(10, 15));
+
+        // the rest of the split is not read once the limit is reached
+        assertTrue(pageSource.isFinished());
+        assertNull(pageSource.getNextPage());
+        assertEquals(pagesRead.get(), 2);
+        pageSource.close();
+    }
+
+    @Test
+    public void testLimitAtPageBoundary()
+    {
+        AtomicInteger pagesRead = new AtomicInteger();
+        ConnectorPageSource pageSource = new LimitedPageSource(createPageSource(pagesRead), 10);
+
+        assertEquals(pageSource.getNextPage().getPositionCount(), 10);
+        assertTrue(pageSource.isFinished());
+        assertNull(pageSource.getNextPage());
+        assertEquals(pagesRead.get(), 1);
+    }
+
+    @Test
+    public void testLimitExceedsRows()
+    {
+        ConnectorPageSource pageSource = new LimitedPageSource(createPageSource(new AtomicInteger()), 100);
+
+        int rows = 0;
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                rows += page.getPositionCount();
+            }
+        }
+        assertEquals(rows, 30);
+    }
+
+    @Test
+    public void testZeroLimit()
+    {
+        AtomicInteger pagesRead = new AtomicInteger();
+        ConnectorPageSource pageSource = new LimitedPageSource(createPageSource(pagesRead), 0);
+
+        assertTrue(pageSource.isFinished());
+        assertNull(pageSource.getNextPage());
+        assertEquals(pagesRead.get(), 0);
+    }
+
+    private static ConnectorPageSource createPageSource(AtomicInteger pagesRead)
+    {
+        Iterable<Page> pages = ImmutableList.of(
+                new Page(createLongSequenceBlock(0, 10)),
+                new Page(createLongSequenceBlock(10, 20)),
+                new Page(createLongSequenceBlock(20, 30)));
+        return new FixedPageSource(pages)
+        {
+            @Override
+            public Page getNextPage()
+            {
+                Page page = super.getNextPage();
+                if (page != null) {
+                    pagesRead.incrementAndGet();
+                }
+                return page;
+            }
+        };
+    }
+}
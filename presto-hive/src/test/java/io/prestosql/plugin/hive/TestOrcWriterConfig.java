@@ -43,7 +43,9 @@ public class TestOrcWriterConfig
                 .setDefaultBloomFilterFpp(0.05)
                 .setUseLegacyVersion(false)
                 .setValidationPercentage(0.0)
-                .setValidationMode(OrcWriteValidationMode.BOTH));
+                .setValidationMode(OrcWriteValidationMode.BOTH)
+                .setWriterThreads(1)
+                .setMaxPendingFlushSize(DataSize.of(64, MEGABYTE)));
     }
 
     @Test
@@ -61,6 +63,8 @@ public class TestOrcWriterConfig
                 .put("hive.orc.writer.use-legacy-version-number", "true")
                 .put("hive.orc.writer.validation-percentage", "0.16")
                 .put("hive.orc.writer.validation-mode", "DETAILED")
+                .put("hive.orc.writer.threads", "8")
+                .put("hive.orc.writer.max-pending-flush-size", "3MB")
                 .build();
 
         OrcWriterConfig expected = new OrcWriterConfig()
@@ -74,7 +78,9 @@ public class TestOrcWriterConfig
                 .setDefaultBloomFilterFpp(0.96)
                 .setUseLegacyVersion(true)
                 .setValidationPercentage(0.16)
-                .setValidationMode(OrcWriteValidationMode.DETAILED);
+                .setValidationMode(OrcWriteValidationMode.DETAILED)
+                .setWriterThreads(8)
+                .setMaxPendingFlushSize(DataSize.of(3, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
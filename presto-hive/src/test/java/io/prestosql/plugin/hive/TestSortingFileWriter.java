@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.orc.OrcFileWriterFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.plugin.hive.HiveTestUtils.PAGE_SORTER;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestSortingFileWriter
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final int PAGE_COUNT = 20;
+    private static final int ROWS_PER_PAGE = 100;
+
+    private File tempDirectory;
+    private RawLocalFileSystem fileSystem;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        fileSystem = new RawLocalFileSystem();
+        fileSystem.initialize(fileSystem.getUri(), new Configuration(false));
+        tempDirectory = Files.createTempDirectory("test_sorting_file_writer").toFile();
+        executor = newFixedThreadPool(4, daemonThreadsNamed("test-sort-merge-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdownNow();
+        fileSystem.close();
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testTempFileRuns()
+    {
+        HiveWriterStats stats = assertSortedWrite(DataSize.ofBytes(0));
+        assertEquals(stats.getInMemorySortedRuns().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testInMemoryRuns()
+    {
+        HiveWriterStats stats = assertSortedWrite(DataSize.of(100, MEGABYTE));
+        // every run fits in memory, including the runs of the intermediate merges
+        assertTrue(stats.getInMemorySortedRuns().getTotalCount() > PAGE_COUNT);
+    }
+
+    @Test
+    public void testMixedRuns()
+    {
+        HiveWriterStats stats = assertSortedWrite(DataSize.of(8, KILOBYTE));
+        long inMemoryRuns = stats.getInMemorySortedRuns().getTotalCount();
+        assertTrue(inMemoryRuns > 0 && inMemoryRuns < PAGE_COUNT, "in memory runs: " + inMemoryRuns);
+    }
+
+    @Test
+    public void testRunsExceedingMemoryLimit()
+    {
+        HiveWriterStats stats = assertSortedWrite(DataSize.ofBytes(1));
+        assertEquals(stats.getInMemorySortedRuns().getTotalCount(), 0);
+    }
+
+    private HiveWriterStats assertSortedWrite(DataSize maxInMemoryRunsSize)
+    {
+        HiveWriterStats stats = new HiveWriterStats();
+        CollectingFileWriter outputWriter = new CollectingFileWriter();
+        SortingFileWriter writer = new SortingFileWriter(
+                fileSystem,
+                new Path(tempDirectory.toURI().toString(), "sort"),
+                outputWriter,
+                DataSize.ofBytes(1),
+                3,
+                maxInMemoryRunsSize,
+                TYPES,
+                ImmutableList.of(0, 1),
+                ImmutableList.of(SortOrder.ASC_NULLS_FIRST, SortOrder.DESC_NULLS_LAST),
+                PAGE_SORTER,
+                new TypeOperators(),
+                OrcFileWriterFactory::createOrcDataSink,
+                executor,
+                stats);
+
+        Random random = new Random(42);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            for (int j = 0; j < ROWS_PER_PAGE; j++) {
+                pageBuilder.declarePosition();
+                int value = random.nextInt(1000);
+                if (value % 50 == 0) {
+                    pageBuilder.getBlockBuilder(0).appendNull();
+                }
+                else {
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), value / 10);
+                }
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("value" + value));
+            }
+            writer.appendRows(pageBuilder.build());
+        }
+        writer.commit();
+
+        assertEquals(outputWriter.getRowCount(), PAGE_COUNT * ROWS_PER_PAGE);
+        assertEquals(writer.getWrittenBytes(), outputWriter.getWrittenBytes());
+        assertTrue(writer.getSystemMemoryUsage() >= outputWriter.getSystemMemoryUsage());
+        assertSorted(outputWriter.getPages());
+        assertEquals(tempDirectory.list(), new String[0]);
+        assertEquals(stats.getSortedRunsPerWriter().getAllTime().getMax(), (double) PAGE_COUNT);
+        assertEquals(stats.getSortedRunsMergeTime().getAllTime().getCount(), 1.0);
+        return stats;
+    }
+
+    private static void assertSorted(List<Page> pages)
+    {
+        Long previousLong = null;
+        String previousString = null;
+        boolean first = true;
+        for (Page page : pages) {
+            Block longs = page.getBlock(0);
+            Block strings = page.getBlock(1);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                Long longValue = longs.isNull(position) ? null : BIGINT.getLong(longs, position);
+                String stringValue = VARCHAR.getSlice(strings, position).toStringUtf8();
+                if (!first) {
+                    if (previousLong == null || longValue == null) {
+                        assertTrue(previousLong == null, "nulls are not first");
+                    }
+                    else {
+                        assertTrue(previousLong <= longValue, "not sorted by first column");
+                    }
+                    if ((previousLong == null && longValue == null) || (previousLong != null && previousLong.equals(longValue))) {
+                        assertTrue(previousString.compareTo(stringValue) >= 0, "not sorted by second column");
+                    }
+                }
+                previousLong = longValue;
+                previousString = stringValue;
+                first = false;
+            }
+        }
+    }
+
+    private static class CollectingFileWriter
+            implements FileWriter
+    {
+        private final List<Page> pages = new ArrayList<>();
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public long getRowCount()
+        {
+            return pages.stream()
+                    .mapToLong(Page::getPositionCount)
+                    .sum();
+        }
+
+        @Override
+        public long getWrittenBytes()
+        {
+            return pages.stream()
+                    .mapToLong(Page::getSizeInBytes)
+                    .sum();
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return pages.stream()
+                    .mapToLong(Page::getRetainedSizeInBytes)
+                    .sum();
+        }
+
+        @Override
+        public void appendRows(Page dataPage)
+        {
+            pages.add(dataPage);
+        }
+
+        @Override
+        public void commit() {}
+
+        @Override
+        public void rollback() {}
+
+        @Override
+        public long getValidationCpuNanos()
+        {
+            return 0;
+        }
+    }
+}
@@ -15,6 +15,7 @@ package io.prestosql.plugin.hive.metastore.cache;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.Duration;
@@ -260,6 +261,80 @@ public class TestCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 5);
     }
 
+    @Test
+    public void testGetPartitionsByNamesInBatches()
+    {
+        metastore = (CachingHiveMetastore) cachingHiveMetastore(
+                new BridgingHiveMetastore(createThriftHiveMetastore()),
+                executor,
+                new Duration(5, TimeUnit.MINUTES),
+                Optional.of(new Duration(1, TimeUnit.MINUTES)),
+                1000,
+                1,
+                2);
+
+        Table table = metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE).get();
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        // each partition is loaded in a separate request
+        assertEquals(metastore.getPartitionsByNames(IDENTITY, table, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+        assertEquals(mockClient.getAccessCount(), 3);
+        assertEquals(metastore.getPartitionsByNames(IDENTITY, table, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+        assertEquals(mockClient.getAccessCount(), 3);
+
+        CachingHiveMetastore.TableCacheStats tableStats = metastore.getTableCacheStats(TEST_DATABASE, TEST_TABLE).get();
+        assertEquals(tableStats.getPartitionHitCount(), 2);
+        assertEquals(tableStats.getPartitionMissCount(), 2);
+        assertEquals(tableStats.getStatisticsHitCount(), 0);
+        assertEquals(tableStats.getStatisticsMissCount(), 0);
+    }
+
+    @Test
+    public void testPrefetchRecentlyAccessedPartitions()
+    {
+        // each partition is loaded in a separate request
+        metastore = (CachingHiveMetastore) cachingHiveMetastore(
+                new BridgingHiveMetastore(createThriftHiveMetastore()),
+                executor,
+                new Duration(5, TimeUnit.MINUTES),
+                Optional.of(new Duration(1, TimeUnit.MINUTES)),
+                1000,
+                1,
+                1);
+
+        Table table = metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE).get();
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        // nothing was accessed
+        metastore.prefetchRecentlyAccessedPartitions();
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        assertEquals(metastore.getPartitionsByNames(IDENTITY, table, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+        assertEquals(mockClient.getAccessCount(), 3);
+
+        // the cached partitions are reloaded and replaced
+        metastore.prefetchRecentlyAccessedPartitions();
+        assertEquals(mockClient.getAccessCount(), 5);
+        assertEquals(metastore.getPartitionsByNames(IDENTITY, table, ImmutableList.of(TEST_PARTITION1)).size(), 1);
+        assertEquals(mockClient.getAccessCount(), 5);
+
+        // only the partition requested since the previous prefetch is reloaded
+        metastore.prefetchRecentlyAccessedPartitions();
+        assertEquals(mockClient.getAccessCount(), 6);
+
+        // nothing was accessed since the previous prefetch
+        metastore.prefetchRecentlyAccessedPartitions();
+        assertEquals(mockClient.getAccessCount(), 6);
+
+        // invalidated partitions are loaded on their next request instead
+        assertEquals(metastore.getPartitionsByNames(IDENTITY, table, ImmutableList.of(TEST_PARTITION1)).size(), 1);
+        metastore.flushCache();
+        metastore.prefetchRecentlyAccessedPartitions();
+        assertEquals(mockClient.getAccessCount(), 6);
+
+        assertEquals(metastore.getTableCacheStats().keySet(), ImmutableSet.of(TEST_DATABASE + "." + TEST_TABLE));
+    }
+
     @Test
     public void testListRoles()
     {
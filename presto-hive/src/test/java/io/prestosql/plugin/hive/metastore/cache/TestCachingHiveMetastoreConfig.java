@@ -33,7 +33,10 @@ public class TestCachingHiveMetastoreConfig
                 .setMetastoreCacheTtl(new Duration(0, TimeUnit.SECONDS))
                 .setMetastoreRefreshInterval(null)
                 .setMetastoreCacheMaximumSize(10000)
-                .setMaxMetastoreRefreshThreads(100));
+                .setMaxMetastoreRefreshThreads(100)
+                .setMetastorePartitionBatchSize(100)
+                .setMetastoreLoadParallelism(4)
+                .setMetastorePrefetchInterval(null));
     }
 
     @Test
@@ -44,13 +47,19 @@ public class TestCachingHiveMetastoreConfig
                 .put("hive.metastore-refresh-interval", "30m")
                 .put("hive.metastore-cache-maximum-size", "5000")
                 .put("hive.metastore-refresh-max-threads", "2500")
+                .put("hive.metastore-partition-batch-size", "500")
+                .put("hive.metastore-load-parallelism", "8")
+                .put("hive.metastore-prefetch-interval", "10m")
                 .build();
 
         CachingHiveMetastoreConfig expected = new CachingHiveMetastoreConfig()
                 .setMetastoreCacheTtl(new Duration(2, TimeUnit.HOURS))
                 .setMetastoreRefreshInterval(new Duration(30, TimeUnit.MINUTES))
                 .setMetastoreCacheMaximumSize(5000)
-                .setMaxMetastoreRefreshThreads(2500);
+                .setMaxMetastoreRefreshThreads(2500)
+                .setMetastorePartitionBatchSize(500)
+                .setMetastoreLoadParallelism(8)
+                .setMetastorePrefetchInterval(new Duration(10, TimeUnit.MINUTES));
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeletedRowIds
+{
+    @Test
+    public void testEmpty()
+    {
+        DeletedRowIds deletedRowIds = DeletedRowIds.builder().build();
+        assertTrue(deletedRowIds.isEmpty());
+        assertFalse(deletedRowIds.contains(0, 0));
+    }
+
+    @Test
+    public void testSorted()
+    {
+        DeletedRowIds.Builder builder = DeletedRowIds.builder();
+        for (long originalTransaction = 1; originalTransaction <= 3; originalTransaction++) {
+            for (long rowId = 0; rowId < 100; rowId += 2) {
+                builder.add(originalTransaction, rowId);
+            }
+        }
+        assertDeletedRowIds(builder.build());
+    }
+
+    @Test
+    public void testUnsortedWithDuplicates()
+    {
+        DeletedRowIds.Builder builder = DeletedRowIds.builder();
+        for (long originalTransaction = 3; originalTransaction >= 1; originalTransaction--) {
+            for (long rowId = 98; rowId >= 0; rowId -= 2) {
+                builder.add(originalTransaction, rowId);
+                builder.add(originalTransaction, rowId);
+            }
+        }
+        assertDeletedRowIds(builder.build());
+    }
+
+    private static void assertDeletedRowIds(DeletedRowIds deletedRowIds)
+    {
+        assertEquals(deletedRowIds.size(), 150);
+        for (long originalTransaction = 0; originalTransaction <= 4; originalTransaction++) {
+            for (long rowId = -1; rowId <= 100; rowId++) {
+                boolean expected = originalTransaction >= 1 && originalTransaction <= 3 && rowId >= 0 && rowId < 100 && rowId % 2 == 0;
+                assertEquals(deletedRowIds.contains(originalTransaction, rowId), expected, originalTransaction + "/" + rowId);
+            }
+        }
+    }
+}
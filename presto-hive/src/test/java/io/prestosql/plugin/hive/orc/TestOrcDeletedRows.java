@@ -14,9 +14,11 @@
 package io.prestosql.plugin.hive.orc;
 
 import com.google.common.collect.ImmutableSet;
+import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.orc.OrcReaderOptions;
 import io.prestosql.plugin.hive.AcidInfo;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
@@ -32,11 +34,13 @@ import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.plugin.hive.HiveTestUtils.HDFS_ENVIRONMENT;
 import static io.prestosql.plugin.hive.HiveTestUtils.SESSION;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcDeletedRows
 {
@@ -132,6 +136,40 @@ public class TestOrcDeletedRows
         assertEquals(block.getPositionCount(), 10);
     }
 
+    @Test
+    public void testDeleteDeltasSharedAcrossSplits()
+    {
+        AcidInfo.Builder acidInfoBuilder = AcidInfo.builder(partitionDirectory);
+        addDeleteDelta(acidInfoBuilder, 4L, 4L, OptionalInt.of(0), partitionDirectory);
+        addDeleteDelta(acidInfoBuilder, 7L, 7L, OptionalInt.of(0), partitionDirectory);
+        AcidInfo acidInfo = acidInfoBuilder.build().orElseThrow();
+        OrcDeleteDeltaCache deleteDeltaCache = new OrcDeleteDeltaCache(new HiveConfig());
+
+        AggregatedMemoryContext firstSplitMemory = newSimpleAggregatedMemoryContext();
+        OrcDeletedRows firstSplit = createOrcDeletedRows(acidInfo, "bucket_00000", deleteDeltaCache, firstSplitMemory);
+        Page testPage = createTestPage(0, 10);
+        assertEquals(firstSplit.getMaskDeletedRowsFunction(testPage, OptionalLong.empty()).getPositionCount(), 8);
+        assertEquals(deleteDeltaCache.getMissCount(), 2);
+        assertEquals(deleteDeltaCache.getHitCount(), 0);
+
+        // the second split of the same bucket does not read the delete deltas again
+        AggregatedMemoryContext secondSplitMemory = newSimpleAggregatedMemoryContext();
+        OrcDeletedRows secondSplit = createOrcDeletedRows(acidInfo, "bucket_00000", deleteDeltaCache, secondSplitMemory);
+        assertEquals(secondSplit.getMaskDeletedRowsFunction(testPage, OptionalLong.empty()).getPositionCount(), 8);
+        assertEquals(deleteDeltaCache.getMissCount(), 2);
+        assertEquals(deleteDeltaCache.getHitCount(), 2);
+        assertEquals(deleteDeltaCache.getSize(), 2);
+
+        // each split accounts the deleted rows it uses, as the cache is not accounted to any query
+        assertTrue(firstSplitMemory.getBytes() > 0);
+        assertEquals(secondSplitMemory.getBytes(), firstSplitMemory.getBytes());
+        assertEquals(deleteDeltaCache.getRetainedBytes(), firstSplitMemory.getBytes());
+
+        firstSplit.close();
+        assertEquals(firstSplitMemory.getBytes(), 0);
+        secondSplit.close();
+    }
+
     private void addDeleteDelta(AcidInfo.Builder acidInfoBuilder, long minWriteId, long maxWriteId, OptionalInt statementId, Path path)
     {
         Path deleteDeltaPath;
@@ -145,6 +183,11 @@ public class TestOrcDeletedRows
     }
 
     private static OrcDeletedRows createOrcDeletedRows(AcidInfo acidInfo, String sourceFileName)
+    {
+        return createOrcDeletedRows(acidInfo, sourceFileName, new OrcDeleteDeltaCache(new HiveConfig()), newSimpleAggregatedMemoryContext());
+    }
+
+    private static OrcDeletedRows createOrcDeletedRows(AcidInfo acidInfo, String sourceFileName, OrcDeleteDeltaCache deleteDeltaCache, AggregatedMemoryContext memoryContext)
     {
         JobConf configuration = new JobConf(new Configuration(false));
         OrcDeleteDeltaPageSourceFactory pageSourceFactory = new OrcDeleteDeltaPageSourceFactory(
@@ -160,7 +203,9 @@ public class TestOrcDeletedRows
                 "test",
                 configuration,
                 HDFS_ENVIRONMENT,
-                acidInfo);
+                acidInfo,
+                deleteDeltaCache,
+                memoryContext);
     }
 
     private Page createTestPage(int originalTransactionStart, int originalTransactionEnd)
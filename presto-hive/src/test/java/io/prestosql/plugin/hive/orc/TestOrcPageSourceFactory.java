@@ -47,6 +47,7 @@ import java.util.function.LongPredicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
 import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
@@ -76,7 +77,9 @@ public class TestOrcPageSourceFactory
             new OrcReaderConfig(),
             HDFS_ENVIRONMENT,
             new FileFormatDataSourceStats(),
-            new HiveConfig());
+            new HiveConfig(),
+            newDirectExecutorService(),
+            new OrcDeleteDeltaCache(new HiveConfig()));
 
     @Test
     public void testFullFileRead()
@@ -38,7 +38,10 @@ public class TestOrcReaderConfig
                 .setTinyStripeThreshold(DataSize.of(8, Unit.MEGABYTE))
                 .setMaxBlockSize(DataSize.of(16, Unit.MEGABYTE))
                 .setLazyReadSmallRanges(true)
-                .setNestedLazy(true));
+                .setNestedLazy(true)
+                .setSelectiveReadingEnabled(false)
+                .setStripePrefetchCount(0)
+                .setMaxStripePrefetchSize(DataSize.of(64, Unit.MEGABYTE)));
     }
 
     @Test
@@ -54,6 +57,9 @@ public class TestOrcReaderConfig
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.orc.nested-lazy", "false")
+                .put("hive.orc.selective-reading.enabled", "true")
+                .put("hive.orc.stripe-prefetch-count", "3")
+                .put("hive.orc.max-stripe-prefetch-size", "128MB")
                 .build();
 
         OrcReaderConfig expected = new OrcReaderConfig()
@@ -65,7 +71,10 @@ public class TestOrcReaderConfig
                 .setTinyStripeThreshold(DataSize.of(61, Unit.KILOBYTE))
                 .setMaxBlockSize(DataSize.of(66, Unit.KILOBYTE))
                 .setLazyReadSmallRanges(false)
-                .setNestedLazy(false);
+                .setNestedLazy(false)
+                .setSelectiveReadingEnabled(true)
+                .setStripePrefetchCount(3)
+                .setMaxStripePrefetchSize(DataSize.of(128, Unit.MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.projection;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.metastore.Column;
+import io.prestosql.plugin.hive.metastore.Partition;
+import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
+import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
+import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
+import static io.prestosql.plugin.hive.HiveType.HIVE_INT;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
+import static io.prestosql.plugin.hive.metastore.StorageFormat.fromHiveStorageFormat;
+import static io.prestosql.plugin.hive.projection.PartitionProjection.getPartitionProjection;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPartitionProjection
+{
+    private static final HiveColumnHandle REGION = createBaseColumn("region", 1, HIVE_STRING, VARCHAR, PARTITION_KEY, Optional.empty());
+    private static final HiveColumnHandle DT = createBaseColumn("dt", 2, HIVE_STRING, VARCHAR, PARTITION_KEY, Optional.empty());
+    private static final HiveColumnHandle HOUR = createBaseColumn("hour", 3, HIVE_INT, INTEGER, PARTITION_KEY, Optional.empty());
+
+    private static final Map<String, String> PROJECTION = ImmutableMap.<String, String>builder()
+            .put("projection.enabled", "true")
+            .put("projection.region.type", "enum")
+            .put("projection.region.values", "us, eu")
+            .put("projection.dt.type", "date")
+            .put("projection.dt.range", "2020/12/30,2021/01/02")
+            .put("projection.dt.format", "yyyy/MM/dd")
+            .put("projection.hour.type", "integer")
+            .put("projection.hour.range", "0,23")
+            .put("projection.hour.interval", "6")
+            .put("projection.hour.digits", "2")
+            .build();
+
+    @Test
+    public void testDisabled()
+    {
+        assertTrue(getPartitionProjection(createTable(ImmutableMap.of())).isEmpty());
+        assertTrue(getPartitionProjection(createTable(ImmutableMap.of("projection.enabled", "false"))).isEmpty());
+    }
+
+    @Test
+    public void testPartitionNames()
+    {
+        PartitionProjection projection = getPartitionProjection(createTable(PROJECTION)).orElseThrow();
+
+        List<String> partitionNames = projection.getProjectedPartitionNames(ImmutableList.of(REGION, DT, HOUR), TupleDomain.all());
+        assertEquals(partitionNames.size(), 2 * 4 * 4);
+        assertEquals(partitionNames.get(0), "region=us/dt=2020%2F12%2F30/hour=00");
+        assertEquals(partitionNames.get(partitionNames.size() - 1), "region=eu/dt=2021%2F01%2F02/hour=18");
+
+        TupleDomain<HiveColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(
+                REGION, Domain.singleValue(VARCHAR, utf8Slice("eu")),
+                DT, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(VARCHAR, utf8Slice("2021/01/01"))), false),
+                HOUR, Domain.singleValue(INTEGER, 12L)));
+        assertEquals(
+                projection.getProjectedPartitionNames(ImmutableList.of(REGION, DT, HOUR), predicate),
+                ImmutableList.of("region=eu/dt=2021%2F01%2F01/hour=12", "region=eu/dt=2021%2F01%2F02/hour=12"));
+
+        assertEquals(projection.getProjectedPartitionNames(ImmutableList.of(REGION, DT, HOUR), TupleDomain.none()), ImmutableList.of());
+    }
+
+    @Test
+    public void testPartitionLocation()
+    {
+        Table table = createTable(PROJECTION);
+        Partition partition = getPartitionProjection(table).orElseThrow().createPartition(table, ImmutableList.of("us", "2021/01/01", "06"));
+        assertEquals(partition.getStorage().getLocation(), "s3://bucket/table/region=us/dt=2021%2F01%2F01/hour=06");
+        assertEquals(partition.getColumns(), table.getDataColumns());
+        assertEquals(partition.getStorage().getStorageFormat(), table.getStorage().getStorageFormat());
+
+        table = createTable(ImmutableMap.<String, String>builder()
+                .putAll(PROJECTION)
+                .put("storage.location.template", "s3://bucket/logs/${region}/${dt}/${hour}")
+                .build());
+        partition = getPartitionProjection(table).orElseThrow().createPartition(table, ImmutableList.of("us", "2021/01/01", "06"));
+        assertEquals(partition.getStorage().getLocation(), "s3://bucket/logs/us/2021/01/01/06");
+    }
+
+    @Test
+    public void testInvalidProjection()
+    {
+        assertThatThrownBy(() -> getPartitionProjection(createTable(ImmutableMap.of("projection.enabled", "true"))))
+                .isInstanceOf(PrestoException.class)
+                .hasMessageContaining("Projection type of partition column region is not defined");
+
+        Map<String, String> parameters = new HashMap<>(PROJECTION);
+        parameters.put("projection.hour.range", "0");
+        assertThatThrownBy(() -> getPartitionProjection(createTable(parameters)))
+                .isInstanceOf(PrestoException.class)
+                .hasMessageContaining("Projection range of partition column hour must have two values");
+    }
+
+    private static Table createTable(Map<String, String> parameters)
+    {
+        return Table.builder()
+                .setDatabaseName("schema")
+                .setTableName("table")
+                .setOwner("owner")
+                .setTableType("EXTERNAL_TABLE")
+                .setDataColumns(ImmutableList.of(new Column("value", HIVE_LONG, Optional.empty())))
+                .setPartitionColumns(ImmutableList.of(
+                        new Column("region", HIVE_STRING, Optional.empty()),
+                        new Column("dt", HIVE_STRING, Optional.empty()),
+                        new Column("hour", HIVE_INT, Optional.empty())))
+                .setParameters(parameters)
+                .withStorage(storage -> storage
+                        .setLocation("s3://bucket/table")
+                        .setStorageFormat(fromHiveStorageFormat(ORC)))
+                .build();
+    }
+}
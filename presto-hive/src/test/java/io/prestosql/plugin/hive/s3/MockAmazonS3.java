@@ -14,38 +14,76 @@
 package io.prestosql.plugin.hive.s3;
 
 import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.collect.ImmutableList;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 public class MockAmazonS3
         extends AbstractAmazonS3
 {
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     private int getObjectHttpCode = HTTP_OK;
     private int getObjectMetadataHttpCode = HTTP_OK;
+    private volatile long forbiddenGetObjectRangeStart = -1;
     private GetObjectMetadataRequest getObjectMetadataRequest;
     private CannedAccessControlList acl;
     private boolean hasGlacierObjects;
     private boolean hasHadoopFolderMarkerObjects;
+    private int uploadPartHttpCode = HTTP_OK;
+    private final Map<String, byte[]> uploadedObjects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> multipartUploads = new ConcurrentHashMap<>();
+    private final AtomicInteger multipartUploadCount = new AtomicInteger();
+    private final AtomicInteger uploadedPartCount = new AtomicInteger();
+    private final AtomicInteger abortedUploadCount = new AtomicInteger();
+    private final List<long[]> getObjectRanges = new CopyOnWriteArrayList<>();
 
     public void setGetObjectHttpErrorCode(int getObjectHttpErrorCode)
     {
         this.getObjectHttpCode = getObjectHttpErrorCode;
     }
 
+    public void setForbiddenGetObjectRangeStart(long forbiddenGetObjectRangeStart)
+    {
+        this.forbiddenGetObjectRangeStart = forbiddenGetObjectRangeStart;
+    }
+
     public void setGetObjectMetadataHttpCode(int getObjectMetadataHttpCode)
     {
         this.getObjectMetadataHttpCode = getObjectMetadataHttpCode;
@@ -66,6 +104,41 @@ public class MockAmazonS3
         this.hasHadoopFolderMarkerObjects = hasHadoopFolderMarkerObjects;
     }
 
+    public void setUploadPartHttpCode(int uploadPartHttpCode)
+    {
+        this.uploadPartHttpCode = uploadPartHttpCode;
+    }
+
+    public byte[] getUploadedObject(String key)
+    {
+        return uploadedObjects.get(key);
+    }
+
+    public int getUploadedPartCount()
+    {
+        return uploadedPartCount.get();
+    }
+
+    public int getAbortedUploadCount()
+    {
+        return abortedUploadCount.get();
+    }
+
+    public void setObject(String key, byte[] data)
+    {
+        uploadedObjects.put(key, data);
+    }
+
+    public List<long[]> getGetObjectRanges()
+    {
+        return ImmutableList.copyOf(getObjectRanges);
+    }
+
+    public int getPendingUploadCount()
+    {
+        return multipartUploads.size();
+    }
+
     public GetObjectMetadataRequest getGetObjectMetadataRequest()
     {
         return getObjectMetadataRequest;
@@ -91,16 +164,109 @@ public class MockAmazonS3
             exception.setStatusCode(getObjectHttpCode);
             throw exception;
         }
-        return null;
+        byte[] data = uploadedObjects.get(getObjectRequest.getKey());
+        if (data == null) {
+            return null;
+        }
+        getObjectRanges.add(getObjectRequest.getRange());
+
+        long start = getObjectRequest.getRange()[0];
+        if (start == forbiddenGetObjectRangeStart) {
+            AmazonS3Exception exception = new AmazonS3Exception("Forbidden range");
+            exception.setStatusCode(HTTP_FORBIDDEN);
+            throw exception;
+        }
+        if (start >= data.length) {
+            AmazonS3Exception exception = new AmazonS3Exception("Requested range not satisfiable");
+            exception.setStatusCode(HTTP_RANGE_NOT_SATISFIABLE);
+            throw exception;
+        }
+        long end = min(getObjectRequest.getRange()[1], data.length - 1);
+        S3Object object = new S3Object();
+        object.setKey(getObjectRequest.getKey());
+        object.setObjectContent(new S3ObjectInputStream(new ByteArrayInputStream(data, toIntExact(start), toIntExact(end - start + 1)), null)
+        {
+            @Override
+            public void abort()
+            {
+                // there is no HTTP request to abort
+            }
+        });
+        return object;
     }
 
     @Override
     public PutObjectResult putObject(PutObjectRequest putObjectRequest)
     {
         this.acl = putObjectRequest.getCannedAcl();
+        if (putObjectRequest.getInputStream() != null) {
+            uploadedObjects.put(putObjectRequest.getKey(), readAllBytes(putObjectRequest.getInputStream()));
+        }
         return new PutObjectResult();
     }
 
+    @Override
+    public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request)
+    {
+        this.acl = request.getCannedACL();
+        String uploadId = "upload-" + multipartUploadCount.incrementAndGet();
+        multipartUploads.put(uploadId, new ConcurrentHashMap<>());
+
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setBucketName(request.getBucketName());
+        result.setKey(request.getKey());
+        result.setUploadId(uploadId);
+        return result;
+    }
+
+    @Override
+    public UploadPartResult uploadPart(UploadPartRequest request)
+    {
+        if (uploadPartHttpCode != HTTP_OK) {
+            AmazonS3Exception exception = new AmazonS3Exception("Failing uploadPart call with " + uploadPartHttpCode);
+            exception.setStatusCode(uploadPartHttpCode);
+            throw exception;
+        }
+        Map<Integer, byte[]> parts = multipartUploads.get(request.getUploadId());
+        if (parts == null) {
+            throw new AmazonS3Exception("No such upload: " + request.getUploadId());
+        }
+        parts.put(request.getPartNumber(), readAllBytes(request.getInputStream()));
+        uploadedPartCount.incrementAndGet();
+
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag("etag-" + request.getPartNumber());
+        return result;
+    }
+
+    @Override
+    public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request)
+    {
+        Map<Integer, byte[]> parts = multipartUploads.remove(request.getUploadId());
+        if (parts == null) {
+            throw new AmazonS3Exception("No such upload: " + request.getUploadId());
+        }
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        for (PartETag partETag : request.getPartETags()) {
+            object.writeBytes(parts.get(partETag.getPartNumber()));
+        }
+        uploadedObjects.put(request.getKey(), object.toByteArray());
+
+        CompleteMultipartUploadResult result = new CompleteMultipartUploadResult();
+        result.setBucketName(request.getBucketName());
+        result.setKey(request.getKey());
+        return result;
+    }
+
+    @Override
+    public void abortMultipartUpload(AbortMultipartUploadRequest request)
+    {
+        if (multipartUploads.remove(request.getUploadId()) != null) {
+            abortedUploadCount.incrementAndGet();
+        }
+    }
+
     @Override
     public ListObjectsV2Result listObjectsV2(ListObjectsV2Request listObjectsV2Request)
     {
@@ -160,4 +326,14 @@ public class MockAmazonS3
     public void shutdown()
     {
     }
+
+    private static byte[] readAllBytes(InputStream inputStream)
+    {
+        try {
+            return inputStream.readAllBytes();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
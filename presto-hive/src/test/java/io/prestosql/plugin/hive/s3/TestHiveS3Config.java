@@ -60,6 +60,12 @@ public class TestHiveS3Config
                 .setS3SocketTimeout(new Duration(5, TimeUnit.SECONDS))
                 .setS3MultipartMinFileSize(DataSize.of(16, Unit.MEGABYTE))
                 .setS3MultipartMinPartSize(DataSize.of(5, Unit.MEGABYTE))
+                .setS3StreamingUploadEnabled(false)
+                .setS3StreamingPartSize(DataSize.of(16, Unit.MEGABYTE))
+                .setS3ReadPartSize(DataSize.of(4, Unit.MEGABYTE))
+                .setS3ReadParallelism(1)
+                .setS3ReadAheadMinSize(DataSize.of(1, Unit.MEGABYTE))
+                .setS3ReadAheadMaxSize(DataSize.of(64, Unit.MEGABYTE))
                 .setS3MaxConnections(500)
                 .setS3StagingDirectory(new File(StandardSystemProperty.JAVA_IO_TMPDIR.value()))
                 .setPinS3ClientToCurrentRegion(false)
@@ -99,6 +105,12 @@ public class TestHiveS3Config
                 .put("hive.s3.socket-timeout", "4m")
                 .put("hive.s3.multipart.min-file-size", "32MB")
                 .put("hive.s3.multipart.min-part-size", "15MB")
+                .put("hive.s3.streaming.enabled", "true")
+                .put("hive.s3.streaming.part-size", "32MB")
+                .put("hive.s3.read.part-size", "8MB")
+                .put("hive.s3.read.parallelism", "8")
+                .put("hive.s3.read-ahead.min-size", "2MB")
+                .put("hive.s3.read-ahead.max-size", "128MB")
                 .put("hive.s3.max-connections", "77")
                 .put("hive.s3.staging-directory", stagingDirectory.toString())
                 .put("hive.s3.pin-client-to-current-region", "true")
@@ -132,6 +144,12 @@ public class TestHiveS3Config
                 .setS3SocketTimeout(new Duration(4, TimeUnit.MINUTES))
                 .setS3MultipartMinFileSize(DataSize.of(32, Unit.MEGABYTE))
                 .setS3MultipartMinPartSize(DataSize.of(15, Unit.MEGABYTE))
+                .setS3StreamingUploadEnabled(true)
+                .setS3StreamingPartSize(DataSize.of(32, Unit.MEGABYTE))
+                .setS3ReadPartSize(DataSize.of(8, Unit.MEGABYTE))
+                .setS3ReadParallelism(8)
+                .setS3ReadAheadMinSize(DataSize.of(2, Unit.MEGABYTE))
+                .setS3ReadAheadMaxSize(DataSize.of(128, Unit.MEGABYTE))
                 .setS3MaxConnections(77)
                 .setS3StagingDirectory(stagingDirectory.toFile())
                 .setPinS3ClientToCurrentRegion(true)
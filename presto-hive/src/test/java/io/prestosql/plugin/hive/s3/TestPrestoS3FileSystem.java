@@ -37,6 +37,7 @@ import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
 import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableList;
 import io.prestosql.plugin.hive.s3.PrestoS3FileSystem.UnrecoverableS3OperationException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -63,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static io.airlift.testing.Assertions.assertInstanceOf;
@@ -80,10 +82,16 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_MAX_CLIENT_RETRI
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_MAX_RETRY_TIME;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_PATH_STYLE_ACCESS;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_PIN_CLIENT_TO_CURRENT_REGION;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_AHEAD_MAX_SIZE;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_AHEAD_MIN_SIZE;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_PARALLELISM;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_READ_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SECRET_KEY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SESSION_TOKEN;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SKIP_GLACIER_OBJECTS;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_ENABLED;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_SUFFIX;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
@@ -92,6 +100,7 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.Files.createTempFile;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -702,6 +711,213 @@ public class TestPrestoS3FileSystem
         }
     }
 
+    @Test
+    public void testStreamingUpload()
+            throws Exception
+    {
+        java.nio.file.Path stagingParent = createTempDirectory("test");
+        java.nio.file.Path staging = Paths.get(stagingParent.toString(), "staging");
+        Configuration config = new Configuration(false);
+        config.set(S3_STAGING_DIRECTORY, staging.toString());
+        config.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        config.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 10);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            byte[] data = new byte[25];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) i;
+            }
+            try (FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"))) {
+                stream.write(data, 0, 7);
+                stream.write(data[7]);
+                stream.write(data, 8, data.length - 8);
+            }
+
+            // two full parts and a partial last part
+            assertEquals(s3.getUploadedPartCount(), 3);
+            assertEquals(s3.getPendingUploadCount(), 0);
+            assertEquals(s3.getUploadedObject("test"), data);
+            assertEquals(s3.getAcl(), CannedAccessControlList.Private);
+            // nothing is staged on local disk
+            assertFalse(Files.exists(staging));
+        }
+        finally {
+            deleteRecursively(stagingParent, ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testStreamingUploadSmallFile()
+            throws Exception
+    {
+        Configuration config = new Configuration(false);
+        config.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        config.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 10);
+        config.set(S3_ACL_TYPE, "BUCKET_OWNER_FULL_CONTROL");
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            byte[] data = {1, 2, 3};
+            try (FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"))) {
+                stream.write(data);
+            }
+
+            assertEquals(s3.getUploadedPartCount(), 0);
+            assertEquals(s3.getUploadedObject("test"), data);
+            assertEquals(s3.getAcl(), CannedAccessControlList.BucketOwnerFullControl);
+        }
+    }
+
+    @Test
+    public void testStreamingUploadFailure()
+            throws Exception
+    {
+        Configuration config = new Configuration(false);
+        config.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        config.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 10);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            s3.setUploadPartHttpCode(HTTP_INTERNAL_ERROR);
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            assertThatThrownBy(() -> {
+                try (FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"))) {
+                    stream.write(new byte[25]);
+                }
+            })
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Failing uploadPart call with " + HTTP_INTERNAL_ERROR);
+
+            assertEquals(s3.getAbortedUploadCount(), 1);
+            assertEquals(s3.getPendingUploadCount(), 0);
+            assertNull(s3.getUploadedObject("test"));
+        }
+    }
+
+    @Test
+    public void testParallelRangedRead()
+            throws Exception
+    {
+        Configuration config = new Configuration(false);
+        config.setLong(S3_READ_PART_SIZE, 10);
+        config.setInt(S3_READ_PARALLELISM, 4);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            byte[] data = createTestData(95);
+            s3.setObject("test", data);
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            try (FSDataInputStream stream = fs.open(new Path("s3n://test-bucket/test"))) {
+                byte[] buffer = new byte[95];
+                stream.readFully(0, buffer);
+                assertEquals(buffer, data);
+                assertEquals(s3.getGetObjectRanges().size(), 10);
+
+                // a read that extends beyond the end of the object returns the remaining bytes
+                buffer = new byte[40];
+                assertEquals(stream.read(70, buffer, 0, 40), 25);
+                assertEquals(Arrays.copyOf(buffer, 25), Arrays.copyOfRange(data, 70, 95));
+
+                // small reads are not split
+                int requests = s3.getGetObjectRanges().size();
+                buffer = new byte[15];
+                stream.readFully(3, buffer);
+                assertEquals(buffer, Arrays.copyOfRange(data, 3, 18));
+                assertEquals(s3.getGetObjectRanges().size(), requests + 1);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedParallelRangedRead()
+            throws Exception
+    {
+        Configuration config = new Configuration(false);
+        config.setLong(S3_READ_PART_SIZE, 10);
+        config.setInt(S3_READ_PARALLELISM, 4);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            s3.setObject("test", createTestData(95));
+            s3.setForbiddenGetObjectRangeStart(50);
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            try (FSDataInputStream stream = fs.open(new Path("s3n://test-bucket/test"))) {
+                byte[] buffer = new byte[95];
+                assertThatThrownBy(() -> stream.readFully(0, buffer))
+                        .isInstanceOf(IOException.class);
+                // neither the failed part nor the parts after it are copied into the buffer
+                assertEquals(Arrays.copyOfRange(buffer, 50, 95), new byte[45]);
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveReadAhead()
+            throws Exception
+    {
+        Configuration config = new Configuration(false);
+        config.setInt(S3_READ_PARALLELISM, 1);
+        config.setLong(S3_READ_AHEAD_MIN_SIZE, 10);
+        config.setLong(S3_READ_AHEAD_MAX_SIZE, 40);
+        config.setInt("io.file.buffer.size", 5);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            byte[] data = createTestData(100);
+            s3.setObject("test", data);
+            fs.initialize(new URI("s3n://test-bucket/"), config);
+            fs.setS3Client(s3);
+
+            long wastedBytes = PrestoS3FileSystem.getFileSystemStats().getWastedReadBytes().getTotalCount();
+            try (FSDataInputStream stream = fs.open(new Path("s3n://test-bucket/test"))) {
+                // the requested range doubles while the object is read sequentially
+                byte[] buffer = new byte[100];
+                stream.readFully(buffer);
+                assertEquals(buffer, data);
+                assertEquals(stream.read(), -1);
+                assertEquals(getRangeLengths(s3), ImmutableList.of(10L, 20L, 40L, 40L));
+
+                // and shrinks when a seek discards the rest of it
+                stream.seek(0);
+                assertEquals(stream.read(), 0);
+                stream.seek(50);
+                assertEquals(stream.read(), 50);
+                assertEquals(getRangeLengths(s3), ImmutableList.of(10L, 20L, 40L, 40L, 40L, 20L));
+            }
+            // the unread bytes of the range at position 0, and of the range at position 50
+            assertEquals(PrestoS3FileSystem.getFileSystemStats().getWastedReadBytes().getTotalCount() - wastedBytes, 35 + 15);
+        }
+    }
+
+    private static byte[] createTestData(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private static List<Long> getRangeLengths(MockAmazonS3 s3)
+    {
+        return s3.getGetObjectRanges().stream()
+                .map(range -> range[1] - range[0] + 1)
+                .collect(toImmutableList());
+    }
+
     @Test
     public void testEmptyDirectory()
             throws Exception
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.Comparator.nullsFirst;
+import static java.util.Comparator.nullsLast;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestNormalizedKeySorter
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final Long[] LONG_VALUES = {null, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE - 1, -1L, 0L, 1L};
+    private static final String[] STRING_VALUES = {null, "", "a", "abcdefg", "abcdefgh", "abcdefghX", "abcdefghY", "abcdefgh\0", "b"};
+
+    @Test
+    public void testIsSupported()
+    {
+        assertTrue(NormalizedKeySorter.isSupported(BIGINT));
+        assertTrue(NormalizedKeySorter.isSupported(INTEGER));
+        assertTrue(NormalizedKeySorter.isSupported(VARCHAR));
+        assertFalse(NormalizedKeySorter.isSupported(DOUBLE));
+        assertFalse(NormalizedKeySorter.isSupported(BOOLEAN));
+    }
+
+    @Test
+    public void testSort()
+    {
+        List<List<Object>> rows = createRows();
+        for (SortOrder firstOrder : SortOrder.values()) {
+            for (SortOrder secondOrder : SortOrder.values()) {
+                assertSorted(rows, ImmutableList.of(0, 1), ImmutableList.of(firstOrder, secondOrder));
+                assertSorted(rows, ImmutableList.of(1, 0), ImmutableList.of(firstOrder, secondOrder));
+            }
+            assertSorted(rows, ImmutableList.of(0), ImmutableList.of(firstOrder));
+            assertSorted(rows, ImmutableList.of(1), ImmutableList.of(firstOrder));
+        }
+    }
+
+    private static void assertSorted(List<List<Object>> rows, List<Integer> sortFields, List<SortOrder> sortOrders)
+    {
+        List<Page> pages = createPages(rows);
+        int[] pageIndexes = new int[rows.size()];
+        int[] positions = new int[rows.size()];
+        new NormalizedKeySorter(TYPES, sortFields, sortOrders, new TypeOperators()).sort(pages, pageIndexes, positions);
+
+        List<List<Object>> actual = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            actual.add(getSortKey(getRow(pages.get(pageIndexes[i]), positions[i]), sortFields));
+        }
+
+        List<List<Object>> expected = new ArrayList<>();
+        rows.stream()
+                .sorted(rowComparator(sortFields, sortOrders))
+                .forEach(row -> expected.add(getSortKey(row, sortFields)));
+
+        assertEquals(actual, expected, "sorted by " + sortFields + " " + sortOrders);
+    }
+
+    private static List<List<Object>> createRows()
+    {
+        Random random = new Random(42);
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Long longValue = (i % 3 == 0) ? LONG_VALUES[random.nextInt(LONG_VALUES.length)] : Long.valueOf(random.nextInt(20) - 10);
+            String stringValue = (i % 3 == 1) ? STRING_VALUES[random.nextInt(STRING_VALUES.length)] : "abcdefgh" + random.nextInt(20);
+            rows.add(Arrays.asList(longValue, stringValue));
+        }
+        return rows;
+    }
+
+    private static List<Page> createPages(List<List<Object>> rows)
+    {
+        List<Page> pages = new ArrayList<>();
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        for (List<Object> row : rows) {
+            pageBuilder.declarePosition();
+            if (row.get(0) == null) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), (Long) row.get(0));
+            }
+            if (row.get(1) == null) {
+                pageBuilder.getBlockBuilder(1).appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice((String) row.get(1)));
+            }
+            if (pageBuilder.getPositionCount() == 97) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            pages.add(pageBuilder.build());
+        }
+        return pages;
+    }
+
+    private static List<Object> getRow(Page page, int position)
+    {
+        Block longs = page.getBlock(0);
+        Block strings = page.getBlock(1);
+        return Arrays.asList(
+                longs.isNull(position) ? null : BIGINT.getLong(longs, position),
+                strings.isNull(position) ? null : VARCHAR.getSlice(strings, position).toStringUtf8());
+    }
+
+    private static List<Object> getSortKey(List<Object> row, List<Integer> sortFields)
+    {
+        List<Object> key = new ArrayList<>();
+        for (int field : sortFields) {
+            key.add(row.get(field));
+        }
+        return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<List<Object>> rowComparator(List<Integer> sortFields, List<SortOrder> sortOrders)
+    {
+        Comparator<List<Object>> comparator = (left, right) -> 0;
+        for (int i = 0; i < sortFields.size(); i++) {
+            int field = sortFields.get(i);
+            SortOrder sortOrder = sortOrders.get(i);
+            Comparator<Object> values = (left, right) -> ((Comparable<Object>) left).compareTo(right);
+            if (!sortOrder.isAscending()) {
+                values = values.reversed();
+            }
+            values = sortOrder.isNullsFirst() ? nullsFirst(values) : nullsLast(values);
+            comparator = comparator.thenComparing(row -> row.get(field), values);
+        }
+        return comparator;
+    }
+}
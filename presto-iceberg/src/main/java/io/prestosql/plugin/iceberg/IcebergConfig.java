@@ -14,9 +14,11 @@
 package io.prestosql.plugin.iceberg;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.prestosql.plugin.hive.HiveCompressionCodec;
 import org.apache.iceberg.FileFormat;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import static io.prestosql.plugin.hive.HiveCompressionCodec.GZIP;
@@ -26,6 +28,8 @@ public class IcebergConfig
 {
     private IcebergFileFormat fileFormat = ORC;
     private HiveCompressionCodec compressionCodec = GZIP;
+    private int splitPlanningThreads = 8;
+    private int maxSplitPlanningThreads = 100;
 
     @NotNull
     public FileFormat getFileFormat()
@@ -52,4 +56,32 @@ public class IcebergConfig
         this.compressionCodec = compressionCodec;
         return this;
     }
+
+    @Min(1)
+    public int getSplitPlanningThreads()
+    {
+        return splitPlanningThreads;
+    }
+
+    @Config("iceberg.split-planning-threads")
+    @ConfigDescription("Maximum number of manifests that are read in parallel to plan the splits of a table scan")
+    public IcebergConfig setSplitPlanningThreads(int splitPlanningThreads)
+    {
+        this.splitPlanningThreads = splitPlanningThreads;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxSplitPlanningThreads()
+    {
+        return maxSplitPlanningThreads;
+    }
+
+    @Config("iceberg.max-split-planning-threads")
+    @ConfigDescription("Maximum number of threads that read manifests to plan the splits of all table scans")
+    public IcebergConfig setMaxSplitPlanningThreads(int maxSplitPlanningThreads)
+    {
+        this.maxSplitPlanningThreads = maxSplitPlanningThreads;
+        return this;
+    }
 }
@@ -14,6 +14,8 @@
 package io.prestosql.plugin.iceberg;
 
 import com.google.common.collect.ImmutableList;
+import io.airlift.concurrent.BoundedExecutor;
+import io.airlift.stats.CounterStat;
 import io.prestosql.plugin.base.classloader.ClassLoaderSafeConnectorSplitSource;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
@@ -25,25 +27,47 @@ import io.prestosql.spi.connector.ConnectorTransactionHandle;
 import io.prestosql.spi.connector.DynamicFilter;
 import io.prestosql.spi.connector.FixedSplitSource;
 import org.apache.iceberg.Table;
-import org.apache.iceberg.TableScan;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
-import static io.prestosql.plugin.iceberg.ExpressionConverter.toIcebergExpression;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.plugin.iceberg.IcebergUtil.getIcebergTable;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.apache.iceberg.TableProperties.SPLIT_SIZE;
+import static org.apache.iceberg.TableProperties.SPLIT_SIZE_DEFAULT;
+import static org.apache.iceberg.util.PropertyUtil.propertyAsLong;
 
 public class IcebergSplitManager
         implements ConnectorSplitManager
 {
     private final IcebergTransactionManager transactionManager;
     private final HdfsEnvironment hdfsEnvironment;
+    private final int splitPlanningThreads;
+    private final ExecutorService executorService = newCachedThreadPool(daemonThreadsNamed("iceberg-split-planning-%s"));
+    private final Executor executor;
+    private final CounterStat dynamicFilterPrunedSplits = new CounterStat();
 
     @Inject
-    public IcebergSplitManager(IcebergTransactionManager transactionManager, HdfsEnvironment hdfsEnvironment)
+    public IcebergSplitManager(IcebergTransactionManager transactionManager, HdfsEnvironment hdfsEnvironment, IcebergConfig config)
     {
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        requireNonNull(config, "config is null");
+        this.splitPlanningThreads = config.getSplitPlanningThreads();
+        this.executor = new BoundedExecutor(executorService, config.getMaxSplitPlanningThreads());
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executorService.shutdownNow();
     }
 
     @Override
@@ -63,14 +87,25 @@ public class IcebergSplitManager
         HiveMetastore metastore = transactionManager.get(transaction).getMetastore();
         Table icebergTable = getIcebergTable(metastore, hdfsEnvironment, session, table.getSchemaTableName());
 
-        TableScan tableScan = icebergTable.newScan()
-                .filter(toIcebergExpression(table.getPredicate()))
-                .useSnapshot(table.getSnapshotId().get());
-
         // TODO Use residual. Right now there is no way to propagate residual to presto but at least we can
         //      propagate it at split level so the parquet pushdown can leverage it.
-        IcebergSplitSource splitSource = new IcebergSplitSource(tableScan.planTasks());
+        IcebergSplitSource splitSource = new IcebergSplitSource(
+                icebergTable,
+                icebergTable.snapshot(table.getSnapshotId().get()).dataManifests(),
+                table.getPredicate(),
+                dynamicFilter,
+                propertyAsLong(icebergTable.properties(), SPLIT_SIZE, SPLIT_SIZE_DEFAULT),
+                executor,
+                splitPlanningThreads,
+                dynamicFilterPrunedSplits);
 
         return new ClassLoaderSafeConnectorSplitSource(splitSource, Thread.currentThread().getContextClassLoader());
     }
+
+    @Managed
+    @Nested
+    public CounterStat getDynamicFilterPrunedSplits()
+    {
+        return dynamicFilterPrunedSplits;
+    }
 }
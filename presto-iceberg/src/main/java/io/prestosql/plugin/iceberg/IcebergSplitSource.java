@@ -14,129 +14,392 @@
 package io.prestosql.plugin.iceberg;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.stats.CounterStat;
+import io.prestosql.plugin.hive.util.AsyncQueue;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.classloader.ThreadContextClassLoader;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorSplitSource;
-import org.apache.iceberg.CombinedScanTask;
-import org.apache.iceberg.FileScanTask;
-import org.apache.iceberg.PartitionField;
+import io.prestosql.spi.connector.DynamicFilter;
+import io.prestosql.spi.predicate.SortedRangeSet;
+import io.prestosql.spi.predicate.TupleDomain;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
 import org.apache.iceberg.PartitionSpec;
-import org.apache.iceberg.StructLike;
-import org.apache.iceberg.io.CloseableIterable;
-import org.apache.iceberg.types.Type;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.ManifestEvaluator;
+import org.apache.iceberg.expressions.Projections;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
-import static com.google.common.collect.Iterators.limit;
-import static io.prestosql.plugin.iceberg.IcebergUtil.getIdentityPartitions;
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.failedFuture;
+import static io.airlift.concurrent.MoreFutures.toCompletableFuture;
+import static io.prestosql.plugin.iceberg.ExpressionConverter.toIcebergExpression;
+import static io.prestosql.plugin.iceberg.IcebergErrorCode.ICEBERG_FILESYSTEM_ERROR;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getPartitionKeys;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.CompletableFuture.completedFuture;
-import static org.apache.iceberg.types.Type.TypeID.BINARY;
-import static org.apache.iceberg.types.Type.TypeID.FIXED;
 
+/**
+ * Plans the splits of a table scan by reading the manifests of the snapshot in parallel. The
+ * splits of a manifest are queued as soon as they are created, and no more manifests are read
+ * while enough splits are queued. Manifests and data files are pruned with the table predicate
+ * and the current dynamic filter, using the manifest partition summaries and the column stats
+ * of the data files. Queued splits are checked again when they are dequeued if the dynamic
+ * filter has narrowed down since they were planned.
+ */
 public class IcebergSplitSource
         implements ConnectorSplitSource
 {
-    private final CloseableIterable<CombinedScanTask> combinedScanIterable;
-    private final Iterator<FileScanTask> fileScanIterator;
+    private static final int TARGET_QUEUED_SPLITS = 1000;
+
+    private final Table table;
+    private final TupleDomain<IcebergColumnHandle> predicate;
+    private final DynamicFilter dynamicFilter;
+    private final long splitSize;
+    private final Executor executor;
+    private final int maxRunningManifests;
+    private final CounterStat dynamicFilterPrunedSplits;
+    private final AsyncQueue<QueuedSplit> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
 
-    public IcebergSplitSource(CloseableIterable<CombinedScanTask> combinedScanIterable)
+    @GuardedBy("this")
+    private final Queue<ManifestFile> pendingManifests;
+    @GuardedBy("this")
+    private int runningManifests;
+    private volatile boolean closed;
+
+    public IcebergSplitSource(
+            Table table,
+            List<ManifestFile> manifests,
+            TupleDomain<IcebergColumnHandle> predicate,
+            DynamicFilter dynamicFilter,
+            long splitSize,
+            Executor executor,
+            int maxRunningManifests,
+            CounterStat dynamicFilterPrunedSplits)
     {
-        this.combinedScanIterable = requireNonNull(combinedScanIterable, "combinedScanIterable is null");
+        checkArgument(splitSize > 0, "splitSize must be positive");
+        checkArgument(maxRunningManifests >= 1, "maxRunningManifests must be at least one");
+        this.table = requireNonNull(table, "table is null");
+        this.pendingManifests = new ArrayDeque<>(requireNonNull(manifests, "manifests is null"));
+        this.predicate = requireNonNull(predicate, "predicate is null");
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.splitSize = splitSize;
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxRunningManifests = maxRunningManifests;
+        this.dynamicFilterPrunedSplits = requireNonNull(dynamicFilterPrunedSplits, "dynamicFilterPrunedSplits is null");
+        this.queue = new AsyncQueue<>(TARGET_QUEUED_SPLITS, executor);
 
-        this.fileScanIterator = Streams.stream(combinedScanIterable)
-                .map(CombinedScanTask::files)
-                .flatMap(Collection::stream)
-                .iterator();
+        scheduleManifests();
     }
 
     @Override
     public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
     {
-        // TODO: move this to a background thread
-        List<ConnectorSplit> splits = new ArrayList<>();
-        Iterator<FileScanTask> iterator = limit(fileScanIterator, maxSize);
-        while (iterator.hasNext()) {
-            FileScanTask task = iterator.next();
-            splits.add(toIcebergSplit(task));
-        }
-        return completedFuture(new ConnectorSplitBatch(splits, isFinished()));
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            return failedFuture(throwable);
+        }
+
+        ListenableFuture<ConnectorSplitBatch> batch = transform(
+                queue.getBatchAsync(maxSize),
+                queuedSplits -> {
+                    // the queue can have room for the splits of more manifests now
+                    scheduleManifests();
+                    throwIfFailed();
+                    List<ConnectorSplit> splits = pruneSplits(queuedSplits);
+                    return new ConnectorSplitBatch(splits, isFinished());
+                },
+                directExecutor());
+        return toCompletableFuture(batch);
     }
 
     @Override
     public boolean isFinished()
     {
-        return !fileScanIterator.hasNext();
+        throwIfFailed();
+        boolean finished = queue.isFinished();
+        // a failed manifest finishes the queue, so the failure has to be checked again after the queue
+        throwIfFailed();
+        return finished;
     }
 
     @Override
     public void close()
     {
-        try {
-            combinedScanIterable.close();
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
+        closed = true;
+        synchronized (this) {
+            pendingManifests.clear();
         }
+        queue.finish();
     }
 
-    private ConnectorSplit toIcebergSplit(FileScanTask task)
+    private void scheduleManifests()
     {
-        // TODO: We should leverage residual expression and convert that to TupleDomain.
-        //       The predicate here is used by readers for predicate push down at reader level,
-        //       so when we do not use residual expression, we are just wasting CPU cycles
-        //       on reader side evaluating a condition that we know will always be true.
-
-        return new IcebergSplit(
-                task.file().path().toString(),
-                task.start(),
-                task.length(),
-                task.file().format(),
-                ImmutableList.of(),
-                getPartitionKeys(task));
+        List<ManifestFile> manifests = new ArrayList<>();
+        synchronized (this) {
+            if (closed || failure.get() != null) {
+                pendingManifests.clear();
+            }
+            while (runningManifests < maxRunningManifests && !pendingManifests.isEmpty() && queue.size() < TARGET_QUEUED_SPLITS) {
+                manifests.add(pendingManifests.remove());
+                runningManifests++;
+            }
+            if (runningManifests == 0 && pendingManifests.isEmpty()) {
+                queue.finish();
+            }
+        }
+
+        for (ManifestFile manifest : manifests) {
+            executor.execute(new ManifestSplitPlanner(manifest));
+        }
     }
 
-    private static Map<Integer, String> getPartitionKeys(FileScanTask scanTask)
+    /**
+     * Plans the splits of a single manifest. When the queue is full, the planner stops and is run
+     * again on the executor once the queue has room, continuing with the next split.
+     */
+    private class ManifestSplitPlanner
+            implements Runnable
     {
-        StructLike partition = scanTask.file().partition();
-        PartitionSpec spec = scanTask.spec();
-        Map<PartitionField, Integer> fieldToIndex = getIdentityPartitions(spec);
-        Map<Integer, String> partitionKeys = new HashMap<>();
-
-        fieldToIndex.forEach((field, index) -> {
-            int id = field.sourceId();
-            Type type = spec.schema().findType(id);
-            Class<?> javaClass = type.typeId().javaClass();
-            Object value = partition.get(index, javaClass);
-
-            if (value == null) {
-                partitionKeys.put(id, null);
+        private final ManifestFile manifest;
+
+        private PartitionSpec spec;
+        private TupleDomain<ColumnHandle> currentDynamicFilter;
+        private ManifestReader<DataFile> reader;
+        private Iterator<DataFile> files;
+        private DataFile currentFile;
+        private Map<Integer, String> partitionKeys;
+        private long nextStart;
+
+        public ManifestSplitPlanner(ManifestFile manifest)
+        {
+            this.manifest = requireNonNull(manifest, "manifest is null");
+        }
+
+        @Override
+        public void run()
+        {
+            boolean done = true;
+            try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(IcebergSplitSource.class.getClassLoader())) {
+                done = planSplits();
+            }
+            catch (PrestoException e) {
+                failure.compareAndSet(null, e);
+            }
+            catch (Throwable t) {
+                failure.compareAndSet(null, new PrestoException(ICEBERG_FILESYSTEM_ERROR, "Failed to read manifest: " + manifest.path(), t));
+            }
+            finally {
+                if (done) {
+                    closeReader();
+                    synchronized (IcebergSplitSource.this) {
+                        runningManifests--;
+                    }
+                    scheduleManifests();
+                }
+            }
+        }
+
+        /**
+         * Returns false if planning stopped because the queue is full.
+         */
+        private boolean planSplits()
+        {
+            if (reader == null) {
+                if (closed) {
+                    return true;
+                }
+
+                // the dynamic filter can narrow down while the splits are planned
+                currentDynamicFilter = dynamicFilter.getCurrentPredicate();
+                Expression filter = toIcebergExpression(predicate.intersect(getDynamicFilterPredicate(currentDynamicFilter)));
+
+                spec = table.specs().get(manifest.partitionSpecId());
+                if (!ManifestEvaluator.forRowFilter(filter, spec, true).eval(manifest)) {
+                    return true;
+                }
+
+                // the reader skips the data files that do not match the partition values or column stats
+                // all columns are selected, as the stats of the data files are used to prune the splits when they are dequeued
+                reader = ManifestFiles.read(manifest, table.io());
+                files = reader.select(ImmutableList.of("*")).filterRows(filter).iterator();
+            }
+
+            while (!closed && failure.get() == null) {
+                if (currentFile == null) {
+                    if (!files.hasNext()) {
+                        return true;
+                    }
+                    DataFile file = files.next();
+                    partitionKeys = getPartitionKeys(file.partition(), spec);
+                    // the reader reuses the data file objects
+                    currentFile = file.copy();
+                    nextStart = 0;
+                }
+
+                while (nextStart < currentFile.fileSizeInBytes()) {
+                    IcebergSplit split = new IcebergSplit(
+                            currentFile.path().toString(),
+                            nextStart,
+                            min(splitSize, currentFile.fileSizeInBytes() - nextStart),
+                            currentFile.format(),
+                            ImmutableList.of(),
+                            partitionKeys);
+                    nextStart += splitSize;
+                    ListenableFuture<?> queueNotFull = queue.offer(new QueuedSplit(split, currentFile, spec, currentDynamicFilter));
+                    if (!queueNotFull.isDone()) {
+                        queueNotFull.addListener(this, executor);
+                        return false;
+                    }
+                }
+                currentFile = null;
+            }
+            return true;
+        }
+
+        private void closeReader()
+        {
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.close();
+            }
+            catch (IOException e) {
+                failure.compareAndSet(null, new PrestoException(ICEBERG_FILESYSTEM_ERROR, "Failed to read manifest: " + manifest.path(), e));
             }
-            else {
-                String partitionValue;
-                if (type.typeId() == FIXED || type.typeId() == BINARY) {
-                    // this is safe because Iceberg PartitionData directly wraps the byte array
-                    partitionValue = new String(((ByteBuffer) value).array(), UTF_8);
+            reader = null;
+        }
+    }
+
+    private List<ConnectorSplit> pruneSplits(List<QueuedSplit> queuedSplits)
+    {
+        TupleDomain<ColumnHandle> currentDynamicFilter = dynamicFilter.getCurrentPredicate();
+        DataFileFilter fileFilter = null;
+
+        ImmutableList.Builder<ConnectorSplit> splits = ImmutableList.builder();
+        int prunedSplits = 0;
+        for (QueuedSplit queuedSplit : queuedSplits) {
+            // the dynamic filter is usually unchanged, and then the split was already checked against it
+            if (queuedSplit.getDynamicFilter() != currentDynamicFilter) {
+                if (fileFilter == null) {
+                    fileFilter = new DataFileFilter(table.schema(), toIcebergExpression(getDynamicFilterPredicate(currentDynamicFilter)));
                 }
-                else {
-                    partitionValue = value.toString();
+                if (!fileFilter.mayMatch(queuedSplit.getFile(), queuedSplit.getSpec())) {
+                    prunedSplits++;
+                    continue;
                 }
-                partitionKeys.put(id, partitionValue);
             }
-        });
+            splits.add(queuedSplit.getSplit());
+        }
+        if (prunedSplits > 0) {
+            dynamicFilterPrunedSplits.update(prunedSplits);
+        }
+        return splits.build();
+    }
+
+    private static TupleDomain<IcebergColumnHandle> getDynamicFilterPredicate(TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        return dynamicFilter
+                .transform(IcebergColumnHandle.class::cast)
+                // Iceberg expressions are only created for ranges, and large domains are reduced to their span
+                .filter((column, domain) -> domain.getValues() instanceof SortedRangeSet)
+                .simplify();
+    }
+
+    private void throwIfFailed()
+    {
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throwIfUnchecked(throwable);
+            throw new RuntimeException(throwable);
+        }
+    }
 
-        return Collections.unmodifiableMap(partitionKeys);
+    private static class QueuedSplit
+    {
+        private final IcebergSplit split;
+        private final DataFile file;
+        private final PartitionSpec spec;
+        private final TupleDomain<ColumnHandle> dynamicFilter;
+
+        public QueuedSplit(IcebergSplit split, DataFile file, PartitionSpec spec, TupleDomain<ColumnHandle> dynamicFilter)
+        {
+            this.split = requireNonNull(split, "split is null");
+            this.file = requireNonNull(file, "file is null");
+            this.spec = requireNonNull(spec, "spec is null");
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        }
+
+        public IcebergSplit getSplit()
+        {
+            return split;
+        }
+
+        public DataFile getFile()
+        {
+            return file;
+        }
+
+        public PartitionSpec getSpec()
+        {
+            return spec;
+        }
+
+        /**
+         * Returns the dynamic filter that the split was planned with.
+         */
+        public TupleDomain<ColumnHandle> getDynamicFilter()
+        {
+            return dynamicFilter;
+        }
+    }
+
+    private static class DataFileFilter
+    {
+        private final Expression filter;
+        private final InclusiveMetricsEvaluator metricsEvaluator;
+        private final Map<Integer, Evaluator> partitionEvaluators = new HashMap<>();
+
+        public DataFileFilter(Schema schema, Expression filter)
+        {
+            this.filter = requireNonNull(filter, "filter is null");
+            this.metricsEvaluator = new InclusiveMetricsEvaluator(schema, filter);
+        }
+
+        public boolean mayMatch(DataFile file, PartitionSpec spec)
+        {
+            Evaluator partitionEvaluator = partitionEvaluators.computeIfAbsent(
+                    spec.specId(),
+                    specId -> new Evaluator(spec.partitionType(), Projections.inclusive(spec).project(filter)));
+            return partitionEvaluator.eval(file.partition()) && metricsEvaluator.eval(file);
+        }
     }
 }
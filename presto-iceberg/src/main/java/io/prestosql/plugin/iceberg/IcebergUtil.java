@@ -28,9 +28,14 @@ import org.apache.iceberg.HistoryEntry;
 import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableOperations;
+import org.apache.iceberg.types.Type;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -43,10 +48,13 @@ import static io.prestosql.plugin.hive.HiveMetadata.TABLE_COMMENT;
 import static io.prestosql.plugin.iceberg.IcebergErrorCode.ICEBERG_INVALID_SNAPSHOT_ID;
 import static io.prestosql.plugin.iceberg.TypeConverter.toPrestoType;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.iceberg.BaseMetastoreTableOperations.ICEBERG_TABLE_TYPE_VALUE;
 import static org.apache.iceberg.BaseMetastoreTableOperations.TABLE_TYPE_PROP;
 import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT;
 import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT_DEFAULT;
+import static org.apache.iceberg.types.Type.TypeID.BINARY;
+import static org.apache.iceberg.types.Type.TypeID.FIXED;
 
 final class IcebergUtil
 {
@@ -104,6 +112,36 @@ final class IcebergUtil
         return columns.build();
     }
 
+    public static Map<Integer, String> getPartitionKeys(StructLike partition, PartitionSpec spec)
+    {
+        Map<PartitionField, Integer> fieldToIndex = getIdentityPartitions(spec);
+        Map<Integer, String> partitionKeys = new HashMap<>();
+
+        fieldToIndex.forEach((field, index) -> {
+            int id = field.sourceId();
+            Type type = spec.schema().findType(id);
+            Class<?> javaClass = type.typeId().javaClass();
+            Object value = partition.get(index, javaClass);
+
+            if (value == null) {
+                partitionKeys.put(id, null);
+            }
+            else {
+                String partitionValue;
+                if (type.typeId() == FIXED || type.typeId() == BINARY) {
+                    // this is safe because Iceberg PartitionData directly wraps the byte array
+                    partitionValue = new String(((ByteBuffer) value).array(), UTF_8);
+                }
+                else {
+                    partitionValue = value.toString();
+                }
+                partitionKeys.put(id, partitionValue);
+            }
+        });
+
+        return Collections.unmodifiableMap(partitionKeys);
+    }
+
     public static String getDataPath(String location)
     {
         if (!location.endsWith("/")) {
@@ -0,0 +1,413 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.iceberg;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.plugin.hive.FileWriter;
+import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
+import io.prestosql.plugin.hive.HiveConfig;
+import io.prestosql.plugin.hive.HiveTransactionHandle;
+import io.prestosql.plugin.hive.HiveWriterStats;
+import io.prestosql.plugin.hive.SortingFileWriter;
+import io.prestosql.plugin.hive.metastore.HiveMetastore;
+import io.prestosql.plugin.hive.orc.OrcFileWriterFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageSorter;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.classloader.ThreadContextClassLoader;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.procedure.Procedure;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeManager;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.io.CloseableIterable;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.prestosql.plugin.hive.util.ConfigurationUtils.toJobConf;
+import static io.prestosql.plugin.iceberg.IcebergErrorCode.ICEBERG_FILESYSTEM_ERROR;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getColumns;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getDataPath;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getFileFormat;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getIcebergTable;
+import static io.prestosql.plugin.iceberg.IcebergUtil.getPartitionKeys;
+import static io.prestosql.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
+import static io.prestosql.spi.block.MethodHandleUtil.methodHandle;
+import static io.prestosql.spi.connector.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+
+/**
+ * Rewrites the small data files of a table into files of about the target size. The small files
+ * of each partition are packed into groups whose total size does not exceed the target size,
+ * and each group is rewritten into a single file, optionally sorted by the given columns. All
+ * the rewritten files are replaced in a single snapshot.
+ */
+public class RewriteDataFilesProcedure
+        implements Provider<Procedure>
+{
+    private static final long DEFAULT_TARGET_FILE_SIZE_BYTES = 128L * 1024 * 1024;
+
+    private static final MethodHandle REWRITE_DATA_FILES = methodHandle(
+            RewriteDataFilesProcedure.class,
+            "rewriteDataFiles",
+            ConnectorSession.class,
+            String.class,
+            String.class,
+            List.class,
+            List.class,
+            Long.class);
+
+    private final IcebergMetadataFactory metadataFactory;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final TypeManager typeManager;
+    private final IcebergPageSourceProvider pageSourceProvider;
+    private final IcebergFileWriterFactory fileWriterFactory;
+    private final PageSorter pageSorter;
+    private final HiveConfig hiveConfig;
+
+    @Inject
+    public RewriteDataFilesProcedure(
+            IcebergMetadataFactory metadataFactory,
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            IcebergPageSourceProvider pageSourceProvider,
+            IcebergFileWriterFactory fileWriterFactory,
+            PageSorter pageSorter,
+            HiveConfig hiveConfig)
+    {
+        this.metadataFactory = requireNonNull(metadataFactory, "metadataFactory is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
+        this.fileWriterFactory = requireNonNull(fileWriterFactory, "fileWriterFactory is null");
+        this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
+        this.hiveConfig = requireNonNull(hiveConfig, "hiveConfig is null");
+    }
+
+    @Override
+    public Procedure get()
+    {
+        return new Procedure(
+                "system",
+                "rewrite_data_files",
+                ImmutableList.of(
+                        new Procedure.Argument("schema", VARCHAR),
+                        new Procedure.Argument("table", VARCHAR),
+                        new Procedure.Argument("partitions", new ArrayType(VARCHAR), false, null),
+                        new Procedure.Argument("sorted_by", new ArrayType(VARCHAR), false, null),
+                        new Procedure.Argument("target_file_size_bytes", BIGINT, false, DEFAULT_TARGET_FILE_SIZE_BYTES)),
+                REWRITE_DATA_FILES.bindTo(this));
+    }
+
+    public void rewriteDataFiles(ConnectorSession session, String schema, String table, List<String> partitions, List<String> sortedBy, Long targetFileSizeBytes)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(getClass().getClassLoader())) {
+            doRewriteDataFiles(
+                    session,
+                    new SchemaTableName(schema, table),
+                    Optional.ofNullable(partitions),
+                    Optional.ofNullable(sortedBy).orElse(ImmutableList.of()),
+                    Optional.ofNullable(targetFileSizeBytes).orElse(DEFAULT_TARGET_FILE_SIZE_BYTES));
+        }
+    }
+
+    private void doRewriteDataFiles(ConnectorSession session, SchemaTableName schemaTableName, Optional<List<String>> partitions, List<String> sortedBy, long targetFileSize)
+    {
+        if (targetFileSize <= 0) {
+            throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "target_file_size_bytes must be positive");
+        }
+
+        HiveMetastore metastore = metadataFactory.create().getMetastore();
+        Table icebergTable = getIcebergTable(metastore, hdfsEnvironment, session, schemaTableName);
+        Snapshot snapshot = icebergTable.currentSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+
+        List<IcebergColumnHandle> columns = getColumns(icebergTable.schema(), typeManager);
+        List<Integer> sortFields = getSortFields(columns, sortedBy);
+
+        List<RewriteGroup> groups = planRewriteGroups(schemaTableName, icebergTable, snapshot, partitions, targetFileSize, !sortFields.isEmpty());
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        IcebergTableHandle tableHandle = new IcebergTableHandle(
+                schemaTableName.getSchemaName(),
+                schemaTableName.getTableName(),
+                TableType.DATA,
+                Optional.of(snapshot.snapshotId()),
+                TupleDomain.all());
+        HdfsContext hdfsContext = new HdfsContext(session, schemaTableName.getSchemaName(), schemaTableName.getTableName());
+
+        ImmutableSet.Builder<DataFile> deletedFiles = ImmutableSet.builder();
+        List<DataFile> addedFiles = new ArrayList<>();
+        try {
+            for (RewriteGroup group : groups) {
+                addedFiles.add(rewriteGroup(session, hdfsContext, icebergTable, tableHandle, columns, sortFields, group));
+                deletedFiles.addAll(group.getFiles());
+            }
+            // the rewrite fails if any of the rewritten files was removed by a concurrent commit
+            icebergTable.newRewrite()
+                    .rewriteFiles(deletedFiles.build(), ImmutableSet.copyOf(addedFiles))
+                    .commit();
+        }
+        catch (RuntimeException e) {
+            for (DataFile file : addedFiles) {
+                try {
+                    Path path = new Path(file.path().toString());
+                    hdfsEnvironment.getFileSystem(hdfsContext, path).delete(path, false);
+                }
+                catch (IOException | RuntimeException deleteException) {
+                    e.addSuppressed(deleteException);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static List<Integer> getSortFields(List<IcebergColumnHandle> columns, List<String> sortedBy)
+    {
+        ImmutableList.Builder<Integer> sortFields = ImmutableList.builder();
+        for (String columnName : sortedBy) {
+            int field = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getName().equalsIgnoreCase(columnName)) {
+                    field = i;
+                }
+            }
+            if (field == -1) {
+                throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "Sort column does not exist: " + columnName);
+            }
+            Type type = columns.get(field).getType();
+            if (!type.isOrderable()) {
+                throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, format("Type of sort column %s is not orderable: %s", columnName, type));
+            }
+            sortFields.add(field);
+        }
+        return sortFields.build();
+    }
+
+    private static List<RewriteGroup> planRewriteGroups(SchemaTableName schemaTableName, Table table, Snapshot snapshot, Optional<List<String>> partitions, long targetFileSize, boolean sorted)
+    {
+        // small files grouped by partition spec and partition
+        Map<List<Object>, List<FileScanTask>> smallFiles = new LinkedHashMap<>();
+        try (CloseableIterable<FileScanTask> tasks = table.newScan().useSnapshot(snapshot.snapshotId()).planFiles()) {
+            for (FileScanTask task : tasks) {
+                DataFile file = task.file();
+                if (file.fileSizeInBytes() >= targetFileSize) {
+                    continue;
+                }
+                String partitionPath = task.spec().partitionToPath(file.partition());
+                if (partitions.isPresent() && !partitions.get().contains(partitionPath)) {
+                    continue;
+                }
+                smallFiles.computeIfAbsent(ImmutableList.of(task.spec().specId(), partitionPath), key -> new ArrayList<>()).add(task);
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(ICEBERG_FILESYSTEM_ERROR, "Failed to plan data files of table: " + schemaTableName, e);
+        }
+
+        ImmutableList.Builder<RewriteGroup> groups = ImmutableList.builder();
+        for (List<FileScanTask> tasks : smallFiles.values()) {
+            PartitionSpec spec = tasks.get(0).spec();
+            String partitionPath = spec.partitionToPath(tasks.get(0).file().partition());
+
+            List<DataFile> files = new ArrayList<>();
+            long filesSize = 0;
+            for (FileScanTask task : tasks) {
+                DataFile file = task.file();
+                if (!files.isEmpty() && filesSize + file.fileSizeInBytes() > targetFileSize) {
+                    addRewriteGroup(groups, spec, partitionPath, files, sorted);
+                    files = new ArrayList<>();
+                    filesSize = 0;
+                }
+                files.add(file);
+                filesSize += file.fileSizeInBytes();
+            }
+            addRewriteGroup(groups, spec, partitionPath, files, sorted);
+        }
+        return groups.build();
+    }
+
+    private static void addRewriteGroup(ImmutableList.Builder<RewriteGroup> groups, PartitionSpec spec, String partitionPath, List<DataFile> files, boolean sorted)
+    {
+        // rewriting a single file is only useful to sort it
+        if (files.size() > 1 || sorted) {
+            groups.add(new RewriteGroup(spec, partitionPath, files));
+        }
+    }
+
+    private DataFile rewriteGroup(
+            ConnectorSession session,
+            HdfsContext hdfsContext,
+            Table table,
+            IcebergTableHandle tableHandle,
+            List<IcebergColumnHandle> columns,
+            List<Integer> sortFields,
+            RewriteGroup group)
+    {
+        Path outputDirectory = new Path(getDataPath(table.location()));
+        if (!group.getPartitionPath().isEmpty()) {
+            outputDirectory = new Path(outputDirectory, group.getPartitionPath());
+        }
+        FileFormat fileFormat = getFileFormat(table);
+        Path outputPath = new Path(fileFormat.addExtension(new Path(outputDirectory, randomUUID().toString()).toString()));
+        JobConf jobConf = toJobConf(hdfsEnvironment.getConfiguration(hdfsContext, outputPath));
+
+        IcebergFileWriter icebergWriter = fileWriterFactory.createFileWriter(outputPath, table.schema(), jobConf, session, hdfsContext, fileFormat);
+        FileWriter writer = icebergWriter;
+        if (!sortFields.isEmpty()) {
+            writer = createSortingWriter(hdfsContext, outputDirectory, icebergWriter, columns, sortFields);
+        }
+
+        try {
+            List<ColumnHandle> columnHandles = ImmutableList.copyOf(columns);
+            for (DataFile file : group.getFiles()) {
+                IcebergSplit split = new IcebergSplit(
+                        file.path().toString(),
+                        0,
+                        file.fileSizeInBytes(),
+                        file.format(),
+                        ImmutableList.of(),
+                        getPartitionKeys(file.partition(), group.getSpec()));
+                try (ConnectorPageSource pageSource = pageSourceProvider.createPageSource(new HiveTransactionHandle(), session, split, tableHandle, columnHandles, TupleDomain.all())) {
+                    while (!pageSource.isFinished()) {
+                        Page page = pageSource.getNextPage();
+                        if (page != null) {
+                            writer.appendRows(page.getLoadedPage());
+                        }
+                    }
+                }
+                catch (IOException e) {
+                    throw new PrestoException(ICEBERG_FILESYSTEM_ERROR, "Failed to read data file: " + file.path(), e);
+                }
+            }
+            writer.commit();
+        }
+        catch (RuntimeException e) {
+            try {
+                writer.rollback();
+            }
+            catch (RuntimeException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw e;
+        }
+
+        DataFiles.Builder builder = DataFiles.builder(group.getSpec())
+                .withInputFile(new HdfsInputFile(outputPath, hdfsEnvironment, hdfsContext))
+                .withFormat(fileFormat)
+                .withMetrics(icebergWriter.getMetrics());
+        if (!group.getSpec().fields().isEmpty()) {
+            builder.withPartition(group.getFiles().get(0).partition());
+        }
+        return builder.build();
+    }
+
+    private FileWriter createSortingWriter(HdfsContext hdfsContext, Path outputDirectory, IcebergFileWriter outputWriter, List<IcebergColumnHandle> columns, List<Integer> sortFields)
+    {
+        Path tempFilePrefix = new Path(outputDirectory, ".tmp-rewrite." + randomUUID());
+        FileSystem fileSystem;
+        try {
+            fileSystem = hdfsEnvironment.getFileSystem(hdfsContext, tempFilePrefix);
+        }
+        catch (IOException e) {
+            outputWriter.rollback();
+            throw new PrestoException(ICEBERG_FILESYSTEM_ERROR, e);
+        }
+
+        List<Type> types = columns.stream()
+                .map(IcebergColumnHandle::getType)
+                .collect(toImmutableList());
+
+        return new SortingFileWriter(
+                fileSystem,
+                tempFilePrefix,
+                outputWriter,
+                hiveConfig.getWriterSortBufferSize(),
+                hiveConfig.getMaxOpenSortFiles(),
+                hiveConfig.getWriterSortInMemoryRunsSize(),
+                types,
+                sortFields,
+                nCopies(sortFields.size(), ASC_NULLS_FIRST),
+                pageSorter,
+                typeManager.getTypeOperators(),
+                OrcFileWriterFactory::createOrcDataSink,
+                directExecutor(),
+                new HiveWriterStats());
+    }
+
+    private static class RewriteGroup
+    {
+        private final PartitionSpec spec;
+        private final String partitionPath;
+        private final List<DataFile> files;
+
+        public RewriteGroup(PartitionSpec spec, String partitionPath, List<DataFile> files)
+        {
+            this.spec = requireNonNull(spec, "spec is null");
+            this.partitionPath = requireNonNull(partitionPath, "partitionPath is null");
+            this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+        }
+
+        public PartitionSpec getSpec()
+        {
+            return spec;
+        }
+
+        public String getPartitionPath()
+        {
+            return partitionPath;
+        }
+
+        public List<DataFile> getFiles()
+        {
+            return files;
+        }
+    }
+}
@@ -35,6 +35,9 @@ import org.apache.iceberg.FileFormat;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -606,6 +609,71 @@ public abstract class AbstractTestIcebergSmoke
         dropTable("test_predicating_on_real");
     }
 
+    @Test
+    public void testSplitPlanningWithManyManifests()
+    {
+        assertUpdate("CREATE TABLE test_many_manifests (id BIGINT, part BIGINT) WITH (partitioning = ARRAY['part'])");
+        // every insert adds a manifest
+        for (int i = 0; i < 20; i++) {
+            assertUpdate(format("INSERT INTO test_many_manifests VALUES (%s, %s), (%s, %s)", i, i % 4, i + 100, i % 4), 2);
+        }
+
+        assertQuery("SELECT count(*), sum(id) FROM test_many_manifests", "VALUES (40, 2380)");
+        assertQuery("SELECT count(*), sum(id) FROM test_many_manifests WHERE part = 1", "VALUES (10, 590)");
+        assertQuery("SELECT count(*) FROM test_many_manifests WHERE id >= 100", "VALUES 20");
+        // the dynamic filter of the join prunes the manifests and files of the probe side
+        assertQuery(
+                "SELECT count(*) FROM test_many_manifests m JOIN (VALUES 2, 3) t(part) ON m.part = t.part",
+                "VALUES 20");
+        dropTable("test_many_manifests");
+    }
+
+    @Test
+    public void testRewriteDataFiles()
+    {
+        assertUpdate("CREATE TABLE test_rewrite_data_files (id BIGINT, part BIGINT) WITH (partitioning = ARRAY['part'])");
+        // every insert adds a file to each partition
+        for (int i = 0; i < 10; i++) {
+            assertUpdate(format("INSERT INTO test_rewrite_data_files VALUES (%s, 0), (%s, 1)", 10 - i, 20 - i), 2);
+        }
+        assertQuery("SELECT part, file_count FROM \"test_rewrite_data_files$partitions\"", "VALUES (0, 10), (1, 10)");
+
+        assertUpdate("CALL system.rewrite_data_files('tpch', 'test_rewrite_data_files', ARRAY['part=1'])");
+        assertQuery("SELECT part, file_count FROM \"test_rewrite_data_files$partitions\"", "VALUES (0, 10), (1, 1)");
+        assertQuery("SELECT count(*), sum(id), min(id), max(id) FROM test_rewrite_data_files WHERE part = 1", "VALUES (10, 155, 11, 20)");
+
+        assertUpdate("CALL system.rewrite_data_files('tpch', 'test_rewrite_data_files', NULL, ARRAY['id'])");
+        assertQuery("SELECT part, file_count FROM \"test_rewrite_data_files$partitions\"", "VALUES (0, 1), (1, 1)");
+        assertQuery("SELECT count(*), sum(id) FROM test_rewrite_data_files", "VALUES (20, 210)");
+        assertQuery("SELECT min(id), max(id) FROM test_rewrite_data_files WHERE part = 0", "VALUES (1, 10)");
+
+        // files which are larger than the target size are not rewritten
+        assertUpdate("INSERT INTO test_rewrite_data_files VALUES (21, 0)", 1);
+        assertUpdate("CALL system.rewrite_data_files('tpch', 'test_rewrite_data_files', NULL, NULL, 1)");
+        assertQuery("SELECT part, file_count FROM \"test_rewrite_data_files$partitions\"", "VALUES (0, 2), (1, 1)");
+
+        assertQueryFails("CALL system.rewrite_data_files('tpch', 'test_rewrite_data_files', NULL, ARRAY['missing'])", "Sort column does not exist: missing");
+        dropTable("test_rewrite_data_files");
+    }
+
+    @Test
+    public void testSplitPlanningFailure()
+            throws Exception
+    {
+        assertUpdate("CREATE TABLE test_missing_manifest (id BIGINT)");
+        for (int i = 0; i < 5; i++) {
+            assertUpdate(format("INSERT INTO test_missing_manifest VALUES %s", i), 1);
+        }
+
+        // the query must fail instead of returning the rows of the remaining manifests
+        String manifestPath = (String) computeActual("SELECT path FROM \"test_missing_manifest$manifests\" LIMIT 1").getOnlyValue();
+        Path manifest = Path.of(URI.create(manifestPath).getPath());
+        Files.delete(manifest);
+        assertQueryFails("SELECT * FROM test_missing_manifest", ".*" + Pattern.quote(manifest.getFileName().toString()) + ".*");
+
+        dropTable("test_missing_manifest");
+    }
+
     @Test
     public void testHourTransform()
     {
@@ -33,7 +33,9 @@ public class TestIcebergConfig
     {
         assertRecordedDefaults(recordDefaults(IcebergConfig.class)
                 .setFileFormat(ORC)
-                .setCompressionCodec(GZIP));
+                .setCompressionCodec(GZIP)
+                .setSplitPlanningThreads(8)
+                .setMaxSplitPlanningThreads(100));
     }
 
     @Test
@@ -42,11 +44,15 @@ public class TestIcebergConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("iceberg.file-format", "Parquet")
                 .put("iceberg.compression-codec", "NONE")
+                .put("iceberg.split-planning-threads", "16")
+                .put("iceberg.max-split-planning-threads", "50")
                 .build();
 
         IcebergConfig expected = new IcebergConfig()
                 .setFileFormat(PARQUET)
-                .setCompressionCodec(HiveCompressionCodec.NONE);
+                .setCompressionCodec(HiveCompressionCodec.NONE)
+                .setSplitPlanningThreads(16)
+                .setMaxSplitPlanningThreads(50);
 
         assertFullMapping(properties, expected);
     }
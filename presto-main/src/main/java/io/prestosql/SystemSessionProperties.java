@@ -38,6 +38,7 @@ import static io.prestosql.plugin.base.session.PropertyMetadataUtil.dataSizeProp
 import static io.prestosql.plugin.base.session.PropertyMetadataUtil.durationProperty;
 import static io.prestosql.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static io.prestosql.spi.session.PropertyMetadata.booleanProperty;
+import static io.prestosql.spi.session.PropertyMetadata.doubleProperty;
 import static io.prestosql.spi.session.PropertyMetadata.enumProperty;
 import static io.prestosql.spi.session.PropertyMetadata.integerProperty;
 import static io.prestosql.spi.session.PropertyMetadata.stringProperty;
@@ -75,6 +76,7 @@ public final class SystemSessionProperties
     public static final String DICTIONARY_AGGREGATION = "dictionary_aggregation";
     public static final String PLAN_WITH_TABLE_NODE_PARTITIONING = "plan_with_table_node_partitioning";
     public static final String SPATIAL_JOIN = "spatial_join";
+    public static final String MERGE_JOIN = "merge_join";
     public static final String SPATIAL_PARTITIONING_TABLE_NAME = "spatial_partitioning_table_name";
     public static final String COLOCATED_JOIN = "colocated_join";
     public static final String CONCURRENT_LIFESPANS_PER_NODE = "concurrent_lifespans_per_task";
@@ -111,6 +113,7 @@ public final class SystemSessionProperties
     public static final String IGNORE_STATS_CALCULATOR_FAILURES = "ignore_stats_calculator_failures";
     public static final String MAX_DRIVERS_PER_TASK = "max_drivers_per_task";
     public static final String DEFAULT_FILTER_FACTOR_ENABLED = "default_filter_factor_enabled";
+    public static final String HISTORY_BASED_STATISTICS_ENABLED = "history_based_statistics_enabled";
     public static final String UNWRAP_CASTS = "unwrap_casts";
     public static final String SKIP_REDUNDANT_SORT = "skip_redundant_sort";
     public static final String ALLOW_PUSHDOWN_INTO_CONNECTORS = "allow_pushdown_into_connectors";
@@ -126,6 +129,10 @@ public final class SystemSessionProperties
     public static final String REQUIRED_WORKERS_MAX_WAIT_TIME = "required_workers_max_wait_time";
     public static final String COST_ESTIMATION_WORKER_COUNT = "cost_estimation_worker_count";
     public static final String OMIT_DATETIME_TYPE_PRECISION = "omit_datetime_type_precision";
+    public static final String STRAGGLER_SPLIT_AVOIDANCE_ENABLED = "straggler_split_avoidance_enabled";
+    public static final String STRAGGLER_SPLIT_THRESHOLD = "straggler_split_threshold";
+    public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
+    public static final String HEAVY_HITTER_DETECTION_ENABLED = "heavy_hitter_detection_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -333,6 +340,11 @@ public final class SystemSessionProperties
                         "Use spatial index for spatial join when possible",
                         featuresConfig.isSpatialJoinsEnabled(),
                         false),
+                booleanProperty(
+                        MERGE_JOIN,
+                        "Use merge join for colocated joins of inputs sorted on the join keys",
+                        featuresConfig.isMergeJoinsEnabled(),
+                        false),
                 stringProperty(
                         SPATIAL_PARTITIONING_TABLE_NAME,
                         "Name of the table containing spatial partitioning scheme",
@@ -486,6 +498,11 @@ public final class SystemSessionProperties
                         "use a default filter factor for unknown filters in a filter node",
                         featuresConfig.isDefaultFilterFactorEnabled(),
                         false),
+                booleanProperty(
+                        HISTORY_BASED_STATISTICS_ENABLED,
+                        "Use output row counts observed in previous queries to estimate the same plan nodes",
+                        featuresConfig.isHistoryBasedStatisticsEnabled(),
+                        false),
                 booleanProperty(
                         UNWRAP_CASTS,
                         "Enable optimization to unwrap CAST expression",
@@ -561,6 +578,31 @@ public final class SystemSessionProperties
                         OMIT_DATETIME_TYPE_PRECISION,
                         "Omit precision when rendering datetime type names with default precision",
                         featuresConfig.isOmitDateTimeTypePrecision(),
+                        false),
+                booleanProperty(
+                        STRAGGLER_SPLIT_AVOIDANCE_ENABLED,
+                        "Experimental: Stop placing source splits on nodes whose splits take much longer than the rest of the stage",
+                        queryManagerConfig.isStragglerSplitAvoidanceEnabled(),
+                        false),
+                doubleProperty(
+                        STRAGGLER_SPLIT_THRESHOLD,
+                        "Multiple of the median split time of the stage after which the node running an outstanding split is considered a straggler",
+                        queryManagerConfig.getStragglerSplitThreshold(),
+                        value -> {
+                            if (value < 1.0) {
+                                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be greater than or equal to 1: %s", STRAGGLER_SPLIT_THRESHOLD, value));
+                            }
+                        },
+                        false),
+                booleanProperty(
+                        FRAGMENT_RESULT_CACHING_ENABLED,
+                        "Use the fragment result cache of workers for leaf stages, if the cache is enabled on the workers",
+                        false,
+                        false),
+                booleanProperty(
+                        HEAVY_HITTER_DETECTION_ENABLED,
+                        "Sample the partitioning keys of partitioned exchanges to report the row count of the most frequent key",
+                        false,
                         false));
     }
 
@@ -719,6 +761,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SPATIAL_JOIN, Boolean.class);
     }
 
+    public static boolean isMergeJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(MERGE_JOIN, Boolean.class);
+    }
+
     public static Optional<String> getSpatialPartitioningTableName(Session session)
     {
         return Optional.ofNullable(session.getSystemProperty(SPATIAL_PARTITIONING_TABLE_NAME, String.class));
@@ -1008,4 +1055,29 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(OMIT_DATETIME_TYPE_PRECISION, Boolean.class);
     }
+
+    public static boolean isStragglerSplitAvoidanceEnabled(Session session)
+    {
+        return session.getSystemProperty(STRAGGLER_SPLIT_AVOIDANCE_ENABLED, Boolean.class);
+    }
+
+    public static double getStragglerSplitThreshold(Session session)
+    {
+        return session.getSystemProperty(STRAGGLER_SPLIT_THRESHOLD, Double.class);
+    }
+
+    public static boolean isFragmentResultCachingEnabled(Session session)
+    {
+        return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isHeavyHitterDetectionEnabled(Session session)
+    {
+        return session.getSystemProperty(HEAVY_HITTER_DETECTION_ENABLED, Boolean.class);
+    }
+
+    public static boolean isHistoryBasedStatisticsEnabled(Session session)
+    {
+        return session.getSystemProperty(HISTORY_BASED_STATISTICS_ENABLED, Boolean.class);
+    }
 }
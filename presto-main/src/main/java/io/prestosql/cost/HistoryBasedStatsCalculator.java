@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import io.prestosql.Session;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.planner.iterative.Lookup;
+import io.prestosql.sql.planner.plan.PlanNode;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static io.prestosql.SystemSessionProperties.isHistoryBasedStatisticsEnabled;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Replaces the estimated output row count of a plan node with the row count observed
+ * when the same subplan was executed by a previous query.
+ */
+public class HistoryBasedStatsCalculator
+        implements StatsCalculator
+{
+    private final StatsCalculator delegate;
+    private final PlanNodeCanonicalizer canonicalizer;
+    private final PlanStatisticsHistory history;
+    private final StatsNormalizer normalizer;
+
+    public HistoryBasedStatsCalculator(StatsCalculator delegate, PlanNodeCanonicalizer canonicalizer, PlanStatisticsHistory history, StatsNormalizer normalizer)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.canonicalizer = requireNonNull(canonicalizer, "canonicalizer is null");
+        this.history = requireNonNull(history, "history is null");
+        this.normalizer = requireNonNull(normalizer, "normalizer is null");
+    }
+
+    @Override
+    public PlanNodeStatsEstimate calculateStats(PlanNode node, StatsProvider sourceStats, Lookup lookup, Session session, TypeProvider types)
+    {
+        PlanNodeStatsEstimate estimate = delegate.calculateStats(node, sourceStats, lookup, session, types);
+        if (!isHistoryBasedStatisticsEnabled(session)) {
+            return estimate;
+        }
+
+        Optional<String> canonicalKey = canonicalizer.getCanonicalKey(node, lookup);
+        if (canonicalKey.isEmpty()) {
+            return estimate;
+        }
+        OptionalDouble outputRowCount = history.getOutputRowCount(canonicalKey.get());
+        if (outputRowCount.isEmpty()) {
+            return estimate;
+        }
+
+        // symbol statistics are kept, and adjusted to be consistent with the observed row count
+        PlanNodeStatsEstimate observed = PlanNodeStatsEstimate.buildFrom(estimate)
+                .setOutputRowCount(outputRowCount.getAsDouble())
+                .build();
+        return normalizer.normalize(observed, node.getOutputSymbols(), types);
+    }
+}
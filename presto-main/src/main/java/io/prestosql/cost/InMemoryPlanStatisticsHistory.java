@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.weakref.jmx.Managed;
+
+import java.util.OptionalDouble;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * Keeps the most recently observed output row count of each plan node in the memory of the coordinator.
+ */
+public class InMemoryPlanStatisticsHistory
+        implements PlanStatisticsHistory
+{
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final Cache<String, Double> outputRowCounts = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(1, DAYS)
+            .build();
+
+    @Override
+    public OptionalDouble getOutputRowCount(String canonicalKey)
+    {
+        Double outputRowCount = outputRowCounts.getIfPresent(canonicalKey);
+        if (outputRowCount == null) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(outputRowCount);
+    }
+
+    @Override
+    public void recordOutputRowCount(String canonicalKey, double outputRowCount)
+    {
+        outputRowCounts.put(canonicalKey, outputRowCount);
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return outputRowCounts.size();
+    }
+}
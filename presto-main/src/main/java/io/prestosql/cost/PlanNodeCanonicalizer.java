@@ -0,0 +1,479 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.sql.DynamicFilters;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.SymbolsExtractor;
+import io.prestosql.sql.planner.iterative.GroupReference;
+import io.prestosql.sql.planner.iterative.Lookup;
+import io.prestosql.sql.planner.plan.AggregationNode;
+import io.prestosql.sql.planner.plan.AggregationNode.Aggregation;
+import io.prestosql.sql.planner.plan.AssignUniqueId;
+import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.FilterNode;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.PlanVisitor;
+import io.prestosql.sql.planner.plan.ProjectNode;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+import io.prestosql.sql.planner.plan.SemiJoinNode;
+import io.prestosql.sql.planner.plan.SortNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.SymbolReference;
+
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.hash.Hashing.sha256;
+import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
+import static io.prestosql.sql.planner.ExpressionSymbolInliner.inlineSymbols;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.FINAL;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.INTERMEDIATE;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.PARTIAL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.sort;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes a key that identifies the rows produced by a plan node, so that the output row count
+ * observed when a query runs can be matched with the same subplan when a later query is optimized.
+ * <p>
+ * Symbol names are assigned per query, so the key refers to columns by their column handles and to
+ * computed values by the expressions they are computed from. Nodes that do not change the number of
+ * rows (projections, sorts and exchanges) are transparent, and a final aggregation is keyed as the
+ * single aggregation it was split from, so that the key of a subplan in the fragmented plan matches
+ * the key of the subplan seen by the optimizer. A dynamic filter is keyed by the build side of the
+ * join that produces it, so a subplan with dynamic filters only has a key as part of that join.
+ * Only table scans, filters, aggregations and joins are supported, since these are the nodes whose
+ * estimates are most often off.
+ */
+public class PlanNodeCanonicalizer
+{
+    private final ObjectMapper handleMapper;
+
+    @Inject
+    public PlanNodeCanonicalizer(ObjectMapper objectMapper)
+    {
+        // the transaction differs between queries, so it must not be part of the key
+        this.handleMapper = requireNonNull(objectMapper, "objectMapper is null").copy()
+                .addMixIn(TableHandle.class, TableHandleMixin.class);
+    }
+
+    /**
+     * Returns the key of a node of a plan that is being optimized.
+     */
+    public Optional<String> getCanonicalKey(PlanNode node, Lookup lookup)
+    {
+        requireNonNull(lookup, "lookup is null");
+        return getCanonicalKey(node, new Visitor(lookup, fragmentId -> Optional.empty()));
+    }
+
+    /**
+     * Returns the key of a node of a fragmented plan, with remote sources resolved to the fragments they read.
+     */
+    public Optional<String> getFragmentCanonicalKey(PlanNode node, Function<PlanFragmentId, Optional<PlanFragment>> fragments)
+    {
+        requireNonNull(fragments, "fragments is null");
+        return getCanonicalKey(node, new Visitor(Lookup.noLookup(), fragments));
+    }
+
+    private static Optional<String> getCanonicalKey(PlanNode node, Visitor visitor)
+    {
+        return node.accept(visitor, ImmutableMap.of())
+                // partial results do not correspond to any node seen by the optimizer
+                .filter(canonicalPlan -> !canonicalPlan.isPartialAggregation())
+                .map(canonicalPlan -> sha256().hashString(canonicalPlan.getPlan(), UTF_8).toString());
+    }
+
+    private static Optional<String> canonicalize(Expression expression, Map<Symbol, String> symbols)
+    {
+        if (!symbols.keySet().containsAll(SymbolsExtractor.extractUnique(expression))) {
+            return Optional.empty();
+        }
+        Expression canonicalExpression = inlineSymbols(symbol -> new SymbolReference(symbols.get(symbol)), expression);
+        if (canonicalExpression instanceof SymbolReference) {
+            // a renamed symbol must have the same key as the symbol it refers to
+            return Optional.of(((SymbolReference) canonicalExpression).getName());
+        }
+        return Optional.of(canonicalExpression.toString());
+    }
+
+    private static Optional<String> canonicalize(Symbol symbol, Map<Symbol, String> symbols)
+    {
+        return Optional.ofNullable(symbols.get(symbol));
+    }
+
+    /**
+     * The context maps the dynamic filters produced by the joins above a node to their build side.
+     */
+    private class Visitor
+            extends PlanVisitor<Optional<CanonicalPlan>, Map<DynamicFilterId, String>>
+    {
+        private final Lookup lookup;
+        private final Function<PlanFragmentId, Optional<PlanFragment>> fragments;
+
+        public Visitor(Lookup lookup, Function<PlanFragmentId, Optional<PlanFragment>> fragments)
+        {
+            this.lookup = lookup;
+            this.fragments = fragments;
+        }
+
+        @Override
+        protected Optional<CanonicalPlan> visitPlan(PlanNode node, Map<DynamicFilterId, String> context)
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitGroupReference(GroupReference node, Map<DynamicFilterId, String> context)
+        {
+            return lookup.resolve(node).accept(this, context);
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitProject(ProjectNode node, Map<DynamicFilterId, String> context)
+        {
+            return node.getSource().accept(this, context)
+                    .map(source -> {
+                        Map<Symbol, String> symbols = new HashMap<>();
+                        for (Map.Entry<Symbol, Expression> assignment : node.getAssignments().entrySet()) {
+                            // symbols that cannot be resolved make the key of the nodes using them unavailable
+                            canonicalize(assignment.getValue(), source.getSymbols())
+                                    .ifPresent(expression -> symbols.put(assignment.getKey(), expression));
+                        }
+                        return source.withSymbols(symbols);
+                    });
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitSort(SortNode node, Map<DynamicFilterId, String> context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitAssignUniqueId(AssignUniqueId node, Map<DynamicFilterId, String> context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitExchange(ExchangeNode node, Map<DynamicFilterId, String> context)
+        {
+            if (node.getSources().size() != 1) {
+                return Optional.empty();
+            }
+            return getOnlyElement(node.getSources()).accept(this, context)
+                    .map(source -> source.withSymbols(translateSymbols(node.getOutputSymbols(), getOnlyElement(node.getInputs()), source.getSymbols())));
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitRemoteSource(RemoteSourceNode node, Map<DynamicFilterId, String> context)
+        {
+            if (node.getSourceFragmentIds().size() != 1) {
+                return Optional.empty();
+            }
+            Optional<PlanFragment> fragment = fragments.apply(getOnlyElement(node.getSourceFragmentIds()));
+            if (fragment.isEmpty()) {
+                return Optional.empty();
+            }
+            return fragment.get().getRoot().accept(this, context)
+                    .map(source -> source.withSymbols(translateSymbols(node.getOutputSymbols(), fragment.get().getPartitioningScheme().getOutputLayout(), source.getSymbols())));
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitTableScan(TableScanNode node, Map<DynamicFilterId, String> context)
+        {
+            try {
+                ImmutableMap.Builder<Symbol, String> symbols = ImmutableMap.builder();
+                for (Map.Entry<Symbol, ColumnHandle> assignment : node.getAssignments().entrySet()) {
+                    symbols.put(assignment.getKey(), "column(" + handleMapper.writeValueAsString(assignment.getValue()) + ")");
+                }
+                return Optional.of(new CanonicalPlan("scan(" + handleMapper.writeValueAsString(node.getTable()) + ")", symbols.build(), false));
+            }
+            catch (JsonProcessingException e) {
+                // the handles of some connectors cannot be serialized
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitFilter(FilterNode node, Map<DynamicFilterId, String> context)
+        {
+            Optional<CanonicalPlan> source = node.getSource().accept(this, context);
+            if (source.isEmpty() || source.get().isPartialAggregation()) {
+                return Optional.empty();
+            }
+            return canonicalizePredicate(node.getPredicate(), source.get().getSymbols(), context)
+                    .map(predicate -> source.get().withPlan("filter(" + predicate + ";" + source.get().getPlan() + ")"));
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitAggregation(AggregationNode node, Map<DynamicFilterId, String> context)
+        {
+            Optional<CanonicalPlan> source = node.getSource().accept(this, context);
+            // a final aggregation is keyed by the partial aggregation it combines, and partial aggregations cannot be nested
+            boolean combinesPartialResults = node.getStep() == INTERMEDIATE || node.getStep() == FINAL;
+            if (source.isEmpty() || source.get().isPartialAggregation() != combinesPartialResults) {
+                return Optional.empty();
+            }
+            Map<Symbol, String> sourceSymbols = source.get().getSymbols();
+
+            Map<Symbol, String> symbols = new HashMap<>();
+            List<String> groupingKeys = new ArrayList<>();
+            for (Symbol groupingKey : node.getGroupingKeys()) {
+                Optional<String> canonicalGroupingKey = canonicalize(groupingKey, sourceSymbols);
+                if (canonicalGroupingKey.isEmpty()) {
+                    return Optional.empty();
+                }
+                groupingKeys.add(canonicalGroupingKey.get());
+                symbols.put(groupingKey, canonicalGroupingKey.get());
+            }
+            List<String> aggregations = new ArrayList<>();
+            for (Map.Entry<Symbol, Aggregation> entry : node.getAggregations().entrySet()) {
+                Optional<String> aggregation = combinesPartialResults
+                        ? canonicalizePartialResult(entry.getValue(), sourceSymbols)
+                        : canonicalizeAggregation(entry.getValue(), sourceSymbols);
+                if (aggregation.isEmpty()) {
+                    return Optional.empty();
+                }
+                aggregations.add(aggregation.get());
+                symbols.put(entry.getKey(), aggregation.get());
+            }
+
+            if (node.getStep() == PARTIAL || node.getStep() == INTERMEDIATE) {
+                // the aggregation is keyed once it is combined by the final aggregation
+                return Optional.of(new CanonicalPlan(source.get().getPlan(), symbols, true));
+            }
+            sort(groupingKeys);
+            sort(aggregations);
+            String groupingSets = groupingKeys + "x" + node.getGroupingSetCount() + node.getGlobalGroupingSets();
+            return Optional.of(new CanonicalPlan("aggregation(" + groupingSets + ";" + aggregations + ";" + source.get().getPlan() + ")", symbols, false));
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitJoin(JoinNode node, Map<DynamicFilterId, String> context)
+        {
+            Optional<CanonicalPlan> right = node.getRight().accept(this, context);
+            if (right.isEmpty() || right.get().isPartialAggregation()) {
+                return Optional.empty();
+            }
+            Optional<CanonicalPlan> left = node.getLeft().accept(this, withDynamicFilters(context, node.getDynamicFilters(), right.get()));
+            if (left.isEmpty() || left.get().isPartialAggregation()) {
+                return Optional.empty();
+            }
+
+            // the sides of a self join refer to the same columns, so they are told apart by the side they come from
+            Map<Symbol, String> symbols = new HashMap<>();
+            left.get().getSymbols().forEach((symbol, expression) -> symbols.put(symbol, "left." + expression));
+            right.get().getSymbols().forEach((symbol, expression) -> symbols.put(symbol, "right." + expression));
+
+            List<String> criteria = new ArrayList<>();
+            for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+                Optional<String> leftKey = canonicalize(clause.getLeft(), symbols);
+                Optional<String> rightKey = canonicalize(clause.getRight(), symbols);
+                if (leftKey.isEmpty() || rightKey.isEmpty()) {
+                    return Optional.empty();
+                }
+                criteria.add(leftKey.get() + "=" + rightKey.get());
+            }
+            sort(criteria);
+            Optional<String> filter = Optional.of("");
+            if (node.getFilter().isPresent()) {
+                filter = canonicalizePredicate(node.getFilter().get(), symbols, context);
+            }
+            return filter.map(canonicalFilter -> new CanonicalPlan(
+                    "join(" + node.getType() + ";" + criteria + ";" + canonicalFilter + ";" + left.get().getPlan() + ";" + right.get().getPlan() + ")",
+                    symbols,
+                    false));
+        }
+
+        @Override
+        public Optional<CanonicalPlan> visitSemiJoin(SemiJoinNode node, Map<DynamicFilterId, String> context)
+        {
+            Optional<CanonicalPlan> filteringSource = node.getFilteringSource().accept(this, context);
+            if (filteringSource.isEmpty() || filteringSource.get().isPartialAggregation()) {
+                return Optional.empty();
+            }
+            Map<DynamicFilterId, String> sourceContext = node.getDynamicFilterId()
+                    .map(dynamicFilterId -> withDynamicFilters(context, ImmutableMap.of(dynamicFilterId, node.getFilteringSourceJoinSymbol()), filteringSource.get()))
+                    .orElse(context);
+            Optional<CanonicalPlan> source = node.getSource().accept(this, sourceContext);
+            if (source.isEmpty() || source.get().isPartialAggregation()) {
+                return Optional.empty();
+            }
+            Optional<String> sourceKey = canonicalize(node.getSourceJoinSymbol(), source.get().getSymbols());
+            Optional<String> filteringSourceKey = canonicalize(node.getFilteringSourceJoinSymbol(), filteringSource.get().getSymbols());
+            if (sourceKey.isEmpty() || filteringSourceKey.isEmpty()) {
+                return Optional.empty();
+            }
+            String semiJoin = sourceKey.get() + " in " + filteringSourceKey.get();
+            Map<Symbol, String> symbols = new HashMap<>(source.get().getSymbols());
+            symbols.put(node.getSemiJoinOutput(), "semijoin(" + semiJoin + ")");
+            return Optional.of(new CanonicalPlan("semijoin(" + semiJoin + ";" + source.get().getPlan() + ";" + filteringSource.get().getPlan() + ")", symbols, false));
+        }
+
+        private Optional<String> canonicalizePredicate(Expression predicate, Map<Symbol, String> symbols, Map<DynamicFilterId, String> dynamicFilters)
+        {
+            DynamicFilters.ExtractResult extractResult = extractDynamicFilters(predicate);
+            List<String> conjuncts = new ArrayList<>();
+            for (Expression conjunct : extractResult.getStaticConjuncts()) {
+                Optional<String> canonicalConjunct = canonicalize(conjunct, symbols);
+                if (canonicalConjunct.isEmpty()) {
+                    return Optional.empty();
+                }
+                conjuncts.add(canonicalConjunct.get());
+            }
+            // the rows removed by a dynamic filter depend on the join that produces it
+            for (DynamicFilters.Descriptor descriptor : extractResult.getDynamicConjuncts()) {
+                String buildSide = dynamicFilters.get(descriptor.getId());
+                Optional<String> input = canonicalize(descriptor.getInput(), symbols);
+                if (buildSide == null || input.isEmpty()) {
+                    return Optional.empty();
+                }
+                conjuncts.add("dynamic(" + input.get() + "=" + buildSide + ")");
+            }
+            sort(conjuncts);
+            return Optional.of(conjuncts.toString());
+        }
+
+        private Map<DynamicFilterId, String> withDynamicFilters(Map<DynamicFilterId, String> context, Map<DynamicFilterId, Symbol> dynamicFilters, CanonicalPlan buildSide)
+        {
+            Map<DynamicFilterId, String> result = new HashMap<>(context);
+            dynamicFilters.forEach((dynamicFilterId, symbol) -> canonicalize(symbol, buildSide.getSymbols())
+                    .ifPresent(buildSymbol -> result.put(dynamicFilterId, buildSymbol + " of " + buildSide.getPlan())));
+            return result;
+        }
+
+        private Map<Symbol, String> translateSymbols(List<Symbol> outputs, List<Symbol> inputs, Map<Symbol, String> inputSymbols)
+        {
+            Map<Symbol, String> symbols = new HashMap<>();
+            for (int i = 0; i < outputs.size(); i++) {
+                Symbol output = outputs.get(i);
+                canonicalize(inputs.get(i), inputSymbols)
+                        .ifPresent(expression -> symbols.put(output, expression));
+            }
+            return symbols;
+        }
+
+        private Optional<String> canonicalizeAggregation(Aggregation aggregation, Map<Symbol, String> symbols)
+        {
+            List<String> arguments = new ArrayList<>();
+            for (Expression argument : aggregation.getArguments()) {
+                Optional<String> canonicalArgument = canonicalize(argument, symbols);
+                if (canonicalArgument.isEmpty()) {
+                    return Optional.empty();
+                }
+                arguments.add(canonicalArgument.get());
+            }
+            Optional<String> filter = Optional.empty();
+            if (aggregation.getFilter().isPresent()) {
+                filter = canonicalize(aggregation.getFilter().get(), symbols);
+                if (filter.isEmpty()) {
+                    return Optional.empty();
+                }
+            }
+            Optional<String> mask = Optional.empty();
+            if (aggregation.getMask().isPresent()) {
+                mask = canonicalize(aggregation.getMask().get(), symbols);
+                if (mask.isEmpty()) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(aggregation.getResolvedFunction().getSignature().getName() +
+                    (aggregation.isDistinct() ? "(distinct " : "(") + String.join(",", arguments) + ")" +
+                    filter.map(value -> " filter " + value).orElse("") +
+                    mask.map(value -> " mask " + value).orElse(""));
+        }
+
+        private Optional<String> canonicalizePartialResult(Aggregation aggregation, Map<Symbol, String> symbols)
+        {
+            // the argument of an intermediate or final aggregation is the partial result, which is keyed as the aggregation that produced it
+            if (aggregation.getArguments().size() != 1 || !(aggregation.getArguments().get(0) instanceof SymbolReference)) {
+                return Optional.empty();
+            }
+            return canonicalize(Symbol.from(aggregation.getArguments().get(0)), symbols);
+        }
+    }
+
+    @JsonIgnoreProperties("transaction")
+    private abstract static class TableHandleMixin {}
+
+    private static final class CanonicalPlan
+    {
+        private final String plan;
+        private final Map<Symbol, String> symbols;
+        private final boolean partialAggregation;
+
+        public CanonicalPlan(String plan, Map<Symbol, String> symbols, boolean partialAggregation)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.symbols = ImmutableMap.copyOf(requireNonNull(symbols, "symbols is null"));
+            this.partialAggregation = partialAggregation;
+        }
+
+        /**
+         * The description of the rows produced by the plan, without symbol names.
+         */
+        public String getPlan()
+        {
+            return plan;
+        }
+
+        /**
+         * The canonical expression of every output symbol that can be resolved.
+         */
+        public Map<Symbol, String> getSymbols()
+        {
+            return symbols;
+        }
+
+        /**
+         * Whether the plan produces partial aggregation results. The plan then describes the input
+         * of the partial aggregation, and the key is computed by the final aggregation.
+         */
+        public boolean isPartialAggregation()
+        {
+            return partialAggregation;
+        }
+
+        public CanonicalPlan withPlan(String plan)
+        {
+            return new CanonicalPlan(plan, symbols, partialAggregation);
+        }
+
+        public CanonicalPlan withSymbols(Map<Symbol, String> symbols)
+        {
+            return new CanonicalPlan(plan, symbols, partialAggregation);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import io.prestosql.execution.QueryInfo;
+import io.prestosql.execution.StageInfo;
+import io.prestosql.metadata.SessionPropertyManager;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.plan.DistinctLimitNode;
+import io.prestosql.sql.planner.plan.LimitNode;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.sql.planner.planprinter.PlanNodeStats;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.SystemSessionProperties.isHistoryBasedStatisticsEnabled;
+import static io.prestosql.execution.QueryState.FINISHED;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.prestosql.sql.planner.planprinter.PlanNodeStatsSummarizer.aggregateStageStats;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+
+/**
+ * Records the output row counts of the plan nodes of completed queries in the {@link PlanStatisticsHistory}.
+ */
+public class PlanStatisticsRecorder
+{
+    private final PlanNodeCanonicalizer canonicalizer;
+    private final PlanStatisticsHistory history;
+    private final SessionPropertyManager sessionPropertyManager;
+
+    @Inject
+    public PlanStatisticsRecorder(PlanNodeCanonicalizer canonicalizer, PlanStatisticsHistory history, SessionPropertyManager sessionPropertyManager)
+    {
+        this.canonicalizer = requireNonNull(canonicalizer, "canonicalizer is null");
+        this.history = requireNonNull(history, "history is null");
+        this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
+    }
+
+    public void recordStatistics(QueryInfo queryInfo)
+    {
+        if (queryInfo.getState() != FINISHED || !queryInfo.isCompleteInfo() || queryInfo.getOutputStage().isEmpty()) {
+            return;
+        }
+        if (!isHistoryBasedStatisticsEnabled(queryInfo.getSession().toSession(sessionPropertyManager))) {
+            return;
+        }
+
+        List<StageInfo> stages = StageInfo.getAllStages(queryInfo.getOutputStage());
+        if (stages.stream().anyMatch(stage -> stage.getPlan() == null)) {
+            return;
+        }
+        List<PlanFragment> fragments = stages.stream()
+                .map(StageInfo::getPlan)
+                .collect(toImmutableList());
+        // a limit stops reading its input early, so the row counts below it are not the row counts of the subplan
+        boolean hasLimit = fragments.stream()
+                .anyMatch(fragment -> searchFrom(fragment.getRoot())
+                        .where(node -> node instanceof LimitNode || node instanceof DistinctLimitNode)
+                        .matches());
+        if (hasLimit) {
+            return;
+        }
+
+        Map<PlanFragmentId, PlanFragment> fragmentsById = fragments.stream()
+                .collect(toImmutableMap(PlanFragment::getId, identity()));
+        Map<PlanNodeId, PlanNodeStats> planNodeStats = aggregateStageStats(stages);
+        for (PlanFragment fragment : fragments) {
+            for (PlanNode node : searchFrom(fragment.getRoot()).findAll()) {
+                PlanNodeStats stats = planNodeStats.get(node.getId());
+                if (stats == null) {
+                    continue;
+                }
+                canonicalizer.getFragmentCanonicalKey(node, fragmentId -> Optional.ofNullable(fragmentsById.get(fragmentId)))
+                        .ifPresent(canonicalKey -> history.recordOutputRowCount(canonicalKey, stats.getPlanNodeOutputPositions()));
+            }
+        }
+    }
+}
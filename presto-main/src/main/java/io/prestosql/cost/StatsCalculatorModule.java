@@ -17,21 +17,33 @@ import com.google.common.collect.ImmutableList;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Provides;
+import com.google.inject.Scopes;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.sql.planner.TypeAnalyzer;
 
 import javax.inject.Singleton;
 
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
 public class StatsCalculatorModule
         implements Module
 {
     @Override
     public void configure(Binder binder)
     {
+        binder.bind(PlanNodeCanonicalizer.class).in(Scopes.SINGLETON);
+        binder.bind(PlanStatisticsHistory.class).to(InMemoryPlanStatisticsHistory.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PlanStatisticsHistory.class).withGeneratedName();
+        binder.bind(PlanStatisticsRecorder.class).in(Scopes.SINGLETON);
     }
 
     @Provides
     @Singleton
+    public static StatsCalculator createStatsCalculator(Metadata metadata, TypeAnalyzer typeAnalyzer, PlanNodeCanonicalizer canonicalizer, PlanStatisticsHistory history)
+    {
+        return new HistoryBasedStatsCalculator(createNewStatsCalculator(metadata, typeAnalyzer), canonicalizer, history, new StatsNormalizer());
+    }
+
     public static StatsCalculator createNewStatsCalculator(Metadata metadata, TypeAnalyzer typeAnalyzer)
     {
         StatsNormalizer normalizer = new StatsNormalizer();
@@ -21,6 +21,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -67,6 +68,9 @@ public class QueryManagerConfig
     private int requiredWorkers = 1;
     private Duration requiredWorkersMaxWait = new Duration(5, TimeUnit.MINUTES);
 
+    private boolean stragglerSplitAvoidanceEnabled;
+    private double stragglerSplitThreshold = 3.0;
+
     @Min(1)
     public int getScheduleSplitBatchSize()
     {
@@ -364,4 +368,31 @@ public class QueryManagerConfig
         this.requiredWorkersMaxWait = requiredWorkersMaxWait;
         return this;
     }
+
+    public boolean isStragglerSplitAvoidanceEnabled()
+    {
+        return stragglerSplitAvoidanceEnabled;
+    }
+
+    @Config("query.straggler-split-avoidance-enabled")
+    @ConfigDescription("Stop placing splits of source stages on nodes whose splits take much longer than those of other nodes")
+    public QueryManagerConfig setStragglerSplitAvoidanceEnabled(boolean stragglerSplitAvoidanceEnabled)
+    {
+        this.stragglerSplitAvoidanceEnabled = stragglerSplitAvoidanceEnabled;
+        return this;
+    }
+
+    @DecimalMin("1.0")
+    public double getStragglerSplitThreshold()
+    {
+        return stragglerSplitThreshold;
+    }
+
+    @Config("query.straggler-split-threshold")
+    @ConfigDescription("How many times longer than the median split time of the stage a split must be outstanding for its node to be considered a straggler")
+    public QueryManagerConfig setStragglerSplitThreshold(double stragglerSplitThreshold)
+    {
+        this.stragglerSplitThreshold = stragglerSplitThreshold;
+        return this;
+    }
 }
@@ -22,6 +22,7 @@ import io.airlift.units.Duration;
 import io.prestosql.ExceededCpuLimitException;
 import io.prestosql.ExceededScanLimitException;
 import io.prestosql.Session;
+import io.prestosql.cost.PlanStatisticsRecorder;
 import io.prestosql.event.QueryMonitor;
 import io.prestosql.execution.QueryExecution.QueryOutputInfo;
 import io.prestosql.execution.StateMachine.StateChangeListener;
@@ -69,6 +70,7 @@ public class SqlQueryManager
 
     private final ClusterMemoryManager memoryManager;
     private final QueryMonitor queryMonitor;
+    private final PlanStatisticsRecorder planStatisticsRecorder;
     private final QueryTracker<QueryExecution> queryTracker;
 
     private final Duration maxQueryCpuTime;
@@ -81,10 +83,11 @@ public class SqlQueryManager
     private final ThreadPoolExecutorMBean queryManagementExecutorMBean;
 
     @Inject
-    public SqlQueryManager(ClusterMemoryManager memoryManager, QueryMonitor queryMonitor, QueryManagerConfig queryManagerConfig)
+    public SqlQueryManager(ClusterMemoryManager memoryManager, QueryMonitor queryMonitor, PlanStatisticsRecorder planStatisticsRecorder, QueryManagerConfig queryManagerConfig)
     {
         this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
         this.queryMonitor = requireNonNull(queryMonitor, "queryMonitor is null");
+        this.planStatisticsRecorder = requireNonNull(planStatisticsRecorder, "planStatisticsRecorder is null");
 
         this.maxQueryCpuTime = queryManagerConfig.getQueryMaxCpuTime();
         this.maxQueryScanPhysicalBytes = queryManagerConfig.getQueryMaxScanPhysicalBytes();
@@ -234,6 +237,7 @@ public class SqlQueryManager
 
         queryExecution.addFinalQueryInfoListener(finalQueryInfo -> {
             try {
+                recordPlanStatistics(finalQueryInfo);
                 queryMonitor.queryCompletedEvent(finalQueryInfo);
             }
             finally {
@@ -245,6 +249,16 @@ public class SqlQueryManager
         queryExecution.start();
     }
 
+    private void recordPlanStatistics(QueryInfo queryInfo)
+    {
+        try {
+            planStatisticsRecorder.recordStatistics(queryInfo);
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to record plan statistics for query %s", queryInfo.getQueryId());
+        }
+    }
+
     @Override
     public void failQuery(QueryId queryId, Throwable cause)
     {
@@ -488,6 +488,11 @@ public final class SqlStageExecution
         stateMachine.recordGetSplitTime(start);
     }
 
+    public void recordStragglerSplitPlacement(int stragglerNodes, int avoidedSplits)
+    {
+        stateMachine.recordStragglerSplitPlacement(stragglerNodes, avoidedSplits);
+    }
+
     private static Split createRemoteSplitFor(TaskId taskId, URI taskLocation)
     {
         // Fetch the results from the buffer assigned to the task based on id
@@ -43,6 +43,7 @@ import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -87,6 +88,8 @@ public class StageStateMachine
 
     private final AtomicReference<DateTime> schedulingComplete = new AtomicReference<>();
     private final Distribution getSplitDistribution = new Distribution();
+    private final AtomicInteger stragglerNodes = new AtomicInteger();
+    private final AtomicLong stragglerAvoidedSplits = new AtomicLong();
 
     private final AtomicLong peakUserMemory = new AtomicLong();
     private final AtomicLong peakRevocableMemory = new AtomicLong();
@@ -499,6 +502,9 @@ public class StageStateMachine
                 schedulingComplete.get(),
                 getSplitDistribution.snapshot(),
 
+                stragglerNodes.get(),
+                stragglerAvoidedSplits.get(),
+
                 totalTasks,
                 runningTasks,
                 completedTasks,
@@ -571,6 +577,12 @@ public class StageStateMachine
         scheduledStats.getGetSplitTime().add(elapsedNanos, NANOSECONDS);
     }
 
+    public void recordStragglerSplitPlacement(int stragglerNodes, int avoidedSplits)
+    {
+        this.stragglerNodes.accumulateAndGet(stragglerNodes, Math::max);
+        stragglerAvoidedSplits.addAndGet(avoidedSplits);
+    }
+
     @Override
     public String toString()
     {
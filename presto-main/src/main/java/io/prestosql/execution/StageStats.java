@@ -44,6 +44,9 @@ public class StageStats
 
     private final DistributionSnapshot getSplitDistribution;
 
+    private final int stragglerNodes;
+    private final long stragglerAvoidedSplits;
+
     private final int totalTasks;
     private final int runningTasks;
     private final int completedTasks;
@@ -96,6 +99,9 @@ public class StageStats
 
             @JsonProperty("getSplitDistribution") DistributionSnapshot getSplitDistribution,
 
+            @JsonProperty("stragglerNodes") int stragglerNodes,
+            @JsonProperty("stragglerAvoidedSplits") long stragglerAvoidedSplits,
+
             @JsonProperty("totalTasks") int totalTasks,
             @JsonProperty("runningTasks") int runningTasks,
             @JsonProperty("completedTasks") int completedTasks,
@@ -145,6 +151,11 @@ public class StageStats
         this.schedulingComplete = schedulingComplete;
         this.getSplitDistribution = requireNonNull(getSplitDistribution, "getSplitDistribution is null");
 
+        checkArgument(stragglerNodes >= 0, "stragglerNodes is negative");
+        this.stragglerNodes = stragglerNodes;
+        checkArgument(stragglerAvoidedSplits >= 0, "stragglerAvoidedSplits is negative");
+        this.stragglerAvoidedSplits = stragglerAvoidedSplits;
+
         checkArgument(totalTasks >= 0, "totalTasks is negative");
         this.totalTasks = totalTasks;
         checkArgument(runningTasks >= 0, "runningTasks is negative");
@@ -217,6 +228,18 @@ public class StageStats
         return getSplitDistribution;
     }
 
+    @JsonProperty
+    public int getStragglerNodes()
+    {
+        return stragglerNodes;
+    }
+
+    @JsonProperty
+    public long getStragglerAvoidedSplits()
+    {
+        return stragglerAvoidedSplits;
+    }
+
     @JsonProperty
     public int getTotalTasks()
     {
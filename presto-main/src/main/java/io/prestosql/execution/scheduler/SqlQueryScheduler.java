@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution.scheduler;
 
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -82,7 +83,9 @@ import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.prestosql.SystemSessionProperties.getConcurrentLifespansPerNode;
+import static io.prestosql.SystemSessionProperties.getStragglerSplitThreshold;
 import static io.prestosql.SystemSessionProperties.getWriterMinSize;
+import static io.prestosql.SystemSessionProperties.isStragglerSplitAvoidanceEnabled;
 import static io.prestosql.connector.CatalogName.isInternalSystemConnector;
 import static io.prestosql.execution.BasicStageStats.aggregateBasicStageStats;
 import static io.prestosql.execution.SqlStageExecution.createSqlStageExecution;
@@ -111,6 +114,9 @@ import static java.util.stream.Collectors.toSet;
 
 public class SqlQueryScheduler
 {
+    private static final int STRAGGLER_MIN_COMPLETED_SPLITS = 10;
+    private static final Duration STRAGGLER_MIN_SPLIT_TIME = new Duration(10, SECONDS);
+
     private final QueryStateMachine queryStateMachine;
     private final ExecutionPolicy executionPolicy;
     private final Map<StageId, SqlStageExecution> stages;
@@ -352,6 +358,12 @@ public class SqlQueryScheduler
                     .filter(catalog -> !isInternalSystemConnector(catalog));
             NodeSelector nodeSelector = nodeScheduler.createNodeSelector(catalogName);
             SplitPlacementPolicy placementPolicy = new DynamicSplitPlacementPolicy(nodeSelector, stage::getAllTasks);
+            if (isStragglerSplitAvoidanceEnabled(session)) {
+                placementPolicy = new StragglerAwareSplitPlacementPolicy(
+                        placementPolicy,
+                        stage,
+                        new StragglerNodeDetector(getStragglerSplitThreshold(session), STRAGGLER_MIN_COMPLETED_SPLITS, STRAGGLER_MIN_SPLIT_TIME, Ticker.systemTicker()));
+            }
 
             checkArgument(!plan.getFragment().getStageExecutionDescriptor().isStageGroupedExecution());
 
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.prestosql.execution.RemoteTask;
+import io.prestosql.execution.SqlStageExecution;
+import io.prestosql.metadata.InternalNode;
+import io.prestosql.metadata.Split;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps remotely accessible splits away from nodes that {@link StragglerNodeDetector} reports
+ * as stragglers. Splits the delegate placed on a straggler are moved to the least loaded other node
+ * whose split queue is shorter than the straggler's would have been, so that a slow node does not
+ * accumulate a queue of splits that delays the completion of the whole stage.
+ */
+public class StragglerAwareSplitPlacementPolicy
+        implements SplitPlacementPolicy
+{
+    private final SplitPlacementPolicy delegate;
+    private final SqlStageExecution stage;
+    private final StragglerNodeDetector stragglerNodeDetector;
+
+    public StragglerAwareSplitPlacementPolicy(SplitPlacementPolicy delegate, SqlStageExecution stage, StragglerNodeDetector stragglerNodeDetector)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.stage = requireNonNull(stage, "stage is null");
+        this.stragglerNodeDetector = requireNonNull(stragglerNodeDetector, "stragglerNodeDetector is null");
+    }
+
+    @Override
+    public SplitPlacementResult computeAssignments(Set<Split> splits)
+    {
+        List<RemoteTask> tasks = stage.getAllTasks();
+        stragglerNodeDetector.update(tasks.stream()
+                .collect(toImmutableMap(RemoteTask::getNodeId, RemoteTask::getPartitionedSplitCount, Integer::sum)));
+
+        SplitPlacementResult result = delegate.computeAssignments(splits);
+        Set<String> stragglerNodes = stragglerNodeDetector.getStragglerNodes();
+        List<InternalNode> healthyNodes = delegate.allNodes().stream()
+                .filter(node -> !stragglerNodes.contains(node.getNodeIdentifier()))
+                .collect(toImmutableList());
+        if (stragglerNodes.isEmpty() || healthyNodes.isEmpty()) {
+            return recordAssignments(result, 0);
+        }
+
+        Map<String, Integer> queuedSplits = new HashMap<>(tasks.stream()
+                .collect(toImmutableMap(RemoteTask::getNodeId, RemoteTask::getQueuedPartitionedSplitCount, Integer::sum)));
+        Multimap<InternalNode, Split> assignments = HashMultimap.create();
+        int avoidedSplits = 0;
+        for (Entry<InternalNode, Collection<Split>> entry : result.getAssignments().asMap().entrySet()) {
+            InternalNode node = entry.getKey();
+            if (!stragglerNodes.contains(node.getNodeIdentifier())) {
+                assignments.putAll(node, entry.getValue());
+                continue;
+            }
+
+            // do not let any other node queue up more splits than the straggler would have had
+            int queueLimit = queuedSplits.getOrDefault(node.getNodeIdentifier(), 0) + entry.getValue().size();
+            for (Split split : entry.getValue()) {
+                if (!split.isRemotelyAccessible()) {
+                    assignments.put(node, split);
+                    continue;
+                }
+
+                InternalNode chosenNode = null;
+                int min = queueLimit;
+                for (InternalNode candidate : healthyNodes) {
+                    int queued = queuedSplits.getOrDefault(candidate.getNodeIdentifier(), 0);
+                    if (queued < min) {
+                        chosenNode = candidate;
+                        min = queued;
+                    }
+                }
+
+                if (chosenNode == null) {
+                    // every other node is at least as busy, so the straggler keeps the split
+                    assignments.put(node, split);
+                    continue;
+                }
+                assignments.put(chosenNode, split);
+                queuedSplits.merge(chosenNode.getNodeIdentifier(), 1, Integer::sum);
+                avoidedSplits++;
+            }
+        }
+        return recordAssignments(new SplitPlacementResult(result.getBlocked(), assignments), avoidedSplits);
+    }
+
+    private SplitPlacementResult recordAssignments(SplitPlacementResult result, int avoidedSplits)
+    {
+        for (Entry<InternalNode, Collection<Split>> entry : result.getAssignments().asMap().entrySet()) {
+            stragglerNodeDetector.splitsAssigned(entry.getKey().getNodeIdentifier(), entry.getValue().size());
+        }
+        stage.recordStragglerSplitPlacement(stragglerNodeDetector.getDetectedStragglerNodeCount(), avoidedSplits);
+        return result;
+    }
+
+    @Override
+    public void lockDownNodes()
+    {
+        delegate.lockDownNodes();
+    }
+
+    @Override
+    public List<InternalNode> allNodes()
+    {
+        return delegate.allNodes();
+    }
+}
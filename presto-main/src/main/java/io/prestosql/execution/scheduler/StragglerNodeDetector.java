@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.stats.Distribution;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Detects nodes whose splits take much longer to complete than the splits of the rest of a stage.
+ * <p>
+ * The coordinator does not observe completion of individual splits. Instead, the number of splits
+ * still outstanding on each node is compared with the splits assigned to it, and splits are assumed
+ * to complete in the order they were assigned, which matches the split queue of a task. A node is a
+ * straggler when its oldest outstanding split has been outstanding for longer than {@code threshold}
+ * times the median time it took splits of the stage to complete.
+ */
+@ThreadSafe
+public class StragglerNodeDetector
+{
+    private final double threshold;
+    private final int minCompletedSplits;
+    private final long minStragglerAgeNanos;
+    private final Ticker ticker;
+
+    private final Distribution splitTimeDistribution = new Distribution();
+    private final Map<String, Deque<Long>> outstandingSplits = new HashMap<>();
+    private final Set<String> stragglerNodes = new HashSet<>();
+    private final Set<String> detectedStragglerNodes = new HashSet<>();
+
+    public StragglerNodeDetector(double threshold, int minCompletedSplits, Duration minStragglerAge, Ticker ticker)
+    {
+        checkArgument(threshold >= 1.0, "threshold must be at least one");
+        checkArgument(minCompletedSplits > 0, "minCompletedSplits must be positive");
+        this.threshold = threshold;
+        this.minCompletedSplits = minCompletedSplits;
+        this.minStragglerAgeNanos = requireNonNull(minStragglerAge, "minStragglerAge is null").roundTo(NANOSECONDS);
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    public synchronized void splitsAssigned(String nodeId, int splitCount)
+    {
+        long now = ticker.read();
+        Deque<Long> splits = outstandingSplits.computeIfAbsent(nodeId, ignored -> new ArrayDeque<>());
+        for (int i = 0; i < splitCount; i++) {
+            splits.add(now);
+        }
+    }
+
+    /**
+     * Updates the detector with the number of splits currently outstanding on each node.
+     * Nodes missing from {@code outstandingSplitCounts} are assumed to have completed all their splits.
+     */
+    public synchronized void update(Map<String, Integer> outstandingSplitCounts)
+    {
+        long now = ticker.read();
+        for (Entry<String, Deque<Long>> entry : outstandingSplits.entrySet()) {
+            int outstanding = outstandingSplitCounts.getOrDefault(entry.getKey(), 0);
+            Deque<Long> splits = entry.getValue();
+            while (splits.size() > outstanding) {
+                splitTimeDistribution.add(now - splits.poll());
+            }
+        }
+
+        stragglerNodes.clear();
+        if (splitTimeDistribution.getCount() < minCompletedSplits) {
+            return;
+        }
+
+        long stragglerAgeNanos = max(minStragglerAgeNanos, (long) (threshold * splitTimeDistribution.getP50()));
+        for (Entry<String, Deque<Long>> entry : outstandingSplits.entrySet()) {
+            Long oldestSplit = entry.getValue().peek();
+            if (oldestSplit != null && now - oldestSplit > stragglerAgeNanos) {
+                stragglerNodes.add(entry.getKey());
+            }
+        }
+        detectedStragglerNodes.addAll(stragglerNodes);
+    }
+
+    public synchronized Set<String> getStragglerNodes()
+    {
+        return ImmutableSet.copyOf(stragglerNodes);
+    }
+
+    /**
+     * Returns the number of distinct nodes that have been stragglers at any point so far.
+     */
+    public synchronized int getDetectedStragglerNodeCount()
+    {
+        return detectedStragglerNodes.size();
+    }
+}
@@ -47,6 +47,7 @@ import java.util.function.Supplier;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.operator.Operator.NOT_BLOCKED;
@@ -72,6 +73,7 @@ public class Driver
     private final List<Operator> allOperators;
     private final Optional<SourceOperator> sourceOperator;
     private final Optional<DeleteOperator> deleteOperator;
+    private final Optional<FragmentResultCacheOperator> fragmentResultCacheOperator;
 
     // This variable acts as a staging area. When new splits (encapsulated in TaskSource) are
     // provided to a Driver, the Driver will not process them right away. Instead, the splits are
@@ -126,6 +128,7 @@ public class Driver
 
         Optional<SourceOperator> sourceOperator = Optional.empty();
         Optional<DeleteOperator> deleteOperator = Optional.empty();
+        Optional<FragmentResultCacheOperator> fragmentResultCacheOperator = Optional.empty();
         for (Operator operator : operators) {
             if (operator instanceof SourceOperator) {
                 checkArgument(sourceOperator.isEmpty(), "There must be at most one SourceOperator");
@@ -135,9 +138,14 @@ public class Driver
                 checkArgument(deleteOperator.isEmpty(), "There must be at most one DeleteOperator");
                 deleteOperator = Optional.of((DeleteOperator) operator);
             }
+            else if (operator instanceof FragmentResultCacheOperator) {
+                checkArgument(fragmentResultCacheOperator.isEmpty(), "There must be at most one FragmentResultCacheOperator");
+                fragmentResultCacheOperator = Optional.of((FragmentResultCacheOperator) operator);
+            }
         }
         this.sourceOperator = sourceOperator;
         this.deleteOperator = deleteOperator;
+        this.fragmentResultCacheOperator = fragmentResultCacheOperator;
 
         currentTaskSource = sourceOperator.map(operator -> new TaskSource(operator.getSourceId(), ImmutableSet.of(), false)).orElse(null);
         // initially the driverBlockedFuture is not blocked (it is completed)
@@ -242,6 +250,21 @@ public class Driver
         // determine new splits to add
         Set<ScheduledSplit> newSplits = Sets.difference(newSource.getSplits(), currentTaskSource.getSplits());
 
+        // a driver for a single split can return the cached result instead of processing the split
+        if (fragmentResultCacheOperator.isPresent() && newSource.isNoMoreSplits() && newSource.getSplits().size() == 1 && newSplits.size() == 1) {
+            if (fragmentResultCacheOperator.get().loadCachedResult(getOnlyElement(newSplits).getSplit())) {
+                List<Operator> skippedOperators = activeOperators.subList(0, activeOperators.indexOf(fragmentResultCacheOperator.get()));
+                Throwable throwable = closeAndDestroyOperators(skippedOperators);
+                skippedOperators.clear();
+                if (throwable != null) {
+                    throwIfUnchecked(throwable);
+                    throw new RuntimeException(throwable);
+                }
+                currentTaskSource = newSource;
+                return;
+            }
+        }
+
         // add new splits
         SourceOperator sourceOperator = this.sourceOperator.orElseThrow(VerifyException::new);
         for (ScheduledSplit newSplit : newSplits) {
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.prestosql.util.Mergeable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class FragmentResultCacheInfo
+        implements Mergeable<FragmentResultCacheInfo>, OperatorInfo
+{
+    private final long cacheHits;
+    private final long cacheMisses;
+
+    @JsonCreator
+    public FragmentResultCacheInfo(
+            @JsonProperty("cacheHits") long cacheHits,
+            @JsonProperty("cacheMisses") long cacheMisses)
+    {
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    @JsonProperty
+    public long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    @JsonProperty
+    public long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    public double getCacheHitRate()
+    {
+        long lookups = cacheHits + cacheMisses;
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double) cacheHits / lookups;
+    }
+
+    @Override
+    public FragmentResultCacheInfo mergeWith(FragmentResultCacheInfo other)
+    {
+        return new FragmentResultCacheInfo(cacheHits + other.getCacheHits(), cacheMisses + other.getCacheMisses());
+    }
+
+    @Override
+    public boolean isFinal()
+    {
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("cacheHits", cacheHits)
+                .add("cacheMisses", cacheMisses)
+                .toString();
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.Session;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.Split;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.sql.planner.plan.PlanNode;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.hash.Hashing.sha256;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readPages;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writePages;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Files.size;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+/**
+ * Stores the output of leaf plan fragments for individual splits on the local disk of a worker.
+ * <p>
+ * Results are keyed by the plan of the fragment and the identity of the split, as reported by
+ * {@link io.prestosql.spi.connector.ConnectorSplit#getSplitIdentity()}. The least recently used
+ * results are removed when the total size of the cache exceeds the configured maximum. The index
+ * of cached results is kept in memory, so results written by a previous run of the worker are
+ * removed on startup.
+ */
+@ThreadSafe
+public class FragmentResultCacheManager
+{
+    private static final Logger log = Logger.get(FragmentResultCacheManager.class);
+
+    private static final String CACHE_FILE_SUFFIX = ".cache";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final long maxEntrySizeInBytes;
+    private final ObjectMapper planMapper;
+    private final PagesSerdeFactory serdeFactory;
+    private final ExecutorService writeExecutor;
+
+    @GuardedBy("this")
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long sizeInBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Inject
+    public FragmentResultCacheManager(FragmentResultCacheConfig config, Metadata metadata, ObjectMapper objectMapper)
+    {
+        this(
+                config,
+                requireNonNull(metadata, "metadata is null").getBlockEncodingSerde(),
+                objectMapper,
+                newSingleThreadExecutor(daemonThreadsNamed("fragment-result-cache-writer")));
+    }
+
+    @VisibleForTesting
+    public FragmentResultCacheManager(FragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, ObjectMapper objectMapper, ExecutorService writeExecutor)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        this.directory = config.getDirectory().toPath();
+        this.maxSizeInBytes = config.getMaxSize().toBytes();
+        this.maxEntrySizeInBytes = config.getMaxEntrySize().toBytes();
+        // the transaction differs between queries, so it must not be part of the plan key
+        this.planMapper = requireNonNull(objectMapper, "objectMapper is null").copy()
+                .addMixIn(TableHandle.class, TableHandleMixin.class);
+        this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), true);
+        this.writeExecutor = requireNonNull(writeExecutor, "writeExecutor is null");
+
+        if (enabled) {
+            try {
+                createDirectories(directory);
+            }
+            catch (IOException e) {
+                throw new IllegalArgumentException(format("could not create fragment result cache directory %s", directory), e);
+            }
+            removeCacheFiles();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        writeExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    /**
+     * Returns the key of the results of the fragment. Besides the plan, the key includes every session
+     * setting that can change the results, as the cache is shared by all queries of the worker. Functions
+     * that depend on the start of the query, such as {@code current_timestamp}, are folded into constants
+     * of the plan by the planner.
+     */
+    public String getPlanKey(Session session, PlanNode plan)
+    {
+        Hasher hasher = sha256().newHasher();
+        try {
+            putString(hasher, planMapper.writeValueAsString(plan));
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        putString(hasher, session.getTimeZoneKey().getId());
+        putString(hasher, session.getLocale().toLanguageTag());
+        putString(hasher, session.getPath().toString());
+        // connectors can return different data to different users
+        putString(hasher, session.getUser());
+        putProperties(hasher, session.getSystemProperties());
+        session.getConnectorProperties().entrySet().stream()
+                .sorted(comparing(entry -> entry.getKey().getCatalogName()))
+                .forEach(entry -> {
+                    putString(hasher, entry.getKey().getCatalogName());
+                    putProperties(hasher, entry.getValue());
+                });
+        new TreeMap<>(session.getUnprocessedCatalogProperties()).forEach((catalog, properties) -> {
+            putString(hasher, catalog);
+            putProperties(hasher, properties);
+        });
+        return hasher.hash().toString();
+    }
+
+    private static void putProperties(Hasher hasher, Map<String, String> properties)
+    {
+        hasher.putInt(properties.size());
+        new TreeMap<>(properties).forEach((name, value) -> {
+            putString(hasher, name);
+            putString(hasher, value);
+        });
+    }
+
+    private static void putString(Hasher hasher, String value)
+    {
+        hasher.putInt(value.length());
+        hasher.putString(value, UTF_8);
+    }
+
+    public Optional<String> getCacheKey(String planKey, Split split)
+    {
+        String catalogName = split.getCatalogName().getCatalogName();
+        return split.getConnectorSplit().getSplitIdentity()
+                .map(identity -> sha256().newHasher()
+                        .putString(planKey, UTF_8)
+                        .putInt(catalogName.length())
+                        .putString(catalogName, UTF_8)
+                        .putString(identity, UTF_8)
+                        .hash()
+                        .toString());
+    }
+
+    public Optional<List<Page>> get(String cacheKey)
+    {
+        synchronized (this) {
+            // also marks the result as the most recently used
+            if (entries.get(cacheKey) == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+
+        try (InputStream input = newInputStream(getCacheFile(cacheKey))) {
+            List<Page> pages = ImmutableList.copyOf(readPages(serdeFactory.createPagesSerde(), new InputStreamSliceInput(input, BUFFER_SIZE)));
+            hits.incrementAndGet();
+            return Optional.of(pages);
+        }
+        catch (NoSuchFileException e) {
+            // the result was removed after the lookup
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to read cached fragment result %s", cacheKey);
+            remove(cacheKey);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String cacheKey, List<Page> pages)
+    {
+        List<Page> result = ImmutableList.copyOf(pages);
+        writeExecutor.execute(() -> write(cacheKey, result.iterator()));
+    }
+
+    private void write(String cacheKey, Iterator<Page> pages)
+    {
+        synchronized (this) {
+            if (entries.containsKey(cacheKey)) {
+                return;
+            }
+        }
+
+        Path file = getCacheFile(cacheKey);
+        long fileSize;
+        try {
+            try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(file), BUFFER_SIZE)) {
+                writePages(serdeFactory.createPagesSerde(), output, pages);
+            }
+            fileSize = size(file);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write cached fragment result %s", cacheKey);
+            deleteQuietly(file);
+            return;
+        }
+
+        synchronized (this) {
+            entries.put(cacheKey, fileSize);
+            sizeInBytes += fileSize;
+
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                iterator.remove();
+                sizeInBytes -= entry.getValue();
+                deleteQuietly(getCacheFile(entry.getKey()));
+            }
+        }
+    }
+
+    private synchronized void remove(String cacheKey)
+    {
+        Long fileSize = entries.remove(cacheKey);
+        if (fileSize != null) {
+            sizeInBytes -= fileSize;
+            deleteQuietly(getCacheFile(cacheKey));
+        }
+    }
+
+    private Path getCacheFile(String cacheKey)
+    {
+        return directory.resolve(cacheKey + CACHE_FILE_SUFFIX);
+    }
+
+    private void removeCacheFiles()
+    {
+        try (DirectoryStream<Path> stream = newDirectoryStream(directory, "*" + CACHE_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                delete(file);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to remove fragment result cache files from %s", directory);
+        }
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached fragment result %s", file);
+        }
+    }
+
+    @Managed
+    public synchronized void flushCache()
+    {
+        entries.keySet().forEach(cacheKey -> deleteQuietly(getCacheFile(cacheKey)));
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    @Managed
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public synchronized long getCachedResults()
+    {
+        return entries.size();
+    }
+
+    @Managed
+    public synchronized long getCachedBytes()
+    {
+        return sizeInBytes;
+    }
+
+    @JsonIgnoreProperties("transaction")
+    private abstract static class TableHandleMixin {}
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Passes through the output of a pipeline that processes a single split, and stores it in the
+ * {@link FragmentResultCacheManager}. When a result for the split is already cached, the
+ * {@link Driver} removes the operators in front of this one and the cached result is returned instead.
+ */
+public class FragmentResultCacheOperator
+        implements Operator
+{
+    public static class FragmentResultCacheOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final FragmentResultCacheManager cacheManager;
+        private final String planKey;
+        private boolean closed;
+
+        public FragmentResultCacheOperatorFactory(int operatorId, PlanNodeId planNodeId, FragmentResultCacheManager cacheManager, String planKey)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.cacheManager = requireNonNull(cacheManager, "cacheManager is null");
+            this.planKey = requireNonNull(planKey, "planKey is null");
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, FragmentResultCacheOperator.class.getSimpleName());
+            return new FragmentResultCacheOperator(operatorContext, cacheManager, planKey);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new FragmentResultCacheOperatorFactory(operatorId, planNodeId, cacheManager, planKey);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final FragmentResultCacheManager cacheManager;
+    private final String planKey;
+    private final LocalMemoryContext memoryContext;
+
+    private boolean splitLoaded;
+    private Optional<String> cacheKey = Optional.empty();
+    private Iterator<Page> cachedPages;
+    private List<Page> resultPages;
+    private long resultSizeInBytes;
+
+    private Page outputPage;
+    private boolean finishing;
+
+    // an operator looks up at most one split
+    private volatile long cacheHits;
+    private volatile long cacheMisses;
+
+    public FragmentResultCacheOperator(OperatorContext operatorContext, FragmentResultCacheManager cacheManager, String planKey)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.cacheManager = requireNonNull(cacheManager, "cacheManager is null");
+        this.planKey = requireNonNull(planKey, "planKey is null");
+        this.memoryContext = operatorContext.newLocalSystemMemoryContext(FragmentResultCacheOperator.class.getSimpleName());
+        operatorContext.setInfoSupplier(() -> new FragmentResultCacheInfo(cacheHits, cacheMisses));
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    /**
+     * Looks up the cached result for the only split processed by this pipeline.
+     *
+     * @return true if the result is cached, in which case the input of this operator must not be produced
+     */
+    public boolean loadCachedResult(Split split)
+    {
+        checkState(!splitLoaded, "split already loaded");
+        splitLoaded = true;
+
+        cacheKey = cacheManager.getCacheKey(planKey, split);
+        if (cacheKey.isEmpty()) {
+            return false;
+        }
+
+        Optional<List<Page>> cachedResult = cacheManager.get(cacheKey.get());
+        if (cachedResult.isPresent()) {
+            cacheHits = 1;
+            cachedPages = cachedResult.get().iterator();
+            memoryContext.setBytes(cachedResult.get().stream()
+                    .mapToLong(Page::getRetainedSizeInBytes)
+                    .sum());
+            return true;
+        }
+
+        cacheMisses = 1;
+        resultPages = new ArrayList<>();
+        return false;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && outputPage == null && cachedPages == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkState(needsInput(), "Operator does not need input");
+
+        if (resultPages != null) {
+            // the result is written after the page source is closed
+            page = page.getLoadedPage();
+            resultSizeInBytes += page.getRetainedSizeInBytes();
+            if (resultSizeInBytes > cacheManager.getMaxEntrySizeInBytes()) {
+                // too large to be worth caching
+                resultPages = null;
+                memoryContext.setBytes(0);
+            }
+            else {
+                resultPages.add(page);
+                memoryContext.setBytes(resultSizeInBytes);
+            }
+        }
+        outputPage = page;
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (cachedPages != null) {
+            return cachedPages.hasNext() ? cachedPages.next() : null;
+        }
+        Page page = outputPage;
+        outputPage = null;
+        return page;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+
+        if (resultPages != null) {
+            cacheManager.put(cacheKey.orElseThrow(), resultPages);
+            resultPages = null;
+            memoryContext.setBytes(0);
+        }
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && outputPage == null && (cachedPages == null || !cachedPages.hasNext());
+    }
+
+    @Override
+    public void close()
+    {
+        resultPages = null;
+        cachedPages = null;
+        memoryContext.setBytes(0);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Finds the most frequent key hashes in a stream using the Misra-Gries summary.
+ * <p>
+ * At most {@code capacity} counters are kept. The count reported for a key never
+ * exceeds its true count and underestimates it by at most
+ * {@code sampledKeys / (capacity + 1)}, so any key that accounts for a larger share
+ * of the stream than {@code 1 / (capacity + 1)} is guaranteed to be tracked.
+ */
+public class HeavyHitterSampler
+{
+    private final int capacity;
+    private final Long2LongOpenHashMap counters;
+    private long sampledKeys;
+
+    public HeavyHitterSampler(int capacity)
+    {
+        checkArgument(capacity > 0, "capacity must be positive");
+        this.capacity = capacity;
+        this.counters = new Long2LongOpenHashMap(capacity + 1);
+    }
+
+    public void add(long keyHash)
+    {
+        sampledKeys++;
+        if (counters.addTo(keyHash, 1) != 0 || counters.size() <= capacity) {
+            return;
+        }
+
+        // the new key did not fit, so decrement every counter (including the new one) and drop the ones that reach zero
+        ObjectIterator<Long2LongMap.Entry> iterator = counters.long2LongEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+            Long2LongMap.Entry entry = iterator.next();
+            if (entry.getLongValue() == 1) {
+                iterator.remove();
+            }
+            else {
+                entry.setValue(entry.getLongValue() - 1);
+            }
+        }
+    }
+
+    public long getSampledKeys()
+    {
+        return sampledKeys;
+    }
+
+    /**
+     * Returns a lower bound for the number of times the most frequent key was sampled.
+     */
+    public long getTopKeyCount()
+    {
+        long max = 0;
+        for (long count : counters.values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streams the sorted build pages of a merge join to the probe operator of the same lifespan.
+ * At most {@code maxBufferedBytes} are buffered; the build operator is blocked while the
+ * buffer is full, so both inputs are consumed concurrently.
+ */
+@ThreadSafe
+public final class MergeJoinBridge
+        implements JoinBridge
+{
+    private final long maxBufferedBytes;
+    private final SettableFuture<?> buildFinished = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private SettableFuture<?> pagesAvailable = SettableFuture.create();
+    @GuardedBy("this")
+    private SettableFuture<?> spaceAvailable = SettableFuture.create();
+    @GuardedBy("this")
+    private int buildOperators;
+    @GuardedBy("this")
+    private int finishedBuildOperators;
+    @GuardedBy("this")
+    private boolean noMoreBuildOperators;
+    @GuardedBy("this")
+    private boolean probeCreated;
+    @GuardedBy("this")
+    private boolean probeClosed;
+
+    public MergeJoinBridge(long maxBufferedBytes)
+    {
+        checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive");
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public synchronized void buildOperatorCreated()
+    {
+        if (buildOperators > 0) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join requires the build input of each lifespan to be a single sorted stream");
+        }
+        buildOperators++;
+    }
+
+    public synchronized void buildOperatorFinished()
+    {
+        finishedBuildOperators++;
+        checkBuildFinished();
+    }
+
+    public synchronized void noMoreBuildOperators()
+    {
+        noMoreBuildOperators = true;
+        checkBuildFinished();
+    }
+
+    /**
+     * Returns a future that completes when the build operator may add more pages.
+     */
+    public synchronized ListenableFuture<?> addPage(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(!buildFinished.isDone(), "Build is already finished");
+        if (probeClosed) {
+            return NOT_BLOCKED;
+        }
+        pages.add(page);
+        bufferedBytes += page.getRetainedSizeInBytes();
+        pagesAvailable.set(null);
+        if (bufferedBytes < maxBufferedBytes) {
+            return NOT_BLOCKED;
+        }
+        if (spaceAvailable.isDone()) {
+            spaceAvailable = SettableFuture.create();
+        }
+        return spaceAvailable;
+    }
+
+    public synchronized void probeOperatorCreated()
+    {
+        if (probeCreated) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join requires the probe input of each lifespan to be a single sorted stream");
+        }
+        probeCreated = true;
+    }
+
+    /**
+     * Returns the next buffered build page, or null if none is available.
+     */
+    public synchronized Page pollPage()
+    {
+        Page page = pages.poll();
+        if (page == null) {
+            return null;
+        }
+        bufferedBytes -= page.getRetainedSizeInBytes();
+        if (bufferedBytes < maxBufferedBytes) {
+            spaceAvailable.set(null);
+        }
+        if (pages.isEmpty() && pagesAvailable.isDone() && !buildFinished.isDone()) {
+            pagesAvailable = SettableFuture.create();
+        }
+        return page;
+    }
+
+    public synchronized ListenableFuture<?> whenPageAvailable()
+    {
+        if (!pages.isEmpty() || buildFinished.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return pagesAvailable;
+    }
+
+    /**
+     * Returns true when the build side is finished and all its pages have been polled.
+     */
+    public synchronized boolean isBuildExhausted()
+    {
+        return buildFinished.isDone() && pages.isEmpty();
+    }
+
+    public synchronized long getBufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    /**
+     * Once the probe operator is closed, the remaining build input is not needed.
+     */
+    public synchronized boolean isProbeClosed()
+    {
+        return probeClosed;
+    }
+
+    public synchronized void probeClosed()
+    {
+        probeClosed = true;
+        releasePages();
+    }
+
+    @Override
+    public OuterPositionIterator getOuterPositionIterator()
+    {
+        throw new UnsupportedOperationException("Merge join does not support build outer joins");
+    }
+
+    @Override
+    public synchronized void destroy()
+    {
+        releasePages();
+    }
+
+    @Override
+    public ListenableFuture<?> whenBuildFinishes()
+    {
+        return buildFinished;
+    }
+
+    @GuardedBy("this")
+    private void checkBuildFinished()
+    {
+        if (noMoreBuildOperators && finishedBuildOperators == buildOperators) {
+            buildFinished.set(null);
+            pagesAvailable.set(null);
+        }
+    }
+
+    @GuardedBy("this")
+    private void releasePages()
+    {
+        pages.clear();
+        bufferedBytes = 0;
+        spaceAvailable.set(null);
+        pagesAvailable.set(null);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "MergeJoinBridge{bufferedPages=" + pages.size() + ", bufferedBytes=" + bufferedBytes + "}";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.spi.Page;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+public class MergeJoinBuildOperator
+        implements Operator
+{
+    public static class MergeJoinBuildOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinBridgeManager<MergeJoinBridge> mergeJoinBridgeManager;
+
+        private boolean closed;
+
+        public MergeJoinBuildOperatorFactory(int operatorId, PlanNodeId planNodeId, JoinBridgeManager<MergeJoinBridge> mergeJoinBridgeManager)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.mergeJoinBridgeManager = requireNonNull(mergeJoinBridgeManager, "mergeJoinBridgeManager is null");
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            MergeJoinBridge mergeJoinBridge = mergeJoinBridgeManager.getJoinBridge(driverContext.getLifespan());
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinBuildOperator.class.getSimpleName());
+            mergeJoinBridge.buildOperatorCreated();
+            return new MergeJoinBuildOperator(operatorContext, mergeJoinBridge);
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            mergeJoinBridgeManager.getJoinBridge(lifespan).noMoreBuildOperators();
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new MergeJoinBuildOperatorFactory(operatorId, planNodeId, mergeJoinBridgeManager);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinBridge mergeJoinBridge;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finished;
+
+    public MergeJoinBuildOperator(OperatorContext operatorContext, MergeJoinBridge mergeJoinBridge)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinBridge = requireNonNull(mergeJoinBridge, "mergeJoinBridge is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        blocked = NOT_BLOCKED;
+        mergeJoinBridge.buildOperatorFinished();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // the remaining build input is not needed once the probe side is done
+        if (!finished && mergeJoinBridge.isProbeClosed()) {
+            finish();
+        }
+        return finished;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finished && blocked.isDone();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(needsInput(), "Operator does not need input");
+
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
+        // the buffered pages are accounted for by the probe operator that consumes them
+        blocked = mergeJoinBridge.addPage(page);
+        operatorContext.recordOutput(page.getSizeInBytes(), page.getPositionCount());
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return null;
+    }
+
+    @Override
+    public void close()
+    {
+        // a failed or cancelled driver must not prevent the bridge from being released
+        finish();
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.type.BlockTypeOperators;
+import io.prestosql.type.BlockTypeOperators.BlockPositionComparison;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.operator.project.PageProcessor.MAX_BATCH_SIZE;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Joins a probe input with the build input streamed through a {@link MergeJoinBridge}.
+ * Both inputs must be sorted on the join keys. Only the build rows with the key of the
+ * current probe row are retained, so memory usage does not depend on the build size.
+ * Rows with a null key never match.
+ */
+public class MergeJoinOperator
+        implements Operator
+{
+    public static class MergeJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinBridgeManager<MergeJoinBridge> joinBridgeManager;
+        private final List<Type> probeTypes;
+        private final List<Integer> probeOutputChannels;
+        private final List<Integer> probeKeyChannels;
+        private final List<Type> buildTypes;
+        private final List<Integer> buildOutputChannels;
+        private final List<Integer> buildKeyChannels;
+        private final List<SortOrder> sortOrders;
+        private final boolean outer;
+        private final BlockTypeOperators blockTypeOperators;
+        private boolean closed;
+
+        public MergeJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinBridgeManager<MergeJoinBridge> mergeJoinBridgeManager,
+                List<Type> probeTypes,
+                List<Integer> probeOutputChannels,
+                List<Integer> probeKeyChannels,
+                List<Type> buildTypes,
+                List<Integer> buildOutputChannels,
+                List<Integer> buildKeyChannels,
+                List<SortOrder> sortOrders,
+                boolean outer,
+                BlockTypeOperators blockTypeOperators)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.joinBridgeManager = requireNonNull(mergeJoinBridgeManager, "mergeJoinBridgeManager is null");
+            this.joinBridgeManager.incrementProbeFactoryCount();
+            this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+            this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+            this.probeKeyChannels = ImmutableList.copyOf(requireNonNull(probeKeyChannels, "probeKeyChannels is null"));
+            this.buildTypes = ImmutableList.copyOf(requireNonNull(buildTypes, "buildTypes is null"));
+            this.buildOutputChannels = ImmutableList.copyOf(requireNonNull(buildOutputChannels, "buildOutputChannels is null"));
+            this.buildKeyChannels = ImmutableList.copyOf(requireNonNull(buildKeyChannels, "buildKeyChannels is null"));
+            this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+            this.outer = outer;
+            this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+            checkArgument(!probeKeyChannels.isEmpty(), "probeKeyChannels is empty");
+            checkArgument(probeKeyChannels.size() == buildKeyChannels.size(), "probeKeyChannels and buildKeyChannels do not match");
+            checkArgument(probeKeyChannels.size() == sortOrders.size(), "probeKeyChannels and sortOrders do not match");
+        }
+
+        private MergeJoinOperatorFactory(MergeJoinOperatorFactory other)
+        {
+            requireNonNull(other, "other is null");
+            this.operatorId = other.operatorId;
+            this.planNodeId = other.planNodeId;
+            this.joinBridgeManager = other.joinBridgeManager;
+            this.probeTypes = other.probeTypes;
+            this.probeOutputChannels = other.probeOutputChannels;
+            this.probeKeyChannels = other.probeKeyChannels;
+            this.buildTypes = other.buildTypes;
+            this.buildOutputChannels = other.buildOutputChannels;
+            this.buildKeyChannels = other.buildKeyChannels;
+            this.sortOrders = other.sortOrders;
+            this.outer = other.outer;
+            this.blockTypeOperators = other.blockTypeOperators;
+
+            // closed is intentionally not copied
+            closed = false;
+
+            joinBridgeManager.incrementProbeFactoryCount();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            MergeJoinBridge mergeJoinBridge = joinBridgeManager.getJoinBridge(driverContext.getLifespan());
+
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinOperator.class.getSimpleName());
+
+            mergeJoinBridge.probeOperatorCreated();
+            joinBridgeManager.probeOperatorCreated(driverContext.getLifespan());
+
+            List<BlockPositionComparison> comparisons = new ArrayList<>();
+            for (int i = 0; i < probeKeyChannels.size(); i++) {
+                BlockPositionComparison comparison = blockTypeOperators.getComparisonOperator(probeTypes.get(probeKeyChannels.get(i)));
+                comparisons.add(sortOrders.get(i).isAscending() ? comparison : comparison.reversed());
+            }
+
+            return new MergeJoinOperator(
+                    operatorContext,
+                    mergeJoinBridge,
+                    probeOutputChannels.stream().map(probeTypes::get).collect(toImmutableList()),
+                    probeOutputChannels,
+                    probeKeyChannels,
+                    buildOutputChannels.stream().map(buildTypes::get).collect(toImmutableList()),
+                    buildOutputChannels,
+                    buildKeyChannels,
+                    comparisons,
+                    outer,
+                    () -> joinBridgeManager.probeOperatorClosed(driverContext.getLifespan()));
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            joinBridgeManager.probeOperatorFactoryClosedForAllLifespans();
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            joinBridgeManager.probeOperatorFactoryClosed(lifespan);
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new MergeJoinOperatorFactory(this);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinBridge mergeJoinBridge;
+    private final List<Type> probeOutputTypes;
+    private final int[] probeOutputChannels;
+    private final int[] probeKeyChannels;
+    private final List<Type> buildOutputTypes;
+    private final int[] buildOutputChannels;
+    private final int[] buildKeyChannels;
+    private final BlockPositionComparison[] comparisons;
+    private final boolean outer;
+    private final Runnable afterClose;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final PageBuilder pageBuilder;
+
+    private Page probePage;
+    private int probePosition;
+    private Page previousProbePage;
+    private int previousProbePosition;
+
+    private Page buildPage;
+    private int buildPosition;
+    private Page previousBuildPage;
+    private int previousBuildPosition;
+    private boolean buildExhausted;
+
+    // build rows with the key of the current group, which is greater than or equal to the key of the current probe row
+    private final List<Page> groupPages = new ArrayList<>();
+    private final IntArrayList groupPositions = new IntArrayList();
+    private long groupRetainedSizeInBytes;
+    private boolean groupComplete;
+    // next row of the group to join with the current probe row
+    private int groupMatchIndex;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finishing;
+    private boolean closed;
+
+    private MergeJoinOperator(
+            OperatorContext operatorContext,
+            MergeJoinBridge mergeJoinBridge,
+            List<Type> probeOutputTypes,
+            List<Integer> probeOutputChannels,
+            List<Integer> probeKeyChannels,
+            List<Type> buildOutputTypes,
+            List<Integer> buildOutputChannels,
+            List<Integer> buildKeyChannels,
+            List<BlockPositionComparison> comparisons,
+            boolean outer,
+            Runnable afterClose)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinBridge = requireNonNull(mergeJoinBridge, "mergeJoinBridge is null");
+        this.probeOutputTypes = ImmutableList.copyOf(requireNonNull(probeOutputTypes, "probeOutputTypes is null"));
+        this.probeOutputChannels = Ints.toArray(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+        this.probeKeyChannels = Ints.toArray(requireNonNull(probeKeyChannels, "probeKeyChannels is null"));
+        this.buildOutputTypes = ImmutableList.copyOf(requireNonNull(buildOutputTypes, "buildOutputTypes is null"));
+        this.buildOutputChannels = Ints.toArray(requireNonNull(buildOutputChannels, "buildOutputChannels is null"));
+        this.buildKeyChannels = Ints.toArray(requireNonNull(buildKeyChannels, "buildKeyChannels is null"));
+        this.comparisons = requireNonNull(comparisons, "comparisons is null").toArray(new BlockPositionComparison[0]);
+        this.outer = outer;
+        this.afterClose = requireNonNull(afterClose, "afterClose is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.pageBuilder = new PageBuilder(ImmutableList.<Type>builder()
+                .addAll(probeOutputTypes)
+                .addAll(buildOutputTypes)
+                .build());
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // without outer rows, probe rows can no longer produce output once the build side is exhausted
+        boolean finished = pageBuilder.isEmpty() &&
+                ((finishing && probePage == null) || (!outer && buildExhausted && groupPages.isEmpty()));
+
+        if (finished) {
+            close();
+        }
+        return finished;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && probePage == null && !closed;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(!finishing, "Operator is finishing");
+        checkState(probePage == null, "Current page has not been completely processed yet");
+
+        if (page.getPositionCount() > 0) {
+            probePage = page;
+            probePosition = 0;
+        }
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        blocked = NOT_BLOCKED;
+        while (probePage != null && !isOutputFull()) {
+            if (!processProbePosition()) {
+                break;
+            }
+        }
+        localUserMemoryContext.setBytes(groupRetainedSizeInBytes + mergeJoinBridge.getBufferedBytes() + pageBuilder.getRetainedSizeInBytes());
+
+        if (pageBuilder.isEmpty() || !(isOutputFull() || probePage == null || !blocked.isDone())) {
+            return null;
+        }
+        Page output = pageBuilder.build();
+        pageBuilder.reset();
+        return output;
+    }
+
+    @Override
+    public void close()
+    {
+        probePage = null;
+        previousProbePage = null;
+        buildPage = null;
+        previousBuildPage = null;
+        clearGroup();
+        // the bridge is reference counted, so it must not be released multiple times
+        if (closed) {
+            return;
+        }
+        closed = true;
+        localUserMemoryContext.setBytes(0);
+        mergeJoinBridge.probeClosed();
+        // `afterClose` must be run last.
+        afterClose.run();
+    }
+
+    /**
+     * Returns false if the current probe row cannot be processed until more build input is available.
+     */
+    private boolean processProbePosition()
+    {
+        if (groupMatchIndex == 0) {
+            if (hasNullKey(probePage, probePosition, probeKeyChannels)) {
+                appendUnmatchedIfOuter();
+                advanceProbe();
+                return true;
+            }
+            checkProbeSorted();
+            if (!advanceBuild()) {
+                return false;
+            }
+            if (groupPages.isEmpty() || compareKeys(groupPages.get(0), groupPositions.getInt(0), buildKeyChannels, probePage, probePosition, probeKeyChannels) != 0) {
+                appendUnmatchedIfOuter();
+                advanceProbe();
+                return true;
+            }
+        }
+
+        while (groupMatchIndex < groupPages.size() && !isOutputFull()) {
+            appendRow(groupPages.get(groupMatchIndex), groupPositions.getInt(groupMatchIndex));
+            groupMatchIndex++;
+        }
+        if (groupMatchIndex == groupPages.size()) {
+            groupMatchIndex = 0;
+            advanceProbe();
+        }
+        return true;
+    }
+
+    /**
+     * Reads build rows until the group holds all build rows with the smallest key that is
+     * greater than or equal to the key of the current probe row, or the build side is exhausted.
+     */
+    private boolean advanceBuild()
+    {
+        while (true) {
+            if (!groupPages.isEmpty()) {
+                if (compareKeys(groupPages.get(0), groupPositions.getInt(0), buildKeyChannels, probePage, probePosition, probeKeyChannels) < 0) {
+                    clearGroup();
+                }
+                else if (groupComplete) {
+                    return true;
+                }
+            }
+            else if (buildExhausted) {
+                return true;
+            }
+
+            if (!nextBuildRow()) {
+                if (!buildExhausted) {
+                    return false;
+                }
+                groupComplete = true;
+                continue;
+            }
+
+            if (hasNullKey(buildPage, buildPosition, buildKeyChannels)) {
+                buildPosition++;
+                continue;
+            }
+
+            if (groupPages.isEmpty()) {
+                checkBuildSorted();
+                if (compareKeys(buildPage, buildPosition, buildKeyChannels, probePage, probePosition, probeKeyChannels) >= 0) {
+                    addToGroup(buildPage, buildPosition);
+                }
+                buildPosition++;
+                continue;
+            }
+
+            long comparison = compareKeys(buildPage, buildPosition, buildKeyChannels, groupPages.get(0), groupPositions.getInt(0), buildKeyChannels);
+            if (comparison < 0) {
+                throw new PrestoException(NOT_SUPPORTED, "Merge join build input is not sorted on the join keys");
+            }
+            if (comparison > 0) {
+                // the row starts the next group, so it is not consumed
+                groupComplete = true;
+                continue;
+            }
+            addToGroup(buildPage, buildPosition);
+            buildPosition++;
+        }
+    }
+
+    private boolean nextBuildRow()
+    {
+        while (buildPage == null || buildPosition == buildPage.getPositionCount()) {
+            buildPage = mergeJoinBridge.pollPage();
+            buildPosition = 0;
+            if (buildPage == null) {
+                if (mergeJoinBridge.isBuildExhausted()) {
+                    buildExhausted = true;
+                }
+                else {
+                    blocked = mergeJoinBridge.whenPageAvailable();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToGroup(Page page, int position)
+    {
+        if (groupPages.isEmpty()) {
+            groupComplete = false;
+        }
+        if (groupPages.isEmpty() || groupPages.get(groupPages.size() - 1) != page) {
+            groupRetainedSizeInBytes += page.getRetainedSizeInBytes();
+        }
+        groupPages.add(page);
+        groupPositions.add(position);
+    }
+
+    private void clearGroup()
+    {
+        groupPages.clear();
+        groupPositions.clear();
+        groupRetainedSizeInBytes = 0;
+        groupComplete = false;
+        groupMatchIndex = 0;
+    }
+
+    private void advanceProbe()
+    {
+        probePosition++;
+        if (probePosition == probePage.getPositionCount()) {
+            probePage = null;
+        }
+    }
+
+    private void checkProbeSorted()
+    {
+        if (previousProbePage != null && compareKeys(previousProbePage, previousProbePosition, probeKeyChannels, probePage, probePosition, probeKeyChannels) > 0) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join probe input is not sorted on the join keys");
+        }
+        previousProbePage = probePage;
+        previousProbePosition = probePosition;
+    }
+
+    private void checkBuildSorted()
+    {
+        if (previousBuildPage != null && compareKeys(previousBuildPage, previousBuildPosition, buildKeyChannels, buildPage, buildPosition, buildKeyChannels) > 0) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join build input is not sorted on the join keys");
+        }
+        previousBuildPage = buildPage;
+        previousBuildPosition = buildPosition;
+    }
+
+    private long compareKeys(Page left, int leftPosition, int[] leftChannels, Page right, int rightPosition, int[] rightChannels)
+    {
+        for (int i = 0; i < comparisons.length; i++) {
+            long comparison = comparisons[i].compare(left.getBlock(leftChannels[i]), leftPosition, right.getBlock(rightChannels[i]), rightPosition);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasNullKey(Page page, int position, int[] keyChannels)
+    {
+        for (int channel : keyChannels) {
+            if (page.getBlock(channel).isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendUnmatchedIfOuter()
+    {
+        if (outer) {
+            appendRow(null, -1);
+        }
+    }
+
+    private void appendRow(Page build, int position)
+    {
+        pageBuilder.declarePosition();
+        for (int i = 0; i < probeOutputChannels.length; i++) {
+            probeOutputTypes.get(i).appendTo(probePage.getBlock(probeOutputChannels[i]), probePosition, pageBuilder.getBlockBuilder(i));
+        }
+        for (int i = 0; i < buildOutputChannels.length; i++) {
+            if (build == null) {
+                pageBuilder.getBlockBuilder(probeOutputChannels.length + i).appendNull();
+            }
+            else {
+                buildOutputTypes.get(i).appendTo(build.getBlock(buildOutputChannels[i]), position, pageBuilder.getBlockBuilder(probeOutputChannels.length + i));
+            }
+        }
+    }
+
+    private boolean isOutputFull()
+    {
+        return pageBuilder.isFull() || pageBuilder.getPositionCount() >= MAX_BATCH_SIZE;
+    }
+}
@@ -34,6 +34,7 @@ import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.util.Mergeable;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 
 import java.util.Arrays;
 import java.util.List;
@@ -41,6 +42,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -55,6 +57,10 @@ import static java.util.Objects.requireNonNull;
 public class PartitionedOutputOperator
         implements Operator
 {
+    // every HEAVY_HITTER_SAMPLE_INTERVAL-th row is sampled, and any key with more than 1/(HEAVY_HITTER_CAPACITY + 1) of the sample is found
+    private static final int HEAVY_HITTER_SAMPLE_INTERVAL = 16;
+    private static final int HEAVY_HITTER_CAPACITY = 32;
+
     public static class PartitionedOutputFactory
             implements OutputFactory
     {
@@ -64,6 +70,7 @@ public class PartitionedOutputOperator
         private final OutputBuffer outputBuffer;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final Optional<HashGenerator> keyHashGenerator;
         private final DataSize maxMemory;
 
         public PartitionedOutputFactory(
@@ -72,6 +79,7 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<HashGenerator> keyHashGenerator,
                 OutputBuffer outputBuffer,
                 DataSize maxMemory)
         {
@@ -80,6 +88,7 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.keyHashGenerator = requireNonNull(keyHashGenerator, "keyHashGenerator is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
         }
@@ -102,6 +111,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    keyHashGenerator,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -120,6 +130,7 @@ public class PartitionedOutputOperator
         private final List<Optional<NullableValue>> partitionConstants;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final Optional<HashGenerator> keyHashGenerator;
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
@@ -134,6 +145,7 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<HashGenerator> keyHashGenerator,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 DataSize maxMemory)
@@ -147,6 +159,7 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.keyHashGenerator = requireNonNull(keyHashGenerator, "keyHashGenerator is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
@@ -165,6 +178,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    keyHashGenerator,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -188,6 +202,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    keyHashGenerator,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -210,6 +225,7 @@ public class PartitionedOutputOperator
             List<Optional<NullableValue>> partitionConstants,
             boolean replicatesAnyRow,
             OptionalInt nullChannel,
+            Optional<HashGenerator> keyHashGenerator,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
             DataSize maxMemory)
@@ -222,6 +238,7 @@ public class PartitionedOutputOperator
                 partitionConstants,
                 replicatesAnyRow,
                 nullChannel,
+                keyHashGenerator,
                 outputBuffer,
                 serdeFactory,
                 sourceTypes,
@@ -310,8 +327,13 @@ public class PartitionedOutputOperator
         private final PageBuilder[] pageBuilders;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        private final Optional<HashGenerator> keyHashGenerator; // when present, a sample of the partitioning keys is checked for heavy hitters
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
+        @GuardedBy("this")
+        private final HeavyHitterSampler heavyHitterSampler = new HeavyHitterSampler(HEAVY_HITTER_CAPACITY);
+        private int rowsUntilNextSample = HEAVY_HITTER_SAMPLE_INTERVAL;
         private boolean hasAnyRowBeenReplicated;
         private OperatorContext operatorContext;
 
@@ -321,6 +343,7 @@ public class PartitionedOutputOperator
                 List<Optional<NullableValue>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<HashGenerator> keyHashGenerator,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
@@ -340,6 +363,7 @@ public class PartitionedOutputOperator
             }
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.keyHashGenerator = requireNonNull(keyHashGenerator, "keyHashGenerator is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.sourceTypes = requireNonNull(sourceTypes, "sourceTypes is null");
             this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
@@ -361,6 +385,7 @@ public class PartitionedOutputOperator
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
             }
+            this.partitionRowsAdded = new AtomicLongArray(partitionCount);
         }
 
         public ListenableFuture<?> isFull()
@@ -393,7 +418,17 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            long[] partitionRowsAdded = new long[this.partitionRowsAdded.length()];
+            for (int partition = 0; partition < partitionRowsAdded.length; partition++) {
+                partitionRowsAdded[partition] = this.partitionRowsAdded.get(partition);
+            }
+            long heavyHitterRows = 0;
+            if (keyHashGenerator.isPresent()) {
+                synchronized (this) {
+                    heavyHitterRows = heavyHitterSampler.getTopKeyCount() * HEAVY_HITTER_SAMPLE_INTERVAL;
+                }
+            }
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage(), partitionRowsAdded, heavyHitterRows);
         }
 
         public void partitionPage(Page page)
@@ -415,9 +450,29 @@ public class PartitionedOutputOperator
                     appendRow(pageBuilders[partition], page, position);
                 }
             }
+            sampleKeys(partitionFunctionArgs);
             flush(false);
         }
 
+        private void sampleKeys(Page partitionFunctionArgs)
+        {
+            if (!keyHashGenerator.isPresent()) {
+                return;
+            }
+
+            HashGenerator hashGenerator = keyHashGenerator.get();
+            int positionCount = partitionFunctionArgs.getPositionCount();
+            int position = rowsUntilNextSample - 1;
+            if (position < positionCount) {
+                synchronized (this) {
+                    for (; position < positionCount; position += HEAVY_HITTER_SAMPLE_INTERVAL) {
+                        heavyHitterSampler.add(hashGenerator.hashPosition(position, partitionFunctionArgs));
+                    }
+                }
+            }
+            rowsUntilNextSample = position - positionCount + 1;
+        }
+
         private Page getPartitionFunctionArguments(Page page)
         {
             // Fast path for no constants
@@ -462,6 +517,7 @@ public class PartitionedOutputOperator
                     outputBuffer.enqueue(partition, splitAndSerializePage(pagePartition));
                     pagesAdded.incrementAndGet();
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    partitionRowsAdded.addAndGet(partition, pagePartition.getPositionCount());
                 }
             }
         }
@@ -483,16 +539,22 @@ public class PartitionedOutputOperator
         private final long rowsAdded;
         private final long pagesAdded;
         private final long outputBufferPeakMemoryUsage;
+        private final long[] partitionRowsAdded;
+        private final long heavyHitterRows;
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
-                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+                @JsonProperty("partitionRowsAdded") long[] partitionRowsAdded,
+                @JsonProperty("heavyHitterRows") long heavyHitterRows)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+            this.partitionRowsAdded = requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
+            this.heavyHitterRows = heavyHitterRows;
         }
 
         @JsonProperty
@@ -513,13 +575,57 @@ public class PartitionedOutputOperator
             return outputBufferPeakMemoryUsage;
         }
 
+        /**
+         * Rows sent to each output partition, including rows replicated to all partitions.
+         */
+        @JsonProperty
+        public long[] getPartitionRowsAdded()
+        {
+            return partitionRowsAdded;
+        }
+
+        /**
+         * Estimated number of rows with the most frequent partitioning key in the output of a single
+         * operator, or 0 if heavy hitter detection is disabled. When merged, the largest estimate is kept,
+         * as the operators may have seen different hot keys.
+         */
+        @JsonProperty
+        public long getHeavyHitterRows()
+        {
+            return heavyHitterRows;
+        }
+
+        /**
+         * Ratio of the rows sent to the largest partition to the average rows per partition.
+         * A value of 1 means rows are spread evenly.
+         */
+        public double getPartitionSkew()
+        {
+            long total = 0;
+            long max = 0;
+            for (long rows : partitionRowsAdded) {
+                total += rows;
+                max = Math.max(max, rows);
+            }
+            if (total == 0) {
+                return 1.0;
+            }
+            return max * (double) partitionRowsAdded.length / total;
+        }
+
         @Override
         public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
         {
+            long[] mergedPartitionRowsAdded = Arrays.copyOf(partitionRowsAdded, max(partitionRowsAdded.length, other.partitionRowsAdded.length));
+            for (int partition = 0; partition < other.partitionRowsAdded.length; partition++) {
+                mergedPartitionRowsAdded[partition] += other.partitionRowsAdded[partition];
+            }
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
-                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                    mergedPartitionRowsAdded,
+                    Math.max(heavyHitterRows, other.heavyHitterRows));
         }
 
         @Override
@@ -535,6 +641,8 @@ public class PartitionedOutputOperator
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                    .add("partitionSkew", getPartitionSkew())
+                    .add("heavyHitterRows", heavyHitterRows)
                     .toString();
         }
     }
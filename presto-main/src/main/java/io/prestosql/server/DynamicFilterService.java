@@ -43,6 +43,7 @@ import io.prestosql.sql.planner.Symbol;
 import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
 import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.MergeJoinNode;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.SemiJoinNode;
 
@@ -418,7 +419,7 @@ public class DynamicFilterService
     private static Set<DynamicFilterId> getProducedDynamicFilters(PlanNode planNode)
     {
         return PlanNodeSearcher.searchFrom(planNode)
-                .where(isInstanceOfAny(JoinNode.class, SemiJoinNode.class))
+                .where(isInstanceOfAny(JoinNode.class, MergeJoinNode.class, SemiJoinNode.class))
                 .findAll().stream()
                 .flatMap(node -> getDynamicFiltersProducedInPlanNode(node).stream())
                 .collect(toImmutableSet());
@@ -429,10 +430,13 @@ public class DynamicFilterService
         if (planNode instanceof JoinNode) {
             return ((JoinNode) planNode).getDynamicFilters().keySet();
         }
+        if (planNode instanceof MergeJoinNode) {
+            return ((MergeJoinNode) planNode).getDynamicFilters().keySet();
+        }
         if (planNode instanceof SemiJoinNode) {
             return ((SemiJoinNode) planNode).getDynamicFilterId().map(ImmutableSet::of).orElse(ImmutableSet.of());
         }
-        throw new IllegalStateException("getDynamicFiltersProducedInPlanNode called with neither JoinNode nor SemiJoinNode");
+        throw new IllegalStateException("getDynamicFiltersProducedInPlanNode called with neither JoinNode, MergeJoinNode nor SemiJoinNode");
     }
 
     private static Set<DynamicFilterId> getConsumedDynamicFilters(PlanNode planNode)
@@ -85,6 +85,8 @@ import io.prestosql.operator.ExchangeClientConfig;
 import io.prestosql.operator.ExchangeClientFactory;
 import io.prestosql.operator.ExchangeClientSupplier;
 import io.prestosql.operator.ForExchange;
+import io.prestosql.operator.FragmentResultCacheConfig;
+import io.prestosql.operator.FragmentResultCacheManager;
 import io.prestosql.operator.LookupJoinOperators;
 import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.PagesIndex;
@@ -445,6 +447,11 @@ public class ServerMainModule
         binder.bind(LocalSpillManager.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(NodeSpillConfig.class);
 
+        // Fragment result cache
+        configBinder(binder).bindConfig(FragmentResultCacheConfig.class);
+        binder.bind(FragmentResultCacheManager.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(FragmentResultCacheManager.class).withGeneratedName();
+
         // Dynamic Filtering
         configBinder(binder).bindConfig(DynamicFilterConfig.class);
 
@@ -642,6 +642,13 @@ public class Analysis
         namedQueries.put(NodeRef.of(tableReference), query);
     }
 
+    public int getNamedQueryReferenceCount(Query query)
+    {
+        return (int) namedQueries.values().stream()
+                .filter(namedQuery -> namedQuery == query)
+                .count();
+    }
+
     public void registerExpandableQuery(Query query, Node recursiveReference)
     {
         requireNonNull(query, "query is null");
@@ -76,6 +76,7 @@ public class FeaturesConfig
     private boolean dynamicScheduleForGroupedExecution;
     private int concurrentLifespansPerTask;
     private boolean spatialJoinsEnabled = true;
+    private boolean mergeJoinsEnabled;
     private JoinReorderingStrategy joinReorderingStrategy = JoinReorderingStrategy.AUTOMATIC;
     private int maxReorderedJoins = 9;
     private boolean redistributeWrites = true;
@@ -115,6 +116,7 @@ public class FeaturesConfig
     private boolean collectPlanStatisticsForAllQueries;
     private boolean ignoreStatsCalculatorFailures = true;
     private boolean defaultFilterFactorEnabled;
+    private boolean historyBasedStatisticsEnabled;
     private boolean enableForcedExchangeBelowGroupId = true;
     private boolean pushAggregationThroughOuterJoin = true;
     private boolean pushPartialAggregationThoughJoin;
@@ -321,6 +323,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isMergeJoinsEnabled()
+    {
+        return mergeJoinsEnabled;
+    }
+
+    @Config("merge-joins-enabled")
+    @ConfigDescription("Use merge join for colocated joins of inputs sorted on the join keys")
+    public FeaturesConfig setMergeJoinsEnabled(boolean mergeJoinsEnabled)
+    {
+        this.mergeJoinsEnabled = mergeJoinsEnabled;
+        return this;
+    }
+
     public JoinReorderingStrategy getJoinReorderingStrategy()
     {
         return joinReorderingStrategy;
@@ -623,6 +638,19 @@ public class FeaturesConfig
         return defaultFilterFactorEnabled;
     }
 
+    public boolean isHistoryBasedStatisticsEnabled()
+    {
+        return historyBasedStatisticsEnabled;
+    }
+
+    @Config("optimizer.history-based-statistics-enabled")
+    @ConfigDescription("Record actual output row counts of plan nodes and use them to estimate the same plan nodes in later queries")
+    public FeaturesConfig setHistoryBasedStatisticsEnabled(boolean historyBasedStatisticsEnabled)
+    {
+        this.historyBasedStatisticsEnabled = historyBasedStatisticsEnabled;
+        return this;
+    }
+
     public boolean isEnableForcedExchangeBelowGroupId()
     {
         return enableForcedExchangeBelowGroupId;
@@ -221,6 +221,7 @@ import static io.prestosql.spi.StandardErrorCode.TYPE_MISMATCH;
 import static io.prestosql.spi.StandardErrorCode.VIEW_IS_RECURSIVE;
 import static io.prestosql.spi.StandardErrorCode.VIEW_IS_STALE;
 import static io.prestosql.spi.connector.StandardWarningCode.REDUNDANT_ORDER_BY;
+import static io.prestosql.spi.connector.StandardWarningCode.REPEATED_WITH_QUERY;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
@@ -1037,6 +1038,7 @@ class StatementAnalyzer
         {
             Scope withScope = analyzeWith(node, scope);
             Scope queryBodyScope = process(node.getQueryBody(), withScope);
+            node.getWith().ifPresent(this::checkRepeatedWithQueries);
 
             List<Expression> orderByExpressions = emptyList();
             if (node.getOrderBy().isPresent()) {
@@ -2917,6 +2919,40 @@ class StatementAnalyzer
             return true;
         }
 
+        private void checkRepeatedWithQueries(With with)
+        {
+            for (WithQuery withQuery : with.getQueries()) {
+                Query query = withQuery.getQuery();
+                if (analysis.isExpandableQuery(query)) {
+                    continue;
+                }
+                // WITH queries are inlined at every reference and never materialized, which only matters when the query reads a relation
+                int references = analysis.getNamedQueryReferenceCount(query);
+                if (references > 1 && readsRelation(query, new HashSet<>())) {
+                    warningCollector.add(new PrestoWarning(REPEATED_WITH_QUERY, format(
+                            "WITH query '%s' is referenced %s times and will be computed separately for each reference",
+                            withQuery.getName().getValue(),
+                            references)));
+                }
+            }
+        }
+
+        private boolean readsRelation(Query query, Set<Query> visitedQueries)
+        {
+            if (!visitedQueries.add(query)) {
+                return false;
+            }
+            // references to WITH queries and views are resolved to the query they name, so that
+            // a query built only from VALUES or from other such queries is not considered
+            return preOrder(query)
+                    .filter(Table.class::isInstance)
+                    .map(Table.class::cast)
+                    .anyMatch(table -> {
+                        Query namedQuery = analysis.getNamedQuery(table);
+                        return namedQuery == null || readsRelation(namedQuery, visitedQueries);
+                    });
+        }
+
         private List<Node> findReferences(Node node, Identifier name)
         {
             Stream<Node> allReferences = preOrder(node)
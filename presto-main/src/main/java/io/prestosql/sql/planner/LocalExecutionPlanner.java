@@ -54,10 +54,14 @@ import io.prestosql.operator.ExchangeClientSupplier;
 import io.prestosql.operator.ExchangeOperator.ExchangeOperatorFactory;
 import io.prestosql.operator.ExplainAnalyzeOperator.ExplainAnalyzeOperatorFactory;
 import io.prestosql.operator.FilterAndProjectOperator;
+import io.prestosql.operator.FragmentResultCacheManager;
+import io.prestosql.operator.FragmentResultCacheOperator.FragmentResultCacheOperatorFactory;
 import io.prestosql.operator.GroupIdOperator;
 import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import io.prestosql.operator.HashBuilderOperator.HashBuilderOperatorFactory;
+import io.prestosql.operator.HashGenerator;
 import io.prestosql.operator.HashSemiJoinOperator;
+import io.prestosql.operator.InterpretedHashGenerator;
 import io.prestosql.operator.JoinBridgeManager;
 import io.prestosql.operator.JoinOperatorFactory;
 import io.prestosql.operator.JoinOperatorFactory.OuterOperatorFactoryResult;
@@ -67,6 +71,7 @@ import io.prestosql.operator.LookupJoinOperators;
 import io.prestosql.operator.LookupOuterOperator.LookupOuterOperatorFactory;
 import io.prestosql.operator.LookupSourceFactory;
 import io.prestosql.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import io.prestosql.operator.MergeJoinBridge;
 import io.prestosql.operator.MergeOperator.MergeOperatorFactory;
 import io.prestosql.operator.NestedLoopJoinBridge;
 import io.prestosql.operator.NestedLoopJoinPagesSupplier;
@@ -145,6 +150,7 @@ import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory
 import io.prestosql.sql.gen.OrderingCompiler;
 import io.prestosql.sql.gen.PageFunctionCompiler;
 import io.prestosql.sql.planner.optimizations.IndexJoinOptimizer;
+import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
 import io.prestosql.sql.planner.plan.AggregationNode;
 import io.prestosql.sql.planner.plan.AggregationNode.Aggregation;
 import io.prestosql.sql.planner.plan.AggregationNode.Step;
@@ -163,6 +169,7 @@ import io.prestosql.sql.planner.plan.IndexSourceNode;
 import io.prestosql.sql.planner.plan.JoinNode;
 import io.prestosql.sql.planner.plan.LimitNode;
 import io.prestosql.sql.planner.plan.MarkDistinctNode;
+import io.prestosql.sql.planner.plan.MergeJoinNode;
 import io.prestosql.sql.planner.plan.OutputNode;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanNodeId;
@@ -239,12 +246,16 @@ import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
 import static io.prestosql.SystemSessionProperties.isEnableLargeDynamicFilters;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
+import static io.prestosql.SystemSessionProperties.isFragmentResultCachingEnabled;
+import static io.prestosql.SystemSessionProperties.isHeavyHitterDetectionEnabled;
 import static io.prestosql.SystemSessionProperties.isLateMaterializationEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillOrderBy;
 import static io.prestosql.SystemSessionProperties.isSpillWindowOperator;
 import static io.prestosql.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static io.prestosql.operator.JoinUtils.isBuildSideReplicated;
+import static io.prestosql.operator.MergeJoinBuildOperator.MergeJoinBuildOperatorFactory;
+import static io.prestosql.operator.MergeJoinOperator.MergeJoinOperatorFactory;
 import static io.prestosql.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
 import static io.prestosql.operator.NestedLoopJoinOperator.NestedLoopJoinOperatorFactory;
 import static io.prestosql.operator.PipelineExecutionStrategy.GROUPED_EXECUTION;
@@ -264,6 +275,7 @@ import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartiti
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
 import static io.prestosql.sql.ExpressionUtils.combineConjuncts;
 import static io.prestosql.sql.gen.LambdaBytecodeGenerator.compileLambdaProvider;
+import static io.prestosql.sql.planner.DeterminismEvaluator.isDeterministic;
 import static io.prestosql.sql.planner.ExpressionExtractor.extractExpressions;
 import static io.prestosql.sql.planner.ExpressionNodeInliner.replaceExpression;
 import static io.prestosql.sql.planner.SortExpressionExtractor.extractSortExpression;
@@ -276,6 +288,7 @@ import static io.prestosql.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUT
 import static io.prestosql.sql.planner.plan.AggregationNode.Step.FINAL;
 import static io.prestosql.sql.planner.plan.AggregationNode.Step.PARTIAL;
 import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.LOCAL;
+import static io.prestosql.sql.planner.plan.ExchangeNode.gatheringExchange;
 import static io.prestosql.sql.planner.plan.JoinNode.Type.FULL;
 import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
 import static io.prestosql.sql.planner.plan.JoinNode.Type.LEFT;
@@ -326,6 +339,7 @@ public class LocalExecutionPlanner
     private final DynamicFilterConfig dynamicFilterConfig;
     private final TypeOperators typeOperators;
     private final BlockTypeOperators blockTypeOperators;
+    private final FragmentResultCacheManager fragmentResultCacheManager;
 
     @Inject
     public LocalExecutionPlanner(
@@ -351,7 +365,8 @@ public class LocalExecutionPlanner
             OrderingCompiler orderingCompiler,
             DynamicFilterConfig dynamicFilterConfig,
             TypeOperators typeOperators,
-            BlockTypeOperators blockTypeOperators)
+            BlockTypeOperators blockTypeOperators,
+            FragmentResultCacheManager fragmentResultCacheManager)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -379,6 +394,7 @@ public class LocalExecutionPlanner
         this.dynamicFilterConfig = requireNonNull(dynamicFilterConfig, "dynamicFilterConfig is null");
         this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
         this.blockTypeOperators = requireNonNull(blockTypeOperators, "blockTypeOperators is null");
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
     }
 
     public LocalExecutionPlan plan(
@@ -446,6 +462,15 @@ public class LocalExecutionPlanner
             nullChannel = OptionalInt.of(outputLayout.indexOf(getOnlyElement(partitioningColumns)));
         }
 
+        // used to detect partitioning keys that account for a large share of the rows
+        Optional<HashGenerator> keyHashGenerator = Optional.empty();
+        if (isHeavyHitterDetectionEnabled(taskContext.getSession()) && !partitioningColumns.isEmpty()) {
+            keyHashGenerator = Optional.of(new InterpretedHashGenerator(
+                    partitionChannelTypes,
+                    IntStream.range(0, partitionChannelTypes.size()).toArray(),
+                    blockTypeOperators));
+        }
+
         return plan(
                 taskContext,
                 stageExecutionDescriptor,
@@ -459,6 +484,7 @@ public class LocalExecutionPlanner
                         partitionConstants,
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
+                        keyHashGenerator,
                         outputBuffer,
                         maxPagePartitioningBufferSize));
     }
@@ -483,11 +509,20 @@ public class LocalExecutionPlanner
                 .map(types::get)
                 .collect(toImmutableList());
 
+        ImmutableList.Builder<OperatorFactory> operatorFactories = ImmutableList.<OperatorFactory>builder()
+                .addAll(physicalOperation.getOperatorFactories());
+        if (isFragmentResultCacheable(session, stageExecutionDescriptor, plan, partitionedSourceOrder)) {
+            operatorFactories.add(new FragmentResultCacheOperatorFactory(
+                    context.getNextOperatorId(),
+                    plan.getId(),
+                    fragmentResultCacheManager,
+                    fragmentResultCacheManager.getPlanKey(session, plan)));
+        }
+
         context.addDriverFactory(
                 context.isInputDriver(),
                 true,
-                ImmutableList.<OperatorFactory>builder()
-                        .addAll(physicalOperation.getOperatorFactories())
+                operatorFactories
                         .add(outputOperatorFactory.createOutputOperator(
                                 context.getNextOperatorId(),
                                 plan.getId(),
@@ -511,6 +546,45 @@ public class LocalExecutionPlanner
         return new LocalExecutionPlan(context.getDriverFactories(), partitionedSourceOrder, stageExecutionDescriptor);
     }
 
+    /**
+     * The result of a fragment can be cached for each split when the fragment consists of a single pipeline
+     * that reads only from a partitioned table scan, and the result depends on nothing but the data of the split.
+     */
+    private boolean isFragmentResultCacheable(Session session, StageExecutionDescriptor stageExecutionDescriptor, PlanNode plan, List<PlanNodeId> partitionedSourceOrder)
+    {
+        if (!fragmentResultCacheManager.isEnabled() || !isFragmentResultCachingEnabled(session) || stageExecutionDescriptor.isStageGroupedExecution()) {
+            return false;
+        }
+
+        List<PlanNode> nodes = PlanNodeSearcher.searchFrom(plan).findAll();
+        List<PlanNodeId> tableScans = nodes.stream()
+                .filter(TableScanNode.class::isInstance)
+                .map(PlanNode::getId)
+                .collect(toImmutableList());
+        return tableScans.equals(partitionedSourceOrder) && nodes.stream().allMatch(this::isFragmentResultCacheable);
+    }
+
+    private boolean isFragmentResultCacheable(PlanNode node)
+    {
+        if (node instanceof TableScanNode) {
+            return true;
+        }
+        if (node instanceof FilterNode) {
+            Expression predicate = ((FilterNode) node).getPredicate();
+            return isDeterministic(predicate, metadata) && extractDynamicFilters(predicate).getDynamicConjuncts().isEmpty();
+        }
+        if (node instanceof ProjectNode) {
+            return ((ProjectNode) node).getAssignments().getExpressions().stream()
+                    .allMatch(expression -> isDeterministic(expression, metadata));
+        }
+        if (node instanceof AggregationNode) {
+            AggregationNode aggregation = (AggregationNode) node;
+            return aggregation.getStep() == AggregationNode.Step.PARTIAL && aggregation.getAggregations().values().stream()
+                    .allMatch(value -> metadata.getFunctionMetadata(value.getResolvedFunction()).isDeterministic());
+        }
+        return false;
+    }
+
     private static void addLookupOuterDrivers(LocalExecutionPlanContext context)
     {
         // For an outer join on the lookup side (RIGHT or FULL) add an additional
@@ -1723,6 +1797,89 @@ public class LocalExecutionPlanner
             }
         }
 
+        @Override
+        public PhysicalOperation visitMergeJoin(MergeJoinNode node, LocalExecutionPlanContext context)
+        {
+            // Sorted inputs are only single streams per lifespan when every scan below the join uses grouped execution.
+            // Otherwise, the scans are split across drivers, so fall back to a hash join with a single build stream.
+            boolean grouped = stageExecutionDescriptor.isStageGroupedExecution() &&
+                    PlanNodeSearcher.searchFrom(node)
+                            .where(TableScanNode.class::isInstance)
+                            .findAll().stream()
+                            .allMatch(scan -> stageExecutionDescriptor.isScanGroupedExecution(scan.getId()));
+            if (!grouped) {
+                JoinNode joinNode = new JoinNode(
+                        node.getId(),
+                        node.getType(),
+                        node.getLeft(),
+                        gatheringExchange(new PlanNodeId(node.getId() + "_build"), LOCAL, node.getRight()),
+                        node.getCriteria(),
+                        node.getLeftOutputSymbols(),
+                        node.getRightOutputSymbols(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        Optional.of(JoinNode.DistributionType.PARTITIONED),
+                        Optional.of(false),
+                        node.getDynamicFilters(),
+                        Optional.empty());
+                return visitJoin(joinNode, context);
+            }
+
+            // dynamic filters cannot be collected with grouped execution, and their consumers on the
+            // probe side are ignored, as the filters are not registered with the local collector
+            PhysicalOperation probeSource = node.getLeft().accept(this, context);
+
+            LocalExecutionPlanContext buildContext = context.createSubContext();
+            PhysicalOperation buildSource = node.getRight().accept(this, buildContext);
+
+            checkState(
+                    probeSource.getPipelineExecutionStrategy() == GROUPED_EXECUTION && buildSource.getPipelineExecutionStrategy() == GROUPED_EXECUTION,
+                    "Sources of a merge join are expected to be GROUPED_EXECUTION");
+
+            JoinBridgeManager<MergeJoinBridge> mergeJoinBridgeManager = new JoinBridgeManager<>(
+                    false,
+                    probeSource.getPipelineExecutionStrategy(),
+                    buildSource.getPipelineExecutionStrategy(),
+                    lifespan -> new MergeJoinBridge(maxLocalExchangeBufferSize.toBytes()),
+                    buildSource.getTypes());
+            MergeJoinBuildOperatorFactory mergeJoinBuildOperatorFactory = new MergeJoinBuildOperatorFactory(
+                    buildContext.getNextOperatorId(),
+                    node.getId(),
+                    mergeJoinBridgeManager);
+
+            context.addDriverFactory(
+                    buildContext.isInputDriver(),
+                    false,
+                    ImmutableList.<OperatorFactory>builder()
+                            .addAll(buildSource.getOperatorFactories())
+                            .add(mergeJoinBuildOperatorFactory)
+                            .build(),
+                    buildContext.getDriverInstanceCount(),
+                    buildSource.getPipelineExecutionStrategy());
+
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            List<Symbol> outputSymbols = node.getOutputSymbols();
+            for (int i = 0; i < outputSymbols.size(); i++) {
+                outputMappings.put(outputSymbols.get(i), i);
+            }
+
+            OperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    mergeJoinBridgeManager,
+                    probeSource.getTypes(),
+                    getChannelsForSymbols(node.getLeftOutputSymbols(), probeSource.getLayout()),
+                    getChannelsForSymbols(Lists.transform(node.getCriteria(), JoinNode.EquiJoinClause::getLeft), probeSource.getLayout()),
+                    buildSource.getTypes(),
+                    getChannelsForSymbols(node.getRightOutputSymbols(), buildSource.getLayout()),
+                    getChannelsForSymbols(Lists.transform(node.getCriteria(), JoinNode.EquiJoinClause::getRight), buildSource.getLayout()),
+                    node.getSortOrders(),
+                    node.getType() == LEFT,
+                    blockTypeOperators);
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), context, probeSource);
+        }
+
         @Override
         public PhysicalOperation visitSpatialJoin(SpatialJoinNode node, LocalExecutionPlanContext context)
         {
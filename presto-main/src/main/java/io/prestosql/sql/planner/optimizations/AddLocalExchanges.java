@@ -22,6 +22,7 @@ import io.prestosql.metadata.Metadata;
 import io.prestosql.spi.connector.ConstantProperty;
 import io.prestosql.spi.connector.GroupingProperty;
 import io.prestosql.spi.connector.LocalProperty;
+import io.prestosql.spi.connector.SortOrder;
 import io.prestosql.spi.connector.SortingProperty;
 import io.prestosql.spi.type.TypeOperators;
 import io.prestosql.sql.planner.Partitioning;
@@ -43,6 +44,7 @@ import io.prestosql.sql.planner.plan.IndexJoinNode;
 import io.prestosql.sql.planner.plan.JoinNode;
 import io.prestosql.sql.planner.plan.LimitNode;
 import io.prestosql.sql.planner.plan.MarkDistinctNode;
+import io.prestosql.sql.planner.plan.MergeJoinNode;
 import io.prestosql.sql.planner.plan.OutputNode;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanVisitor;
@@ -62,8 +64,10 @@ import io.prestosql.sql.tree.Literal;
 import io.prestosql.sql.tree.SymbolReference;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -75,6 +79,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
 import static io.prestosql.SystemSessionProperties.isDistributedSortEnabled;
+import static io.prestosql.SystemSessionProperties.isMergeJoinEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
@@ -94,6 +99,9 @@ import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
 import static io.prestosql.sql.planner.plan.ExchangeNode.gatheringExchange;
 import static io.prestosql.sql.planner.plan.ExchangeNode.mergingExchange;
 import static io.prestosql.sql.planner.plan.ExchangeNode.partitionedExchange;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.LEFT;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Predicate.isEqual;
 import static java.util.stream.Collectors.toList;
@@ -650,6 +658,10 @@ public class AddLocalExchanges
         @Override
         public PlanWithProperties visitJoin(JoinNode node, StreamPreferredProperties parentPreferences)
         {
+            if (isMergeJoinEnabled(session) && isMergeJoinCandidate(node)) {
+                return planMergeJoin(node);
+            }
+
             PlanWithProperties probe = planAndEnforce(
                     node.getLeft(),
                     defaultParallelism(session),
@@ -681,6 +693,115 @@ public class AddLocalExchanges
             return rebaseAndDeriveProperties(node, ImmutableList.of(probe, build));
         }
 
+        private boolean isMergeJoinCandidate(JoinNode node)
+        {
+            if ((node.getType() != INNER && node.getType() != LEFT) ||
+                    node.getCriteria().isEmpty() ||
+                    node.getFilter().isPresent() ||
+                    !node.getDistributionType().equals(Optional.of(PARTITIONED))) {
+                return false;
+            }
+            // check the properties before planning the sources, so they are only planned once when the inputs are not sorted
+            List<LocalProperty<Symbol>> leftProperties = PropertyDerivations.derivePropertiesRecursively(node.getLeft(), metadata, typeOperators, session, types, typeAnalyzer).getLocalProperties();
+            List<LocalProperty<Symbol>> rightProperties = PropertyDerivations.derivePropertiesRecursively(node.getRight(), metadata, typeOperators, session, types, typeAnalyzer).getLocalProperties();
+            return toMergeJoin(node, node.getLeft(), leftProperties, node.getRight(), rightProperties).isPresent();
+        }
+
+        private PlanWithProperties planMergeJoin(JoinNode node)
+        {
+            // the sources must not be split into multiple streams, or they would no longer be sorted
+            PlanWithProperties probe = planAndEnforce(node.getLeft(), any(), any());
+            PlanWithProperties build = planAndEnforce(node.getRight(), any(), any());
+
+            Optional<MergeJoinNode> mergeJoin = toMergeJoin(node, probe.getNode(), probe.getProperties().getLocalProperties(), build.getNode(), build.getProperties().getLocalProperties());
+            if (mergeJoin.isPresent()) {
+                return deriveProperties(mergeJoin.get(), ImmutableList.of(probe.getProperties(), build.getProperties()));
+            }
+
+            // planning the sources did not preserve the sort order, so enforce the properties of a hash join
+            if (isSpillEnabled(session)) {
+                node = node.withSpillable(false);
+            }
+            probe = enforce(probe, defaultParallelism(session));
+            StreamPreferredProperties buildPreference = getTaskConcurrency(session) > 1 ? exactlyPartitionedOn(Lists.transform(node.getCriteria(), JoinNode.EquiJoinClause::getRight)) : singleStream();
+            build = enforce(build, buildPreference);
+            return rebaseAndDeriveProperties(node, ImmutableList.of(probe, build));
+        }
+
+        /**
+         * Returns a merge join if both sources are sorted on all join keys, in the same order
+         * and with the same directions. The criteria are reordered to follow the sort order.
+         */
+        private Optional<MergeJoinNode> toMergeJoin(JoinNode node, PlanNode left, List<LocalProperty<Symbol>> leftProperties, PlanNode right, List<LocalProperty<Symbol>> rightProperties)
+        {
+            Map<Symbol, Symbol> rightKeys = new HashMap<>();
+            for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+                if (rightKeys.put(clause.getLeft(), clause.getRight()) != null) {
+                    return Optional.empty();
+                }
+            }
+            if (ImmutableSet.copyOf(rightKeys.values()).size() != rightKeys.size()) {
+                return Optional.empty();
+            }
+
+            List<JoinNode.EquiJoinClause> criteria = new ArrayList<>();
+            List<SortOrder> sortOrders = new ArrayList<>();
+            Iterator<SortingProperty<Symbol>> leftSorting = sortingProperties(leftProperties).iterator();
+            while (criteria.size() < rightKeys.size() && leftSorting.hasNext()) {
+                SortingProperty<Symbol> sorting = leftSorting.next();
+                Symbol rightKey = rightKeys.get(sorting.getColumn());
+                if (rightKey == null || criteria.stream().anyMatch(clause -> clause.getLeft().equals(sorting.getColumn()))) {
+                    return Optional.empty();
+                }
+                criteria.add(new JoinNode.EquiJoinClause(sorting.getColumn(), rightKey));
+                sortOrders.add(sorting.getOrder());
+            }
+            if (criteria.size() != rightKeys.size()) {
+                return Optional.empty();
+            }
+
+            // rows with null keys never match, so the position of nulls does not matter
+            List<SortingProperty<Symbol>> rightSorting = sortingProperties(rightProperties);
+            if (rightSorting.size() < criteria.size()) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < criteria.size(); i++) {
+                if (!rightSorting.get(i).getColumn().equals(criteria.get(i).getRight()) ||
+                        rightSorting.get(i).getOrder().isAscending() != sortOrders.get(i).isAscending()) {
+                    return Optional.empty();
+                }
+            }
+
+            return Optional.of(new MergeJoinNode(
+                    node.getId(),
+                    node.getType(),
+                    left,
+                    right,
+                    criteria,
+                    sortOrders,
+                    node.getLeftOutputSymbols(),
+                    node.getRightOutputSymbols(),
+                    node.getDynamicFilters()));
+        }
+
+        /**
+         * Returns the leading sorting properties, skipping constants which do not affect the order.
+         */
+        private List<SortingProperty<Symbol>> sortingProperties(List<LocalProperty<Symbol>> properties)
+        {
+            ImmutableList.Builder<SortingProperty<Symbol>> sortingProperties = ImmutableList.builder();
+            for (LocalProperty<Symbol> property : properties) {
+                if (property instanceof ConstantProperty) {
+                    continue;
+                }
+                if (!(property instanceof SortingProperty)) {
+                    break;
+                }
+                sortingProperties.add((SortingProperty<Symbol>) property);
+            }
+            return sortingProperties.build();
+        }
+
         @Override
         public PlanWithProperties visitSemiJoin(SemiJoinNode node, StreamPreferredProperties parentPreferences)
         {
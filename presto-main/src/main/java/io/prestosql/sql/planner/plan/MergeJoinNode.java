@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.plan;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.plan.JoinNode.EquiJoinClause;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.LEFT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Join of two inputs that are both sorted on the join keys, in the order of the
+ * criteria and with the given sort orders. The inputs are consumed concurrently,
+ * so only the build rows of the current key are retained.
+ * <p>
+ * The dynamic filters are only collected when the join is executed as a hash join,
+ * see {@link io.prestosql.sql.planner.LocalExecutionPlanner}.
+ */
+@Immutable
+public class MergeJoinNode
+        extends PlanNode
+{
+    private final JoinNode.Type type;
+    private final PlanNode left;
+    private final PlanNode right;
+    private final List<EquiJoinClause> criteria;
+    private final List<SortOrder> sortOrders;
+    private final List<Symbol> leftOutputSymbols;
+    private final List<Symbol> rightOutputSymbols;
+    private final List<Symbol> outputSymbols;
+    private final Map<DynamicFilterId, Symbol> dynamicFilters;
+
+    @JsonCreator
+    public MergeJoinNode(
+            @JsonProperty("id") PlanNodeId id,
+            @JsonProperty("type") JoinNode.Type type,
+            @JsonProperty("left") PlanNode left,
+            @JsonProperty("right") PlanNode right,
+            @JsonProperty("criteria") List<EquiJoinClause> criteria,
+            @JsonProperty("sortOrders") List<SortOrder> sortOrders,
+            @JsonProperty("leftOutputSymbols") List<Symbol> leftOutputSymbols,
+            @JsonProperty("rightOutputSymbols") List<Symbol> rightOutputSymbols,
+            @JsonProperty("dynamicFilters") Map<DynamicFilterId, Symbol> dynamicFilters)
+    {
+        super(id);
+        requireNonNull(type, "type is null");
+        requireNonNull(left, "left is null");
+        requireNonNull(right, "right is null");
+        requireNonNull(criteria, "criteria is null");
+        requireNonNull(sortOrders, "sortOrders is null");
+        requireNonNull(leftOutputSymbols, "leftOutputSymbols is null");
+        requireNonNull(rightOutputSymbols, "rightOutputSymbols is null");
+        requireNonNull(dynamicFilters, "dynamicFilters is null");
+        checkArgument(type == INNER || type == LEFT, "Unsupported merge join type: %s", type);
+        checkArgument(!criteria.isEmpty(), "criteria is empty");
+        checkArgument(criteria.size() == sortOrders.size(), "criteria and sortOrders do not match");
+
+        this.type = type;
+        this.left = left;
+        this.right = right;
+        this.criteria = ImmutableList.copyOf(criteria);
+        this.sortOrders = ImmutableList.copyOf(sortOrders);
+        this.leftOutputSymbols = ImmutableList.copyOf(leftOutputSymbols);
+        this.rightOutputSymbols = ImmutableList.copyOf(rightOutputSymbols);
+        this.outputSymbols = ImmutableList.<Symbol>builder()
+                .addAll(leftOutputSymbols)
+                .addAll(rightOutputSymbols)
+                .build();
+        this.dynamicFilters = ImmutableMap.copyOf(dynamicFilters);
+
+        checkArgument(left.getOutputSymbols().containsAll(leftOutputSymbols), "Left source inputs do not contain all left output symbols");
+        checkArgument(right.getOutputSymbols().containsAll(rightOutputSymbols), "Right source inputs do not contain all right output symbols");
+        for (EquiJoinClause clause : criteria) {
+            checkArgument(left.getOutputSymbols().contains(clause.getLeft()), "Left side of join does not contain %s", clause.getLeft());
+            checkArgument(right.getOutputSymbols().contains(clause.getRight()), "Right side of join does not contain %s", clause.getRight());
+        }
+        for (Symbol symbol : dynamicFilters.values()) {
+            checkArgument(right.getOutputSymbols().contains(symbol), "Right join input doesn't contain symbol for dynamic filter: %s", symbol);
+        }
+    }
+
+    @JsonProperty("type")
+    public JoinNode.Type getType()
+    {
+        return type;
+    }
+
+    @JsonProperty("left")
+    public PlanNode getLeft()
+    {
+        return left;
+    }
+
+    @JsonProperty("right")
+    public PlanNode getRight()
+    {
+        return right;
+    }
+
+    @JsonProperty("criteria")
+    public List<EquiJoinClause> getCriteria()
+    {
+        return criteria;
+    }
+
+    @JsonProperty("sortOrders")
+    public List<SortOrder> getSortOrders()
+    {
+        return sortOrders;
+    }
+
+    @JsonProperty("leftOutputSymbols")
+    public List<Symbol> getLeftOutputSymbols()
+    {
+        return leftOutputSymbols;
+    }
+
+    @JsonProperty("rightOutputSymbols")
+    public List<Symbol> getRightOutputSymbols()
+    {
+        return rightOutputSymbols;
+    }
+
+    @JsonProperty("dynamicFilters")
+    public Map<DynamicFilterId, Symbol> getDynamicFilters()
+    {
+        return dynamicFilters;
+    }
+
+    @Override
+    public List<PlanNode> getSources()
+    {
+        return ImmutableList.of(left, right);
+    }
+
+    @Override
+    public List<Symbol> getOutputSymbols()
+    {
+        return outputSymbols;
+    }
+
+    @Override
+    public <R, C> R accept(PlanVisitor<R, C> visitor, C context)
+    {
+        return visitor.visitMergeJoin(this, context);
+    }
+
+    @Override
+    public PlanNode replaceChildren(List<PlanNode> newChildren)
+    {
+        checkArgument(newChildren.size() == 2, "expected newChildren to contain 2 nodes");
+        return new MergeJoinNode(getId(), type, newChildren.get(0), newChildren.get(1), criteria, sortOrders, leftOutputSymbols, rightOutputSymbols, dynamicFilters);
+    }
+}
@@ -26,6 +26,7 @@ import io.prestosql.sql.planner.TypeProvider;
 import io.prestosql.sql.planner.plan.DynamicFilterId;
 import io.prestosql.sql.planner.plan.FilterNode;
 import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.MergeJoinNode;
 import io.prestosql.sql.planner.plan.OutputNode;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanVisitor;
@@ -107,6 +108,26 @@ public class DynamicFiltersChecker
                 return ImmutableSet.copyOf(unmatched);
             }
 
+            @Override
+            public Set<DynamicFilterId> visitMergeJoin(MergeJoinNode node, Void context)
+            {
+                Set<DynamicFilterId> currentJoinDynamicFilters = node.getDynamicFilters().keySet();
+                Set<DynamicFilterId> consumedProbeSide = node.getLeft().accept(this, context);
+                Set<DynamicFilterId> unconsumedByProbeSide = difference(currentJoinDynamicFilters, consumedProbeSide);
+                verify(unconsumedByProbeSide.isEmpty(),
+                        "Dynamic filters %s present in merge join were not fully consumed by it's probe side.", unconsumedByProbeSide);
+
+                Set<DynamicFilterId> consumedBuildSide = node.getRight().accept(this, context);
+                Set<DynamicFilterId> unconsumedByBuildSide = intersection(currentJoinDynamicFilters, consumedBuildSide);
+                verify(unconsumedByBuildSide.isEmpty(),
+                        "Dynamic filters %s present in merge join were consumed by it's build side.", unconsumedByBuildSide);
+
+                Set<DynamicFilterId> unmatched = new HashSet<>(consumedBuildSide);
+                unmatched.addAll(consumedProbeSide);
+                unmatched.removeAll(currentJoinDynamicFilters);
+                return ImmutableSet.copyOf(unmatched);
+            }
+
             @Override
             public Set<DynamicFilterId> visitSemiJoin(SemiJoinNode node, Void context)
             {
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.Session;
+import io.prestosql.sql.planner.PlanNodeIdAllocator;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.rule.test.PlanBuilder;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import org.testng.annotations.Test;
+
+import static io.prestosql.SystemSessionProperties.HISTORY_BASED_STATISTICS_ENABLED;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.iterative.Lookup.noLookup;
+import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHistoryBasedStatsCalculator
+{
+    private static final Session SESSION = testSessionBuilder()
+            .setSystemProperty(HISTORY_BASED_STATISTICS_ENABLED, "true")
+            .build();
+
+    private final PlanNodeCanonicalizer canonicalizer = new PlanNodeCanonicalizer(new ObjectMapperProvider().get());
+    private final PlanStatisticsHistory history = new InMemoryPlanStatisticsHistory();
+    private final PlanBuilder planBuilder = new PlanBuilder(new PlanNodeIdAllocator(), createTestMetadataManager());
+    private final Symbol symbol = planBuilder.symbol("a", BIGINT);
+    private final StatsCalculator statsCalculator = new HistoryBasedStatsCalculator(
+            (node, sourceStats, lookup, session, types) -> PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(1000)
+                    .addSymbolStatistics(symbol, SymbolStatsEstimate.builder()
+                            .setDistinctValuesCount(1000)
+                            .setNullsFraction(0.1)
+                            .build())
+                    .build(),
+            canonicalizer,
+            history,
+            new StatsNormalizer());
+
+    @Test
+    public void testObservedRowCount()
+    {
+        PlanNode filter = planBuilder.filter(
+                expression("a > 5"),
+                planBuilder.tableScan(ImmutableList.of(symbol), ImmutableMap.of(symbol, new TestingColumnHandle("a"))));
+
+        PlanNodeStatsEstimate estimate = calculateStats(filter, SESSION);
+        assertEquals(estimate.getOutputRowCount(), 1000.0);
+
+        history.recordOutputRowCount(canonicalizer.getCanonicalKey(filter, noLookup()).orElseThrow(), 20);
+        estimate = calculateStats(filter, SESSION);
+        assertEquals(estimate.getOutputRowCount(), 20.0);
+        assertTrue(estimate.getSymbolStatistics(symbol).getDistinctValuesCount() <= 20);
+
+        // history is not used when it is disabled for the session
+        assertEquals(calculateStats(filter, testSessionBuilder().build()).getOutputRowCount(), 1000.0);
+    }
+
+    private PlanNodeStatsEstimate calculateStats(PlanNode node, Session session)
+    {
+        return statsCalculator.calculateStats(node, source -> PlanNodeStatsEstimate.unknown(), noLookup(), session, planBuilder.getTypes());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.sql.planner.PlanNodeIdAllocator;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.rule.test.PlanBuilder;
+import io.prestosql.sql.planner.plan.Assignments;
+import io.prestosql.sql.planner.plan.DynamicFilterId;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.tree.LogicalBinaryExpression;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.DynamicFilters.createDynamicFilterExpression;
+import static io.prestosql.sql.planner.iterative.Lookup.noLookup;
+import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.FINAL;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.PARTIAL;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPlanNodeCanonicalizer
+{
+    private final Metadata metadata = createTestMetadataManager();
+    private final PlanNodeCanonicalizer canonicalizer = new PlanNodeCanonicalizer(new ObjectMapperProvider().get());
+
+    @Test
+    public void testRowPreservingNodesAreIgnored()
+    {
+        Optional<String> filter = getCanonicalKey(p -> p.filter(expression("a > 5"), tableScan(p)));
+        assertTrue(filter.isPresent());
+        assertEquals(
+                getCanonicalKey(p -> p.project(
+                        Assignments.builder()
+                                .putIdentity(p.symbol("a"))
+                                .put(p.symbol("c"), expression("b + 1"))
+                                .build(),
+                        p.gatheringExchange(REMOTE, p.filter(expression("a > 5"), tableScan(p))))),
+                filter);
+        assertNotEquals(getCanonicalKey(p -> p.filter(expression("a > 6"), tableScan(p))), filter);
+        assertNotEquals(getCanonicalKey(this::tableScan), filter);
+    }
+
+    @Test
+    public void testSymbolNamesAreIgnored()
+    {
+        Optional<String> filter = getCanonicalKey(p -> p.filter(expression("a > 5"), tableScan(p, "a", "b")));
+        assertTrue(filter.isPresent());
+        assertEquals(getCanonicalKey(p -> p.filter(expression("a_1 > 5"), tableScan(p, "a_1", "b_2"))), filter);
+        assertEquals(
+                getCanonicalKey(p -> p.filter(
+                        expression("c > 5"),
+                        p.project(Assignments.of(p.symbol("c"), expression("x")), tableScan(p, "x", "y")))),
+                filter);
+        assertNotEquals(getCanonicalKey(p -> p.filter(expression("b > 5"), tableScan(p, "a", "b"))), filter);
+
+        Optional<String> aggregation = getCanonicalKey(p -> p.aggregation(builder -> builder
+                .step(SINGLE)
+                .singleGroupingSet(p.symbol("b"))
+                .addAggregation(p.symbol("count"), expression("count(a)"), ImmutableList.of(BIGINT))
+                .source(tableScan(p, "a", "b"))));
+        assertTrue(aggregation.isPresent());
+        assertEquals(
+                getCanonicalKey(p -> p.aggregation(builder -> builder
+                        .step(SINGLE)
+                        .singleGroupingSet(p.symbol("y"))
+                        .addAggregation(p.symbol("count_1"), expression("count(x)"), ImmutableList.of(BIGINT))
+                        .source(tableScan(p, "x", "y")))),
+                aggregation);
+    }
+
+    @Test
+    public void testDynamicFilters()
+    {
+        // a dynamic filter can only be keyed as part of the join that produces it
+        assertEquals(
+                getCanonicalKey(p -> p.filter(
+                        LogicalBinaryExpression.and(
+                                expression("a > 5"),
+                                createDynamicFilterExpression(metadata, new DynamicFilterId("df"), BIGINT, p.symbol("b").toSymbolReference())),
+                        tableScan(p))),
+                Optional.empty());
+
+        Optional<String> join = getCanonicalKey(p -> join(p, "df", true));
+        assertTrue(join.isPresent());
+        assertEquals(getCanonicalKey(p -> join(p, "other_df", true)), join);
+        assertNotEquals(getCanonicalKey(p -> join(p, "df", false)), join);
+    }
+
+    @Test
+    public void testSplitAggregation()
+    {
+        Optional<String> single = getCanonicalKey(p -> p.aggregation(aggregation -> aggregation
+                .step(SINGLE)
+                .singleGroupingSet(p.symbol("b"))
+                .addAggregation(p.symbol("count"), expression("count(a)"), ImmutableList.of(BIGINT))
+                .source(tableScan(p))));
+        assertTrue(single.isPresent());
+
+        Function<PlanBuilder, PlanNode> partial = p -> p.aggregation(aggregation -> aggregation
+                .step(PARTIAL)
+                .singleGroupingSet(p.symbol("b"))
+                .addAggregation(p.symbol("partial_count"), expression("count(a)"), ImmutableList.of(BIGINT))
+                .source(tableScan(p)));
+        assertEquals(getCanonicalKey(partial), Optional.empty());
+        assertEquals(
+                getCanonicalKey(p -> p.aggregation(aggregation -> aggregation
+                        .step(FINAL)
+                        .singleGroupingSet(p.symbol("b"))
+                        .addAggregation(p.symbol("count"), expression("count(partial_count)"), ImmutableList.of(BIGINT))
+                        .source(p.gatheringExchange(REMOTE, partial.apply(p))))),
+                single);
+    }
+
+    @Test
+    public void testUnsupportedNode()
+    {
+        assertEquals(getCanonicalKey(p -> p.limit(10, tableScan(p))), Optional.empty());
+        assertEquals(getCanonicalKey(p -> p.filter(expression("a > 5"), p.limit(10, tableScan(p)))), Optional.empty());
+    }
+
+    private Optional<String> getCanonicalKey(Function<PlanBuilder, PlanNode> planProvider)
+    {
+        PlanNode plan = planProvider.apply(new PlanBuilder(new PlanNodeIdAllocator(), metadata));
+        return canonicalizer.getCanonicalKey(plan, noLookup());
+    }
+
+    private PlanNode tableScan(PlanBuilder p)
+    {
+        return tableScan(p, "a", "b");
+    }
+
+    private static PlanNode tableScan(PlanBuilder p, String aName, String bName)
+    {
+        Symbol a = p.symbol(aName, BIGINT);
+        Symbol b = p.symbol(bName, BIGINT);
+        return p.tableScan(
+                ImmutableList.of(a, b),
+                ImmutableMap.of(a, new TestingColumnHandle("a"), b, new TestingColumnHandle("b")));
+    }
+
+    private PlanNode join(PlanBuilder p, String dynamicFilterId, boolean filterProbeSide)
+    {
+        PlanNode probe = tableScan(p, "a", "b");
+        if (filterProbeSide) {
+            probe = p.filter(
+                    createDynamicFilterExpression(metadata, new DynamicFilterId(dynamicFilterId), BIGINT, p.symbol("a").toSymbolReference()),
+                    probe);
+        }
+        PlanNode build = p.filter(expression("x > 5"), tableScan(p, "x", "y"));
+        return p.join(
+                INNER,
+                probe,
+                build,
+                ImmutableList.of(new JoinNode.EquiJoinClause(p.symbol("a"), p.symbol("x"))),
+                probe.getOutputSymbols(),
+                build.getOutputSymbols(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableMap.of(new DynamicFilterId(dynamicFilterId), p.symbol("x")));
+    }
+}
@@ -53,7 +53,9 @@ public class TestQueryManagerConfig
                 .setQueryMaxCpuTime(new Duration(1_000_000_000, TimeUnit.DAYS))
                 .setQueryMaxScanPhysicalBytes(null)
                 .setRequiredWorkers(1)
-                .setRequiredWorkersMaxWait(new Duration(5, TimeUnit.MINUTES)));
+                .setRequiredWorkersMaxWait(new Duration(5, TimeUnit.MINUTES))
+                .setStragglerSplitAvoidanceEnabled(false)
+                .setStragglerSplitThreshold(3.0));
     }
 
     @Test
@@ -82,6 +84,8 @@ public class TestQueryManagerConfig
                 .put("query.max-scan-physical-bytes", "1kB")
                 .put("query-manager.required-workers", "333")
                 .put("query-manager.required-workers-max-wait", "33m")
+                .put("query.straggler-split-avoidance-enabled", "true")
+                .put("query.straggler-split-threshold", "5.5")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
@@ -106,7 +110,9 @@ public class TestQueryManagerConfig
                 .setQueryMaxCpuTime(new Duration(2, TimeUnit.DAYS))
                 .setQueryMaxScanPhysicalBytes(DataSize.of(1, KILOBYTE))
                 .setRequiredWorkers(333)
-                .setRequiredWorkersMaxWait(new Duration(33, TimeUnit.MINUTES));
+                .setRequiredWorkersMaxWait(new Duration(33, TimeUnit.MINUTES))
+                .setStragglerSplitAvoidanceEnabled(true)
+                .setStragglerSplitThreshold(5.5);
 
         assertFullMapping(properties, expected);
     }
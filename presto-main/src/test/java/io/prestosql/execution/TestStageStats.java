@@ -34,6 +34,9 @@ public class TestStageStats
 
             getTestDistribution(1),
 
+            2,
+            3,
+
             4,
             5,
             6,
@@ -104,6 +107,9 @@ public class TestStageStats
 
         assertEquals(actual.getGetSplitDistribution().getCount(), 1.0);
 
+        assertEquals(actual.getStragglerNodes(), 2);
+        assertEquals(actual.getStragglerAvoidedSplits(), 3);
+
         assertEquals(actual.getTotalTasks(), 4);
         assertEquals(actual.getRunningTasks(), 5);
         assertEquals(actual.getCompletedTasks(), 6);
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestStragglerNodeDetector
+{
+    @Test
+    public void testNoStragglersBeforeEnoughSplitsComplete()
+    {
+        TestingTicker ticker = new TestingTicker();
+        StragglerNodeDetector detector = new StragglerNodeDetector(2.0, 4, new Duration(1, SECONDS), ticker);
+
+        detector.splitsAssigned("fast", 3);
+        detector.splitsAssigned("slow", 1);
+        ticker.increment(1, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        ticker.increment(100, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of());
+        assertEquals(detector.getDetectedStragglerNodeCount(), 0);
+    }
+
+    @Test
+    public void testStraggler()
+    {
+        TestingTicker ticker = new TestingTicker();
+        StragglerNodeDetector detector = new StragglerNodeDetector(3.0, 4, new Duration(1, SECONDS), ticker);
+
+        detector.splitsAssigned("a", 2);
+        detector.splitsAssigned("b", 2);
+        detector.splitsAssigned("slow", 2);
+
+        // splits on "a" and "b" take two seconds, while "slow" completes only one split
+        ticker.increment(2, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of());
+
+        ticker.increment(3, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of());
+
+        ticker.increment(2, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of("slow"));
+        assertEquals(detector.getDetectedStragglerNodeCount(), 1);
+
+        // once the straggler catches up it is no longer reported, but it is still counted
+        detector.update(ImmutableMap.of());
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of());
+        assertEquals(detector.getDetectedStragglerNodeCount(), 1);
+    }
+
+    @Test
+    public void testMinimumStragglerAge()
+    {
+        TestingTicker ticker = new TestingTicker();
+        StragglerNodeDetector detector = new StragglerNodeDetector(2.0, 2, new Duration(10, SECONDS), ticker);
+
+        detector.splitsAssigned("fast", 2);
+        detector.splitsAssigned("slow", 1);
+        ticker.increment(1, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+
+        // far beyond the median split time, but not yet beyond the minimum age
+        ticker.increment(8, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of());
+
+        ticker.increment(2, SECONDS);
+        detector.update(ImmutableMap.of("slow", 1));
+        assertEquals(detector.getStragglerNodes(), ImmutableSet.of("slow"));
+    }
+}
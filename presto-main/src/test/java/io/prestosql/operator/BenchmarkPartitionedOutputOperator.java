@@ -117,7 +117,8 @@ public class BenchmarkPartitionedOutputOperator
         private PartitionedOutputOperator createPartitionedOutputOperator()
         {
             BlockTypeOperators blockTypeOperators = new BlockTypeOperators(new TypeOperators());
-            PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators), PARTITION_COUNT);
+            InterpretedHashGenerator hashGenerator = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators);
+            PartitionFunction partitionFunction = new LocalPartitionGenerator(hashGenerator, PARTITION_COUNT);
             PagesSerdeFactory serdeFactory = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false);
             OutputBuffers buffers = createInitialEmptyOutputBuffers(PARTITIONED);
             for (int partition = 0; partition < PARTITION_COUNT; partition++) {
@@ -132,6 +133,7 @@ public class BenchmarkPartitionedOutputOperator
                     ImmutableList.of(Optional.empty()),
                     false,
                     OptionalInt.empty(),
+                    Optional.empty(),
                     buffer,
                     DataSize.of(1, GIGABYTE));
             return (PartitionedOutputOperator) operatorFactory
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestFragmentResultCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(FragmentResultCacheConfig.class)
+                .setEnabled(false)
+                .setDirectory(new File("var/cache/fragment-result"))
+                .setMaxSize(DataSize.of(10, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(8, MEGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("fragment-result-cache.enabled", "true")
+                .put("fragment-result-cache.directory", "/mnt/ssd/cache")
+                .put("fragment-result-cache.max-size", "100GB")
+                .put("fragment-result-cache.max-entry-size", "1MB")
+                .build();
+
+        FragmentResultCacheConfig expected = new FragmentResultCacheConfig()
+                .setEnabled(true)
+                .setDirectory(new File("/mnt/ssd/cache"))
+                .setMaxSize(DataSize.of(100, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(1, MEGABYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
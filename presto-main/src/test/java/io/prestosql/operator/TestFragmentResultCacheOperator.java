@@ -0,0 +1,319 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.execution.ScheduledSplit;
+import io.prestosql.execution.TaskSource;
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.FragmentResultCacheOperator.FragmentResultCacheOperatorFactory;
+import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.connector.DynamicFilter;
+import io.prestosql.spi.connector.FixedPageSource;
+import io.prestosql.spi.security.Identity;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.sql.planner.plan.ValuesNode;
+import io.prestosql.testing.PageConsumerOperator;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.TimeZoneKey.getTimeZoneKey;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.TestingHandles.TEST_TABLE_HANDLE;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static io.prestosql.testing.TestingTaskContext.createTaskContext;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestFragmentResultCacheOperator
+{
+    private static final PlanNodeId SOURCE_ID = new PlanNodeId("source");
+    private static final List<Type> TYPES = ImmutableList.of(VARCHAR, BIGINT);
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private Path cacheDirectory;
+    private final AtomicInteger pageSourcesCreated = new AtomicInteger();
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed(getClass().getSimpleName() + "-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed(getClass().getSimpleName() + "-scheduledExecutor-%s"));
+        cacheDirectory = createTempDirectory("fragment-result-cache");
+        pageSourcesCreated.set(0);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+        deleteRecursively(cacheDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testCachedResult()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, MEGABYTE));
+
+        FragmentResultCacheOperator first = runDriver(cacheManager, Optional.of("file-a"));
+        assertEquals(pageSourcesCreated.get(), 1);
+        assertCacheInfo(first, 0, 1);
+        assertEquals(cacheManager.getCachedResults(), 1);
+
+        FragmentResultCacheOperator second = runDriver(cacheManager, Optional.of("file-a"));
+        assertEquals(pageSourcesCreated.get(), 1);
+        assertCacheInfo(second, 1, 0);
+
+        // another split is not served from the cache
+        runDriver(cacheManager, Optional.of("file-b"));
+        assertEquals(pageSourcesCreated.get(), 2);
+        assertEquals(cacheManager.getCachedResults(), 2);
+        assertEquals(cacheManager.getHits(), 1);
+        assertEquals(cacheManager.getMisses(), 2);
+    }
+
+    @Test
+    public void testSplitWithoutIdentity()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, MEGABYTE));
+
+        FragmentResultCacheOperator operator = runDriver(cacheManager, Optional.empty());
+        runDriver(cacheManager, Optional.empty());
+        assertEquals(pageSourcesCreated.get(), 2);
+        assertCacheInfo(operator, 0, 0);
+        assertEquals(cacheManager.getCachedResults(), 0);
+    }
+
+    @Test
+    public void testResultTooLarge()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.ofBytes(1));
+
+        runDriver(cacheManager, Optional.of("file-a"));
+        runDriver(cacheManager, Optional.of("file-a"));
+        assertEquals(pageSourcesCreated.get(), 2);
+        assertEquals(cacheManager.getCachedResults(), 0);
+    }
+
+    @Test
+    public void testEviction()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, MEGABYTE));
+        runDriver(cacheManager, Optional.of("file-a"));
+        long entrySize = cacheManager.getCachedBytes();
+        assertTrue(entrySize > 0);
+
+        cacheManager = new FragmentResultCacheManager(
+                new FragmentResultCacheConfig()
+                        .setEnabled(true)
+                        .setDirectory(cacheDirectory.toFile())
+                        .setMaxSize(DataSize.ofBytes(entrySize * 2)),
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new ObjectMapperProvider().get(),
+                newDirectExecutorService());
+        // results of a previous instance are removed on startup
+        assertEquals(cacheManager.getCachedResults(), 0);
+        assertEquals(cacheDirectory.toFile().list().length, 0);
+
+        runDriver(cacheManager, Optional.of("file-a"));
+        runDriver(cacheManager, Optional.of("file-b"));
+        assertEquals(cacheManager.getCachedResults(), 2);
+
+        // reading "file-a" makes "file-b" the least recently used result
+        runDriver(cacheManager, Optional.of("file-a"));
+        runDriver(cacheManager, Optional.of("file-c"));
+        assertEquals(cacheManager.getCachedResults(), 2);
+        assertEquals(cacheManager.getCachedBytes(), entrySize * 2);
+        assertEquals(cacheDirectory.toFile().list().length, 2);
+
+        pageSourcesCreated.set(0);
+        runDriver(cacheManager, Optional.of("file-a"));
+        runDriver(cacheManager, Optional.of("file-c"));
+        assertEquals(pageSourcesCreated.get(), 0);
+        runDriver(cacheManager, Optional.of("file-b"));
+        assertEquals(pageSourcesCreated.get(), 1);
+    }
+
+    @Test
+    public void testPlanKey()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, MEGABYTE));
+        PlanNode plan = new ValuesNode(new PlanNodeId("values"), ImmutableList.of(), ImmutableList.of(ImmutableList.of()));
+        String planKey = cacheManager.getPlanKey(TEST_SESSION, plan);
+        assertEquals(cacheManager.getPlanKey(testSessionBuilder().build(), plan), planKey);
+
+        // results computed under other session settings are not shared
+        assertNotEquals(cacheManager.getPlanKey(testSessionBuilder().setTimeZoneKey(getTimeZoneKey("Asia/Kathmandu")).build(), plan), planKey);
+        assertNotEquals(cacheManager.getPlanKey(testSessionBuilder().setIdentity(Identity.ofUser("other_user")).build(), plan), planKey);
+        assertNotEquals(cacheManager.getPlanKey(testSessionBuilder().setSystemProperty("some_property", "true").build(), plan), planKey);
+        assertNotEquals(
+                cacheManager.getPlanKey(testSessionBuilder().setSystemProperty("some_property", "true").build(), plan),
+                cacheManager.getPlanKey(testSessionBuilder().setSystemProperty("some_property", "false").build(), plan));
+        assertNotEquals(cacheManager.getPlanKey(testSessionBuilder().setCatalogSessionProperty("catalog", "some_property", "true").build(), plan), planKey);
+        assertNotEquals(
+                cacheManager.getPlanKey(testSessionBuilder().setCatalogSessionProperty("catalog", "some_property", "true").build(), plan),
+                cacheManager.getPlanKey(testSessionBuilder().setCatalogSessionProperty("other_catalog", "some_property", "true").build(), plan));
+    }
+
+    @Test
+    public void testFlushCache()
+    {
+        FragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, MEGABYTE));
+        runDriver(cacheManager, Optional.of("file-a"));
+        assertEquals(cacheManager.getCachedResults(), 1);
+
+        cacheManager.flushCache();
+        assertEquals(cacheManager.getCachedResults(), 0);
+        assertEquals(cacheManager.getCachedBytes(), 0);
+        assertEquals(cacheDirectory.toFile().list().length, 0);
+
+        runDriver(cacheManager, Optional.of("file-a"));
+        assertEquals(pageSourcesCreated.get(), 2);
+    }
+
+    private FragmentResultCacheManager createCacheManager(DataSize maxEntrySize)
+    {
+        return new FragmentResultCacheManager(
+                new FragmentResultCacheConfig()
+                        .setEnabled(true)
+                        .setDirectory(cacheDirectory.toFile())
+                        .setMaxEntrySize(maxEntrySize),
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new ObjectMapperProvider().get(),
+                newDirectExecutorService());
+    }
+
+    private FragmentResultCacheOperator runDriver(FragmentResultCacheManager cacheManager, Optional<String> splitIdentity)
+    {
+        DriverContext driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+
+        List<Page> input = rowPagesBuilder(TYPES)
+                .addSequencePage(10, 20, 30)
+                .addSequencePage(5, 40, 50)
+                .build();
+        TableScanOperator source = new TableScanOperator(
+                driverContext.addOperatorContext(0, new PlanNodeId("scan"), TableScanOperator.class.getSimpleName()),
+                SOURCE_ID,
+                (session, split, table, columns, dynamicFilter) -> {
+                    pageSourcesCreated.incrementAndGet();
+                    return new FixedPageSource(input);
+                },
+                TEST_TABLE_HANDLE,
+                ImmutableList.of(),
+                DynamicFilter.EMPTY);
+        FragmentResultCacheOperator cacheOperator = (FragmentResultCacheOperator) new FragmentResultCacheOperatorFactory(1, new PlanNodeId("cache"), cacheManager, "plan")
+                .createOperator(driverContext);
+        List<Page> output = new ArrayList<>();
+        PageConsumerOperator sink = new PageConsumerOperator(driverContext.addOperatorContext(2, new PlanNodeId("sink"), "sink"), output::add, Function.identity());
+
+        Driver driver = Driver.createDriver(driverContext, source, cacheOperator, sink);
+        Split split = new Split(new CatalogName("test"), new TestingSplit(splitIdentity), Lifespan.taskWide());
+        driver.updateSource(new TaskSource(SOURCE_ID, ImmutableSet.of(new ScheduledSplit(0, SOURCE_ID, split)), true));
+        while (!driver.isFinished()) {
+            driver.processFor(new Duration(1, TimeUnit.SECONDS));
+        }
+        assertTrue(sink.isFinished());
+
+        assertEquals(output.size(), input.size());
+        for (int i = 0; i < input.size(); i++) {
+            assertPageEquals(TYPES, output.get(i), input.get(i));
+        }
+        return cacheOperator;
+    }
+
+    private static void assertCacheInfo(FragmentResultCacheOperator operator, long expectedHits, long expectedMisses)
+    {
+        FragmentResultCacheInfo info = (FragmentResultCacheInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getCacheHits(), expectedHits);
+        assertEquals(info.getCacheMisses(), expectedMisses);
+    }
+
+    private static class TestingSplit
+            implements ConnectorSplit
+    {
+        private final Optional<String> splitIdentity;
+
+        public TestingSplit(Optional<String> splitIdentity)
+        {
+            this.splitIdentity = splitIdentity;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return null;
+        }
+
+        @Override
+        public Optional<String> getSplitIdentity()
+        {
+            return splitIdentity;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHeavyHitterSampler
+{
+    @Test
+    public void testEmpty()
+    {
+        HeavyHitterSampler sampler = new HeavyHitterSampler(4);
+        assertEquals(sampler.getSampledKeys(), 0);
+        assertEquals(sampler.getTopKeyCount(), 0);
+    }
+
+    @Test
+    public void testExactWithinCapacity()
+    {
+        HeavyHitterSampler sampler = new HeavyHitterSampler(4);
+        for (int i = 0; i < 100; i++) {
+            sampler.add(i % 4);
+        }
+        sampler.add(0);
+        assertEquals(sampler.getSampledKeys(), 101);
+        assertEquals(sampler.getTopKeyCount(), 26);
+    }
+
+    @Test
+    public void testHeavyHitterAmongManyKeys()
+    {
+        HeavyHitterSampler sampler = new HeavyHitterSampler(8);
+        long total = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // every third key is the heavy hitter, the rest are distinct
+            sampler.add(i % 3 == 0 ? -1 : i);
+            total++;
+        }
+        long heavyHitterCount = 3334;
+        long topKeyCount = sampler.getTopKeyCount();
+        assertTrue(topKeyCount <= heavyHitterCount);
+        assertTrue(topKeyCount >= heavyHitterCount - total / 9, "topKeyCount: " + topKeyCount);
+    }
+
+    @Test
+    public void testNoHeavyHitter()
+    {
+        HeavyHitterSampler sampler = new HeavyHitterSampler(8);
+        for (int i = 0; i < 10_000; i++) {
+            sampler.add(i);
+        }
+        assertTrue(sampler.getTopKeyCount() <= 1);
+    }
+}
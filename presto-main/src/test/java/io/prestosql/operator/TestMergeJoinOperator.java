@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.operator.MergeJoinBuildOperator.MergeJoinBuildOperatorFactory;
+import io.prestosql.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.PageConsumerOperator;
+import io.prestosql.testing.TestingTaskContext;
+import io.prestosql.type.BlockTypeOperators;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static com.google.common.collect.Iterables.concat;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.operator.OperatorAssertion.toMaterializedResult;
+import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static io.prestosql.spi.connector.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.connector.SortOrder.DESC_NULLS_LAST;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static io.prestosql.testing.assertions.PrestoExceptionAssert.assertPrestoExceptionThrownBy;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMergeJoinOperator
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed(getClass().getSimpleName() + "-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed(getClass().getSimpleName() + "-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testInnerJoin()
+    {
+        List<Page> probePages = rowPagesBuilder(TYPES)
+                .row(null, "p0")
+                .row(1L, "p1")
+                .row(2L, "p2")
+                .pageBreak()
+                .row(2L, "p3")
+                .row(4L, "p4")
+                .row(6L, "p5")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(null, "b0")
+                .row(0L, "b1")
+                .row(2L, "b2")
+                .pageBreak()
+                .row(2L, "b3")
+                .row(3L, "b4")
+                .pageBreak()
+                .row(4L, "b5")
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, concat(TYPES, TYPES))
+                .row(2L, "p2", 2L, "b2")
+                .row(2L, "p2", 2L, "b3")
+                .row(2L, "p3", 2L, "b2")
+                .row(2L, "p3", 2L, "b3")
+                .row(4L, "p4", 4L, "b5")
+                .build();
+
+        assertEquals(join(probePages, buildPages, ASC_NULLS_FIRST, false, 1024 * 1024).getMaterializedRows(), expected.getMaterializedRows());
+        // build pages are streamed one at a time
+        assertEquals(join(probePages, buildPages, ASC_NULLS_FIRST, false, 1).getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testLeftJoin()
+    {
+        List<Page> probePages = rowPagesBuilder(TYPES)
+                .row(null, "p0")
+                .row(1L, "p1")
+                .row(2L, "p2")
+                .pageBreak()
+                .row(5L, "p3")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(2L, "b0")
+                .row(2L, "b1")
+                .row(3L, "b2")
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, concat(TYPES, TYPES))
+                .row(null, "p0", null, null)
+                .row(1L, "p1", null, null)
+                .row(2L, "p2", 2L, "b0")
+                .row(2L, "p2", 2L, "b1")
+                .row(5L, "p3", null, null)
+                .build();
+
+        assertEquals(join(probePages, buildPages, ASC_NULLS_FIRST, true, 1024 * 1024).getMaterializedRows(), expected.getMaterializedRows());
+        assertEquals(join(probePages, buildPages, ASC_NULLS_FIRST, true, 1).getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testDescendingOrder()
+    {
+        List<Page> probePages = rowPagesBuilder(TYPES)
+                .row(5L, "p0")
+                .row(3L, "p1")
+                .row(1L, "p2")
+                .row(null, "p3")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(4L, "b0")
+                .row(3L, "b1")
+                .pageBreak()
+                .row(1L, "b2")
+                .row(0L, "b3")
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, concat(TYPES, TYPES))
+                .row(3L, "p1", 3L, "b1")
+                .row(1L, "p2", 1L, "b2")
+                .build();
+
+        assertEquals(join(probePages, buildPages, DESC_NULLS_LAST, false, 1).getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testLargeGroup()
+    {
+        RowPagesBuilder probePages = rowPagesBuilder(TYPES);
+        RowPagesBuilder buildPages = rowPagesBuilder(TYPES);
+        for (int i = 0; i < 100; i++) {
+            probePages.row(7L, "p" + i);
+            buildPages.row(7L, "b" + i);
+            if (i % 10 == 9) {
+                probePages.pageBreak();
+                buildPages.pageBreak();
+            }
+        }
+
+        MaterializedResult actual = join(probePages.build(), buildPages.build(), ASC_NULLS_FIRST, false, 1);
+        assertEquals(actual.getRowCount(), 100 * 100);
+    }
+
+    @Test
+    public void testUnsortedInput()
+    {
+        List<Page> sortedPages = rowPagesBuilder(TYPES)
+                .row(1L, "a")
+                .row(2L, "b")
+                .build();
+        List<Page> unsortedPages = rowPagesBuilder(TYPES)
+                .row(2L, "a")
+                .row(1L, "b")
+                .build();
+
+        assertPrestoExceptionThrownBy(() -> join(unsortedPages, sortedPages, ASC_NULLS_FIRST, false, 1))
+                .hasMessage("Merge join probe input is not sorted on the join keys");
+        assertPrestoExceptionThrownBy(() -> join(sortedPages, unsortedPages, ASC_NULLS_FIRST, false, 1))
+                .hasMessage("Merge join build input is not sorted on the join keys");
+    }
+
+    private MaterializedResult join(List<Page> probePages, List<Page> buildPages, SortOrder sortOrder, boolean outer, long maxBufferedBytes)
+    {
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION);
+
+        JoinBridgeManager<MergeJoinBridge> mergeJoinBridgeManager = new JoinBridgeManager<>(
+                false,
+                UNGROUPED_EXECUTION,
+                UNGROUPED_EXECUTION,
+                lifespan -> new MergeJoinBridge(maxBufferedBytes),
+                TYPES);
+        MergeJoinBuildOperatorFactory buildOperatorFactory = new MergeJoinBuildOperatorFactory(1, new PlanNodeId("test"), mergeJoinBridgeManager);
+        MergeJoinOperatorFactory joinOperatorFactory = new MergeJoinOperatorFactory(
+                3,
+                new PlanNodeId("test"),
+                mergeJoinBridgeManager,
+                TYPES,
+                ImmutableList.of(0, 1),
+                ImmutableList.of(0),
+                TYPES,
+                ImmutableList.of(0, 1),
+                ImmutableList.of(0),
+                ImmutableList.of(sortOrder),
+                outer,
+                new BlockTypeOperators(new TypeOperators()));
+
+        DriverContext buildDriverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        Driver buildDriver = Driver.createDriver(
+                buildDriverContext,
+                new ValuesOperator(buildDriverContext.addOperatorContext(0, new PlanNodeId("test"), ValuesOperator.class.getSimpleName()), buildPages),
+                buildOperatorFactory.createOperator(buildDriverContext));
+        buildOperatorFactory.noMoreOperators(Lifespan.taskWide());
+        buildOperatorFactory.noMoreOperators();
+
+        List<Page> output = new ArrayList<>();
+        DriverContext probeDriverContext = taskContext.addPipelineContext(1, true, true, false).addDriverContext();
+        Driver probeDriver = Driver.createDriver(
+                probeDriverContext,
+                new ValuesOperator(probeDriverContext.addOperatorContext(2, new PlanNodeId("test"), ValuesOperator.class.getSimpleName()), probePages),
+                joinOperatorFactory.createOperator(probeDriverContext),
+                new PageConsumerOperator(probeDriverContext.addOperatorContext(4, new PlanNodeId("test"), PageConsumerOperator.class.getSimpleName()), output::add, Function.identity()));
+        joinOperatorFactory.noMoreOperators(Lifespan.taskWide());
+        joinOperatorFactory.noMoreOperators();
+
+        // both inputs are consumed concurrently, so the drivers are run in turns
+        for (int i = 0; !probeDriver.isFinished(); i++) {
+            assertTrue(i < 100_000, "merge join did not finish");
+            if (!buildDriver.isFinished()) {
+                buildDriver.process();
+            }
+            probeDriver.process();
+        }
+        // the remaining build input is not needed once the probe side is finished
+        buildDriver.process();
+        assertTrue(buildDriver.isFinished());
+
+        return toMaterializedResult(TEST_SESSION, ImmutableList.copyOf(concat(TYPES, TYPES)), output);
+    }
+}
@@ -29,7 +29,7 @@ import static org.testng.Assert.assertNull;
 public class TestOperatorStats
 {
     private static final SplitOperatorInfo NON_MERGEABLE_INFO = new SplitOperatorInfo("some_info");
-    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 1024);
+    private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2, 1024, new long[] {1, 0}, 5);
 
     public static final OperatorStats EXPECTED = new OperatorStats(
             0,
@@ -278,5 +278,7 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), DataSize.ofBytes(3 * 26));
         assertEquals(actual.getInfo().getClass(), PartitionedOutputInfo.class);
         assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPagesAdded(), 3 * MERGEABLE_INFO.getPagesAdded());
+        assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPartitionRowsAdded(), new long[] {3, 0});
+        assertEquals(((PartitionedOutputInfo) actual.getInfo()).getHeavyHitterRows(), MERGEABLE_INFO.getHeavyHitterRows());
     }
 }
@@ -20,6 +20,7 @@ import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
+import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -33,6 +34,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -56,6 +58,7 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestPartitionedOutputOperator
 {
@@ -98,7 +101,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForSimplePage()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(TESTING_PAGE);
         }
@@ -112,7 +115,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForPageWithDictionary()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(new Page(TESTING_DICTIONARY_BLOCK));
         }
@@ -126,7 +129,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForPageWithRunLength()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
         }
@@ -140,7 +143,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForSimplePageAndReplication()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(new Page(POSITIONS_PER_PAGE, NULL_BLOCK, TESTING_BLOCK));
         }
@@ -154,7 +157,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForPageWithDictionaryAndReplication()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(new Page(POSITIONS_PER_PAGE, NULL_BLOCK, TESTING_DICTIONARY_BLOCK));
         }
@@ -168,7 +171,7 @@ public class TestPartitionedOutputOperator
     @Test
     public void testOutputForPageWithRunLengthAndReplication()
     {
-        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true);
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(true, false);
         for (int i = 0; i < PAGE_COUNT; i++) {
             partitionedOutputOperator.addInput(new Page(POSITIONS_PER_PAGE, NULL_BLOCK, TESTING_RLE_BLOCK));
         }
@@ -179,10 +182,60 @@ public class TestPartitionedOutputOperator
         assertEquals(operatorContext.getOutputPositions().getTotalCount(), PAGE_COUNT * PARTITION_COUNT * TESTING_PAGE_WITH_NULL_BLOCK.getPositionCount());
     }
 
-    private PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate)
+    @Test
+    public void testPartitionSkew()
+    {
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, true);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo info = partitionedOutputOperator.getInfo();
+        long[] partitionRowsAdded = info.getPartitionRowsAdded();
+        assertEquals(partitionRowsAdded.length, PARTITION_COUNT);
+        assertEquals(Arrays.stream(partitionRowsAdded).sum(), PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertEquals(Arrays.stream(partitionRowsAdded).filter(rows -> rows > 0).count(), 1);
+        assertEquals(info.getPartitionSkew(), (double) PARTITION_COUNT);
+        assertEquals(info.getHeavyHitterRows(), PAGE_COUNT * POSITIONS_PER_PAGE);
+    }
+
+    @Test
+    public void testNoPartitionSkew()
+    {
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, true);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(TESTING_PAGE);
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo info = partitionedOutputOperator.getInfo();
+        assertEquals(Arrays.stream(info.getPartitionRowsAdded()).sum(), PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertTrue(info.getPartitionSkew() < 5);
+        // every key appears once per page
+        assertTrue(info.getHeavyHitterRows() < POSITIONS_PER_PAGE, "heavyHitterRows: " + info.getHeavyHitterRows());
+    }
+
+    @Test
+    public void testHeavyHitterDetectionDisabled()
+    {
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, false);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        // the rows per partition are still counted
+        PartitionedOutputInfo info = partitionedOutputOperator.getInfo();
+        assertEquals(info.getPartitionSkew(), (double) PARTITION_COUNT);
+        assertEquals(info.getHeavyHitterRows(), 0);
+    }
+
+    private PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate, boolean heavyHitterDetectionEnabled)
     {
         BlockTypeOperators blockTypeOperators = new BlockTypeOperators(new TypeOperators());
-        PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators), PARTITION_COUNT);
+        InterpretedHashGenerator hashGenerator = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}, blockTypeOperators);
+        PartitionFunction partitionFunction = new LocalPartitionGenerator(hashGenerator, PARTITION_COUNT);
         PagesSerdeFactory serdeFactory = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false);
 
         DriverContext driverContext = TestingTaskContext.builder(executor, scheduledExecutor, TEST_SESSION)
@@ -203,6 +256,7 @@ public class TestPartitionedOutputOperator
                 () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
                 scheduledExecutor);
 
+        Optional<HashGenerator> keyHashGenerator = heavyHitterDetectionEnabled ? Optional.of(hashGenerator) : Optional.empty();
         PartitionedOutputOperator.PartitionedOutputFactory operatorFactory;
         if (shouldReplicate) {
             operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
@@ -211,6 +265,7 @@ public class TestPartitionedOutputOperator
                     ImmutableList.of(Optional.empty()),
                     true,
                     OptionalInt.of(0),
+                    keyHashGenerator,
                     buffer,
                     PARTITION_MAX_MEMORY);
             return (PartitionedOutputOperator) operatorFactory
@@ -224,6 +279,7 @@ public class TestPartitionedOutputOperator
                     ImmutableList.of(Optional.empty(), Optional.empty()),
                     false,
                     OptionalInt.empty(),
+                    keyHashGenerator,
                     buffer,
                     PARTITION_MAX_MEMORY);
             return (PartitionedOutputOperator) operatorFactory
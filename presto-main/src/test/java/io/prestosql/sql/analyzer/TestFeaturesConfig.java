@@ -56,6 +56,7 @@ public class TestFeaturesConfig
                 .setConcurrentLifespansPerTask(0)
                 .setColocatedJoinsEnabled(false)
                 .setSpatialJoinsEnabled(true)
+                .setMergeJoinsEnabled(false)
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
                 .setMaxReorderedJoins(9)
                 .setRedistributeWrites(true)
@@ -85,6 +86,7 @@ public class TestFeaturesConfig
                 .setCollectPlanStatisticsForAllQueries(false)
                 .setIgnoreStatsCalculatorFailures(true)
                 .setDefaultFilterFactorEnabled(false)
+                .setHistoryBasedStatisticsEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
                 .setExchangeDataIntegrityVerification(DataIntegrityVerification.ABORT)
@@ -125,6 +127,7 @@ public class TestFeaturesConfig
                 .put("collect-plan-statistics-for-all-queries", "true")
                 .put("optimizer.ignore-stats-calculator-failures", "false")
                 .put("optimizer.default-filter-factor-enabled", "true")
+                .put("optimizer.history-based-statistics-enabled", "true")
                 .put("enable-forced-exchange-below-group-id", "false")
                 .put("distributed-index-joins-enabled", "true")
                 .put("join-distribution-type", "BROADCAST")
@@ -134,6 +137,7 @@ public class TestFeaturesConfig
                 .put("concurrent-lifespans-per-task", "1")
                 .put("colocated-joins-enabled", "true")
                 .put("spatial-joins-enabled", "false")
+                .put("merge-joins-enabled", "true")
                 .put("optimizer.join-reordering-strategy", "NONE")
                 .put("optimizer.max-reordered-joins", "5")
                 .put("redistribute-writes", "false")
@@ -202,6 +206,7 @@ public class TestFeaturesConfig
                 .setConcurrentLifespansPerTask(1)
                 .setColocatedJoinsEnabled(true)
                 .setSpatialJoinsEnabled(false)
+                .setMergeJoinsEnabled(true)
                 .setJoinReorderingStrategy(NONE)
                 .setMaxReorderedJoins(5)
                 .setRedistributeWrites(false)
@@ -246,6 +251,7 @@ public class TestFeaturesConfig
                 .setMaxRecursionDepth(8)
                 .setMaxGroupingSets(2047)
                 .setDefaultFilterFactorEnabled(true)
+                .setHistoryBasedStatisticsEnabled(true)
                 .setLateMaterializationEnabled(true)
                 .setSkipRedundantSort(false)
                 .setPredicatePushdownUseTableProperties(false)
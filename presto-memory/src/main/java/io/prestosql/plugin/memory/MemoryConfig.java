@@ -14,6 +14,7 @@
 package io.prestosql.plugin.memory;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 
 import javax.validation.constraints.NotNull;
@@ -23,6 +24,7 @@ public class MemoryConfig
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = DataSize.of(128, DataSize.Unit.MEGABYTE);
     private boolean enableLazyDynamicFiltering = true;
+    private boolean enableCompression;
 
     @NotNull
     public int getSplitsPerNode()
@@ -61,4 +63,17 @@ public class MemoryConfig
         this.enableLazyDynamicFiltering = enableLazyDynamicFiltering;
         return this;
     }
+
+    public boolean isEnableCompression()
+    {
+        return enableCompression;
+    }
+
+    @Config("memory.enable-compression")
+    @ConfigDescription("Compress stored pages with LZ4")
+    public MemoryConfig setEnableCompression(boolean enableCompression)
+    {
+        this.enableCompression = enableCompression;
+        return this;
+    }
 }
@@ -13,16 +13,20 @@
  */
 package io.prestosql.plugin.memory;
 
+import com.google.common.collect.ImmutableSet;
 import io.prestosql.spi.connector.Connector;
 import io.prestosql.spi.connector.ConnectorMetadata;
 import io.prestosql.spi.connector.ConnectorPageSinkProvider;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
 import io.prestosql.spi.connector.ConnectorSplitManager;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
+import io.prestosql.spi.connector.SystemTable;
 import io.prestosql.spi.transaction.IsolationLevel;
 
 import javax.inject.Inject;
 
+import java.util.Set;
+
 public class MemoryConnector
         implements Connector
 {
@@ -30,18 +34,21 @@ public class MemoryConnector
     private final MemorySplitManager splitManager;
     private final MemoryPageSourceProvider pageSourceProvider;
     private final MemoryPageSinkProvider pageSinkProvider;
+    private final TableStorageSystemTable tableStorageSystemTable;
 
     @Inject
     public MemoryConnector(
             MemoryMetadata metadata,
             MemorySplitManager splitManager,
             MemoryPageSourceProvider pageSourceProvider,
-            MemoryPageSinkProvider pageSinkProvider)
+            MemoryPageSinkProvider pageSinkProvider,
+            TableStorageSystemTable tableStorageSystemTable)
     {
         this.metadata = metadata;
         this.splitManager = splitManager;
         this.pageSourceProvider = pageSourceProvider;
         this.pageSinkProvider = pageSinkProvider;
+        this.tableStorageSystemTable = tableStorageSystemTable;
     }
 
     @Override
@@ -73,4 +80,10 @@ public class MemoryConnector
     {
         return pageSinkProvider;
     }
+
+    @Override
+    public Set<SystemTable> getSystemTables()
+    {
+        return ImmutableSet.of(tableStorageSystemTable);
+    }
 }
@@ -35,14 +35,18 @@ import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.ConnectorTableProperties;
 import io.prestosql.spi.connector.ConnectorViewDefinition;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.LimitApplicationResult;
 import io.prestosql.spi.connector.SampleType;
 import io.prestosql.spi.connector.SchemaNotFoundException;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
 import io.prestosql.spi.connector.ViewNotFoundException;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.security.PrestoPrincipal;
 import io.prestosql.spi.statistics.ComputedStatistics;
+import io.prestosql.spi.type.Type;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -250,7 +254,7 @@ public class MemoryMetadata
                 columns.build(),
                 new HashMap<>()));
 
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(tableIds.values()));
+        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(tableIds.values()), getColumnTypes(tableId));
     }
 
     private void checkSchemaExists(String schemaName)
@@ -284,7 +288,14 @@ public class MemoryMetadata
     public synchronized MemoryInsertTableHandle beginInsert(ConnectorSession session, ConnectorTableHandle tableHandle, List<ColumnHandle> columns)
     {
         MemoryTableHandle memoryTableHandle = (MemoryTableHandle) tableHandle;
-        return new MemoryInsertTableHandle(memoryTableHandle.getId(), ImmutableSet.copyOf(tableIds.values()));
+        return new MemoryInsertTableHandle(memoryTableHandle.getId(), ImmutableSet.copyOf(tableIds.values()), getColumnTypes(memoryTableHandle.getId()));
+    }
+
+    private List<Type> getColumnTypes(long tableId)
+    {
+        return tables.get(tableId).getColumns().stream()
+                .map(ColumnInfo::getType)
+                .collect(toImmutableList());
     }
 
     @Override
@@ -402,7 +413,7 @@ public class MemoryMetadata
         }
 
         return Optional.of(new LimitApplicationResult<>(
-                new MemoryTableHandle(table.getId(), OptionalLong.of(limit), OptionalDouble.empty()),
+                new MemoryTableHandle(table.getId(), OptionalLong.of(limit), OptionalDouble.empty(), table.getConstraint()),
                 true));
     }
 
@@ -415,6 +426,27 @@ public class MemoryMetadata
             return Optional.empty();
         }
 
-        return Optional.of(new MemoryTableHandle(table.getId(), table.getLimit(), OptionalDouble.of(table.getSampleRatio().orElse(1) * sampleRatio)));
+        return Optional.of(new MemoryTableHandle(table.getId(), table.getLimit(), OptionalDouble.of(table.getSampleRatio().orElse(1) * sampleRatio), table.getConstraint()));
+    }
+
+    @Override
+    public Optional<ConstraintApplicationResult<ConnectorTableHandle>> applyFilter(ConnectorSession session, ConnectorTableHandle handle, Constraint constraint)
+    {
+        MemoryTableHandle table = (MemoryTableHandle) handle;
+
+        // a pushed down limit is below the filter in the plan, so the filter must not remove any pages from it
+        if (table.getLimit().isPresent()) {
+            return Optional.empty();
+        }
+
+        TupleDomain<ColumnHandle> newConstraint = table.getConstraint().intersect(constraint.getSummary());
+        if (newConstraint.equals(table.getConstraint())) {
+            return Optional.empty();
+        }
+
+        // pages are only pruned by their zone maps, so the filter still has to be applied to the remaining rows
+        return Optional.of(new ConstraintApplicationResult<>(
+                new MemoryTableHandle(table.getId(), table.getLimit(), table.getSampleRatio(), newConstraint),
+                constraint.getSummary()));
     }
 }
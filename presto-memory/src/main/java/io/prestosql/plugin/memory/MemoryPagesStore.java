@@ -13,10 +13,14 @@
  */
 package io.prestosql.plugin.memory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
-import io.prestosql.spi.block.Block;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeManager;
+import io.prestosql.spi.type.TypeOperators;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -33,14 +37,18 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.base.MoreObjects.toStringHelper;
 import static io.prestosql.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static io.prestosql.plugin.memory.MemoryErrorCode.MISSING_DATA;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean compressionEnabled;
+    private final TypeOperators typeOperators;
 
     @GuardedBy("this")
     private long currentBytes;
@@ -48,34 +56,53 @@ public class MemoryPagesStore
     private final Map<Long, TableData> tables = new HashMap<>();
 
     @Inject
-    public MemoryPagesStore(MemoryConfig config)
+    public MemoryPagesStore(MemoryConfig config, TypeManager typeManager)
+    {
+        this(config, requireNonNull(typeManager, "typeManager is null").getTypeOperators());
+    }
+
+    @VisibleForTesting
+    public MemoryPagesStore(MemoryConfig config, TypeOperators typeOperators)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.compressionEnabled = config.isEnableCompression();
+        this.typeOperators = requireNonNull(typeOperators, "typeOperators is null");
     }
 
-    public synchronized void initialize(long tableId)
+    public synchronized void initialize(long tableId, List<Type> columnTypes)
     {
         if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
+            tables.put(tableId, new TableData(columnTypes));
         }
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void add(Long tableId, Page page)
     {
-        if (!contains(tableId)) {
-            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+        List<Type> columnTypes;
+        synchronized (this) {
+            if (!contains(tableId)) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+            columnTypes = tables.get(tableId).getColumnTypes();
         }
 
-        page.compact();
+        // encoding is done outside of the lock, so that concurrent writers do not wait for each other
+        StoredPage storedPage = StoredPage.create(page, columnTypes, typeOperators, compressionEnabled);
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
-        if (maxBytes < newSize) {
-            throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
-        }
-        currentBytes = newSize;
+        synchronized (this) {
+            TableData tableData = tables.get(tableId);
+            if (tableData == null) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
 
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
+            long newSize = currentBytes + storedPage.getRetainedSizeInBytes();
+            if (maxBytes < newSize) {
+                throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+            }
+            currentBytes = newSize;
+
+            tableData.add(storedPage);
+        }
     }
 
     public synchronized List<Page> getPages(
@@ -85,7 +112,8 @@ public class MemoryPagesStore
             List<Integer> columnIndexes,
             long expectedRows,
             OptionalLong limit,
-            OptionalDouble sampleRatio)
+            OptionalDouble sampleRatio,
+            TupleDomain<Integer> constraint)
     {
         if (!contains(tableId)) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
@@ -105,13 +133,18 @@ public class MemoryPagesStore
                 continue;
             }
 
-            Page page = tableData.getPages().get(i);
+            StoredPage storedPage = tableData.getPages().get(i);
+            if (!storedPage.mayMatch(constraint)) {
+                continue;
+            }
+
+            Page page = storedPage.getPage(columnIndexes);
             totalRows += page.getPositionCount();
             if (limit.isPresent() && totalRows > limit.getAsLong()) {
                 page = page.getRegion(0, (int) (page.getPositionCount() - (totalRows - limit.getAsLong())));
                 done = true;
             }
-            partitionedPages.add(getColumns(page, columnIndexes));
+            partitionedPages.add(page);
         }
 
         return partitionedPages.build();
@@ -142,37 +175,109 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
-                }
+                currentBytes -= tablePagesEntry.getValue().getStoredBytes();
                 tableDataIterator.remove();
             }
         }
     }
 
-    private static Page getColumns(Page page, List<Integer> columnIndexes)
+    public synchronized List<TableStorageInfo> getTableStorageInfos()
+    {
+        ImmutableList.Builder<TableStorageInfo> infos = ImmutableList.builder();
+        tables.forEach((tableId, tableData) -> infos.add(new TableStorageInfo(
+                tableId,
+                tableData.getRows(),
+                tableData.getPages().size(),
+                tableData.getRawBytes(),
+                tableData.getStoredBytes())));
+        return infos.build();
+    }
+
+    public static final class TableStorageInfo
     {
-        Block[] outputBlocks = new Block[columnIndexes.size()];
+        private final long tableId;
+        private final long rows;
+        private final long pages;
+        private final long rawBytes;
+        private final long storedBytes;
+
+        public TableStorageInfo(long tableId, long rows, long pages, long rawBytes, long storedBytes)
+        {
+            this.tableId = tableId;
+            this.rows = rows;
+            this.pages = pages;
+            this.rawBytes = rawBytes;
+            this.storedBytes = storedBytes;
+        }
+
+        public long getTableId()
+        {
+            return tableId;
+        }
+
+        public long getRows()
+        {
+            return rows;
+        }
 
-        for (int i = 0; i < columnIndexes.size(); i++) {
-            outputBlocks[i] = page.getBlock(columnIndexes.get(i));
+        public long getPages()
+        {
+            return pages;
         }
 
-        return new Page(page.getPositionCount(), outputBlocks);
+        /**
+         * Retained size of the pages as they were written, before encoding and compression.
+         */
+        public long getRawBytes()
+        {
+            return rawBytes;
+        }
+
+        public long getStoredBytes()
+        {
+            return storedBytes;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("tableId", tableId)
+                    .add("rows", rows)
+                    .add("pages", pages)
+                    .add("rawBytes", rawBytes)
+                    .add("storedBytes", storedBytes)
+                    .toString();
+        }
     }
 
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
+        private final List<Type> columnTypes;
+        private final List<StoredPage> pages = new ArrayList<>();
         private long rows;
+        private long rawBytes;
+        private long storedBytes;
 
-        public void add(Page page)
+        public TableData(List<Type> columnTypes)
+        {
+            this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        }
+
+        public void add(StoredPage page)
         {
             pages.add(page);
             rows += page.getPositionCount();
+            rawBytes += page.getRawSizeInBytes();
+            storedBytes += page.getRetainedSizeInBytes();
+        }
+
+        private List<Type> getColumnTypes()
+        {
+            return columnTypes;
         }
 
-        private List<Page> getPages()
+        private List<StoredPage> getPages()
         {
             return pages;
         }
@@ -181,5 +286,15 @@ public class MemoryPagesStore
         {
             return rows;
         }
+
+        private long getRawBytes()
+        {
+            return rawBytes;
+        }
+
+        private long getStoredBytes()
+        {
+            return storedBytes;
+        }
     }
 }
@@ -0,0 +1,487 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.ByteArrayBlock;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.IntArrayBlock;
+import io.prestosql.spi.block.LazyBlock;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.block.ShortArrayBlock;
+import io.prestosql.spi.block.VariableWidthBlock;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Marker;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spi.function.InvocationConvention.InvocationArgumentConvention.BLOCK_POSITION;
+import static io.prestosql.spi.function.InvocationConvention.InvocationReturnConvention.FAIL_ON_NULL;
+import static io.prestosql.spi.function.InvocationConvention.simpleConvention;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A page as kept by {@link MemoryPagesStore}. Each column is stored run-length or dictionary
+ * encoded when that is smaller, and optionally LZ4 compressed. The range of values of each
+ * column is kept as a zone map, so that pages which cannot match a filter are not read.
+ */
+final class StoredPage
+{
+    private final int positionCount;
+    private final List<StoredColumn> columns;
+    private final TupleDomain<Integer> zoneMap;
+    private final long rawSizeInBytes;
+    private final long retainedSizeInBytes;
+
+    private StoredPage(int positionCount, List<StoredColumn> columns, TupleDomain<Integer> zoneMap, long rawSizeInBytes)
+    {
+        this.positionCount = positionCount;
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        this.zoneMap = requireNonNull(zoneMap, "zoneMap is null");
+        this.rawSizeInBytes = rawSizeInBytes;
+        this.retainedSizeInBytes = getZoneMapRetainedSizeInBytes(zoneMap) + columns.stream()
+                .mapToLong(StoredColumn::getRetainedSizeInBytes)
+                .sum();
+    }
+
+    public static StoredPage create(Page page, List<Type> types, TypeOperators typeOperators, boolean compressionEnabled)
+    {
+        checkArgument(page.getChannelCount() == types.size(), "Page has %s channels, but %s types were provided", page.getChannelCount(), types.size());
+
+        page.compact();
+
+        ImmutableList.Builder<StoredColumn> columns = ImmutableList.builder();
+        ImmutableMap.Builder<Integer, Domain> zoneMap = ImmutableMap.builder();
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            Type type = types.get(channel);
+            Optional<Domain> range = getRange(block, type, typeOperators);
+            if (range.isPresent()) {
+                zoneMap.put(channel, range.get());
+            }
+            columns.add(StoredColumn.create(encode(block), compressionEnabled));
+        }
+        return new StoredPage(page.getPositionCount(), columns.build(), TupleDomain.withColumnDomains(zoneMap.build()), page.getRetainedSizeInBytes());
+    }
+
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    /**
+     * Size of the page before it was encoded and compressed.
+     */
+    public long getRawSizeInBytes()
+    {
+        return rawSizeInBytes;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Returns false if no row of the page can satisfy the constraint on the column indexes.
+     */
+    public boolean mayMatch(TupleDomain<Integer> constraint)
+    {
+        return constraint.isAll() || !zoneMap.intersect(constraint).isNone();
+    }
+
+    public Page getPage(List<Integer> columnIndexes)
+    {
+        Block[] blocks = new Block[columnIndexes.size()];
+        for (int i = 0; i < columnIndexes.size(); i++) {
+            blocks[i] = columns.get(columnIndexes.get(i)).getBlock();
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private static Optional<Domain> getRange(Block block, Type type, TypeOperators typeOperators)
+    {
+        // NaN is not ordered with the other values, so floating point columns have no ranges
+        if (!type.isOrderable() || type.equals(DOUBLE) || type.equals(REAL)) {
+            return Optional.empty();
+        }
+        Class<?> javaType = type.getJavaType();
+        if (javaType != long.class && javaType != boolean.class && javaType != Slice.class) {
+            return Optional.empty();
+        }
+
+        MethodHandle comparisonOperator = typeOperators.getComparisonOperator(type, simpleConvention(FAIL_ON_NULL, BLOCK_POSITION, BLOCK_POSITION));
+        boolean hasNull = false;
+        int min = -1;
+        int max = -1;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                hasNull = true;
+            }
+            else if (min < 0) {
+                min = position;
+                max = position;
+            }
+            else if (compare(comparisonOperator, block, position, min) < 0) {
+                min = position;
+            }
+            else if (compare(comparisonOperator, block, position, max) > 0) {
+                max = position;
+            }
+        }
+
+        if (min < 0) {
+            return Optional.of(hasNull ? Domain.onlyNull(type) : Domain.none(type));
+        }
+        Range range = Range.range(type, getBound(type, block, min), true, getBound(type, block, max), true);
+        return Optional.of(Domain.create(ValueSet.ofRanges(range), hasNull));
+    }
+
+    private static Object getBound(Type type, Block block, int position)
+    {
+        Object value = readNativeValue(type, block, position);
+        if (value instanceof Slice) {
+            // the slice is a view into the block, which would keep the raw column alive after it is encoded
+            return Slices.copyOf((Slice) value);
+        }
+        return value;
+    }
+
+    private static long getZoneMapRetainedSizeInBytes(TupleDomain<Integer> zoneMap)
+    {
+        long size = 0;
+        for (Domain domain : zoneMap.getDomains().map(Map::values).orElseGet(ImmutableList::of)) {
+            for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+                size += getRetainedSizeInBytes(range.getLow()) + getRetainedSizeInBytes(range.getHigh());
+            }
+        }
+        return size;
+    }
+
+    private static long getRetainedSizeInBytes(Marker marker)
+    {
+        return marker.getValueBlock()
+                .map(Block::getRetainedSizeInBytes)
+                .orElse(0L);
+    }
+
+    private static long compare(MethodHandle comparisonOperator, Block block, int leftPosition, int rightPosition)
+    {
+        try {
+            return (long) comparisonOperator.invokeExact(block, leftPosition, block, rightPosition);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable throwable) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, throwable);
+        }
+    }
+
+    /**
+     * Returns the block run-length encoded if all values are identical, or dictionary
+     * encoded if it has variable width values that repeat often enough to make it smaller.
+     * Values are compared by their representation, so that the encoding never changes them.
+     */
+    private static Block encode(Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount < 2) {
+            return block;
+        }
+
+        boolean constant = true;
+        for (int position = 1; position < positionCount && constant; position++) {
+            constant = isIdentical(block, 0, position);
+        }
+        if (constant) {
+            return new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount);
+        }
+
+        if (block instanceof VariableWidthBlock) {
+            return dictionaryEncode(block);
+        }
+        return block;
+    }
+
+    private static boolean isIdentical(Block block, int left, int right)
+    {
+        boolean leftIsNull = block.isNull(left);
+        boolean rightIsNull = block.isNull(right);
+        if (leftIsNull || rightIsNull) {
+            return leftIsNull && rightIsNull;
+        }
+        if (block instanceof LongArrayBlock) {
+            return block.getLong(left, 0) == block.getLong(right, 0);
+        }
+        if (block instanceof IntArrayBlock) {
+            return block.getInt(left, 0) == block.getInt(right, 0);
+        }
+        if (block instanceof ShortArrayBlock) {
+            return block.getShort(left, 0) == block.getShort(right, 0);
+        }
+        if (block instanceof ByteArrayBlock) {
+            return block.getByte(left, 0) == block.getByte(right, 0);
+        }
+        if (block instanceof VariableWidthBlock) {
+            int length = block.getSliceLength(left);
+            return length == block.getSliceLength(right) && block.equals(left, 0, block, right, 0, length);
+        }
+        return false;
+    }
+
+    private static Block dictionaryEncode(Block block)
+    {
+        int positionCount = block.getPositionCount();
+        Map<Slice, Integer> dictionaryIds = new HashMap<>();
+        int[] ids = new int[positionCount];
+        int nullId = -1;
+        long dictionaryBytes = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    nullId = dictionaryIds.size();
+                    dictionaryIds.put(null, nullId);
+                }
+                ids[position] = nullId;
+                continue;
+            }
+            Slice value = block.getSlice(position, 0, block.getSliceLength(position));
+            Integer id = dictionaryIds.get(value);
+            if (id == null) {
+                id = dictionaryIds.size();
+                dictionaryIds.put(value, id);
+                dictionaryBytes += value.length();
+            }
+            ids[position] = id;
+        }
+
+        int dictionarySize = dictionaryIds.size();
+        long encodedSize = dictionaryBytes + (long) dictionarySize * (Integer.BYTES + Byte.BYTES) + sizeOf(ids);
+        if (encodedSize >= block.getSizeInBytes()) {
+            return block;
+        }
+
+        Slice[] values = new Slice[dictionarySize];
+        dictionaryIds.forEach((value, id) -> values[id] = value);
+        int[] offsets = new int[dictionarySize + 1];
+        boolean[] valueIsNull = new boolean[dictionarySize];
+        Slice data = Slices.allocate(toIntExact(dictionaryBytes));
+        for (int id = 0; id < dictionarySize; id++) {
+            if (values[id] == null) {
+                valueIsNull[id] = true;
+                offsets[id + 1] = offsets[id];
+                continue;
+            }
+            data.setBytes(offsets[id], values[id]);
+            offsets[id + 1] = offsets[id] + values[id].length();
+        }
+        Block dictionary = new VariableWidthBlock(dictionarySize, data, offsets, nullId < 0 ? Optional.empty() : Optional.of(valueIsNull));
+        return new DictionaryBlock(dictionary, ids);
+    }
+
+    /**
+     * A column of a stored page. Flat columns of fixed or variable width values can be
+     * kept LZ4 compressed, and are then decompressed lazily when the block is accessed.
+     */
+    private static final class StoredColumn
+    {
+        private final Optional<Block> block;
+        private final Optional<CompressedValues> compressedValues;
+
+        private StoredColumn(Optional<Block> block, Optional<CompressedValues> compressedValues)
+        {
+            checkArgument(block.isPresent() != compressedValues.isPresent(), "Exactly one of block and compressedValues must be present");
+            this.block = block;
+            this.compressedValues = compressedValues;
+        }
+
+        public static StoredColumn create(Block block, boolean compressionEnabled)
+        {
+            if (compressionEnabled) {
+                Optional<CompressedValues> compressed = CompressedValues.compress(block);
+                if (compressed.isPresent() && compressed.get().getRetainedSizeInBytes() < block.getRetainedSizeInBytes()) {
+                    return new StoredColumn(Optional.empty(), compressed);
+                }
+            }
+            return new StoredColumn(Optional.of(block), Optional.empty());
+        }
+
+        public Block getBlock()
+        {
+            if (block.isPresent()) {
+                return block.get();
+            }
+            CompressedValues values = compressedValues.get();
+            return new LazyBlock(values.getPositionCount(), values::decompress);
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return block.map(Block::getRetainedSizeInBytes)
+                    .orElseGet(() -> compressedValues.get().getRetainedSizeInBytes());
+        }
+    }
+
+    private static final class CompressedValues
+    {
+        private enum Kind
+        {
+            LONG,
+            INT,
+            VARIABLE_WIDTH,
+        }
+
+        private final Kind kind;
+        private final int positionCount;
+        private final Optional<boolean[]> valueIsNull;
+        private final Optional<int[]> offsets;
+        private final int uncompressedSize;
+        private final byte[] compressed;
+
+        private CompressedValues(Kind kind, int positionCount, Optional<boolean[]> valueIsNull, Optional<int[]> offsets, int uncompressedSize, byte[] compressed)
+        {
+            this.kind = requireNonNull(kind, "kind is null");
+            this.positionCount = positionCount;
+            this.valueIsNull = requireNonNull(valueIsNull, "valueIsNull is null");
+            this.offsets = requireNonNull(offsets, "offsets is null");
+            this.uncompressedSize = uncompressedSize;
+            this.compressed = requireNonNull(compressed, "compressed is null");
+        }
+
+        public static Optional<CompressedValues> compress(Block block)
+        {
+            int positionCount = block.getPositionCount();
+            Kind kind;
+            Slice data;
+            Optional<int[]> offsets = Optional.empty();
+            if (block instanceof LongArrayBlock) {
+                kind = Kind.LONG;
+                data = Slices.allocate(positionCount * Long.BYTES);
+                for (int position = 0; position < positionCount; position++) {
+                    if (!block.isNull(position)) {
+                        data.setLong(position * Long.BYTES, block.getLong(position, 0));
+                    }
+                }
+            }
+            else if (block instanceof IntArrayBlock) {
+                kind = Kind.INT;
+                data = Slices.allocate(positionCount * Integer.BYTES);
+                for (int position = 0; position < positionCount; position++) {
+                    if (!block.isNull(position)) {
+                        data.setInt(position * Integer.BYTES, block.getInt(position, 0));
+                    }
+                }
+            }
+            else if (block instanceof VariableWidthBlock) {
+                kind = Kind.VARIABLE_WIDTH;
+                int[] positionOffsets = new int[positionCount + 1];
+                for (int position = 0; position < positionCount; position++) {
+                    positionOffsets[position + 1] = positionOffsets[position] + (block.isNull(position) ? 0 : block.getSliceLength(position));
+                }
+                data = Slices.allocate(positionOffsets[positionCount]);
+                for (int position = 0; position < positionCount; position++) {
+                    int length = positionOffsets[position + 1] - positionOffsets[position];
+                    if (length > 0) {
+                        data.setBytes(positionOffsets[position], block.getSlice(position, 0, length));
+                    }
+                }
+                offsets = Optional.of(positionOffsets);
+            }
+            else {
+                return Optional.empty();
+            }
+
+            Optional<boolean[]> valueIsNull = Optional.empty();
+            if (block.mayHaveNull()) {
+                boolean[] isNull = new boolean[positionCount];
+                for (int position = 0; position < positionCount; position++) {
+                    isNull[position] = block.isNull(position);
+                }
+                valueIsNull = Optional.of(isNull);
+            }
+
+            Lz4Compressor compressor = new Lz4Compressor();
+            byte[] buffer = new byte[compressor.maxCompressedLength(data.length())];
+            int compressedSize = compressor.compress(data.byteArray(), data.byteArrayOffset(), data.length(), buffer, 0, buffer.length);
+            byte[] compressed = new byte[compressedSize];
+            System.arraycopy(buffer, 0, compressed, 0, compressedSize);
+            return Optional.of(new CompressedValues(kind, positionCount, valueIsNull, offsets, data.length(), compressed));
+        }
+
+        public int getPositionCount()
+        {
+            return positionCount;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return sizeOf(compressed) +
+                    valueIsNull.map(isNull -> sizeOf(isNull)).orElse(0L) +
+                    offsets.map(positionOffsets -> sizeOf(positionOffsets)).orElse(0L);
+        }
+
+        public Block decompress()
+        {
+            byte[] data = new byte[uncompressedSize];
+            int decompressedSize = new Lz4Decompressor().decompress(compressed, 0, compressed.length, data, 0, data.length);
+            checkState(decompressedSize == uncompressedSize, "Decompressed size %s does not match the expected size %s", decompressedSize, uncompressedSize);
+            Slice slice = Slices.wrappedBuffer(data);
+
+            switch (kind) {
+                case LONG:
+                    long[] longValues = new long[positionCount];
+                    for (int position = 0; position < positionCount; position++) {
+                        longValues[position] = slice.getLong(position * Long.BYTES);
+                    }
+                    return new LongArrayBlock(positionCount, valueIsNull, longValues);
+                case INT:
+                    int[] intValues = new int[positionCount];
+                    for (int position = 0; position < positionCount; position++) {
+                        intValues[position] = slice.getInt(position * Integer.BYTES);
+                    }
+                    return new IntArrayBlock(positionCount, valueIsNull, intValues);
+                case VARIABLE_WIDTH:
+                    return new VariableWidthBlock(positionCount, slice, offsets.get(), valueIsNull);
+            }
+            throw new IllegalStateException("Unknown kind: " + kind);
+        }
+    }
+}
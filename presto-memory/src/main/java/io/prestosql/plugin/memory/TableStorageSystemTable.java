@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.plugin.memory.MemoryPagesStore.TableStorageInfo;
+import io.prestosql.spi.Node;
+import io.prestosql.spi.NodeManager;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.ConnectorTableMetadata;
+import io.prestosql.spi.connector.ConnectorTransactionHandle;
+import io.prestosql.spi.connector.FixedPageSource;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.connector.SystemTable;
+import io.prestosql.spi.predicate.TupleDomain;
+
+import javax.inject.Inject;
+
+import java.util.List;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reports how much memory the tables take on each node, as written and as stored.
+ */
+public class TableStorageSystemTable
+        implements SystemTable
+{
+    private static final ConnectorTableMetadata METADATA = new ConnectorTableMetadata(
+            new SchemaTableName("system", "table_storage"),
+            ImmutableList.<ColumnMetadata>builder()
+                    .add(new ColumnMetadata("node_id", createUnboundedVarcharType()))
+                    .add(new ColumnMetadata("table_id", BIGINT))
+                    .add(new ColumnMetadata("row_count", BIGINT))
+                    .add(new ColumnMetadata("page_count", BIGINT))
+                    .add(new ColumnMetadata("raw_bytes", BIGINT))
+                    .add(new ColumnMetadata("stored_bytes", BIGINT))
+                    .build());
+
+    private final MemoryPagesStore pagesStore;
+    private final Node currentNode;
+
+    @Inject
+    public TableStorageSystemTable(NodeManager nodeManager, MemoryPagesStore pagesStore)
+    {
+        requireNonNull(nodeManager, "nodeManager is null");
+
+        this.pagesStore = requireNonNull(pagesStore, "pagesStore is null");
+        currentNode = nodeManager.getCurrentNode();
+    }
+
+    @Override
+    public Distribution getDistribution()
+    {
+        return Distribution.ALL_NODES;
+    }
+
+    @Override
+    public ConnectorTableMetadata getTableMetadata()
+    {
+        return METADATA;
+    }
+
+    @Override
+    public ConnectorPageSource pageSource(ConnectorTransactionHandle transaction, ConnectorSession session, TupleDomain<Integer> constraint)
+    {
+        List<TableStorageInfo> tables = pagesStore.getTableStorageInfos();
+
+        BlockBuilder nodeId = VARCHAR.createBlockBuilder(null, tables.size());
+        BlockBuilder tableId = BIGINT.createBlockBuilder(null, tables.size());
+        BlockBuilder rowCount = BIGINT.createBlockBuilder(null, tables.size());
+        BlockBuilder pageCount = BIGINT.createBlockBuilder(null, tables.size());
+        BlockBuilder rawBytes = BIGINT.createBlockBuilder(null, tables.size());
+        BlockBuilder storedBytes = BIGINT.createBlockBuilder(null, tables.size());
+
+        for (TableStorageInfo table : tables) {
+            VARCHAR.writeString(nodeId, currentNode.getNodeIdentifier());
+            BIGINT.writeLong(tableId, table.getTableId());
+            BIGINT.writeLong(rowCount, table.getRows());
+            BIGINT.writeLong(pageCount, table.getPages());
+            BIGINT.writeLong(rawBytes, table.getRawBytes());
+            BIGINT.writeLong(storedBytes, table.getStoredBytes());
+        }
+
+        return new FixedPageSource(ImmutableList.of(new Page(
+                tables.size(),
+                nodeId.build(),
+                tableId.build(),
+                rowCount.build(),
+                pageCount.build(),
+                rawBytes.build(),
+                storedBytes.build())));
+    }
+}
@@ -14,8 +14,10 @@
 package io.prestosql.plugin.memory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
+import io.prestosql.plugin.memory.MemoryPagesStore.TableStorageInfo;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
@@ -23,9 +25,15 @@ import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorPageSink;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.TypeOperators;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
 
@@ -46,7 +54,7 @@ public class TestMemoryPagesStore
     @BeforeMethod
     public void setUp()
     {
-        pagesStore = new MemoryPagesStore(new MemoryConfig().setMaxDataPerNode(DataSize.of(1, DataSize.Unit.MEGABYTE)));
+        pagesStore = new MemoryPagesStore(new MemoryConfig().setMaxDataPerNode(DataSize.of(1, DataSize.Unit.MEGABYTE)), new TypeOperators());
         pageSinkProvider = new MemoryPageSinkProvider(pagesStore, HostAddress.fromString("localhost:8080"));
     }
 
@@ -54,7 +62,7 @@ public class TestMemoryPagesStore
     public void testCreateEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty()), ImmutableList.of());
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()), ImmutableList.of());
     }
 
     @Test
@@ -62,28 +70,28 @@ public class TestMemoryPagesStore
     {
         createTable(0L, 0L);
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty()).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()).size(), 1);
     }
 
     @Test
     public void testInsertPageWithoutCreate()
     {
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty()).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()).size(), 1);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testReadFromUnknownTable()
     {
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty());
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all());
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testTryToReadFromEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty()), ImmutableList.of());
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42, OptionalLong.empty(), OptionalDouble.empty());
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()), ImmutableList.of());
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all());
     }
 
     @Test
@@ -118,6 +126,46 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testZoneMapPruning()
+    {
+        createTable(0L, 0L);
+        insertToTable(0L, createSequencePage(0, 100), 0L);
+        insertToTable(0L, createSequencePage(100, 100), 0L);
+        insertToTable(0L, createSequencePage(200, 100), 0L);
+
+        assertEquals(getPages(0L, TupleDomain.all()).size(), 3);
+        assertEquals(getPages(0L, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 150L)))).size(), 1);
+        assertEquals(getPages(0L, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.create(ValueSet.ofRanges(Range.lessThan(BIGINT, 100L)), false)))).size(), 1);
+        assertEquals(getPages(0L, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 150L)), false)))).size(), 2);
+        assertEquals(getPages(0L, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 1000L)))), ImmutableList.of());
+        assertEquals(getPages(0L, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.onlyNull(BIGINT)))), ImmutableList.of());
+        assertEquals(getPages(0L, TupleDomain.none()), ImmutableList.of());
+    }
+
+    @Test
+    public void testTableStorageInfo()
+    {
+        createTable(0L, 0L);
+        insertToTable(0L, createSequencePage(0, 100), 0L);
+        insertToTable(0L, createSequencePage(100, 100), 0L);
+
+        List<TableStorageInfo> infos = pagesStore.getTableStorageInfos();
+        assertEquals(infos.size(), 1);
+        TableStorageInfo info = infos.get(0);
+        assertEquals(info.getTableId(), 0L);
+        assertEquals(info.getRows(), 200L);
+        assertEquals(info.getPages(), 2L);
+        assertEquals(info.getRawBytes(), 2 * createSequencePage(0, 100).getRetainedSizeInBytes());
+        // distinct values are stored flat, together with the zone map
+        assertTrue(info.getStoredBytes() > info.getRawBytes());
+    }
+
+    private List<Page> getPages(long tableId, TupleDomain<Integer> constraint)
+    {
+        return pagesStore.getPages(tableId, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), constraint);
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -144,12 +192,12 @@ public class TestMemoryPagesStore
 
     private static ConnectorOutputTableHandle createMemoryOutputTableHandle(long tableId, Long... activeTableIds)
     {
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(BIGINT));
     }
 
     private static ConnectorInsertTableHandle createMemoryInsertTableHandle(long tableId, Long[] activeTableIds)
     {
-        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(BIGINT));
     }
 
     private static Page createPage()
@@ -159,11 +207,21 @@ public class TestMemoryPagesStore
         return new Page(0, blockBuilder.build());
     }
 
+    private static Page createSequencePage(long start, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, start + position);
+        }
+        return new Page(positionCount, blockBuilder.build());
+    }
+
     private static Page createOneMegaBytePage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
-        while (blockBuilder.getRetainedSizeInBytes() < 1024 * 1024) {
-            BIGINT.writeLong(blockBuilder, 42L);
+        // distinct values, so that the page cannot be stored run length encoded
+        for (long value = 0; blockBuilder.getRetainedSizeInBytes() < 1024 * 1024; value++) {
+            BIGINT.writeLong(blockBuilder, value);
         }
         return new Page(0, blockBuilder.build());
     }
@@ -371,13 +371,43 @@ public class TestMemorySmoke
         assertUpdate("DROP SCHEMA IF EXISTS schema1");
     }
 
+    @Test
+    public void testFilterOnStoredPages()
+    {
+        assertUpdate("CREATE TABLE test_filter_pages AS SELECT * FROM tpch.tiny.lineitem ORDER BY orderkey", "SELECT count(*) FROM lineitem");
+
+        assertQuery("SELECT count(*), sum(quantity) FROM test_filter_pages WHERE orderkey = 1", "SELECT count(*), sum(quantity) FROM lineitem WHERE orderkey = 1");
+        assertQuery("SELECT count(*) FROM test_filter_pages WHERE orderkey BETWEEN 1000 AND 2000", "SELECT count(*) FROM lineitem WHERE orderkey BETWEEN 1000 AND 2000");
+        assertQuery("SELECT count(*) FROM test_filter_pages WHERE orderkey > 1000000", "SELECT 0");
+        assertQuery("SELECT count(*) FROM test_filter_pages WHERE shipmode = 'AIR' AND orderkey < 100", "SELECT count(*) FROM lineitem WHERE shipmode = 'AIR' AND orderkey < 100");
+        assertQuery("SELECT count(*) FROM test_filter_pages WHERE returnflag IS NULL", "SELECT 0");
+        assertQuery("SELECT orderkey, linenumber FROM test_filter_pages WHERE orderkey < 10 LIMIT 100", "SELECT orderkey, linenumber FROM lineitem WHERE orderkey < 10");
+
+        assertUpdate("DROP TABLE test_filter_pages");
+    }
+
+    @Test
+    public void testTableStorageSystemTable()
+    {
+        assertUpdate("CREATE TABLE test_table_storage AS SELECT orderkey, orderstatus, comment FROM tpch.tiny.orders", "SELECT count(*) FROM orders");
+
+        MaterializedResult result = computeActual("SELECT sum(row_count), sum(raw_bytes), sum(stored_bytes) FROM system.table_storage " +
+                "WHERE table_id = (SELECT max(table_id) FROM system.table_storage)");
+        MaterializedRow row = result.getMaterializedRows().get(0);
+        assertEquals(row.getField(0), (long) ORDERS_COUNT);
+        // the order status has three distinct values, so it is stored dictionary encoded
+        assertTrue((long) row.getField(2) < (long) row.getField(1));
+
+        assertUpdate("DROP TABLE test_table_storage");
+    }
+
     @Test
     public void testCreateTableInNonDefaultSchema()
     {
         assertUpdate("CREATE SCHEMA schema1");
         assertUpdate("CREATE SCHEMA schema2");
 
-        assertQueryResult("SHOW SCHEMAS", "default", "information_schema", "schema1", "schema2");
+        assertQueryResult("SHOW SCHEMAS", "default", "information_schema", "schema1", "schema2", "system");
         assertUpdate("CREATE TABLE schema1.nation AS SELECT * FROM tpch.tiny.nation WHERE nationkey % 2 = 0", "SELECT count(*) FROM nation WHERE MOD(nationkey, 2) = 0");
         assertUpdate("CREATE TABLE schema2.nation AS SELECT * FROM tpch.tiny.nation WHERE nationkey % 2 = 1", "SELECT count(*) FROM nation WHERE MOD(nationkey, 2) = 1");
 
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.LazyBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeOperators;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestStoredPage
+{
+    private static final TypeOperators TYPE_OPERATORS = new TypeOperators();
+    private static final int POSITIONS = 1000;
+
+    @Test
+    public void testRunLengthEncoding()
+    {
+        Block constant = createBlock(BIGINT, position -> 7L);
+        Block nulls = createBlock(VARCHAR, position -> null);
+        Page page = new Page(constant, nulls);
+
+        StoredPage storedPage = StoredPage.create(page, ImmutableList.of(BIGINT, VARCHAR), TYPE_OPERATORS, false);
+        Page result = storedPage.getPage(ImmutableList.of(0, 1));
+        assertTrue(result.getBlock(0) instanceof RunLengthEncodedBlock);
+        assertTrue(result.getBlock(1) instanceof RunLengthEncodedBlock);
+        assertPageEquals(ImmutableList.of(BIGINT, VARCHAR), result, page);
+        assertTrue(storedPage.getRetainedSizeInBytes() < storedPage.getRawSizeInBytes());
+    }
+
+    @Test
+    public void testDictionaryEncoding()
+    {
+        Block values = createBlock(VARCHAR, position -> position % 10 == 0 ? null : utf8Slice("value " + position % 3));
+        Page page = new Page(values);
+
+        StoredPage storedPage = StoredPage.create(page, ImmutableList.of(VARCHAR), TYPE_OPERATORS, false);
+        Page result = storedPage.getPage(ImmutableList.of(0));
+        assertTrue(result.getBlock(0) instanceof DictionaryBlock);
+        assertPageEquals(ImmutableList.of(VARCHAR), result, page);
+        assertTrue(storedPage.getRetainedSizeInBytes() < storedPage.getRawSizeInBytes());
+    }
+
+    @Test
+    public void testCompression()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, VARCHAR, DOUBLE);
+        Page page = new Page(
+                createBlock(BIGINT, position -> position % 7 == 0 ? null : (long) position / 4),
+                createBlock(INTEGER, position -> (long) position % 100),
+                createBlock(VARCHAR, position -> position % 5 == 0 ? null : utf8Slice("a distinct value " + position)),
+                createBlock(DOUBLE, position -> position * 0.5));
+
+        StoredPage uncompressed = StoredPage.create(page, types, TYPE_OPERATORS, false);
+        StoredPage compressed = StoredPage.create(page, types, TYPE_OPERATORS, true);
+        assertTrue(compressed.getRetainedSizeInBytes() < uncompressed.getRetainedSizeInBytes());
+
+        Page result = compressed.getPage(ImmutableList.of(0, 1, 2, 3));
+        assertTrue(result.getBlock(0) instanceof LazyBlock);
+        assertTrue(result.getBlock(1) instanceof LazyBlock);
+        assertTrue(result.getBlock(2) instanceof LazyBlock);
+        assertPageEquals(types, result, page);
+
+        // columns can be read in any order and more than once
+        Page projected = compressed.getPage(ImmutableList.of(2, 0, 2));
+        assertPageEquals(ImmutableList.of(VARCHAR, BIGINT, VARCHAR), projected, new Page(page.getBlock(2), page.getBlock(0), page.getBlock(2)));
+    }
+
+    @Test
+    public void testRetainedSizeOfCompressedVarchar()
+    {
+        String padding = "x".repeat(10_000);
+        Page page = new Page(createBlock(VARCHAR, position -> utf8Slice(padding + position % 10)));
+
+        StoredPage storedPage = StoredPage.create(page, ImmutableList.of(VARCHAR), TYPE_OPERATORS, true);
+        // the zone map holds copies of the minimum and maximum, not views into the raw column
+        assertTrue(storedPage.getRetainedSizeInBytes() >= 2 * padding.length());
+        assertTrue(storedPage.getRetainedSizeInBytes() < storedPage.getRawSizeInBytes() / 10);
+        assertPageEquals(ImmutableList.of(VARCHAR), storedPage.getPage(ImmutableList.of(0)), page);
+    }
+
+    @Test
+    public void testZoneMap()
+    {
+        Page page = new Page(
+                createBlock(BIGINT, position -> position % 10 == 0 ? null : (long) position + 100),
+                createBlock(VARCHAR, position -> utf8Slice("value " + position % 3)),
+                createBlock(DOUBLE, position -> position * 0.5));
+        StoredPage storedPage = StoredPage.create(page, ImmutableList.of(BIGINT, VARCHAR, DOUBLE), TYPE_OPERATORS, false);
+
+        assertTrue(storedPage.mayMatch(TupleDomain.all()));
+        assertFalse(storedPage.mayMatch(TupleDomain.none()));
+
+        assertTrue(storedPage.mayMatch(constraint(0, Domain.singleValue(BIGINT, 101L))));
+        assertTrue(storedPage.mayMatch(constraint(0, Domain.singleValue(BIGINT, 1099L))));
+        assertFalse(storedPage.mayMatch(constraint(0, Domain.singleValue(BIGINT, 100L))));
+        assertFalse(storedPage.mayMatch(constraint(0, Domain.singleValue(BIGINT, 1100L))));
+        assertTrue(storedPage.mayMatch(constraint(0, Domain.onlyNull(BIGINT))));
+
+        assertTrue(storedPage.mayMatch(constraint(1, Domain.singleValue(VARCHAR, utf8Slice("value 1")))));
+        assertFalse(storedPage.mayMatch(constraint(1, Domain.singleValue(VARCHAR, utf8Slice("value 3")))));
+        assertFalse(storedPage.mayMatch(constraint(1, Domain.onlyNull(VARCHAR))));
+
+        // floating point columns have no zone map
+        assertTrue(storedPage.mayMatch(constraint(2, Domain.singleValue(DOUBLE, -1.0))));
+    }
+
+    private static TupleDomain<Integer> constraint(int column, Domain domain)
+    {
+        return TupleDomain.withColumnDomains(ImmutableMap.of(column, domain));
+    }
+
+    private static Block createBlock(Type type, PositionValue value)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, POSITIONS);
+        for (int position = 0; position < POSITIONS; position++) {
+            writeNativeValue(type, blockBuilder, value.get(position));
+        }
+        return blockBuilder.build();
+    }
+
+    private static void assertPageEquals(List<Type> types, Page actual, Page expected)
+    {
+        assertEquals(actual.getChannelCount(), expected.getChannelCount());
+        assertEquals(actual.getPositionCount(), expected.getPositionCount());
+        for (int channel = 0; channel < types.size(); channel++) {
+            Type type = types.get(channel);
+            for (int position = 0; position < expected.getPositionCount(); position++) {
+                assertEquals(
+                        readNativeValue(type, actual.getBlock(channel), position),
+                        readNativeValue(type, expected.getBlock(channel), position),
+                        "channel " + channel + ", position " + position);
+            }
+        }
+    }
+
+    private interface PositionValue
+    {
+        Object get(int position);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.SortedRangeSet;
+import io.prestosql.spi.type.Type;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.prestosql.spi.predicate.Marker.Bound.ABOVE;
+import static io.prestosql.spi.predicate.Marker.Bound.BELOW;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates the domain of a column on the rows of a batch, and keeps track of the fraction
+ * of the rows that pass, so the most selective filters can be evaluated first.
+ */
+final class ColumnDomainFilter
+{
+    private final int columnIndex;
+    private final Type type;
+    private final Domain domain;
+
+    // bounds of a single range of an integer type
+    private final boolean longRange;
+    private final long low;
+    private final boolean lowInclusive;
+    private final long high;
+    private final boolean highInclusive;
+
+    private long inputPositions;
+    private long outputPositions;
+
+    public ColumnDomainFilter(int columnIndex, Type type, Domain domain)
+    {
+        this.columnIndex = columnIndex;
+        this.type = requireNonNull(type, "type is null");
+        this.domain = requireNonNull(domain, "domain is null");
+
+        Range range = getSingleRange(type, domain);
+        this.longRange = range != null;
+        this.low = range == null || range.getLow().isLowerUnbounded() ? Long.MIN_VALUE : (long) range.getLow().getValue();
+        this.lowInclusive = range == null || range.getLow().getBound() != ABOVE;
+        this.high = range == null || range.getHigh().isUpperUnbounded() ? Long.MAX_VALUE : (long) range.getHigh().getValue();
+        this.highInclusive = range == null || range.getHigh().getBound() != BELOW;
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        // arrays, maps and rows are not supported
+        return type.getJavaType() != Block.class;
+    }
+
+    public int getColumnIndex()
+    {
+        return columnIndex;
+    }
+
+    /**
+     * Returns the fraction of the rows that passed the filter so far.
+     */
+    public double getPassRatio()
+    {
+        if (inputPositions == 0) {
+            return 1.0;
+        }
+        return (double) outputPositions / inputPositions;
+    }
+
+    /**
+     * Removes the positions that do not match the domain from the first {@code positionCount}
+     * entries of {@code positions}, and returns the number of remaining positions.
+     */
+    public int filter(Block block, int[] positions, int positionCount)
+    {
+        int outputCount = 0;
+        if (longRange) {
+            boolean mayHaveNull = block.mayHaveNull();
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (mayHaveNull && block.isNull(position)) {
+                    if (domain.isNullAllowed()) {
+                        positions[outputCount++] = position;
+                    }
+                    continue;
+                }
+                long value = type.getLong(block, position);
+                if ((lowInclusive ? value >= low : value > low) && (highInclusive ? value <= high : value < high)) {
+                    positions[outputCount++] = position;
+                }
+            }
+        }
+        else {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (domain.includesNullableValue(readNativeValue(type, block, position))) {
+                    positions[outputCount++] = position;
+                }
+            }
+        }
+
+        inputPositions += positionCount;
+        outputPositions += outputCount;
+        return outputCount;
+    }
+
+    private static Range getSingleRange(Type type, Domain domain)
+    {
+        if (!type.equals(BIGINT) && !type.equals(INTEGER) && !type.equals(SMALLINT) && !type.equals(TINYINT) && !type.equals(DATE)) {
+            return null;
+        }
+        if (!(domain.getValues() instanceof SortedRangeSet)) {
+            return null;
+        }
+        SortedRangeSet ranges = (SortedRangeSet) domain.getValues();
+        if (ranges.getRangeCount() != 1) {
+            return null;
+        }
+        return ranges.getOrderedRanges().get(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnIndex", columnIndex)
+                .add("domain", domain)
+                .add("passRatio", getPassRatio())
+                .toString();
+    }
+}
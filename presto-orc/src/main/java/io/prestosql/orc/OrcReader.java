@@ -322,6 +322,8 @@ public class OrcReader
                 length,
                 footer.getTypes(),
                 decompressor,
+                compressionKind,
+                bufferSize,
                 footer.getRowsInRowGroup(),
                 requireNonNull(legacyFileTimeZone, "legacyFileTimeZone is null"),
                 hiveWriterVersion,
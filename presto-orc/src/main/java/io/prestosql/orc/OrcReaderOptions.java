@@ -15,6 +15,7 @@ package io.prestosql.orc;
 
 import io.airlift.units.DataSize;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
@@ -28,6 +29,9 @@ public class OrcReaderOptions
     private static final DataSize DEFAULT_MAX_BLOCK_SIZE = DataSize.of(16, MEGABYTE);
     private static final boolean DEFAULT_LAZY_READ_SMALL_RANGES = true;
     private static final boolean DEFAULT_NESTED_LAZY = true;
+    private static final boolean DEFAULT_SELECTIVE_READING_ENABLED = false;
+    private static final int DEFAULT_STRIPE_PREFETCH_COUNT = 0;
+    private static final DataSize DEFAULT_MAX_STRIPE_PREFETCH_SIZE = DataSize.of(64, MEGABYTE);
 
     private final boolean bloomFiltersEnabled;
 
@@ -38,6 +42,9 @@ public class OrcReaderOptions
     private final DataSize maxBlockSize;
     private final boolean lazyReadSmallRanges;
     private final boolean nestedLazy;
+    private final boolean selectiveReadingEnabled;
+    private final int stripePrefetchCount;
+    private final DataSize maxStripePrefetchSize;
 
     public OrcReaderOptions()
     {
@@ -49,6 +56,9 @@ public class OrcReaderOptions
         maxBlockSize = DEFAULT_MAX_BLOCK_SIZE;
         lazyReadSmallRanges = DEFAULT_LAZY_READ_SMALL_RANGES;
         nestedLazy = DEFAULT_NESTED_LAZY;
+        selectiveReadingEnabled = DEFAULT_SELECTIVE_READING_ENABLED;
+        stripePrefetchCount = DEFAULT_STRIPE_PREFETCH_COUNT;
+        maxStripePrefetchSize = DEFAULT_MAX_STRIPE_PREFETCH_SIZE;
     }
 
     private OrcReaderOptions(
@@ -59,7 +69,10 @@ public class OrcReaderOptions
             DataSize streamBufferSize,
             DataSize maxBlockSize,
             boolean lazyReadSmallRanges,
-            boolean nestedLazy)
+            boolean nestedLazy,
+            boolean selectiveReadingEnabled,
+            int stripePrefetchCount,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
@@ -69,6 +82,10 @@ public class OrcReaderOptions
         this.lazyReadSmallRanges = requireNonNull(lazyReadSmallRanges, "lazyReadSmallRanges is null");
         this.bloomFiltersEnabled = bloomFiltersEnabled;
         this.nestedLazy = nestedLazy;
+        this.selectiveReadingEnabled = selectiveReadingEnabled;
+        checkArgument(stripePrefetchCount >= 0, "stripePrefetchCount is negative");
+        this.stripePrefetchCount = stripePrefetchCount;
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public boolean isBloomFiltersEnabled()
@@ -111,6 +128,21 @@ public class OrcReaderOptions
         return nestedLazy;
     }
 
+    public boolean isSelectiveReadingEnabled()
+    {
+        return selectiveReadingEnabled;
+    }
+
+    public int getStripePrefetchCount()
+    {
+        return stripePrefetchCount;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
+
     public OrcReaderOptions withBloomFiltersEnabled(boolean bloomFiltersEnabled)
     {
         return new OrcReaderOptions(
@@ -121,7 +153,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     public OrcReaderOptions withMaxMergeDistance(DataSize maxMergeDistance)
@@ -134,7 +169,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     public OrcReaderOptions withMaxBufferSize(DataSize maxBufferSize)
@@ -147,7 +185,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     public OrcReaderOptions withTinyStripeThreshold(DataSize tinyStripeThreshold)
@@ -160,7 +201,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     public OrcReaderOptions withStreamBufferSize(DataSize streamBufferSize)
@@ -173,7 +217,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     public OrcReaderOptions withMaxReadBlockSize(DataSize maxBlockSize)
@@ -186,7 +233,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     // TODO remove config option once efficacy is proven
@@ -201,7 +251,10 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 
     // TODO remove config option once efficacy is proven
@@ -216,6 +269,67 @@ public class OrcReaderOptions
                 streamBufferSize,
                 maxBlockSize,
                 lazyReadSmallRanges,
-                nestedLazy);
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
+    }
+
+    /**
+     * When enabled, the reader evaluates the column domains of a {@link TupleDomainOrcPredicate}
+     * on every row, and only returns the rows that match. This is only correct when rows that do not
+     * match the predicate may be discarded, and the caller does not depend on the position of a row
+     * in the returned pages.
+     */
+    public OrcReaderOptions withSelectiveReadingEnabled(boolean selectiveReadingEnabled)
+    {
+        return new OrcReaderOptions(
+                bloomFiltersEnabled,
+                maxMergeDistance,
+                maxBufferSize,
+                tinyStripeThreshold,
+                streamBufferSize,
+                maxBlockSize,
+                lazyReadSmallRanges,
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
+    }
+
+    /**
+     * Number of stripes after the current one that are read in the background, when the
+     * data source is a {@link PrefetchingOrcDataSource}. Zero disables prefetching.
+     */
+    public OrcReaderOptions withStripePrefetchCount(int stripePrefetchCount)
+    {
+        return new OrcReaderOptions(
+                bloomFiltersEnabled,
+                maxMergeDistance,
+                maxBufferSize,
+                tinyStripeThreshold,
+                streamBufferSize,
+                maxBlockSize,
+                lazyReadSmallRanges,
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
+    }
+
+    public OrcReaderOptions withMaxStripePrefetchSize(DataSize maxStripePrefetchSize)
+    {
+        return new OrcReaderOptions(
+                bloomFiltersEnabled,
+                maxMergeDistance,
+                maxBufferSize,
+                tinyStripeThreshold,
+                streamBufferSize,
+                maxBlockSize,
+                lazyReadSmallRanges,
+                nestedLazy,
+                selectiveReadingEnabled,
+                stripePrefetchCount,
+                maxStripePrefetchSize);
     }
 }
@@ -29,7 +29,9 @@ import io.prestosql.orc.OrcWriteValidation.WriteChecksum;
 import io.prestosql.orc.OrcWriteValidation.WriteChecksumBuilder;
 import io.prestosql.orc.metadata.ColumnEncoding;
 import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.CompressionKind;
 import io.prestosql.orc.metadata.MetadataReader;
+import io.prestosql.orc.metadata.OrcColumnId;
 import io.prestosql.orc.metadata.OrcType;
 import io.prestosql.orc.metadata.PostScript.HiveWriterVersion;
 import io.prestosql.orc.metadata.StripeInformation;
@@ -39,6 +41,8 @@ import io.prestosql.orc.reader.ColumnReader;
 import io.prestosql.orc.stream.InputStreamSources;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.LazyBlock;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.type.Type;
 import org.joda.time.DateTimeZone;
 import org.openjdk.jol.info.ClassLayout;
@@ -59,6 +63,7 @@ import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static io.prestosql.orc.OrcDecompressor.createOrcDecompressor;
 import static io.prestosql.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static io.prestosql.orc.OrcReader.MAX_BATCH_SIZE;
 import static io.prestosql.orc.OrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
@@ -68,6 +73,7 @@ import static io.prestosql.spi.block.LazyBlock.listenForLoads;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
+import static java.util.Comparator.comparingDouble;
 import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 
@@ -94,6 +100,9 @@ public class OrcRecordReader
 
     private final List<StripeInformation> stripes;
     private final StripeReader stripeReader;
+    private final Optional<PrefetchingOrcDataSource> prefetchingDataSource;
+    private final CompressionKind compressionKind;
+    private final int bufferSize;
     private int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
 
@@ -119,6 +128,9 @@ public class OrcRecordReader
     private final Optional<StatisticsValidation> stripeStatisticsValidation;
     private final Optional<StatisticsValidation> fileStatisticsValidation;
 
+    private final List<ColumnDomainFilter> filters;
+    private int[] filterPositions = new int[0];
+
     public OrcRecordReader(
             List<OrcColumn> readColumns,
             List<Type> readTypes,
@@ -133,6 +145,8 @@ public class OrcRecordReader
             long splitLength,
             ColumnMetadata<OrcType> orcTypes,
             Optional<OrcDecompressor> decompressor,
+            CompressionKind compressionKind,
+            int bufferSize,
             OptionalInt rowsInRowGroup,
             DateTimeZone legacyFileTimeZone,
             HiveWriterVersion hiveWriterVersion,
@@ -157,6 +171,7 @@ public class OrcRecordReader
         requireNonNull(orcDataSource, "orcDataSource is null");
         requireNonNull(orcTypes, "types is null");
         requireNonNull(decompressor, "decompressor is null");
+        requireNonNull(compressionKind, "compressionKind is null");
         requireNonNull(legacyFileTimeZone, "legacyFileTimeZone is null");
         requireNonNull(userMetadata, "userMetadata is null");
         requireNonNull(systemMemoryUsage, "systemMemoryUsage is null");
@@ -207,6 +222,12 @@ public class OrcRecordReader
 
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, options.getMaxMergeDistance(), options.getTinyStripeThreshold());
         this.orcDataSource = orcDataSource;
+        // tiny stripes are already read together
+        this.prefetchingDataSource = Optional.of(orcDataSource)
+                .filter(PrefetchingOrcDataSource.class::isInstance)
+                .map(PrefetchingOrcDataSource.class::cast);
+        this.compressionKind = compressionKind;
+        this.bufferSize = bufferSize;
         this.orcDataSourceMemoryUsage = systemMemoryUsage.newLocalMemoryContext(OrcDataSource.class.getSimpleName());
         this.orcDataSourceMemoryUsage.setBytes(orcDataSource.getRetainedSize());
         this.splitLength = splitLength;
@@ -239,6 +260,7 @@ public class OrcRecordReader
                 writeValidation);
 
         columnReaders = createColumnReaders(readColumns, readTypes, readLayouts, streamReadersSystemMemoryContext, blockFactory);
+        filters = createFilters(readColumns, readTypes, predicate, options, writeValidation);
         currentBytesPerCell = new long[columnReaders.length];
         maxBytesPerCell = new long[columnReaders.length];
         nextBatchSize = initialBatchSize;
@@ -360,6 +382,26 @@ public class OrcRecordReader
 
     public Page nextPage()
             throws IOException
+    {
+        if (filters.isEmpty()) {
+            return readNextPage();
+        }
+
+        while (true) {
+            Page page = readNextPage();
+            if (page == null) {
+                return null;
+            }
+            page = filterPage(page);
+            if (page.getPositionCount() > 0) {
+                return page;
+            }
+            // no rows matched, so the other columns of the batch are skipped without being decoded
+        }
+    }
+
+    private Page readNextPage()
+            throws IOException
     {
         // update position for current row group (advancing resets them)
         filePosition += currentBatchSize;
@@ -414,6 +456,48 @@ public class OrcRecordReader
         return page;
     }
 
+    private Page filterPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        if (filterPositions.length < positionCount) {
+            filterPositions = new int[positionCount];
+        }
+        for (int position = 0; position < positionCount; position++) {
+            filterPositions[position] = position;
+        }
+
+        for (ColumnDomainFilter filter : filters) {
+            Block block = page.getBlock(filter.getColumnIndex()).getLoadedBlock();
+            positionCount = filter.filter(block, filterPositions, positionCount);
+            if (positionCount == 0) {
+                break;
+            }
+        }
+        // evaluate the most selective filters first on the next batch
+        filters.sort(comparingDouble(ColumnDomainFilter::getPassRatio));
+
+        if (positionCount == page.getPositionCount()) {
+            return page;
+        }
+        if (positionCount == 0) {
+            return new Page(0);
+        }
+
+        int filteredPositionCount = positionCount;
+        int[] positions = Arrays.copyOf(filterPositions, filteredPositionCount);
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            if (block.isLoaded()) {
+                blocks[channel] = block.getPositions(positions, 0, filteredPositionCount);
+            }
+            else {
+                blocks[channel] = new LazyBlock(filteredPositionCount, () -> block.getPositions(positions, 0, filteredPositionCount));
+            }
+        }
+        return new Page(filteredPositionCount, blocks);
+    }
+
     private void blockLoaded(int columnIndex, Block block)
     {
         if (block.getPositionCount() <= 0) {
@@ -506,6 +590,12 @@ public class OrcRecordReader
         StripeInformation stripeInformation = stripes.get(currentStripe);
         validateWriteStripe(stripeInformation.getNumberOfRows());
 
+        if (prefetchingDataSource.isPresent()) {
+            prefetchingDataSource.get().prefetch(
+                    stripes.subList(currentStripe, stripes.size()),
+                    (stripe, dataSource) -> stripeReader.getStripeDiskRanges(stripe, dataSource, createOrcDecompressor(dataSource.getId(), compressionKind, bufferSize)));
+        }
+
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
         if (stripe != null) {
             // Give readers access to dictionary streams
@@ -547,6 +637,30 @@ public class OrcRecordReader
         }
     }
 
+    private static List<ColumnDomainFilter> createFilters(
+            List<OrcColumn> readColumns,
+            List<Type> readTypes,
+            OrcPredicate predicate,
+            OrcReaderOptions options,
+            Optional<OrcWriteValidation> writeValidation)
+    {
+        List<ColumnDomainFilter> filters = new ArrayList<>();
+        // write validation requires all rows to be read
+        if (!options.isSelectiveReadingEnabled() || writeValidation.isPresent() || !(predicate instanceof TupleDomainOrcPredicate)) {
+            return filters;
+        }
+
+        Map<OrcColumnId, Domain> domains = ((TupleDomainOrcPredicate) predicate).getColumnDomains();
+        for (int columnIndex = 0; columnIndex < readColumns.size(); columnIndex++) {
+            Domain domain = domains.get(readColumns.get(columnIndex).getColumnId());
+            Type readType = readTypes.get(columnIndex);
+            if (domain != null && !domain.isAll() && domain.getType().equals(readType) && ColumnDomainFilter.isSupportedType(readType)) {
+                filters.add(new ColumnDomainFilter(columnIndex, readType, domain));
+            }
+        }
+        return filters;
+    }
+
     private static ColumnReader[] createColumnReaders(
             List<OrcColumn> columns,
             List<Type> readTypes,
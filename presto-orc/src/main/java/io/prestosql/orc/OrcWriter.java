@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.UnsignedBytes;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.prestosql.orc.OrcWriteValidation.OrcWriteValidationBuilder;
 import io.prestosql.orc.OrcWriteValidation.OrcWriteValidationMode;
@@ -51,23 +52,33 @@ import javax.annotation.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.prestosql.orc.OrcReader.validateFile;
 import static io.prestosql.orc.OrcWriterStats.FlushReason.CLOSED;
@@ -82,6 +93,8 @@ import static io.prestosql.orc.writer.ColumnWriters.createColumnWriter;
 import static java.lang.Integer.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 
 public final class OrcWriter
@@ -108,6 +121,9 @@ public final class OrcWriter
     private final int maxCompressionBufferSize;
     private final Map<String, String> userMetadata;
     private final CompressedMetadataWriter metadataWriter;
+    private final Executor executor;
+    private final boolean parallel;
+    private final long maxPendingFlushBytes;
 
     private final List<ClosedStripe> closedStripes = new ArrayList<>();
     private final ColumnMetadata<OrcType> orcTypes;
@@ -122,6 +138,11 @@ public final class OrcWriter
     private long previouslyRecordedSizeInBytes;
     private boolean closed;
 
+    private long flushedBytes;
+    private final Deque<PendingFlush> pendingFlushes = new ArrayDeque<>();
+    private CompletableFuture<?> lastFlush = completedFuture(null);
+    private long pendingFlushBytes;
+
     private long fileRowCount;
     private Optional<ColumnMetadata<ColumnStatistics>> fileStats;
     private long fileStatsRetainedBytes;
@@ -141,6 +162,28 @@ public final class OrcWriter
             boolean validate,
             OrcWriteValidationMode validationMode,
             OrcWriterStats stats)
+    {
+        this(orcDataSink, columnNames, types, orcTypes, compression, options, writeLegacyVersion, userMetadata, validate, validationMode, stats, directExecutor());
+    }
+
+    /**
+     * Creates a writer that encodes the columns of each page in parallel, and writes the stripes
+     * to the data sink asynchronously using the specified executor. The executor should be bounded,
+     * since it is shared by all writers.
+     */
+    public OrcWriter(
+            OrcDataSink orcDataSink,
+            List<String> columnNames,
+            List<Type> types,
+            ColumnMetadata<OrcType> orcTypes,
+            CompressionKind compression,
+            OrcWriterOptions options,
+            boolean writeLegacyVersion,
+            Map<String, String> userMetadata,
+            boolean validate,
+            OrcWriteValidationMode validationMode,
+            OrcWriterStats stats,
+            Executor executor)
     {
         this.validationBuilder = validate ? new OrcWriteValidationBuilder(validationMode, types)
                 .setStringStatisticsLimitInBytes(toIntExact(options.getMaxStringStatisticsLimit().toBytes())) : null;
@@ -167,6 +210,10 @@ public final class OrcWriter
                 .build();
         this.metadataWriter = new CompressedMetadataWriter(new OrcMetadataWriter(writeLegacyVersion), compression, maxCompressionBufferSize);
         this.stats = requireNonNull(stats, "stats is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.parallel = executor != directExecutor();
+        this.maxPendingFlushBytes = options.getMaxPendingFlushSize().toBytes();
+        this.flushedBytes = orcDataSink.size();
 
         requireNonNull(columnNames, "columnNames is null");
         this.orcTypes = requireNonNull(orcTypes, "orcTypes is null");
@@ -218,11 +265,11 @@ public final class OrcWriter
     }
 
     /**
-     * Number of bytes already flushed to the data sink.
+     * Number of bytes already flushed to the data sink, including stripes that are being written asynchronously.
      */
     public long getWrittenBytes()
     {
-        return orcDataSink.size();
+        return flushedBytes;
     }
 
     /**
@@ -238,6 +285,7 @@ public final class OrcWriter
         return INSTANCE_SIZE +
                 columnWritersRetainedBytes +
                 closedStripesRetainedBytes +
+                pendingFlushBytes +
                 orcDataSink.getRetainedSizeInBytes() +
                 (validationBuilder == null ? 0 : validationBuilder.getRetainedSize()) +
                 fileStatsRetainedBytes;
@@ -292,10 +340,9 @@ public final class OrcWriter
         }
 
         // write chunks
+        runForEachColumnWriter(channel -> columnWriters.get(channel).writeBlock(chunk.getBlock(channel)));
         bufferedBytes = 0;
-        for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
-            ColumnWriter writer = columnWriters.get(channel);
-            writer.writeBlock(chunk.getBlock(channel));
+        for (ColumnWriter writer : columnWriters) {
             bufferedBytes += writer.getBufferedBytes();
         }
 
@@ -335,11 +382,67 @@ public final class OrcWriter
         rowGroupRowCount = 0;
     }
 
+    /**
+     * Runs the task for the index of each column writer, in parallel when an executor is used.
+     * The column writers are independent of each other, so they can be used from different threads.
+     */
+    private void runForEachColumnWriter(IntConsumer task)
+    {
+        if (!parallel || columnWriters.size() < 2) {
+            for (int channel = 0; channel < columnWriters.size(); channel++) {
+                task.accept(channel);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicLong taskNanos = new AtomicLong();
+        List<CompletableFuture<?>> futures = new ArrayList<>(columnWriters.size() - 1);
+        for (int channel = 1; channel < columnWriters.size(); channel++) {
+            int writerIndex = channel;
+            futures.add(runAsync(() -> {
+                long taskStart = System.nanoTime();
+                task.accept(writerIndex);
+                taskNanos.addAndGet(System.nanoTime() - taskStart);
+            }, executor));
+        }
+        // the first column writer is used by the calling thread
+        Throwable failure = null;
+        long taskStart = System.nanoTime();
+        try {
+            task.accept(0);
+        }
+        catch (RuntimeException e) {
+            failure = e;
+        }
+        taskNanos.addAndGet(System.nanoTime() - taskStart);
+
+        // wait for all tasks, so that no column writer is in use when this method returns
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            }
+            catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+                else if (failure != e.getCause()) {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+        stats.recordEncoding(System.nanoTime() - start, taskNanos.get());
+    }
+
     private void flushStripe(FlushReason flushReason)
             throws IOException
     {
         List<OrcDataOutput> outputData = new ArrayList<>();
-        long stripeStartOffset = orcDataSink.size();
+        long stripeStartOffset = flushedBytes;
         // add header to first stripe (this is not required but nice to have)
         if (closedStripes.isEmpty()) {
             outputData.add(createDataOutput(MAGIC));
@@ -353,7 +456,18 @@ public final class OrcWriter
         }
 
         // write all data
-        orcDataSink.write(outputData);
+        long outputSize = outputData.stream()
+                .mapToLong(OrcDataOutput::size)
+                .sum();
+        flushedBytes += outputSize;
+        if (parallel && maxPendingFlushBytes > 0 && flushReason != CLOSED) {
+            // the output refers to the buffers of the column writers, which are reset below
+            writeAsync(copyOutputData(outputData, outputSize), outputSize);
+        }
+        else {
+            waitForPendingFlushes(0);
+            orcDataSink.write(outputData);
+        }
 
         // open next stripe
         columnWriters.forEach(ColumnWriter::reset);
@@ -384,7 +498,7 @@ public final class OrcWriter
         // convert any dictionary encoded column with a low compression ratio to direct
         dictionaryCompressionOptimizer.finalOptimize(bufferedBytes);
 
-        columnWriters.forEach(ColumnWriter::close);
+        runForEachColumnWriter(channel -> columnWriters.get(channel).close());
 
         List<OrcDataOutput> outputData = new ArrayList<>();
         List<Stream> allStreams = new ArrayList<>(columnWriters.size() * 3);
@@ -463,11 +577,70 @@ public final class OrcWriter
         stats.updateSizeInBytes(-previouslyRecordedSizeInBytes);
         previouslyRecordedSizeInBytes = 0;
 
-        try (Closeable ignored = orcDataSink) {
+        // pending writes must finish before the data sink is closed, even if the last stripe cannot be flushed
+        try (Closeable ignored = orcDataSink; Closeable ignoredFlushes = () -> waitForPendingFlushes(0)) {
             flushStripe(CLOSED);
         }
     }
 
+    private void writeAsync(List<OrcDataOutput> outputData, long outputSize)
+            throws IOException
+    {
+        CompletableFuture<?> flush = lastFlush.thenRunAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                orcDataSink.write(outputData);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            stats.recordFlushWrite(System.nanoTime() - start);
+        }, executor);
+        lastFlush = flush;
+        pendingFlushes.add(new PendingFlush(flush, outputSize));
+        pendingFlushBytes += outputSize;
+
+        waitForPendingFlushes(maxPendingFlushBytes);
+    }
+
+    /**
+     * Waits for the oldest pending writes until at most {@code maxBytes} are pending.
+     */
+    private void waitForPendingFlushes(long maxBytes)
+            throws IOException
+    {
+        if (pendingFlushes.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        while (!pendingFlushes.isEmpty() && (pendingFlushBytes > maxBytes || pendingFlushes.peek().getFuture().isDone())) {
+            PendingFlush flush = pendingFlushes.poll();
+            pendingFlushBytes -= flush.getSize();
+            try {
+                flush.getFuture().join();
+            }
+            catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+                throwIfUnchecked(cause);
+                throw new IOException(cause);
+            }
+        }
+        stats.recordFlushWait(System.nanoTime() - start);
+    }
+
+    private static List<OrcDataOutput> copyOutputData(List<OrcDataOutput> outputData, long outputSize)
+    {
+        Slice slice = Slices.allocate(toIntExact(outputSize));
+        SliceOutput output = slice.getOutput();
+        for (OrcDataOutput data : outputData) {
+            data.writeData(output);
+        }
+        return ImmutableList.of(createDataOutput(slice));
+    }
+
     /**
      * Collect the data for for the file footer.  This is not the actual data, but
      * instead are functions that know how to write the data.
@@ -581,6 +754,28 @@ public final class OrcWriter
         return Optional.of(new ColumnMetadata<>(fileStats.build()));
     }
 
+    private static class PendingFlush
+    {
+        private final CompletableFuture<?> future;
+        private final long size;
+
+        public PendingFlush(CompletableFuture<?> future, long size)
+        {
+            this.future = requireNonNull(future, "future is null");
+            this.size = size;
+        }
+
+        public CompletableFuture<?> getFuture()
+        {
+            return future;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+    }
+
     private static class ClosedStripe
     {
         private static final int INSTANCE_SIZE = ClassLayout.parseClass(ClosedStripe.class).instanceSize() + ClassLayout.parseClass(StripeInformation.class).instanceSize();
@@ -37,6 +37,10 @@ public class OrcWriterStats
     private final OrcWriterFlushStats dictionaryFullFlush = new OrcWriterFlushStats(DICTIONARY_FULL.name());
     private final OrcWriterFlushStats closedFlush = new OrcWriterFlushStats(CLOSED.name());
     private final AtomicLong writerSizeInBytes = new AtomicLong();
+    private final AtomicLong encodingWallNanos = new AtomicLong();
+    private final AtomicLong encodingTaskNanos = new AtomicLong();
+    private final AtomicLong flushWriteNanos = new AtomicLong();
+    private final AtomicLong flushWaitNanos = new AtomicLong();
 
     public void recordStripeWritten(FlushReason flushReason, long stripeBytes, int stripeRows, int dictionaryBytes)
     {
@@ -49,6 +53,22 @@ public class OrcWriterStats
         writerSizeInBytes.addAndGet(deltaInBytes);
     }
 
+    public void recordEncoding(long wallNanos, long taskNanos)
+    {
+        encodingWallNanos.addAndGet(wallNanos);
+        encodingTaskNanos.addAndGet(taskNanos);
+    }
+
+    public void recordFlushWrite(long nanos)
+    {
+        flushWriteNanos.addAndGet(nanos);
+    }
+
+    public void recordFlushWait(long nanos)
+    {
+        flushWaitNanos.addAndGet(nanos);
+    }
+
     @Managed
     @Nested
     public OrcWriterFlushStats getAllFlush()
@@ -90,6 +110,56 @@ public class OrcWriterStats
         return writerSizeInBytes.get();
     }
 
+    @Managed
+    public long getEncodingWallNanos()
+    {
+        return encodingWallNanos.get();
+    }
+
+    @Managed
+    public long getEncodingTaskNanos()
+    {
+        return encodingTaskNanos.get();
+    }
+
+    /**
+     * Average number of column writers that were encoding at the same time, when the columns were encoded in parallel.
+     */
+    @Managed
+    public double getEncodingParallelism()
+    {
+        long wallNanos = encodingWallNanos.get();
+        if (wallNanos == 0) {
+            return 0;
+        }
+        return (double) encodingTaskNanos.get() / wallNanos;
+    }
+
+    @Managed
+    public long getFlushWriteNanos()
+    {
+        return flushWriteNanos.get();
+    }
+
+    @Managed
+    public long getFlushWaitNanos()
+    {
+        return flushWaitNanos.get();
+    }
+
+    /**
+     * Fraction of the time spent writing stripes asynchronously that overlapped with encoding.
+     */
+    @Managed
+    public double getFlushOverlap()
+    {
+        long writeNanos = flushWriteNanos.get();
+        if (writeNanos == 0) {
+            return 0;
+        }
+        return Math.max(0, 1 - (double) flushWaitNanos.get() / writeNanos);
+    }
+
     private OrcWriterFlushStats getFlushStats(FlushReason flushReason)
     {
         switch (flushReason) {
@@ -116,6 +186,8 @@ public class OrcWriterStats
                 .add("dictionaryFullFlush", dictionaryFullFlush)
                 .add("closedFlush", closedFlush)
                 .add("writerSizeInBytes", writerSizeInBytes.get())
+                .add("encodingParallelism", getEncodingParallelism())
+                .add("flushOverlap", getFlushOverlap())
                 .toString();
     }
 }
@@ -0,0 +1,348 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.orc.stream.MemoryOrcDataReader;
+import io.prestosql.orc.stream.OrcDataReader;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.prestosql.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Reads the stripes after the one being decoded in the background, so the decoding of a stripe
+ * overlaps the reads of the next ones. The {@link OrcRecordReader} announces the stripes it is
+ * about to read, and reads that are fully contained in a prefetched range are served from memory.
+ */
+public class PrefetchingOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Executor executor;
+    private final int maxPrefetchStripes;
+    private final long maxPrefetchBytes;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
+
+    // ordered by stripe offset
+    @GuardedBy("this")
+    private final List<PrefetchedStripe> prefetchedStripes = new ArrayList<>();
+    @GuardedBy("this")
+    private long currentStripeOffset = -1;
+
+    public PrefetchingOrcDataSource(OrcDataSource dataSource, OrcReaderOptions options, Executor executor)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        requireNonNull(options, "options is null");
+        this.maxPrefetchStripes = options.getStripePrefetchCount();
+        this.maxPrefetchBytes = options.getMaxStripePrefetchSize().toBytes();
+        this.maxMergeDistance = options.getMaxMergeDistance();
+        this.maxBufferSize = options.getMaxBufferSize();
+    }
+
+    /**
+     * Discards the data of the stripes before the first of the specified stripes, which is the
+     * stripe being read, and starts reading the stripes after it in the background, until the
+     * stripe count or size limit is reached.
+     */
+    public synchronized void prefetch(List<StripeInformation> stripes, StripeDiskRangesProvider diskRangesProvider)
+    {
+        requireNonNull(diskRangesProvider, "diskRangesProvider is null");
+        if (stripes.isEmpty()) {
+            return;
+        }
+        currentStripeOffset = stripes.get(0).getOffset();
+        prefetchedStripes.removeIf(prefetchedStripe -> {
+            if (prefetchedStripe.getOffset() < currentStripeOffset) {
+                prefetchedStripe.cancel();
+                return true;
+            }
+            return false;
+        });
+
+        int prefetchedCount = 0;
+        long prefetchedBytes = 0;
+        for (PrefetchedStripe prefetchedStripe : prefetchedStripes) {
+            if (prefetchedStripe.getOffset() > currentStripeOffset) {
+                prefetchedCount++;
+                prefetchedBytes += prefetchedStripe.getLength();
+            }
+        }
+
+        for (StripeInformation stripe : stripes.subList(1, stripes.size())) {
+            if (isPrefetched(stripe)) {
+                continue;
+            }
+            if (prefetchedCount >= maxPrefetchStripes || prefetchedBytes + stripe.getTotalLength() > maxPrefetchBytes) {
+                break;
+            }
+            CompletableFuture<List<PrefetchedRange>> ranges = supplyAsync(() -> readStripe(stripe, diskRangesProvider), executor);
+            prefetchedStripes.add(new PrefetchedStripe(stripe, ranges));
+            prefetchedCount++;
+            prefetchedBytes += stripe.getTotalLength();
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean isPrefetched(StripeInformation stripe)
+    {
+        for (PrefetchedStripe prefetchedStripe : prefetchedStripes) {
+            if (prefetchedStripe.getOffset() == stripe.getOffset()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<PrefetchedRange> readStripe(StripeInformation stripe, StripeDiskRangesProvider diskRangesProvider)
+    {
+        try {
+            List<DiskRange> diskRanges = diskRangesProvider.getDiskRanges(stripe, dataSource);
+            ImmutableList.Builder<PrefetchedRange> ranges = ImmutableList.builder();
+            for (DiskRange diskRange : mergeAdjacentDiskRanges(diskRanges, maxMergeDistance, maxBufferSize)) {
+                ranges.add(new PrefetchedRange(diskRange, dataSource.readFully(diskRange.getOffset(), diskRange.getLength())));
+            }
+            return ranges.build();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Slice getPrefetched(DiskRange diskRange)
+    {
+        PrefetchedStripe stripe = null;
+        synchronized (this) {
+            for (PrefetchedStripe prefetchedStripe : prefetchedStripes) {
+                if (prefetchedStripe.contains(diskRange)) {
+                    stripe = prefetchedStripe;
+                    break;
+                }
+            }
+        }
+        if (stripe == null) {
+            return null;
+        }
+
+        for (PrefetchedRange range : stripe.getRanges()) {
+            if (range.getDiskRange().contains(diskRange)) {
+                int offset = toIntExact(diskRange.getOffset() - range.getDiskRange().getOffset());
+                return range.getData().slice(offset, diskRange.getLength());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return dataSource.getReadBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return dataSource.getReadTimeNanos();
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return dataSource.getEstimatedSize();
+    }
+
+    @Override
+    public synchronized long getRetainedSize()
+    {
+        // The data of the current stripe is reported by the OrcDataReaders, so only
+        // the stripes after it are included, whether or not they are loaded yet.
+        long retainedSize = dataSource.getRetainedSize();
+        for (PrefetchedStripe prefetchedStripe : prefetchedStripes) {
+            if (prefetchedStripe.getOffset() > currentStripeOffset) {
+                retainedSize += prefetchedStripe.getLength();
+            }
+        }
+        return retainedSize;
+    }
+
+    @Override
+    public Slice readTail(int length)
+            throws IOException
+    {
+        return dataSource.readTail(length);
+    }
+
+    @Override
+    public Slice readFully(long position, int length)
+            throws IOException
+    {
+        Slice prefetched = getPrefetched(new DiskRange(position, length));
+        if (prefetched != null) {
+            return prefetched;
+        }
+        return dataSource.readFully(position, length);
+    }
+
+    @Override
+    public <K> Map<K, OrcDataReader> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<K, OrcDataReader> readers = ImmutableMap.builder();
+        Map<K, DiskRange> remainingRanges = new LinkedHashMap<>();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            Slice prefetched = getPrefetched(entry.getValue());
+            if (prefetched != null) {
+                readers.put(entry.getKey(), new MemoryOrcDataReader(getId(), prefetched, prefetched.length()));
+            }
+            else {
+                remainingRanges.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!remainingRanges.isEmpty()) {
+            readers.putAll(dataSource.readFully(remainingRanges));
+        }
+        return readers.build();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        synchronized (this) {
+            prefetchedStripes.forEach(PrefetchedStripe::cancel);
+            prefetchedStripes.clear();
+        }
+        dataSource.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+
+    public interface StripeDiskRangesProvider
+    {
+        /**
+         * Returns the file regions that are read for the stripe. This is called by the executor threads,
+         * and any metadata must be read from the specified data source, since the stripe is not loaded yet.
+         */
+        List<DiskRange> getDiskRanges(StripeInformation stripe, OrcDataSource dataSource)
+                throws IOException;
+    }
+
+    private static class PrefetchedStripe
+    {
+        private final long offset;
+        private final long length;
+        private final CompletableFuture<List<PrefetchedRange>> ranges;
+
+        public PrefetchedStripe(StripeInformation stripe, CompletableFuture<List<PrefetchedRange>> ranges)
+        {
+            this.offset = stripe.getOffset();
+            this.length = stripe.getTotalLength();
+            this.ranges = requireNonNull(ranges, "ranges is null");
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+
+        public boolean contains(DiskRange diskRange)
+        {
+            return offset <= diskRange.getOffset() && diskRange.getEnd() <= offset + length;
+        }
+
+        public List<PrefetchedRange> getRanges()
+        {
+            try {
+                return ranges.join();
+            }
+            catch (CancellationException | CompletionException e) {
+                // the stripe is read again by the caller, which reports the failure if it persists
+                return ImmutableList.of();
+            }
+        }
+
+        public void cancel()
+        {
+            ranges.cancel(false);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("offset", offset)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+
+    private static class PrefetchedRange
+    {
+        private final DiskRange diskRange;
+        private final Slice data;
+
+        public PrefetchedRange(DiskRange diskRange, Slice data)
+        {
+            this.diskRange = requireNonNull(diskRange, "diskRange is null");
+            this.data = requireNonNull(data, "data is null");
+        }
+
+        public DiskRange getDiskRange()
+        {
+            return diskRange;
+        }
+
+        public Slice getData()
+        {
+            return data;
+        }
+    }
+}
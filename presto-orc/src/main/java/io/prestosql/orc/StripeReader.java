@@ -62,6 +62,7 @@ import java.util.Set;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.orc.checkpoint.Checkpoints.getDictionaryStreamCheckpoint;
 import static io.prestosql.orc.checkpoint.Checkpoints.getStreamCheckpoints;
 import static io.prestosql.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY;
@@ -234,6 +235,29 @@ public class StripeReader
         return new Stripe(stripe.getNumberOfRows(), fileTimeZone, columnEncodings, ImmutableList.of(rowGroup), dictionaryStreamSources);
     }
 
+    /**
+     * Returns the file regions of the stripe that are read by {@link #readStripe}, including the stripe
+     * footer. This may be called concurrently with the other methods, so the stripe footer is read from
+     * the specified data source, and decompressed with the specified decompressor.
+     */
+    public List<DiskRange> getStripeDiskRanges(StripeInformation stripe, OrcDataSource orcDataSource, Optional<OrcDecompressor> decompressor)
+            throws IOException
+    {
+        StripeFooter stripeFooter = readStripeFooter(stripe, orcDataSource, decompressor, newSimpleAggregatedMemoryContext());
+        Map<StreamId, DiskRange> streamDiskRanges = getDiskRanges(stripeFooter.getStreams());
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Stream stream : stripeFooter.getStreams()) {
+            // zero byte streams have no disk range
+            DiskRange diskRange = streamDiskRanges.get(new StreamId(stream));
+            if (diskRange != null && includedOrcColumnIds.contains(stream.getColumnId()) && isSupportedStreamType(stream, types.get(stream.getColumnId()).getOrcTypeKind())) {
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        diskRanges.add(new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength())));
+        return diskRanges.build();
+    }
+
     private static boolean isSupportedStreamType(Stream stream, OrcTypeKind orcTypeKind)
     {
         if (stream.getStreamKind() == BLOOM_FILTER) {
@@ -383,6 +407,12 @@ public class StripeReader
 
     private StripeFooter readStripeFooter(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
             throws IOException
+    {
+        return readStripeFooter(stripe, orcDataSource, decompressor, systemMemoryUsage);
+    }
+
+    private StripeFooter readStripeFooter(StripeInformation stripe, OrcDataSource orcDataSource, Optional<OrcDecompressor> decompressor, AggregatedMemoryContext systemMemoryUsage)
+            throws IOException
     {
         long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
         int tailLength = toIntExact(stripe.getFooterLength());
@@ -38,7 +38,9 @@ import io.prestosql.spi.type.VarcharType;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -88,6 +90,19 @@ public class TupleDomainOrcPredicate
         this.orcBloomFiltersEnabled = orcBloomFiltersEnabled;
     }
 
+    /**
+     * Returns the domain of each column of the predicate. A column with several domains is
+     * constrained by the intersection of them.
+     */
+    Map<OrcColumnId, Domain> getColumnDomains()
+    {
+        Map<OrcColumnId, Domain> domains = new HashMap<>();
+        for (ColumnDomain column : columnDomains) {
+            domains.merge(column.getColumnId(), column.getDomain(), Domain::intersect);
+        }
+        return domains;
+    }
+
     @Override
     public boolean matches(long numberOfRows, ColumnMetadata<ColumnStatistics> allColumnStatistics)
     {
@@ -19,8 +19,11 @@ import io.prestosql.orc.checkpoint.LongStreamV2Checkpoint;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
+import static java.lang.Math.addExact;
 import static java.lang.Math.min;
+import static java.lang.Math.multiplyExact;
 
 /**
  * @see {@link org.apache.orc.impl.RunLengthIntegerWriterV2} for description of various lightweight compression techniques.
@@ -31,6 +34,7 @@ public class LongInputStreamV2
 {
     private static final int MIN_REPEAT_SIZE = 3;
     private static final int MAX_LITERAL_SIZE = 512;
+    private static final int MAX_PATCH_LIST_SIZE = 31;
 
     private enum EncodingType
     {
@@ -41,8 +45,13 @@ public class LongInputStreamV2
     private final OrcInputStream input;
     private final boolean signed;
     private final long[] literals = new long[MAX_LITERAL_SIZE];
+    private final long[] unpackedPatches = new long[MAX_PATCH_LIST_SIZE];
     private int numLiterals;
     private int used;
+    // when set, the current run is the arithmetic sequence runBase + i * runDelta, and the literals are not used
+    private boolean arithmeticRun;
+    private long runBase;
+    private long runDelta;
     private final boolean skipCorrupt;
     private long lastReadInputCheckpoint;
 
@@ -54,11 +63,25 @@ public class LongInputStreamV2
         lastReadInputCheckpoint = input.getCheckpoint();
     }
 
-    // This comes from the Apache Hive ORC code
     private void readValues()
             throws IOException
+    {
+        readValues(null, 0, 0);
+    }
+
+    /**
+     * Reads the next run. Direct and delta runs of at most {@code maxLength} values are decoded
+     * into the destination, when one is specified, and the number of decoded values is returned.
+     * Otherwise the run is buffered and zero is returned.
+     */
+    // This comes from the Apache Hive ORC code
+    private int readValues(long[] destination, int offset, int maxLength)
+            throws IOException
     {
         lastReadInputCheckpoint = input.getCheckpoint();
+        numLiterals = 0;
+        used = 0;
+        arithmeticRun = false;
 
         // read the first 2 bits and determine the encoding type
         int firstByte = input.read();
@@ -66,23 +89,30 @@ public class LongInputStreamV2
             throw new OrcCorruptionException(input.getOrcDataSourceId(), "Read past end of RLE integer");
         }
 
+        int decoded = 0;
         int enc = (firstByte >>> 6) & 0x03;
         if (EncodingType.SHORT_REPEAT.ordinal() == enc) {
             readShortRepeatValues(firstByte);
         }
         else if (EncodingType.DIRECT.ordinal() == enc) {
-            readDirectValues(firstByte);
+            decoded = readDirectValues(firstByte, destination, offset, maxLength);
         }
         else if (EncodingType.PATCHED_BASE.ordinal() == enc) {
             readPatchedBaseValues(firstByte);
         }
         else {
-            readDeltaValues(firstByte);
+            decoded = readDeltaValues(firstByte, destination, offset, maxLength);
         }
+
+        if (decoded > 0) {
+            // nothing is buffered, so a checkpoint at the start of the run must read it again
+            lastReadInputCheckpoint = input.getCheckpoint();
+        }
+        return decoded;
     }
 
     // This comes from the Apache Hive ORC code
-    private void readDeltaValues(int firstByte)
+    private int readDeltaValues(int firstByte, long[] destination, int offset, int maxLength)
             throws IOException
     {
         // extract the number of fixed bits
@@ -98,44 +128,58 @@ public class LongInputStreamV2
         // read the first value stored as vint
         long firstVal = LongDecode.readVInt(signed, input);
 
-        // store first value to result buffer
-        literals[numLiterals++] = firstVal;
-
         // if fixed bits is 0 then all values have fixed delta
-        long prevVal;
         if (fixedBits == 0) {
             // read the fixed delta value stored as vint (deltas can be negative even
             // if all number are positive)
             long fixedDelta = LongDecode.readSignedVInt(input);
 
-            // add fixed deltas to adjacent values
-            for (int i = 0; i < length; i++) {
-                literals[numLiterals++] = literals[numLiterals - 2] + fixedDelta;
+            // the values are generated when they are read
+            arithmeticRun = true;
+            runBase = firstVal;
+            runDelta = fixedDelta;
+            numLiterals = length + 1;
+            return 0;
+        }
+
+        // the first value, the value after it, and the remaining values encoded as deltas
+        long[] values = literals;
+        int start = 0;
+        if (destination != null && length + 1 <= maxLength) {
+            values = destination;
+            start = offset;
+        }
+
+        long deltaBase = LongDecode.readSignedVInt(input);
+        values[start] = firstVal;
+        values[start + 1] = firstVal + deltaBase;
+        length -= 1;
+
+        // write the unpacked values, add it to previous value and store final
+        // value to result buffer. if the delta base value is negative then it
+        // is a decreasing sequence else an increasing sequence
+        int position = start + 2;
+        int end = position + length;
+        packer.unpack(values, position, length, fixedBits, input);
+        long prevVal = values[position - 1];
+        if (deltaBase < 0) {
+            for (; position < end; position++) {
+                prevVal -= values[position];
+                values[position] = prevVal;
             }
         }
         else {
-            long deltaBase = LongDecode.readSignedVInt(input);
-            // add delta base and first value
-            literals[numLiterals++] = firstVal + deltaBase;
-            prevVal = literals[numLiterals - 1];
-            length -= 1;
-
-            // write the unpacked values, add it to previous value and store final
-            // value to result buffer. if the delta base value is negative then it
-            // is a decreasing sequence else an increasing sequence
-            packer.unpack(literals, numLiterals, length, fixedBits, input);
-            while (length > 0) {
-                if (deltaBase < 0) {
-                    literals[numLiterals] = prevVal - literals[numLiterals];
-                }
-                else {
-                    literals[numLiterals] = prevVal + literals[numLiterals];
-                }
-                prevVal = literals[numLiterals];
-                length--;
-                numLiterals++;
+            for (; position < end; position++) {
+                prevVal += values[position];
+                values[position] = prevVal;
             }
         }
+
+        if (values == literals) {
+            numLiterals = end;
+            return 0;
+        }
+        return end - start;
     }
 
     // This comes from the Apache Hive ORC code
@@ -179,11 +223,11 @@ public class LongInputStreamV2
         }
 
         // unpack the data blob
-        long[] unpacked = new long[length];
+        long[] unpacked = literals;
         packer.unpack(unpacked, 0, length, fb, input);
 
         // unpack the patch blob
-        long[] unpackedPatch = new long[patchListLength];
+        long[] unpackedPatch = unpackedPatches;
 
         if ((patchWidth + patchGapWidth) > 64 && !skipCorrupt) {
             throw new OrcCorruptionException(input.getOrcDataSourceId(), "Invalid RLEv2 encoded stream");
@@ -213,7 +257,7 @@ public class LongInputStreamV2
         actualGap += currentGap;
 
         // unpack data blob, patch it (if required), add base to get final result
-        for (int i = 0; i < unpacked.length; i++) {
+        for (int i = 0; i < length; i++) {
             if (i == actualGap) {
                 // extract the patch value
                 long patchedValue = unpacked[i] | (currentPatch << fb);
@@ -253,7 +297,7 @@ public class LongInputStreamV2
     }
 
     // This comes from the Apache Hive ORC code
-    private void readDirectValues(int firstByte)
+    private int readDirectValues(int firstByte, long[] destination, int offset, int maxLength)
             throws IOException
     {
         // extract the number of fixed bits
@@ -265,17 +309,26 @@ public class LongInputStreamV2
         // runs are one off
         length += 1;
 
+        long[] values = literals;
+        int start = 0;
+        if (destination != null && length <= maxLength) {
+            values = destination;
+            start = offset;
+        }
+
         // write the unpacked values and zigzag decode to result buffer
-        packer.unpack(literals, numLiterals, length, fixedBits, input);
+        packer.unpack(values, start, length, fixedBits, input);
         if (signed) {
-            for (int i = 0; i < length; i++) {
-                literals[numLiterals] = LongDecode.zigzagDecode(literals[numLiterals]);
-                numLiterals++;
+            for (int i = start; i < start + length; i++) {
+                values[i] = LongDecode.zigzagDecode(values[i]);
             }
         }
-        else {
-            numLiterals += length;
+
+        if (values == literals) {
+            numLiterals = length;
+            return 0;
         }
+        return length;
     }
 
     // This comes from the Apache Hive ORC code
@@ -299,10 +352,11 @@ public class LongInputStreamV2
             val = LongDecode.zigzagDecode(val);
         }
 
-        // repeat the value for length times
-        for (int i = 0; i < length; i++) {
-            literals[numLiterals++] = val;
-        }
+        // the value is repeated when it is read
+        arithmeticRun = true;
+        runBase = val;
+        runDelta = 0;
+        numLiterals = length;
     }
 
     /**
@@ -327,10 +381,11 @@ public class LongInputStreamV2
             throws IOException
     {
         if (used == numLiterals) {
-            numLiterals = 0;
-            used = 0;
             readValues();
         }
+        if (arithmeticRun) {
+            return runBase + runDelta * used++;
+        }
         return literals[used++];
     }
 
@@ -341,13 +396,19 @@ public class LongInputStreamV2
         int offset = 0;
         while (items > 0) {
             if (used == numLiterals) {
-                numLiterals = 0;
-                used = 0;
-                readValues();
+                int decoded = readValues(values, offset, items);
+                offset += decoded;
+                items -= decoded;
+                continue;
             }
 
             int chunkSize = min(numLiterals - used, items);
-            System.arraycopy(literals, used, values, offset, chunkSize);
+            if (arithmeticRun) {
+                fillArithmetic(values, offset, chunkSize);
+            }
+            else {
+                System.arraycopy(literals, used, values, offset, chunkSize);
+            }
             used += chunkSize;
             offset += chunkSize;
             items -= chunkSize;
@@ -361,19 +422,27 @@ public class LongInputStreamV2
         int offset = 0;
         while (items > 0) {
             if (used == numLiterals) {
-                numLiterals = 0;
-                used = 0;
                 readValues();
             }
 
             int chunkSize = min(numLiterals - used, items);
-            for (int i = 0; i < chunkSize; i++) {
-                long literal = literals[used + i];
-                int value = (int) literal;
-                if (literal != value) {
-                    throw new OrcCorruptionException(input.getOrcDataSourceId(), "Decoded value out of range for a 32bit number");
+            if (arithmeticRun && isArithmeticRangeWithin(chunkSize, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                // the values of the chunk are between the first and the last value
+                long value = runBase + runDelta * used;
+                for (int i = 0; i < chunkSize; i++) {
+                    values[offset + i] = (int) value;
+                    value += runDelta;
+                }
+            }
+            else {
+                for (int i = 0; i < chunkSize; i++) {
+                    long literal = getLiteral(used + i);
+                    int value = (int) literal;
+                    if (literal != value) {
+                        throw new OrcCorruptionException(input.getOrcDataSourceId(), "Decoded value out of range for a 32bit number");
+                    }
+                    values[offset + i] = value;
                 }
-                values[offset + i] = value;
             }
             used += chunkSize;
             offset += chunkSize;
@@ -388,19 +457,27 @@ public class LongInputStreamV2
         int offset = 0;
         while (items > 0) {
             if (used == numLiterals) {
-                numLiterals = 0;
-                used = 0;
                 readValues();
             }
 
             int chunkSize = min(numLiterals - used, items);
-            for (int i = 0; i < chunkSize; i++) {
-                long literal = literals[used + i];
-                short value = (short) literal;
-                if (literal != value) {
-                    throw new OrcCorruptionException(input.getOrcDataSourceId(), "Decoded value out of range for a 16bit number");
+            if (arithmeticRun && isArithmeticRangeWithin(chunkSize, Short.MIN_VALUE, Short.MAX_VALUE)) {
+                // the values of the chunk are between the first and the last value
+                long value = runBase + runDelta * used;
+                for (int i = 0; i < chunkSize; i++) {
+                    values[offset + i] = (short) value;
+                    value += runDelta;
+                }
+            }
+            else {
+                for (int i = 0; i < chunkSize; i++) {
+                    long literal = getLiteral(used + i);
+                    short value = (short) literal;
+                    if (literal != value) {
+                        throw new OrcCorruptionException(input.getOrcDataSourceId(), "Decoded value out of range for a 16bit number");
+                    }
+                    values[offset + i] = value;
                 }
-                values[offset + i] = value;
             }
             used += chunkSize;
             offset += chunkSize;
@@ -408,6 +485,43 @@ public class LongInputStreamV2
         }
     }
 
+    private long getLiteral(int index)
+    {
+        if (arithmeticRun) {
+            return runBase + runDelta * index;
+        }
+        return literals[index];
+    }
+
+    private void fillArithmetic(long[] values, int offset, int length)
+    {
+        if (runDelta == 0) {
+            Arrays.fill(values, offset, offset + length, runBase);
+            return;
+        }
+        long value = runBase + runDelta * used;
+        for (int i = offset; i < offset + length; i++) {
+            values[i] = value;
+            value += runDelta;
+        }
+    }
+
+    /**
+     * Checks whether the next {@code length} values of the arithmetic run are within the range,
+     * without overflowing, so that they do not have to be checked one by one.
+     */
+    private boolean isArithmeticRangeWithin(int length, long min, long max)
+    {
+        try {
+            long first = addExact(runBase, multiplyExact(runDelta, used));
+            long last = addExact(first, multiplyExact(runDelta, length - 1));
+            return first >= min && first <= max && last >= min && last <= max;
+        }
+        catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
     @Override
     public void seekToCheckpoint(LongStreamCheckpoint checkpoint)
             throws IOException
@@ -423,6 +537,7 @@ public class LongInputStreamV2
             input.seekToCheckpoint(v2Checkpoint.getInputStreamCheckpoint());
             numLiterals = 0;
             used = 0;
+            arithmeticRun = false;
             skip(v2Checkpoint.getOffset());
         }
     }
@@ -433,8 +548,6 @@ public class LongInputStreamV2
     {
         while (items > 0) {
             if (used == numLiterals) {
-                numLiterals = 0;
-                used = 0;
                 readValues();
             }
             long consume = min(items, numLiterals - used);
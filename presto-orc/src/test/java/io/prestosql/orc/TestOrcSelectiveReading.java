@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static io.prestosql.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static io.prestosql.orc.OrcTester.READER_OPTIONS;
+import static io.prestosql.orc.OrcTester.writeOrcColumnPresto;
+import static io.prestosql.orc.metadata.CompressionKind.NONE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcSelectiveReading
+{
+    private static final OrcColumnId COLUMN = new OrcColumnId(1);
+    private static final int ROW_COUNT = 30_000;
+
+    @Test
+    public void testLongRange()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), NONE, BIGINT, LongStream.range(0, ROW_COUNT).mapToObj(value -> value % 7 == 0 ? null : value).iterator(), new OrcWriterStats());
+
+            assertFilteredValues(tempFile, BIGINT, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 100L, false, 25_000L, true)), false), value -> value % 7 != 0 && value > 100 && value <= 25_000);
+            assertFilteredValues(tempFile, BIGINT, Domain.create(ValueSet.ofRanges(Range.lessThan(BIGINT, 10L)), true), value -> value % 7 == 0 || value < 10);
+            assertFilteredValues(tempFile, BIGINT, Domain.onlyNull(BIGINT), value -> value % 7 == 0);
+            assertFilteredValues(tempFile, BIGINT, Domain.singleValue(BIGINT, (long) ROW_COUNT), value -> false);
+            assertFilteredValues(tempFile, BIGINT, Domain.notNull(BIGINT), value -> value % 7 != 0);
+        }
+    }
+
+    @Test
+    public void testSlice()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), NONE, VARCHAR, LongStream.range(0, ROW_COUNT).mapToObj(String::valueOf).iterator(), new OrcWriterStats());
+
+            assertFilteredValues(tempFile, VARCHAR, Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("5"), utf8Slice("12345"), utf8Slice("29999"))), value -> value == 5 || value == 12345 || value == 29999);
+            assertFilteredValues(tempFile, VARCHAR, Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(VARCHAR, utf8Slice("9"))), false), value -> String.valueOf(value).startsWith("9"));
+        }
+    }
+
+    private static void assertFilteredValues(TempFile tempFile, Type type, Domain domain, LongPredicate expected)
+            throws Exception
+    {
+        OrcReaderOptions options = READER_OPTIONS.withSelectiveReadingEnabled(true);
+        OrcReader orcReader = OrcReader.createOrcReader(new FileOrcDataSource(tempFile.getFile(), options), options)
+                .orElseThrow(() -> new RuntimeException("File is empty"));
+        TupleDomainOrcPredicate predicate = TupleDomainOrcPredicate.builder()
+                .addColumn(COLUMN, domain)
+                .build();
+
+        List<Object> actual = new ArrayList<>();
+        try (OrcRecordReader reader = orcReader.createRecordReader(
+                orcReader.getRootColumn().getNestedColumns(),
+                ImmutableList.of(type),
+                predicate,
+                HIVE_STORAGE_TIME_ZONE,
+                newSimpleAggregatedMemoryContext(),
+                INITIAL_BATCH_SIZE,
+                RuntimeException::new)) {
+            for (Page page = reader.nextPage(); page != null; page = reader.nextPage()) {
+                assertTrue(page.getPositionCount() > 0);
+                Block block = page.getBlock(0).getLoadedBlock();
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    actual.add(type.getObjectValue(null, block, position));
+                }
+            }
+        }
+
+        List<Object> expectedValues = new ArrayList<>();
+        for (long value = 0; value < ROW_COUNT; value++) {
+            if (expected.test(value)) {
+                if (type.equals(VARCHAR)) {
+                    expectedValues.add(String.valueOf(value));
+                }
+                else {
+                    expectedValues.add(value % 7 == 0 ? null : value);
+                }
+            }
+        }
+        assertEquals(actual, expectedValues);
+    }
+}
@@ -40,7 +40,9 @@ import java.io.InputStream;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -49,9 +51,12 @@ import static io.prestosql.orc.StripeReader.isIndexStream;
 import static io.prestosql.orc.TestingOrcPredicate.ORC_ROW_GROUP_SIZE;
 import static io.prestosql.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
 import static io.prestosql.orc.metadata.CompressionKind.NONE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static java.lang.Math.toIntExact;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
 public class TestOrcWriter
@@ -136,4 +141,54 @@ public class TestOrcWriter
             }
         }
     }
+
+    @Test
+    public void testParallelWriter()
+            throws IOException
+    {
+        ExecutorService executor = newFixedThreadPool(4);
+        try (TempFile tempFile = new TempFile()) {
+            List<String> columnNames = ImmutableList.of("test1", "test2", "test3");
+            List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+            OrcWriterStats stats = new OrcWriterStats();
+
+            OrcWriter writer = new OrcWriter(
+                    new OutputStreamOrcDataSink(new FileOutputStream(tempFile.getFile())),
+                    columnNames,
+                    types,
+                    OrcType.createRootOrcType(columnNames, types),
+                    NONE,
+                    new OrcWriterOptions()
+                            .withStripeMaxRowCount(ORC_STRIPE_SIZE)
+                            .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                            .withMaxPendingFlushSize(DataSize.of(1, MEGABYTE)),
+                    false,
+                    ImmutableMap.of(),
+                    true,
+                    OrcWriteValidationMode.BOTH,
+                    stats,
+                    executor);
+
+            int rows = ORC_STRIPE_SIZE * 5 + 123;
+            BlockBuilder first = BIGINT.createBlockBuilder(null, rows);
+            BlockBuilder second = VARCHAR.createBlockBuilder(null, rows);
+            BlockBuilder third = BIGINT.createBlockBuilder(null, rows);
+            for (int i = 0; i < rows; i++) {
+                BIGINT.writeLong(first, i);
+                VARCHAR.writeSlice(second, Slices.utf8Slice("value " + (i % 1000)));
+                BIGINT.writeLong(third, i * 31L);
+            }
+            writer.write(new Page(first.build(), second.build(), third.build()));
+            writer.close();
+
+            writer.validate(new FileOrcDataSource(tempFile.getFile(), READER_OPTIONS));
+            assertEquals(writer.getFileRowCount(), rows);
+            assertEquals(writer.getWrittenBytes(), tempFile.getFile().length());
+            assertEquals(stats.getAllFlush().getStripeRows().getAllTime().getCount(), 6.0);
+            assertGreaterThan(stats.getEncodingTaskNanos(), 0L);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static io.prestosql.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static io.prestosql.orc.OrcTester.READER_OPTIONS;
+import static io.prestosql.orc.metadata.CompressionKind.ZLIB;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+
+public class TestPrefetchingOrcDataSource
+{
+    private static final int STRIPE_ROW_COUNT = 10_000;
+    private static final int ROW_COUNT = STRIPE_ROW_COUNT * 6 + 123;
+
+    private ExecutorService executor;
+    private TempFile tempFile;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        executor = newFixedThreadPool(4);
+        tempFile = new TempFile();
+
+        List<String> columnNames = ImmutableList.of("a", "b", "c");
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamOrcDataSink(new FileOutputStream(tempFile.getFile())),
+                columnNames,
+                types,
+                OrcType.createRootOrcType(columnNames, types),
+                ZLIB,
+                new OrcWriterOptions().withStripeMaxRowCount(STRIPE_ROW_COUNT),
+                false,
+                ImmutableMap.of(),
+                true,
+                OrcWriteValidation.OrcWriteValidationMode.BOTH,
+                new OrcWriterStats());
+
+        BlockBuilder first = BIGINT.createBlockBuilder(null, ROW_COUNT);
+        BlockBuilder second = VARCHAR.createBlockBuilder(null, ROW_COUNT);
+        BlockBuilder third = BIGINT.createBlockBuilder(null, ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            BIGINT.writeLong(first, i);
+            VARCHAR.writeSlice(second, utf8Slice("value " + i));
+            BIGINT.writeLong(third, i * 31L);
+        }
+        writer.write(new Page(first.build(), second.build(), third.build()));
+        writer.close();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        executor.shutdownNow();
+        tempFile.close();
+    }
+
+    @Test
+    public void testRead()
+            throws IOException
+    {
+        for (int stripePrefetchCount : new int[] {0, 1, 3, 10}) {
+            OrcReaderOptions options = READER_OPTIONS
+                    .withTinyStripeThreshold(DataSize.of(0, BYTE))
+                    .withStripePrefetchCount(stripePrefetchCount);
+            assertValues(new PrefetchingOrcDataSource(new FileOrcDataSource(tempFile.getFile(), options), options, executor), options);
+        }
+    }
+
+    @Test
+    public void testPrefetchLimits()
+            throws IOException
+    {
+        OrcReaderOptions options = READER_OPTIONS
+                .withTinyStripeThreshold(DataSize.of(0, BYTE))
+                .withStripePrefetchCount(2)
+                .withMaxStripePrefetchSize(DataSize.of(16, MEGABYTE));
+        List<StripeInformation> stripes = getStripes(options);
+        assertEquals(getRetainedSizeAfterFirstPage(options, directExecutor()), stripes.get(1).getTotalLength() + stripes.get(2).getTotalLength());
+
+        // the next stripe does not fit
+        options = options.withMaxStripePrefetchSize(DataSize.of(stripes.get(1).getTotalLength() - 1, BYTE));
+        assertEquals(getRetainedSizeAfterFirstPage(options, directExecutor()), 0);
+    }
+
+    private List<StripeInformation> getStripes(OrcReaderOptions options)
+            throws IOException
+    {
+        OrcReader orcReader = OrcReader.createOrcReader(new FileOrcDataSource(tempFile.getFile(), options), options)
+                .orElseThrow(() -> new RuntimeException("File is empty"));
+        List<StripeInformation> stripes = orcReader.getFooter().getStripes();
+        assertEquals(stripes.size(), 7);
+        return stripes;
+    }
+
+    private long getRetainedSizeAfterFirstPage(OrcReaderOptions options, Executor executor)
+            throws IOException
+    {
+        PrefetchingOrcDataSource dataSource = new PrefetchingOrcDataSource(new FileOrcDataSource(tempFile.getFile(), options), options, executor);
+        try (OrcRecordReader reader = createRecordReader(dataSource, options)) {
+            reader.nextPage();
+            return dataSource.getRetainedSize();
+        }
+    }
+
+    private static void assertValues(OrcDataSource dataSource, OrcReaderOptions options)
+            throws IOException
+    {
+        long expected = 0;
+        try (OrcRecordReader reader = createRecordReader(dataSource, options)) {
+            for (Page page = reader.nextPage(); page != null; page = reader.nextPage()) {
+                Block first = page.getBlock(0).getLoadedBlock();
+                Block second = page.getBlock(1).getLoadedBlock();
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    assertEquals(BIGINT.getLong(first, position), expected);
+                    assertEquals(BIGINT.getLong(second, position), expected * 31);
+                    expected++;
+                }
+            }
+        }
+        assertEquals(expected, ROW_COUNT);
+    }
+
+    private static OrcRecordReader createRecordReader(OrcDataSource dataSource, OrcReaderOptions options)
+            throws IOException
+    {
+        OrcReader orcReader = OrcReader.createOrcReader(dataSource, options)
+                .orElseThrow(() -> new RuntimeException("File is empty"));
+        List<OrcColumn> columns = orcReader.getRootColumn().getNestedColumns();
+        return orcReader.createRecordReader(
+                ImmutableList.of(columns.get(0), columns.get(2)),
+                ImmutableList.of(BIGINT, BIGINT),
+                OrcPredicate.TRUE,
+                HIVE_STORAGE_TIME_ZONE,
+                newSimpleAggregatedMemoryContext(),
+                INITIAL_BATCH_SIZE,
+                RuntimeException::new);
+    }
+}
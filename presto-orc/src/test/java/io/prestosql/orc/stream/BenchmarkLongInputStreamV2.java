@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.stream;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.metadata.OrcColumnId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.orc.metadata.CompressionKind.NONE;
+import static io.prestosql.orc.metadata.Stream.StreamKind.DATA;
+import static io.prestosql.orc.stream.BenchmarkLongInputStreamV2.BenchmarkData.BATCH_SIZE;
+import static io.prestosql.orc.stream.BenchmarkLongInputStreamV2.BenchmarkData.VALUE_COUNT;
+import static org.testng.Assert.assertEquals;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@Fork(2)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkLongInputStreamV2
+{
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public Object baselineLong(BenchmarkData data)
+            throws Exception
+    {
+        TestingLongInputStreamV2 stream = new TestingLongInputStreamV2(data.createInput(), true, false);
+        for (int i = 0; i < VALUE_COUNT; i += BATCH_SIZE) {
+            stream.next(data.longs, BATCH_SIZE);
+        }
+        return data.longs;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public Object optimizedLong(BenchmarkData data)
+            throws Exception
+    {
+        LongInputStreamV2 stream = new LongInputStreamV2(data.createInput(), true, false);
+        for (int i = 0; i < VALUE_COUNT; i += BATCH_SIZE) {
+            stream.next(data.longs, BATCH_SIZE);
+        }
+        return data.longs;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public Object baselineInt(BenchmarkData data)
+            throws Exception
+    {
+        TestingLongInputStreamV2 stream = new TestingLongInputStreamV2(data.createInput(), true, false);
+        for (int i = 0; i < VALUE_COUNT; i += BATCH_SIZE) {
+            stream.next(data.ints, BATCH_SIZE);
+        }
+        return data.ints;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public Object optimizedInt(BenchmarkData data)
+            throws Exception
+    {
+        LongInputStreamV2 stream = new LongInputStreamV2(data.createInput(), true, false);
+        for (int i = 0; i < VALUE_COUNT; i += BATCH_SIZE) {
+            stream.next(data.ints, BATCH_SIZE);
+        }
+        return data.ints;
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        static final int VALUE_COUNT = 1024 * 1024;
+        static final int BATCH_SIZE = 1024;
+
+        private final long[] longs = new long[BATCH_SIZE];
+        private final int[] ints = new int[BATCH_SIZE];
+
+        @Param({"SHORT_REPEAT", "DIRECT", "PATCHED_BASE", "FIXED_DELTA", "DELTA"})
+        private String encoding;
+
+        private Slice slice;
+
+        @Setup
+        public void setup()
+        {
+            Random random = new Random(0);
+            LongOutputStreamV2 output = new LongOutputStreamV2(NONE, 256 * 1024, true, DATA);
+            for (int i = 0; i < VALUE_COUNT; i++) {
+                output.writeLong(generateValue(i, random));
+            }
+            output.close();
+
+            DynamicSliceOutput sliceOutput = new DynamicSliceOutput(VALUE_COUNT);
+            output.getStreamDataOutput(new OrcColumnId(1)).writeData(sliceOutput);
+            slice = sliceOutput.slice();
+        }
+
+        private long generateValue(int index, Random random)
+        {
+            switch (encoding) {
+                case "SHORT_REPEAT":
+                    return index / 5;
+                case "DIRECT":
+                    return random.nextInt();
+                case "PATCHED_BASE":
+                    // mostly small values with a few outliers
+                    return index % 100 == 0 ? random.nextInt() : random.nextInt(1000);
+                case "FIXED_DELTA":
+                    return index * 3L;
+                case "DELTA":
+                    return index * 1000L + random.nextInt(1000);
+            }
+            throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+        }
+
+        private OrcInputStream createInput()
+        {
+            return new OrcInputStream(OrcChunkLoader.create(new OrcDataSourceId("benchmark"), slice, Optional.empty(), newSimpleAggregatedMemoryContext()));
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        verify();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkLongInputStreamV2.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+
+    private static void verify()
+            throws IOException
+    {
+        for (String encoding : new String[] {"SHORT_REPEAT", "DIRECT", "PATCHED_BASE", "FIXED_DELTA", "DELTA"}) {
+            BenchmarkData data = new BenchmarkData();
+            data.encoding = encoding;
+            data.setup();
+            TestingLongInputStreamV2 expected = new TestingLongInputStreamV2(data.createInput(), true, false);
+            LongInputStreamV2 actual = new LongInputStreamV2(data.createInput(), true, false);
+            long[] expectedValues = new long[BATCH_SIZE];
+            for (int i = 0; i < VALUE_COUNT; i += BATCH_SIZE) {
+                expected.next(expectedValues, BATCH_SIZE);
+                actual.next(data.longs, BATCH_SIZE);
+                assertEquals(data.longs, expectedValues);
+            }
+        }
+    }
+}
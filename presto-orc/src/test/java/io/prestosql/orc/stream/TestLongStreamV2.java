@@ -13,21 +13,28 @@
  */
 package io.prestosql.orc.stream;
 
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import io.prestosql.orc.OrcCorruptionException;
 import io.prestosql.orc.OrcDecompressor;
 import io.prestosql.orc.checkpoint.LongStreamCheckpoint;
+import io.prestosql.orc.metadata.OrcColumnId;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.function.IntToLongFunction;
 
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.orc.OrcDecompressor.createOrcDecompressor;
 import static io.prestosql.orc.metadata.CompressionKind.SNAPPY;
 import static io.prestosql.orc.metadata.Stream.StreamKind.DATA;
+import static java.lang.Math.min;
+import static org.testng.Assert.assertEquals;
 
 public class TestLongStreamV2
         extends AbstractTestValueStream<Long, LongStreamCheckpoint, LongOutputStreamV2, LongInputStreamV2>
@@ -47,6 +54,93 @@ public class TestLongStreamV2
         testWriteValue(groups);
     }
 
+    @Test
+    public void testBulkReads()
+            throws IOException
+    {
+        Random random = new Random(42);
+        // short repeat, fixed delta, bit packed delta, direct and patched base runs
+        assertBulkReads(generate(10_000, index -> index / 7));
+        assertBulkReads(generate(10_000, index -> 1_000 - 3L * index));
+        assertBulkReads(generate(10_000, index -> index * 1000L + random.nextInt(1000)));
+        assertBulkReads(generate(10_000, index -> random.nextInt(Short.MAX_VALUE) - Short.MAX_VALUE / 2));
+        assertBulkReads(generate(10_000, index -> random.nextInt()));
+        assertBulkReads(generate(10_000, index -> random.nextLong()));
+        assertBulkReads(generate(10_000, index -> index % 50 == 0 ? random.nextInt() : random.nextInt(100)));
+        assertBulkReads(generate(10_000, index -> (index / 1000) % 2 == 0 ? index : random.nextInt(1000)));
+    }
+
+    private void assertBulkReads(long[] values)
+            throws IOException
+    {
+        LongOutputStreamV2 outputStream = createValueOutputStream();
+        outputStream.recordCheckpoint();
+        for (long value : values) {
+            outputStream.writeLong(value);
+        }
+        outputStream.close();
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1000);
+        outputStream.getStreamDataOutput(new OrcColumnId(33)).writeData(sliceOutput);
+        Slice slice = sliceOutput.slice();
+        LongStreamCheckpoint checkpoint = outputStream.getCheckpoints().get(0);
+
+        boolean intValues = Arrays.stream(values).allMatch(value -> value == (int) value);
+        boolean shortValues = Arrays.stream(values).allMatch(value -> value == (short) value);
+        for (int batchSize : new int[] {1, 7, 100, 511, 512, 513, 2000, values.length}) {
+            LongInputStreamV2 valueStream = createValueStream(slice);
+            TestingLongInputStreamV2 expectedStream = createBaselineValueStream(slice);
+            for (int pass = 0; pass < 2; pass++) {
+                int position = 0;
+                int batch = 0;
+                while (position < values.length) {
+                    int length = min(batchSize, values.length - position);
+                    if (batch % 5 == 3) {
+                        valueStream.skip(length);
+                        expectedStream.skip(length);
+                    }
+                    else if (batch % 5 == 4) {
+                        for (int i = 0; i < length; i++) {
+                            assertEquals(valueStream.next(), expectedStream.next());
+                        }
+                    }
+                    else if (batch % 5 == 1 && intValues) {
+                        int[] actual = new int[length];
+                        int[] expected = new int[length];
+                        valueStream.next(actual, length);
+                        expectedStream.next(expected, length);
+                        assertEquals(actual, expected);
+                    }
+                    else if (batch % 5 == 2 && shortValues) {
+                        short[] actual = new short[length];
+                        short[] expected = new short[length];
+                        valueStream.next(actual, length);
+                        expectedStream.next(expected, length);
+                        assertEquals(actual, expected);
+                    }
+                    else {
+                        long[] actual = new long[length];
+                        valueStream.next(actual, length);
+                        assertEquals(actual, Arrays.copyOfRange(values, position, position + length));
+                        expectedStream.skip(length);
+                    }
+                    position += length;
+                    batch++;
+                }
+                valueStream.seekToCheckpoint(checkpoint);
+                expectedStream.seekToCheckpoint(checkpoint);
+            }
+        }
+    }
+
+    private static long[] generate(int count, IntToLongFunction generator)
+    {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = generator.applyAsLong(i);
+        }
+        return values;
+    }
+
     @Override
     protected LongOutputStreamV2 createValueOutputStream()
     {
@@ -68,6 +162,14 @@ public class TestLongStreamV2
         return new LongInputStreamV2(input, true, false);
     }
 
+    private static TestingLongInputStreamV2 createBaselineValueStream(Slice slice)
+            throws OrcCorruptionException
+    {
+        Optional<OrcDecompressor> orcDecompressor = createOrcDecompressor(ORC_DATA_SOURCE_ID, SNAPPY, COMPRESSION_BLOCK_SIZE);
+        OrcInputStream input = new OrcInputStream(OrcChunkLoader.create(ORC_DATA_SOURCE_ID, slice, orcDecompressor, newSimpleAggregatedMemoryContext()));
+        return new TestingLongInputStreamV2(input, true, false);
+    }
+
     @Override
     protected Long readValue(LongInputStreamV2 valueStream)
             throws IOException
@@ -16,6 +16,7 @@ package io.prestosql.spi.connector;
 import io.prestosql.spi.HostAddress;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ConnectorSplit
 {
@@ -24,4 +25,16 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns a string that identifies the data read by this split, or empty if
+     * the split may return different data when it is read again. Two splits with
+     * the same identity must return the same data for the same table and columns,
+     * so the identity must include the version of the underlying data, such as
+     * the modification time of a file.
+     */
+    default Optional<String> getSplitIdentity()
+    {
+        return Optional.empty();
+    }
 }
@@ -22,6 +22,7 @@ public enum StandardWarningCode
     TOO_MANY_STAGES(0x0000_0001),
     REDUNDANT_ORDER_BY(0x0000_0002),
     DEPRECATED_FUNCTION(0x0000_0003),
+    REPEATED_WITH_QUERY(0x0000_0004),
 
     /**/;
     private final WarningCode warningCode;
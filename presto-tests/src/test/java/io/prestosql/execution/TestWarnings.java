@@ -29,8 +29,10 @@ import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.prestosql.execution.TestQueryRunnerUtil.createQueryRunner;
+import static io.prestosql.spi.connector.StandardWarningCode.REPEATED_WITH_QUERY;
 import static io.prestosql.spi.connector.StandardWarningCode.TOO_MANY_STAGES;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
 
 public class TestWarnings
@@ -71,6 +73,55 @@ public class TestWarnings
         assertWarnings(queryRunner, session, noWarningsQuery, ImmutableList.of());
     }
 
+    @Test
+    public void testRepeatedWithQuery()
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema("tiny")
+                .build();
+        assertWarnings(
+                queryRunner,
+                session,
+                "WITH t AS (SELECT regionkey, count(*) c FROM nation GROUP BY regionkey) SELECT * FROM t a JOIN t b ON a.regionkey = b.regionkey",
+                ImmutableList.of(REPEATED_WITH_QUERY.toWarningCode()));
+        assertNoWarning(
+                queryRunner,
+                session,
+                "WITH t AS (SELECT regionkey, count(*) c FROM nation GROUP BY regionkey) SELECT * FROM t",
+                REPEATED_WITH_QUERY.toWarningCode());
+        assertNoWarning(
+                queryRunner,
+                session,
+                "WITH t(x) AS (VALUES 1, 2) SELECT * FROM t a JOIN t b ON a.x = b.x",
+                REPEATED_WITH_QUERY.toWarningCode());
+        assertNoWarning(
+                queryRunner,
+                session,
+                "WITH s(x) AS (VALUES 1, 2), t AS (SELECT x + 1 y FROM s) SELECT * FROM t a JOIN t b ON a.y = b.y",
+                REPEATED_WITH_QUERY.toWarningCode());
+        assertWarnings(
+                queryRunner,
+                session,
+                "WITH s AS (SELECT regionkey FROM nation), t AS (SELECT regionkey FROM s) SELECT * FROM t a JOIN t b ON a.regionkey = b.regionkey",
+                ImmutableList.of(REPEATED_WITH_QUERY.toWarningCode()));
+
+        // the WITH query is not materialized, so the plan scans the table once for each reference
+        @Language("SQL") String explain = "EXPLAIN WITH t AS (SELECT regionkey FROM nation) SELECT * FROM t a JOIN t b ON a.regionkey = b.regionkey";
+        assertWarnings(queryRunner, session, explain, ImmutableList.of(REPEATED_WITH_QUERY.toWarningCode()));
+        String plan = (String) queryRunner.execute(session, explain).getOnlyValue();
+        assertEquals(plan.split("table = tpch:nation:", -1).length - 1, 2, plan);
+    }
+
+    private static void assertNoWarning(QueryRunner queryRunner, Session session, @Language("SQL") String sql, WarningCode unexpectedWarning)
+    {
+        boolean found = queryRunner.execute(session, sql).getWarnings().stream()
+                .anyMatch(warning -> warning.getWarningCode().getCode() == unexpectedWarning.getCode());
+        if (found) {
+            fail("Unexpected warning: " + unexpectedWarning);
+        }
+    }
+
     private static void assertWarnings(QueryRunner queryRunner, Session session, @Language("SQL") String sql, List<WarningCode> expectedWarnings)
     {
         Set<Integer> warnings = queryRunner.execute(session, sql).getWarnings().stream()
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import io.airlift.units.Duration;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.QueryRunner;
+import io.prestosql.tests.tpch.TpchQueryRunnerBuilder;
+import org.testng.annotations.Test;
+
+import static io.prestosql.SystemSessionProperties.HISTORY_BASED_STATISTICS_ENABLED;
+import static io.prestosql.testing.assertions.Assert.assertEventually;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHistoryBasedStatistics
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return TpchQueryRunnerBuilder.builder()
+                .amendSession(builder -> builder.setSystemProperty(HISTORY_BASED_STATISTICS_ENABLED, "true"))
+                .build();
+    }
+
+    @Test
+    public void testObservedRowCount()
+    {
+        // the selectivity of LIKE cannot be estimated
+        String query = "SELECT name FROM nation WHERE name LIKE 'A%'";
+        assertFalse(explain(query).contains("rows: 2 "));
+
+        assertQuery(query, "VALUES 'ALGERIA', 'ARGENTINA'");
+        assertEventually(new Duration(10, SECONDS), () -> assertTrue(explain(query).contains("rows: 2 ")));
+    }
+
+    @Test
+    public void testLimitIsNotRecorded()
+    {
+        String query = "SELECT name FROM nation WHERE name LIKE 'B%'";
+        assertQuery(query + " LIMIT 1", "VALUES 'BRAZIL'");
+        assertQuery("SELECT count(*) FROM nation WHERE name LIKE 'C%'", "VALUES 2");
+        assertFalse(explain(query).contains("rows: 1 "));
+    }
+
+    private String explain(String query)
+    {
+        return (String) computeActual("EXPLAIN " + query).getOnlyValue();
+    }
+}